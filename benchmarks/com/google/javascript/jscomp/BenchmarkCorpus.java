@@ -0,0 +1,301 @@
+/*
+ * Copyright 2016 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.javascript.jscomp.CompilerOptions.Environment;
+import com.google.javascript.jscomp.CompilerOptions.LanguageMode;
+import com.google.javascript.rhino.Node;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The code the benchmarks compile. Each benchmark has a {@code corpus}
+ * parameter naming one of:
+ * <ul>
+ * <li>{@code synthetic}: generated code of a fixed size, with the constructs
+ *     the optimizations look for: typed classes, loops, constant
+ *     expressions, local variables and property accesses.
+ * <li>{@code externs}: the externs built into the compiler.
+ * <li>{@code libraries}: the checked-in externs of some large real-world
+ *     libraries, bundled into the benchmarks jar.
+ * <li>{@code es2015}: generated ES2015 code of a fixed size, with the
+ *     constructs the transpilation passes rewrite.
+ * </ul>
+ *
+ * <p>The externs are compiled as code: they are the largest real-world
+ * JavaScript in the repository.
+ */
+final class BenchmarkCorpus {
+
+  static final String SYNTHETIC = "synthetic";
+  static final String EXTERNS = "externs";
+  static final String LIBRARIES = "libraries";
+  static final String ES2015 = "es2015";
+
+  /** The number of classes in the synthetic corpus. */
+  private static final int SYNTHETIC_CLASSES = 500;
+
+  private static final ImmutableList<String> LIBRARY_FILES = ImmutableList.of(
+      "angular-1.5.js", "jquery-1.9.js", "maps/google_maps_api_v3.js");
+
+  private BenchmarkCorpus() {}
+
+  /** Returns the source files of the given corpus. */
+  static List<SourceFile> load(String corpus) throws IOException {
+    switch (corpus) {
+      case SYNTHETIC:
+        return synthetic(SYNTHETIC_CLASSES);
+      case EXTERNS:
+        // Renamed so that they can be compiled against the externs too.
+        List<SourceFile> inputs = new ArrayList<>();
+        for (SourceFile externs
+            : AbstractCommandLineRunner.getBuiltinExterns(Environment.BROWSER)) {
+          inputs.add(asCode("corpus/" + externs.getName(), externs.getCode()));
+        }
+        return inputs;
+      case ES2015:
+        return syntheticEs2015(SYNTHETIC_CLASSES);
+      case LIBRARIES:
+        List<SourceFile> libraries = new ArrayList<>();
+        for (String file : LIBRARY_FILES) {
+          libraries.add(asCode(file, ResourceLoader.loadTextResource(
+              BenchmarkCorpus.class, "corpus/" + file)));
+        }
+        return libraries;
+      default:
+        throw new IllegalArgumentException("Unknown corpus: " + corpus);
+    }
+  }
+
+  /**
+   * Returns a source file that is compiled like code, even though it has an
+   * {@code @externs} annotation.
+   */
+  private static SourceFile asCode(String name, String code) {
+    return SourceFile.fromCode(name, code.replace("@externs", ""));
+  }
+
+  /**
+   * Returns generated code with the given number of classes, one file per
+   * ten classes.
+   */
+  static List<SourceFile> synthetic(int classes) {
+    List<SourceFile> files = new ArrayList<>();
+    StringBuilder code = new StringBuilder();
+    for (int i = 0; i < classes; i++) {
+      appendClass(code, i);
+      if (i % 10 == 9 || i == classes - 1) {
+        files.add(SourceFile.fromCode("synthetic" + files.size() + ".js",
+            code.toString()));
+        code.setLength(0);
+      }
+    }
+    return files;
+  }
+
+  private static void appendClass(StringBuilder code, int i) {
+    String name = "Shape" + i;
+    String base = i == 0 ? null : "Shape" + (i / 2);
+    code.append("/**\n")
+        .append(" * @constructor\n");
+    if (base != null) {
+      code.append(" * @extends {").append(base).append("}\n");
+    }
+    code.append(" * @param {number} width\n")
+        .append(" * @param {string} label\n")
+        .append(" */\n")
+        .append("function ").append(name).append("(width, label) {\n");
+    if (base != null) {
+      code.append("  ").append(base).append(".call(this, width, label);\n");
+    }
+    code.append("  /** @type {number} */\n")
+        .append("  this.width").append(i).append(" = width * ").append(i % 7 + 1)
+        .append(";\n")
+        .append("  /** @type {string} */\n")
+        .append("  this.label = label + '").append(i).append("';\n")
+        .append("}\n");
+    if (base != null) {
+      code.append(name).append(".prototype = Object.create(").append(base)
+          .append(".prototype);\n");
+    }
+    code.append("\n")
+        .append("/** @return {number} */\n")
+        .append(name).append(".prototype.area = function() {\n")
+        .append("  var total = 0;\n")
+        .append("  for (var index = 0; index < 10; index++) {\n")
+        .append("    if (index % 2 == 0 && true) {\n")
+        .append("      total += this.width").append(i).append(" * index;\n")
+        .append("    } else {\n")
+        .append("      total -= 1 + 2 * 3;\n")
+        .append("    }\n")
+        .append("  }\n")
+        .append("  return total > 100 ? total : -total;\n")
+        .append("};\n\n")
+        .append("/**\n")
+        .append(" * @param {!").append(name).append("} shape\n")
+        .append(" * @return {string}\n")
+        .append(" */\n")
+        .append("function describe").append(i).append("(shape) {\n")
+        .append("  var description = 'shape ' + shape.label;\n")
+        .append("  var area = shape.area();\n")
+        .append("  if (area > ").append(i).append(") {\n")
+        .append("    description += ' of area ' + area;\n")
+        .append("  }\n")
+        .append("  return description;\n")
+        .append("}\n\n")
+        .append("var shapes").append(i).append(" = [new ").append(name)
+        .append("(").append(i).append(", 'a'), new ").append(name)
+        .append("(").append(i + 1).append(", 'b')];\n")
+        .append("var descriptions").append(i).append(" = shapes").append(i)
+        .append(".map(describe").append(i).append(");\n\n");
+  }
+
+  /**
+   * Returns generated ES2015 code with the given number of classes, one file
+   * per ten classes.
+   */
+  static List<SourceFile> syntheticEs2015(int classes) {
+    List<SourceFile> files = new ArrayList<>();
+    StringBuilder code = new StringBuilder();
+    for (int i = 0; i < classes; i++) {
+      appendEs2015Class(code, i);
+      if (i % 10 == 9 || i == classes - 1) {
+        files.add(SourceFile.fromCode("es2015_" + files.size() + ".js",
+            code.toString()));
+        code.setLength(0);
+      }
+    }
+    return files;
+  }
+
+  private static void appendEs2015Class(StringBuilder code, int i) {
+    String name = "Shape" + i;
+    code.append("class ").append(name);
+    if (i > 0) {
+      code.append(" extends Shape").append(i / 2);
+    }
+    code.append(" {\n")
+        .append("  constructor(width, {label = 'shape', tags = []} = {}) {\n");
+    if (i > 0) {
+      code.append("    super(width, {label, tags});\n");
+    }
+    code.append("    this.width").append(i).append(" = width * ").append(i % 7 + 1)
+        .append(";\n")
+        .append("    this.label = `${label} ").append(i).append("`;\n")
+        .append("    this.tags = [...tags, 'shape").append(i).append("'];\n")
+        .append("  }\n\n")
+        .append("  area(scale = 1) {\n")
+        .append("    let total = 0;\n")
+        .append("    const steps = [];\n")
+        .append("    for (let index = 0; index < 10; index++) {\n")
+        .append("      steps.push(() => index * this.width").append(i).append(" * scale);\n")
+        .append("    }\n")
+        .append("    for (const step of steps) {\n")
+        .append("      total += step();\n")
+        .append("    }\n")
+        .append("    return total;\n")
+        .append("  }\n\n")
+        .append("  *labels() {\n")
+        .append("    for (const tag of this.tags) {\n")
+        .append("      yield `${this.label}:${tag}`;\n")
+        .append("    }\n")
+        .append("  }\n\n")
+        .append("  static describe(...shapes) {\n")
+        .append("    return shapes.map(({label, width").append(i)
+        .append(": width}) => `${label} of width ${width}`);\n")
+        .append("  }\n")
+        .append("}\n\n")
+        .append("const [first").append(i).append(", ...rest").append(i).append("] = [new ")
+        .append(name).append("(").append(i).append("), new ").append(name).append("(")
+        .append(i + 1).append(", {label: 'b'})];\n")
+        .append("const descriptions").append(i).append(" = ").append(name)
+        .append(".describe(first").append(i).append(", ...rest").append(i).append(");\n")
+        .append("const {length: count").append(i).append("} = descriptions").append(i)
+        .append(";\n\n");
+  }
+
+  /** Returns options for compiling the {@code es2015} corpus down to ES5. */
+  static CompilerOptions newEs2015Options() {
+    CompilerOptions options = new CompilerOptions();
+    options.setLanguageIn(LanguageMode.ECMASCRIPT6_STRICT);
+    options.setLanguageOut(LanguageMode.ECMASCRIPT5);
+    return options;
+  }
+
+  /** Returns options for compiling the corpora, which are ES5 code. */
+  static CompilerOptions newOptions() {
+    CompilerOptions options = new CompilerOptions();
+    options.setLanguageIn(LanguageMode.ECMASCRIPT5);
+    options.setLanguageOut(LanguageMode.ECMASCRIPT5);
+    return options;
+  }
+
+  /** Returns a compiler that has parsed the given inputs, without externs. */
+  static Compiler parse(List<SourceFile> inputs, CompilerOptions options) {
+    return parse(
+        Arrays.asList(SourceFile.fromCode("externs.js", "")), inputs, options);
+  }
+
+  /**
+   * Returns a compiler that has parsed the given inputs, with the default
+   * externs. The type checkers need these for the built-in types.
+   */
+  static Compiler parseWithDefaultExterns(
+      List<SourceFile> inputs, CompilerOptions options) throws IOException {
+    return parse(
+        AbstractCommandLineRunner.getBuiltinExterns(Environment.BROWSER), inputs, options);
+  }
+
+  private static Compiler parse(List<SourceFile> externs,
+      List<SourceFile> inputs, CompilerOptions options) {
+    Compiler compiler = new Compiler();
+    compiler.disableThreads();
+    compiler.init(externs, inputs, options);
+    compiler.parse();
+    Preconditions.checkState(compiler.getErrorCount() == 0,
+        "The corpus doesn't parse: %s", Arrays.toString(compiler.getErrors()));
+    return compiler;
+  }
+
+  /** Returns a compiler that has parsed and normalized the given inputs. */
+  static Compiler parseAndNormalize(
+      List<SourceFile> inputs, CompilerOptions options) {
+    return normalize(parse(inputs, options));
+  }
+
+  /**
+   * Returns a compiler that has parsed and normalized the given inputs, with
+   * the default externs.
+   */
+  static Compiler parseAndNormalizeWithDefaultExterns(
+      List<SourceFile> inputs, CompilerOptions options) throws IOException {
+    return normalize(parseWithDefaultExterns(inputs, options));
+  }
+
+  private static Compiler normalize(Compiler compiler) {
+    Node root = compiler.getRoot();
+    new Normalize(compiler, false).process(
+        root.getFirstChild(), root.getLastChild());
+    compiler.setLifeCycleStage(AbstractCompiler.LifeCycleStage.NORMALIZED);
+    return compiler;
+  }
+}
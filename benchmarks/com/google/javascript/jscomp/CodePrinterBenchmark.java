@@ -0,0 +1,83 @@
+/*
+ * Copyright 2016 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.javascript.rhino.Node;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link CodePrinter}, with and without generating a source map.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CodePrinterBenchmark {
+
+  @Param({BenchmarkCorpus.SYNTHETIC, BenchmarkCorpus.EXTERNS,
+      BenchmarkCorpus.LIBRARIES})
+  public String corpus;
+
+  private Compiler compiler;
+  private Node root;
+
+  @Setup
+  public void setUp() throws IOException {
+    compiler = BenchmarkCorpus.parse(
+        BenchmarkCorpus.load(corpus), BenchmarkCorpus.newOptions());
+    root = compiler.getRoot().getLastChild();
+  }
+
+  @Benchmark
+  public String compact() {
+    return new CodePrinter.Builder(root)
+        .setCompilerOptions(compiler.getOptions())
+        .build();
+  }
+
+  @Benchmark
+  public String prettyPrint() {
+    return new CodePrinter.Builder(root)
+        .setCompilerOptions(compiler.getOptions())
+        .setPrettyPrint(true)
+        .build();
+  }
+
+  @Benchmark
+  public String withSourceMap() {
+    return new CodePrinter.Builder(root)
+        .setCompilerOptions(compiler.getOptions())
+        .setSourceMap(compiler.createSourceMap())
+        .build();
+  }
+}
@@ -0,0 +1,439 @@
+/*
+ * Copyright 2016 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.javascript.jscomp.CompilerOptions.TracerMode;
+import com.google.javascript.jscomp.PerformanceTracker.Stats;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.GcInfo;
+
+import org.kohsuke.args4j.CmdLineException;
+import org.kohsuke.args4j.CmdLineParser;
+import org.kohsuke.args4j.Option;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+/**
+ * An end-to-end benchmark of the compile time, to catch regressions before
+ * upgrading the compiler. It compiles each {@link BenchmarkCorpus} with each
+ * {@link Config}, several times, and records the compile time, the time of
+ * each pass, the peak heap and the output size. The results can be written to
+ * a JSON baseline, and compared to a baseline:
+ *
+ * <pre>
+ * java -cp target/benchmarks/benchmarks.jar \
+ *     com.google.javascript.jscomp.CompileBenchmark --output baseline.json
+ * java -cp target/benchmarks/benchmarks.jar \
+ *     com.google.javascript.jscomp.CompileBenchmark --baseline baseline.json
+ * </pre>
+ *
+ * <p>The comparison exits with status 1 if a compile got slower, used more
+ * heap or produced more code. A slowdown must be both larger than
+ * {@code --max_slowdown} and statistically significant: the Welch t statistic
+ * of the samples must exceed {@code --min_t}. Slower passes are listed, but
+ * don't fail the comparison: they are only noteworthy next to a slower
+ * compile.
+ */
+public final class CompileBenchmark {
+
+  /**
+   * The externs corpus is compiled as code, where the annotations that only
+   * belong in externs are errors.
+   */
+  private static final DiagnosticGroup EXTERNS_ONLY_ANNOTATIONS =
+      new DiagnosticGroup(
+          PureFunctionIdentifier.INVALID_NO_SIDE_EFFECT_ANNOTATION,
+          PureFunctionIdentifier.INVALID_MODIFIES_ANNOTATION);
+
+  /** Keeps the tracer from logging a report of every compile. */
+  private static final Logger TRACER_LOGGER =
+      Logger.getLogger(Tracer.class.getName());
+
+  /** The compiler configurations that are benchmarked. */
+  enum Config {
+    WHITESPACE_ONLY(CompilationLevel.WHITESPACE_ONLY, false, false),
+    SIMPLE(CompilationLevel.SIMPLE_OPTIMIZATIONS, false, false),
+    ADVANCED(CompilationLevel.ADVANCED_OPTIMIZATIONS, false, false),
+    CHECKS_ONLY(CompilationLevel.SIMPLE_OPTIMIZATIONS, true, false),
+    ADVANCED_NTI(CompilationLevel.ADVANCED_OPTIMIZATIONS, false, true),
+    CHECKS_ONLY_NTI(CompilationLevel.SIMPLE_OPTIMIZATIONS, true, true);
+
+    private final CompilationLevel level;
+    private final boolean checksOnly;
+    private final boolean newTypeInference;
+
+    Config(CompilationLevel level, boolean checksOnly, boolean newTypeInference) {
+      this.level = level;
+      this.checksOnly = checksOnly;
+      this.newTypeInference = newTypeInference;
+    }
+
+    CompilerOptions newOptions() {
+      CompilerOptions options = BenchmarkCorpus.newOptions();
+      level.setOptionsForCompilationLevel(options);
+      // Like the command line runner, which uses types by default.
+      level.setTypeBasedOptimizationOptions(options);
+      if (checksOnly) {
+        options.setChecksOnly(true);
+        options.setCheckTypes(!newTypeInference);
+      }
+      options.setNewTypeInference(newTypeInference);
+      options.addWarningsGuard(new DiagnosticGroupWarningsGuard(
+          EXTERNS_ONLY_ANNOTATIONS, CheckLevel.OFF));
+      options.setTracerMode(TracerMode.TIMING_ONLY);
+      return options;
+    }
+
+    /**
+     * The new type inference rejects the redefinition of the built-in types
+     * in the externs corpus.
+     */
+    boolean supports(String corpus) {
+      return !(newTypeInference && corpus.equals(BenchmarkCorpus.EXTERNS));
+    }
+  }
+
+  /** The results of a benchmark run, as written to and read from JSON. */
+  static final class Report {
+    int iterations;
+    List<Result> results = new ArrayList<>();
+
+    Result find(String corpus, String config) {
+      for (Result result : results) {
+        if (result.corpus.equals(corpus) && result.config.equals(config)) {
+          return result;
+        }
+      }
+      return null;
+    }
+  }
+
+  /** The samples of the compiles of one corpus with one configuration. */
+  static final class Result {
+    String corpus;
+    String config;
+    List<Double> timeMs = new ArrayList<>();
+    List<Double> peakHeapMB = new ArrayList<>();
+    long outputSize;
+    Map<String, List<Double>> passTimeMs = new TreeMap<>();
+  }
+
+  @Option(name = "--corpus",
+      usage = "A corpus to compile: synthetic, externs or libraries. "
+      + "Defaults to all of them.")
+  private List<String> corpora = new ArrayList<>();
+
+  @Option(name = "--config",
+      usage = "A configuration to compile with, such as ADVANCED or "
+      + "CHECKS_ONLY_NTI. Defaults to all of them.")
+  private List<Config> configs = new ArrayList<>();
+
+  @Option(name = "--warmup",
+      usage = "The number of compiles to discard before measuring.")
+  private int warmup = 2;
+
+  @Option(name = "--iterations", usage = "The number of compiles to measure.")
+  private int iterations = 5;
+
+  @Option(name = "--output", usage = "The file to write the results to.")
+  private String output = "";
+
+  @Option(name = "--baseline",
+      usage = "A file with earlier results to compare the results to.")
+  private String baseline = "";
+
+  @Option(name = "--max_slowdown",
+      usage = "The relative slowdown of a compile or pass that is tolerated.")
+  private double maxSlowdown = 0.05;
+
+  @Option(name = "--min_t",
+      usage = "The Welch t statistic from which a slowdown is significant.")
+  private double minT = 3.0;
+
+  @Option(name = "--max_heap_growth",
+      usage = "The relative growth of the peak heap that is tolerated.")
+  private double maxHeapGrowth = 0.10;
+
+  private final PrintStream out = System.out;
+  private final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+  public static void main(String[] args) throws IOException {
+    TRACER_LOGGER.setLevel(Level.OFF);
+    CompileBenchmark benchmark = new CompileBenchmark();
+    CmdLineParser parser = new CmdLineParser(benchmark);
+    try {
+      parser.parseArgument(args);
+    } catch (CmdLineException e) {
+      System.err.println(e.getMessage());
+      parser.printUsage(System.err);
+      System.exit(2);
+    }
+    System.exit(benchmark.run() ? 0 : 1);
+  }
+
+  /** Runs the benchmark, and returns whether there were no regressions. */
+  private boolean run() throws IOException {
+    if (corpora.isEmpty()) {
+      corpora = ImmutableList.of(BenchmarkCorpus.SYNTHETIC,
+          BenchmarkCorpus.EXTERNS, BenchmarkCorpus.LIBRARIES);
+    }
+    if (configs.isEmpty()) {
+      configs = Arrays.asList(Config.values());
+    }
+
+    Report report = new Report();
+    report.iterations = iterations;
+    for (String corpus : corpora) {
+      List<SourceFile> inputs = BenchmarkCorpus.load(corpus);
+      for (Config config : configs) {
+        if (config.supports(corpus)) {
+          report.results.add(measure(corpus, inputs, config));
+        }
+      }
+    }
+
+    if (!output.isEmpty()) {
+      Files.write(gson.toJson(report), new File(output), UTF_8);
+    }
+    if (baseline.isEmpty()) {
+      return true;
+    }
+    Report baselineReport = gson.fromJson(
+        Files.toString(new File(baseline), UTF_8), Report.class);
+    List<String> regressions = compare(baselineReport, report);
+    for (String regression : regressions) {
+      out.println("REGRESSION: " + regression);
+    }
+    return regressions.isEmpty();
+  }
+
+  private Result measure(String corpus, List<SourceFile> inputs, Config config)
+      throws IOException {
+    Result result = new Result();
+    result.corpus = corpus;
+    result.config = config.name();
+    for (int i = 0; i < warmup + iterations; i++) {
+      List<SourceFile> externs =
+          AbstractCommandLineRunner.getBuiltinExterns(CompilerOptions.Environment.BROWSER);
+      Compiler compiler =
+          new Compiler(new PrintStream(ByteStreams.nullOutputStream()));
+      PeakHeapMonitor heap = PeakHeapMonitor.start();
+      long start = System.nanoTime();
+      compiler.compile(externs, inputs, config.newOptions());
+      double timeMs = (System.nanoTime() - start) / 1e6;
+      long peakHeap = heap.stop();
+      Preconditions.checkState(compiler.getErrorCount() == 0,
+          "%s doesn't compile with %s: %s", corpus, config,
+          Arrays.toString(compiler.getErrors()));
+      if (i < warmup) {
+        continue;
+      }
+
+      result.timeMs.add(timeMs);
+      result.peakHeapMB.add(peakHeap / (1024.0 * 1024.0));
+      result.outputSize = compiler.toSource().getBytes(UTF_8).length;
+      for (Map.Entry<String, Stats> entry
+          : compiler.tracker.getStats().entrySet()) {
+        List<Double> samples = result.passTimeMs.get(entry.getKey());
+        if (samples == null) {
+          samples = new ArrayList<>();
+          result.passTimeMs.put(entry.getKey(), samples);
+        }
+        samples.add((double) entry.getValue().runtime);
+      }
+    }
+    out.println(String.format("%-10s %-16s %10.1f ms +/- %6.1f %8.1f MB %10d bytes",
+        corpus, config, mean(result.timeMs), standardDeviation(result.timeMs),
+        mean(result.peakHeapMB), result.outputSize));
+    return result;
+  }
+
+  /**
+   * Returns a description of each regression of the current results from
+   * the baseline.
+   */
+  private List<String> compare(Report baselineReport, Report report) {
+    List<String> regressions = new ArrayList<>();
+    for (Result current : report.results) {
+      String name = current.corpus + " " + current.config;
+      Result base = baselineReport.find(current.corpus, current.config);
+      if (base == null) {
+        out.println("No baseline for " + name);
+        continue;
+      }
+      if (isSlower(base.timeMs, current.timeMs)) {
+        regressions.add(String.format("%s took %.1f ms, up from %.1f ms",
+            name, mean(current.timeMs), mean(base.timeMs)));
+        for (Map.Entry<String, List<Double>> pass
+            : current.passTimeMs.entrySet()) {
+          List<Double> basePass = base.passTimeMs.get(pass.getKey());
+          if (basePass != null && isSlower(basePass, pass.getValue())) {
+            out.println(String.format("  %s: %s took %.1f ms, up from %.1f ms",
+                name, pass.getKey(), mean(pass.getValue()), mean(basePass)));
+          }
+        }
+      }
+      if (mean(current.peakHeapMB)
+          > mean(base.peakHeapMB) * (1 + maxHeapGrowth)) {
+        regressions.add(String.format("%s used %.1f MB, up from %.1f MB",
+            name, mean(current.peakHeapMB), mean(base.peakHeapMB)));
+      }
+      if (current.outputSize > base.outputSize) {
+        regressions.add(String.format("%s output %d bytes, up from %d bytes",
+            name, current.outputSize, base.outputSize));
+      }
+    }
+    return regressions;
+  }
+
+  /**
+   * Whether the current samples are slower than the baseline by more than
+   * the tolerated slowdown, and significantly so.
+   */
+  private boolean isSlower(List<Double> base, List<Double> current) {
+    double baseMean = mean(base);
+    double currentMean = mean(current);
+    if (currentMean <= baseMean * (1 + maxSlowdown)) {
+      return false;
+    }
+    double baseSd = standardDeviation(base);
+    double currentSd = standardDeviation(current);
+    double standardError = Math.sqrt(baseSd * baseSd / base.size()
+        + currentSd * currentSd / current.size());
+    return standardError == 0
+        || (currentMean - baseMean) / standardError > minT;
+  }
+
+  private static double mean(List<Double> samples) {
+    double sum = 0;
+    for (double sample : samples) {
+      sum += sample;
+    }
+    return samples.isEmpty() ? 0 : sum / samples.size();
+  }
+
+  /** The sample standard deviation. */
+  private static double standardDeviation(List<Double> samples) {
+    if (samples.size() < 2) {
+      return 0;
+    }
+    double mean = mean(samples);
+    double sum = 0;
+    for (double sample : samples) {
+      sum += (sample - mean) * (sample - mean);
+    }
+    return Math.sqrt(sum / (samples.size() - 1));
+  }
+
+  /**
+   * Tracks the peak of the total heap used while it runs. The used heap only
+   * grows between garbage collections, so its peaks are at the start of each
+   * collection, as reported in the notifications of the collectors, and at
+   * the end.
+   */
+  private static final class PeakHeapMonitor implements NotificationListener {
+    private final Set<String> heapPools = new HashSet<>();
+    private final AtomicLong peak = new AtomicLong();
+    private long startUptimeMs;
+
+    static PeakHeapMonitor start() {
+      PeakHeapMonitor monitor = new PeakHeapMonitor();
+      for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+        if (pool.getType() == MemoryType.HEAP) {
+          monitor.heapPools.add(pool.getName());
+        }
+      }
+      System.gc();
+      monitor.startUptimeMs = ManagementFactory.getRuntimeMXBean().getUptime();
+      monitor.peak.set(ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+      for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+        ((NotificationEmitter) collector).addNotificationListener(monitor, null, null);
+      }
+      return monitor;
+    }
+
+    /** Stops tracking, and returns the peak of the used heap in bytes. */
+    long stop() {
+      updatePeak(ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+      for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+        try {
+          ((NotificationEmitter) collector).removeNotificationListener(this);
+        } catch (ListenerNotFoundException e) {
+          throw new IllegalStateException(e);
+        }
+      }
+      return peak.get();
+    }
+
+    @Override
+    public void handleNotification(Notification notification, Object handback) {
+      if (!notification.getType().equals(
+          GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+        return;
+      }
+      GcInfo info = GarbageCollectionNotificationInfo
+          .from((CompositeData) notification.getUserData()).getGcInfo();
+      // Notifications arrive late, so skip the collection before the start.
+      if (info.getStartTime() < startUptimeMs) {
+        return;
+      }
+      long used = 0;
+      for (Map.Entry<String, MemoryUsage> pool : info.getMemoryUsageBeforeGc().entrySet()) {
+        if (heapPools.contains(pool.getKey())) {
+          used += pool.getValue().getUsed();
+        }
+      }
+      updatePeak(used);
+    }
+
+    private void updatePeak(long used) {
+      long current;
+      while (used > (current = peak.get()) && !peak.compareAndSet(current, used)) {}
+    }
+  }
+}
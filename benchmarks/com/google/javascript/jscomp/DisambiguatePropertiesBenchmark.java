@@ -0,0 +1,85 @@
+/*
+ * Copyright 2016 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.javascript.rhino.Node;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link DisambiguateProperties} on type-checked code.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class DisambiguatePropertiesBenchmark {
+
+  @Param({BenchmarkCorpus.SYNTHETIC, BenchmarkCorpus.EXTERNS,
+      BenchmarkCorpus.LIBRARIES})
+  public String corpus;
+
+  private List<SourceFile> inputs;
+  private Compiler compiler;
+
+  @Setup
+  public void loadCorpus() throws IOException {
+    inputs = BenchmarkCorpus.load(corpus);
+  }
+
+  /**
+   * Disambiguation renames properties, so each run gets freshly type-checked
+   * code.
+   */
+  @Setup(Level.Invocation)
+  public void typeCheck() throws IOException {
+    CompilerOptions options = BenchmarkCorpus.newOptions();
+    options.setCheckTypes(true);
+    compiler = BenchmarkCorpus.parseAndNormalizeWithDefaultExterns(
+        inputs, options);
+    Node root = compiler.getRoot();
+    new TypeCheck(compiler, compiler.getReverseAbstractInterpreter(),
+        compiler.getTypeRegistry())
+        .processForTesting(root.getFirstChild(), root.getLastChild());
+  }
+
+  @Benchmark
+  public Node disambiguate() {
+    Node root = compiler.getRoot();
+    new DisambiguateProperties(compiler, ImmutableMap.<String, CheckLevel>of())
+        .process(root.getFirstChild(), root.getLastChild());
+    return root;
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2016 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.common.collect.ImmutableList;
+import com.google.javascript.rhino.Node;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the ES6 to ES5 transpilation passes, with the local rewrites
+ * fused into shared traversals by {@link Es6FusedRewrites} and with each
+ * of them traversing the program on its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class Es6TranspilationBenchmark {
+
+  static final String FUSED = "fused";
+  static final String SEPARATE = "separate";
+
+  @Param({FUSED, SEPARATE})
+  public String passes;
+
+  private List<SourceFile> inputs;
+  private Compiler compiler;
+
+  @Setup
+  public void loadCorpus() throws IOException {
+    inputs = BenchmarkCorpus.load(BenchmarkCorpus.ES2015);
+  }
+
+  /** The passes rewrite the AST, so each run gets a fresh copy. */
+  @Setup(Level.Invocation)
+  public void parse() {
+    compiler = BenchmarkCorpus.parse(inputs, BenchmarkCorpus.newEs2015Options());
+  }
+
+  @Benchmark
+  public Node transpile() {
+    Node root = compiler.getRoot();
+    for (CompilerPass pass : createPasses(compiler, passes)) {
+      pass.process(root.getFirstChild(), root.getLastChild());
+    }
+    return root;
+  }
+
+  /** Returns the transpilation passes, up to and including generators. */
+  static List<CompilerPass> createPasses(AbstractCompiler compiler, String passes) {
+    ImmutableList.Builder<CompilerPass> builder = ImmutableList.builder();
+    switch (passes) {
+      case FUSED:
+        builder.add(
+            Es6FusedRewrites.arrowFunctionsAndParamLists(compiler),
+            Es6FusedRewrites.destructuring(compiler),
+            Es6FusedRewrites.superAndClasses(compiler));
+        break;
+      case SEPARATE:
+        builder.add(
+            new Es6RewriteArrowFunction(compiler),
+            new Es6RenameVariablesInParamLists(compiler),
+            new Es6SplitVariableDeclarations(compiler),
+            new Es6RewriteDestructuring(compiler),
+            new Es6ConvertSuper(compiler),
+            new Es6ExtractClasses(compiler));
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown passes: " + passes);
+    }
+    return builder.add(
+        new Es6ToEs3Converter(compiler),
+        new Es6RewriteBlockScopedDeclaration(compiler),
+        new Es6RewriteGenerators(compiler))
+        .build();
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2016 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.javascript.jscomp.parsing.Config;
+import com.google.javascript.jscomp.parsing.Config.JsDocParsing;
+import com.google.javascript.jscomp.parsing.Config.LanguageMode;
+import com.google.javascript.jscomp.parsing.Config.RunMode;
+import com.google.javascript.jscomp.parsing.Config.SourceLocationInformation;
+import com.google.javascript.jscomp.parsing.ParserRunner;
+import com.google.javascript.rhino.SimpleErrorReporter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link ParserRunner#parse}, including the JSDoc parser and the
+ * conversion of the parse tree to the Rhino AST.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ParserBenchmark {
+
+  @Param({BenchmarkCorpus.SYNTHETIC, BenchmarkCorpus.EXTERNS,
+      BenchmarkCorpus.LIBRARIES})
+  public String corpus;
+
+  private List<SourceFile> files;
+  private List<String> code;
+  private Config config;
+
+  @Setup
+  public void setUp() throws IOException {
+    files = BenchmarkCorpus.load(corpus);
+    code = new ArrayList<>();
+    for (SourceFile file : files) {
+      code.add(file.getCode());
+    }
+    config = ParserRunner.createConfig(
+        LanguageMode.ECMASCRIPT6,
+        JsDocParsing.TYPES_ONLY,
+        SourceLocationInformation.PRESERVE,
+        RunMode.KEEP_GOING,
+        null);
+  }
+
+  @Benchmark
+  public void parse(Blackhole blackhole) {
+    SimpleErrorReporter errorReporter = new SimpleErrorReporter();
+    for (int i = 0; i < files.size(); i++) {
+      blackhole.consume(
+          ParserRunner.parse(files.get(i), code.get(i), config, errorReporter));
+    }
+  }
+}
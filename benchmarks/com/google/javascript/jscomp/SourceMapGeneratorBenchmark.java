@@ -0,0 +1,85 @@
+/*
+ * Copyright 2016 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.javascript.rhino.Node;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link SourceMapGeneratorV3}: recording the mappings while the
+ * code is printed, and writing out the finished map.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SourceMapGeneratorBenchmark {
+
+  @Param({BenchmarkCorpus.SYNTHETIC, BenchmarkCorpus.EXTERNS,
+      BenchmarkCorpus.LIBRARIES})
+  public String corpus;
+
+  private Compiler compiler;
+  private Node root;
+  private SourceMap printed;
+
+  @Setup
+  public void setUp() throws IOException {
+    CompilerOptions options = BenchmarkCorpus.newOptions();
+    options.setSourceMapFormat(SourceMap.Format.V3);
+    compiler = BenchmarkCorpus.parse(BenchmarkCorpus.load(corpus), options);
+    root = compiler.getRoot().getLastChild();
+    printed = printWithSourceMap();
+  }
+
+  @Benchmark
+  public SourceMap generate() {
+    return printWithSourceMap();
+  }
+
+  @Benchmark
+  public StringBuilder appendTo() throws IOException {
+    StringBuilder out = new StringBuilder();
+    printed.appendTo(out, "output.js");
+    return out;
+  }
+
+  private SourceMap printWithSourceMap() {
+    SourceMap sourceMap = compiler.createSourceMap();
+    new CodePrinter.Builder(root)
+        .setCompilerOptions(compiler.getOptions())
+        .setSourceMap(sourceMap)
+        .build();
+    return sourceMap;
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2016 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp.deps;
+
+import com.google.common.collect.ImmutableList;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks sorting 200,000 synthetic inputs by their dependencies, and
+ * finding the dependencies of a few of them, as dependency pruning does.
+ *
+ * <p>The inputs are in layers, and each input requires a few inputs of the
+ * layer below, so {@code layers} is the length of the longest require chain.
+ * Es6SortedDependencies sorts recursively, so it needs a large stack for
+ * many layers, e.g. {@code -jvmArgsAppend -Xss64m}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SortedDependenciesBenchmark {
+
+  private static final int NUM_INPUTS = 200000;
+  private static final int REQUIRES_PER_INPUT = 3;
+  private static final int NUM_ROOTS = 10;
+
+  @Param({"es6", "indexed"})
+  public String implementation;
+
+  @Param({"20", "2000"})
+  public int layers;
+
+  private List<SimpleDependencyInfo> inputs;
+  private List<SimpleDependencyInfo> roots;
+  private SortedDependencies<SimpleDependencyInfo> sorted;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    int perLayer = NUM_INPUTS / layers;
+    inputs = new ArrayList<>();
+    for (int i = 0; i < NUM_INPUTS; i++) {
+      int layer = i / perLayer;
+      List<String> requires = new ArrayList<>();
+      if (layer > 0) {
+        for (int j = 0; j < REQUIRES_PER_INPUT; j++) {
+          requires.add("ns.n" + ((layer - 1) * perLayer + random.nextInt(perLayer)));
+        }
+      }
+      String name = "n" + i + ".js";
+      inputs.add(new SimpleDependencyInfo(
+          name, name, ImmutableList.of("ns.n" + i), requires, false));
+    }
+    roots = new ArrayList<>(inputs.subList(NUM_INPUTS - NUM_ROOTS, NUM_INPUTS));
+    Collections.shuffle(inputs, random);
+    sorted = sort();
+  }
+
+  private SortedDependencies<SimpleDependencyInfo> sort() {
+    return implementation.equals("es6")
+        ? new Es6SortedDependencies<>(inputs)
+        : new IndexedSortedDependencies<>(inputs);
+  }
+
+  @Benchmark
+  public List<SimpleDependencyInfo> sortAll() {
+    return sort().getSortedList();
+  }
+
+  @Benchmark
+  public List<SimpleDependencyInfo> dependenciesOfRoots() {
+    return sorted.getSortedDependenciesOf(roots);
+  }
+}
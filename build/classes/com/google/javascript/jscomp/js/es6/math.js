@@ -0,0 +1,23 @@
+/*
+ * Copyright 2016 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * @fileoverview Brings in all ES6 Math polyfills.
+ */
+'require es6/math/acosh es6/math/asinh es6/math/atanh es6/math/cbrt';
+'require es6/math/clz32 es6/math/cosh es6/math/exp1m es6/math/hypot';
+'require es6/math/imul es6/math/log10 es6/math/log1p es6/math/log2';
+'require es6/math/sign es6/math/sinh es6/math/tanh es6/math/trunc';
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2016 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+'require es6/number/constants es6/number/isinteger util/polyfill';
+
+$jscomp.polyfill('Number.isSafeInteger', function(orig) {
+  if (orig) return orig;
+
+  /**
+   * Returns whether the given argument is a "safe" integer,
+   * that is, its magnitude is less than 2^53.
+   *
+   * <p>Polyfills the static function Number.isSafeInteger().
+   *
+   * @param {number} x Any value.
+   * @return {boolean} True if x is a safe integer.
+   */
+  var polyfill = function(x) {
+    return Number.isInteger(x) && Math.abs(x) <= Number.MAX_SAFE_INTEGER;
+  };
+
+  return polyfill;
+}, 'es6-impl', 'es3');
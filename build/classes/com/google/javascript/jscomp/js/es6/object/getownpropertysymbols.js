@@ -0,0 +1,24 @@
+/*
+ * Copyright 2016 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+'require util/owns util/polyfill';
+
+$jscomp.polyfill('Object.getOwnPropertySymbols', function(orig) {
+  if (orig) return orig;
+
+  // Note: this is patched by $jscomp.initSymbol when needed.
+  return function() { return []; };
+}, 'es6-impl', 'es5');  // only works correctly with Object.getOwnPropertyNames
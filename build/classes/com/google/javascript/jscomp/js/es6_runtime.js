@@ -0,0 +1,20 @@
+/*
+ * Copyright 2016 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+'require es6/array es6/map es6/math es6/number es6/object';
+'require es6/set es6/string es6/symbol es6/util/arrayfromiterable';
+'require es6/util/arrayfromiterator es6/util/inherits';
+'require es6/util/iteratorfromarray es6/util/makeiterator';
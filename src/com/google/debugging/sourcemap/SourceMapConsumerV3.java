@@ -18,7 +18,6 @@ package com.google.debugging.sourcemap;
 
 import com.google.common.annotations.GwtIncompatible;
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Iterables;
 import com.google.debugging.sourcemap.Base64VLQ.CharIterator;
 import com.google.debugging.sourcemap.proto.Mapping.OriginalMapping;
 import com.google.debugging.sourcemap.proto.Mapping.OriginalMapping.Builder;
@@ -48,11 +47,56 @@ public final class SourceMapConsumerV3 implements SourceMapConsumer,
     SourceMappingReversable {
   static final int UNMAPPED = -1;
 
+  /**
+   * The number of recently used lines whose entries are kept decoded.
+   */
+  private static final int DECODED_LINE_CACHE_SIZE = 64;
+
+  // The layout of a decoded entry, in a packed int array of entries.
+  private static final int ENTRY_SIZE = 5;
+  private static final int GENERATED_COLUMN = 0;
+  private static final int SOURCE_FILE_ID = 1;
+  private static final int SOURCE_LINE = 2;
+  private static final int SOURCE_COLUMN = 3;
+  private static final int NAME_ID = 4;
+
+  // The layout of the decoding state saved at the start of each line.
+  private static final int STATE_SIZE = 4;
+
   private String[] sources;
   private String[] names;
   private int lineCount;
-  // Slots in the lines list will be null if the line does not have any entries.
-  private ArrayList<ArrayList<Entry>> lines = null;
+
+  /**
+   * The encoded "mappings" field, one byte per character. Large maps have
+   * many more entries than anyone looks up, so lines are only decoded when
+   * they are needed.
+   */
+  private byte[] mappings = null;
+
+  /**
+   * For each line, the offset in {@link #mappings} where its entries start.
+   * The entries of a line end just before the start of the next one, minus
+   * the ';' separating them; there is an extra element at the end for this.
+   */
+  private int[] lineStarts = null;
+
+  /**
+   * For each line, the source file id, source line, source column and name
+   * id of the last entry before it, STATE_SIZE values per line. Those fields
+   * are encoded relative to the previous entry, even across lines, so
+   * decoding a line needs them.
+   */
+  private int[] lineStartStates = null;
+
+  /** Recently decoded lines, by line number. Guarded by itself. */
+  private final Map<Integer, int[]> decodedLines =
+      new LinkedHashMap<Integer, int[]>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, int[]> eldest) {
+          return size() > DECODED_LINE_CACHE_SIZE;
+        }
+      };
   /** originalFile path ==> original line ==> target mappings */
   private Map<String, Map<Integer, Collection<OriginalMapping>>>
       reverseSourceMapping;
@@ -122,12 +166,6 @@ public final class SourceMapConsumerV3 implements SourceMapConsumer,
       sources = getJavaStringArray(sourceMapRoot.get("sources").getAsJsonArray());
       names = getJavaStringArray(sourceMapRoot.get("names").getAsJsonArray());
 
-      if (lineCount >= 0) {
-        lines = new ArrayList<>(lineCount);
-      } else {
-        lines = new ArrayList<>();
-      }
-
       if (sourceMapRoot.has("sourceRoot")) {
         sourceRoot = sourceMapRoot.get("sourceRoot").getAsString();
       }
@@ -138,7 +176,7 @@ public final class SourceMapConsumerV3 implements SourceMapConsumer,
         }
       }
 
-      new MappingBuilder(lineMap).build();
+      new MappingIndexer(lineMap).build();
     } catch (JsonParseException ex) {
       throw new SourceMapParseException("JSON parse exception: " + ex);
     }
@@ -223,7 +261,7 @@ public final class SourceMapConsumerV3 implements SourceMapConsumer,
     lineNumber--;
     column--;
 
-    if (lineNumber < 0 || lineNumber >= lines.size()) {
+    if (lineNumber < 0 || lineNumber >= getLineCount()) {
       return null;
     }
 
@@ -232,20 +270,20 @@ public final class SourceMapConsumerV3 implements SourceMapConsumer,
 
 
     // If the line is empty return the previous mapping.
-    if (lines.get(lineNumber) == null) {
+    if (isEmptyLine(lineNumber)) {
       return getPreviousMapping(lineNumber);
     }
 
-    ArrayList<Entry> entries = lines.get(lineNumber);
-    // No empty lists.
-    Preconditions.checkState(!entries.isEmpty());
-    if (entries.get(0).getGeneratedColumn() > column) {
+    int[] entries = getLineEntries(lineNumber);
+    // No empty lines.
+    Preconditions.checkState(entries.length > 0);
+    if (entries[GENERATED_COLUMN] > column) {
       return getPreviousMapping(lineNumber);
     }
 
-    int index = search(entries, column, 0, entries.size() - 1);
+    int index = search(entries, column, 0, entries.length / ENTRY_SIZE - 1);
     Preconditions.checkState(index >= 0, "unexpected:%s", index);
-    return getOriginalMappingForEntry(entries.get(index));
+    return getOriginalMappingForEntry(entries, index);
   }
 
   @Override
@@ -305,8 +343,98 @@ public final class SourceMapConsumerV3 implements SourceMapConsumer,
     return result;
   }
 
-  private class MappingBuilder {
+  /** Returns the number of lines of the generated file that are mapped. */
+  private int getLineCount() {
+    // A map that failed to parse has no lines.
+    return lineStarts == null ? 0 : lineStarts.length - 1;
+  }
+
+  private boolean isEmptyLine(int line) {
+    return lineStarts[line] == lineStarts[line + 1] - 1;
+  }
+
+  /**
+   * Returns the decoded entries of the given non-empty line, decoding them
+   * if they have not been used recently.
+   */
+  private int[] getLineEntries(int line) {
+    synchronized (decodedLines) {
+      int[] entries = decodedLines.get(line);
+      if (entries == null) {
+        entries = decodeLine(line);
+        decodedLines.put(line, entries);
+      }
+      return entries;
+    }
+  }
+
+  /**
+   * Decodes the entries of the given line into a packed array of ENTRY_SIZE
+   * values per entry.
+   */
+  private int[] decodeLine(int line) {
+    int start = lineStarts[line];
+    int end = lineStarts[line + 1] - 1;
+    // There is at most one more entry than there are ',' separators.
+    int maxEntries = 1;
+    for (int i = start; i < end; i++) {
+      if (mappings[i] == ',') {
+        maxEntries++;
+      }
+    }
+    int[] entries = new int[maxEntries * ENTRY_SIZE];
+
+    ByteCharIterator content = new ByteCharIterator(mappings, start, end);
+    int state = line * STATE_SIZE;
+    int previousCol = 0;
+    int previousSrcId = lineStartStates[state];
+    int previousSrcLine = lineStartStates[state + 1];
+    int previousSrcColumn = lineStartStates[state + 2];
+    int previousNameId = lineStartStates[state + 3];
+    int entryCount = 0;
+    while (content.hasNext()) {
+      int entry = entryCount * ENTRY_SIZE;
+      // The entries were validated when the map was indexed, so each one
+      // has 1, 4 or 5 values.
+      previousCol += Base64VLQ.decode(content);
+      entries[entry + GENERATED_COLUMN] = previousCol;
+      if (content.hasNext() && content.peek() != ',') {
+        previousSrcId += Base64VLQ.decode(content);
+        previousSrcLine += Base64VLQ.decode(content);
+        previousSrcColumn += Base64VLQ.decode(content);
+        entries[entry + SOURCE_FILE_ID] = previousSrcId;
+        entries[entry + SOURCE_LINE] = previousSrcLine;
+        entries[entry + SOURCE_COLUMN] = previousSrcColumn;
+        if (content.hasNext() && content.peek() != ',') {
+          previousNameId += Base64VLQ.decode(content);
+          entries[entry + NAME_ID] = previousNameId;
+        } else {
+          entries[entry + NAME_ID] = UNMAPPED;
+        }
+      } else {
+        entries[entry + SOURCE_FILE_ID] = UNMAPPED;
+        entries[entry + SOURCE_LINE] = UNMAPPED;
+        entries[entry + SOURCE_COLUMN] = UNMAPPED;
+        entries[entry + NAME_ID] = UNMAPPED;
+      }
+      entryCount++;
+
+      // Consume the separating token, if there is one.
+      if (content.hasNext()) {
+        content.next();
+      }
+    }
+    return entryCount == maxEntries
+        ? entries : Arrays.copyOf(entries, entryCount * ENTRY_SIZE);
+  }
+
+  /**
+   * Validates the "mappings" field and records where each line starts,
+   * without keeping any of the decoded entries.
+   */
+  private class MappingIndexer {
     private static final int MAX_ENTRY_VALUES = 5;
+    private final String lineMap;
     private final StringCharIterator content;
     private int line = 0;
     private int previousCol = 0;
@@ -315,33 +443,35 @@ public final class SourceMapConsumerV3 implements SourceMapConsumer,
     private int previousSrcColumn = 0;
     private int previousNameId = 0;
 
-    MappingBuilder(String lineMap) {
+    private int[] starts = new int[16];
+    private int[] states = new int[16 * STATE_SIZE];
+
+    MappingIndexer(String lineMap) {
+      this.lineMap = lineMap;
       this.content = new StringCharIterator(lineMap);
     }
 
     void build() {
       int [] temp = new int[MAX_ENTRY_VALUES];
-      ArrayList<Entry> entries = new ArrayList<>();
+      int entries = 0;
+      startLine(0);
       while (content.hasNext()) {
         // ';' denotes a new line.
         if (tryConsumeToken(';')) {
-          // The line is complete, store the result
-          completeLine(entries);
-          if (!entries.isEmpty()) {
-            // A new array list for the next line.
-            entries = new ArrayList<>();
-          }
+          // The line is complete.
+          line++;
+          previousCol = 0;
+          entries = 0;
+          startLine(content.current);
         } else {
-          // grab the next entry for the current line.
+          // Check the next entry for the current line.
           int entryValues = 0;
           while (!entryComplete()) {
             temp[entryValues] = nextValue();
             entryValues++;
           }
-          Entry entry = decodeEntry(temp, entryValues);
-
-          validateEntry(entry);
-          entries.add(entry);
+          decodeEntry(temp, entryValues);
+          entries++;
 
           // Consume the separating token, if there is one.
           tryConsumeToken(',');
@@ -349,34 +479,49 @@ public final class SourceMapConsumerV3 implements SourceMapConsumer,
       }
 
       // Some source map generator (e.g.UglifyJS) generates lines without
-      // a trailing line separator. So add the rest of the content.
-      if (!entries.isEmpty()) {
-        completeLine(entries);
+      // a trailing line separator. So keep the rest of the content as a line,
+      // as if it had one.
+      if (entries > 0) {
+        line++;
+        startLine(lineMap.length() + 1);
+      }
+
+      lineStarts = Arrays.copyOf(starts, line + 1);
+      lineStartStates = Arrays.copyOf(states, line * STATE_SIZE);
+      mappings = new byte[lineMap.length()];
+      for (int i = 0; i < mappings.length; i++) {
+        // Only base64 digits and separators are left after validation.
+        mappings[i] = (byte) lineMap.charAt(i);
       }
     }
 
-    private void completeLine(ArrayList<Entry> entries) {
-      // The line is complete, store the result for the line,
-      // null if the line is empty.
-      if (!entries.isEmpty()) {
-        lines.add(entries);
-      } else {
-        lines.add(null);
+    /**
+     * Records the start of the current line, overwriting the start of a
+     * line without entries at the end of the map.
+     */
+    private void startLine(int start) {
+      if (line == starts.length) {
+        starts = Arrays.copyOf(starts, line * 2);
+        states = Arrays.copyOf(states, line * 2 * STATE_SIZE);
       }
-      line++;
-      previousCol = 0;
+      starts[line] = start;
+      int state = line * STATE_SIZE;
+      states[state] = previousSrcId;
+      states[state + 1] = previousSrcLine;
+      states[state + 2] = previousSrcColumn;
+      states[state + 3] = previousNameId;
     }
 
     /**
      * Sanity check the entry.
      */
-    private void validateEntry(Entry entry) {
+    private void validateEntry(int sourceFileId, int nameId) {
       Preconditions.checkState((lineCount < 0) || (line < lineCount),
           "line=%s, lineCount=%s", line, lineCount);
-      Preconditions.checkState(entry.getSourceFileId() == UNMAPPED
-          || entry.getSourceFileId() < sources.length);
-      Preconditions.checkState(entry.getNameId() == UNMAPPED
-          || entry.getNameId() < names.length);
+      Preconditions.checkState(sourceFileId == UNMAPPED
+          || sourceFileId < sources.length);
+      Preconditions.checkState(nameId == UNMAPPED
+          || nameId < names.length);
     }
 
     /**
@@ -385,10 +530,8 @@ public final class SourceMapConsumerV3 implements SourceMapConsumer,
      *
      * @param vals An array of integers that represent values in the entry.
      * @param entryValues The number of entries in the array.
-     * @return The entry object.
      */
-    private Entry decodeEntry(int[] vals, int entryValues) {
-      Entry entry;
+    private void decodeEntry(int[] vals, int entryValues) {
       switch (entryValues) {
         // The first values, if present are in the following order:
         //   0: the starting column in the current line of the generated file
@@ -403,42 +546,29 @@ public final class SourceMapConsumerV3 implements SourceMapConsumer,
 
         case 1:
           // An unmapped section of the generated file.
-          entry = new UnmappedEntry(
-              vals[0] + previousCol);
-          // Set the values see for the next entry.
-          previousCol = entry.getGeneratedColumn();
-          return entry;
+          previousCol = vals[0] + previousCol;
+          validateEntry(UNMAPPED, UNMAPPED);
+          return;
 
         case 4:
           // A mapped section of the generated file.
-          entry = new UnnamedEntry(
-              vals[0] + previousCol,
-              vals[1] + previousSrcId,
-              vals[2] + previousSrcLine,
-              vals[3] + previousSrcColumn);
-          // Set the values see for the next entry.
-          previousCol = entry.getGeneratedColumn();
-          previousSrcId = entry.getSourceFileId();
-          previousSrcLine = entry.getSourceLine();
-          previousSrcColumn = entry.getSourceColumn();
-          return entry;
+          previousCol = vals[0] + previousCol;
+          previousSrcId = vals[1] + previousSrcId;
+          previousSrcLine = vals[2] + previousSrcLine;
+          previousSrcColumn = vals[3] + previousSrcColumn;
+          validateEntry(previousSrcId, UNMAPPED);
+          return;
 
         case 5:
           // A mapped section of the generated file, that has an associated
           // name.
-          entry = new NamedEntry(
-              vals[0] + previousCol,
-              vals[1] + previousSrcId,
-              vals[2] + previousSrcLine,
-              vals[3] + previousSrcColumn,
-              vals[4] + previousNameId);
-          // Set the values see for the next entry.
-          previousCol = entry.getGeneratedColumn();
-          previousSrcId = entry.getSourceFileId();
-          previousSrcLine = entry.getSourceLine();
-          previousSrcColumn = entry.getSourceColumn();
-          previousNameId = entry.getNameId();
-          return entry;
+          previousCol = vals[0] + previousCol;
+          previousSrcId = vals[1] + previousSrcId;
+          previousSrcLine = vals[2] + previousSrcLine;
+          previousSrcColumn = vals[3] + previousSrcColumn;
+          previousNameId = vals[4] + previousNameId;
+          validateEntry(previousSrcId, previousNameId);
+          return;
 
         default:
           throw new IllegalStateException(
@@ -473,7 +603,7 @@ public final class SourceMapConsumerV3 implements SourceMapConsumer,
    * Perform a binary search on the array to find a section that covers
    * the target column.
    */
-  private int search(ArrayList<Entry> entries, int target, int start, int end) {
+  private int search(int[] entries, int target, int start, int end) {
     while (true) {
       int mid = ((end - start) / 2) + start;
       int compare = compareEntry(entries, mid, target);
@@ -498,8 +628,8 @@ public final class SourceMapConsumerV3 implements SourceMapConsumer,
   /**
    * Compare an array entry's column value to the target column value.
    */
-  private int compareEntry(ArrayList<Entry> entries, int entry, int target) {
-    return entries.get(entry).getGeneratedColumn() - target;
+  private int compareEntry(int[] entries, int entry, int target) {
+    return entries[entry * ENTRY_SIZE + GENERATED_COLUMN] - target;
   }
 
   /**
@@ -507,35 +637,151 @@ public final class SourceMapConsumerV3 implements SourceMapConsumer,
    * such entry exists.
    */
   private OriginalMapping getPreviousMapping(int lineNumber) {
-    do {
-      if (lineNumber == 0) {
-        return null;
-      }
-      lineNumber--;
-    } while (lines.get(lineNumber) == null);
-    ArrayList<Entry> entries = lines.get(lineNumber);
-    return getOriginalMappingForEntry(Iterables.getLast(entries));
+    int[] entries = getPreviousEntries(lineNumber);
+    if (entries == null) {
+      return null;
+    }
+    return getOriginalMappingForEntry(
+        entries, entries.length / ENTRY_SIZE - 1);
   }
 
   /**
-   * Creates an "OriginalMapping" object for the given entry object.
+   * Creates an "OriginalMapping" object for the given entry.
    */
-  private OriginalMapping getOriginalMappingForEntry(Entry entry) {
-    if (entry.getSourceFileId() == UNMAPPED) {
+  private OriginalMapping getOriginalMappingForEntry(int[] entries, int index) {
+    int entry = index * ENTRY_SIZE;
+    if (entries[entry + SOURCE_FILE_ID] == UNMAPPED) {
       return null;
     } else {
       // Adjust the line/column here to be start at 1.
       Builder x = OriginalMapping.newBuilder()
-        .setOriginalFile(sources[entry.getSourceFileId()])
-        .setLineNumber(entry.getSourceLine() + 1)
-        .setColumnPosition(entry.getSourceColumn() + 1);
-      if (entry.getNameId() != UNMAPPED) {
-        x.setIdentifier(names[entry.getNameId()]);
+        .setOriginalFile(sources[entries[entry + SOURCE_FILE_ID]])
+        .setLineNumber(entries[entry + SOURCE_LINE] + 1)
+        .setColumnPosition(entries[entry + SOURCE_COLUMN] + 1);
+      if (entries[entry + NAME_ID] != UNMAPPED) {
+        x.setIdentifier(names[entries[entry + NAME_ID]]);
       }
       return x.build();
     }
   }
 
+  /**
+   * Returns a new cursor over the entries of this map.
+   */
+  EntryCursor newEntryCursor() {
+    return new EntryCursor();
+  }
+
+  /**
+   * Looks up the entries covering a sequence of generated positions, in the
+   * same way as {@link #getMappingForLine}, but without a binary search or
+   * an {@link OriginalMapping} per lookup. Positions are indexed by 0, and
+   * each lookup starts from the entry found by the previous one, so
+   * positions that mostly go forward are found in a single linear pass over
+   * the map.
+   */
+  final class EntryCursor {
+    private int line = UNMAPPED;
+    /** The entries of the current line, or null if it is empty. */
+    private int[] lineEntries = null;
+    private int index = 0;
+    /** The entries of the previous non-empty line, computed on demand. */
+    private int[] previousEntries = null;
+    private boolean previousComputed = false;
+
+    /** The entry found by the last lookup, as an offset into entries. */
+    private int[] entries = null;
+    private int entry = 0;
+
+    /**
+     * Moves the cursor to the entry covering the given generated position.
+     *
+     * @return Whether the position is mapped to an original position.
+     */
+    boolean seek(int lineNumber, int column) {
+      entries = null;
+      if (lineNumber < 0 || lineNumber >= getLineCount()) {
+        return false;
+      }
+      if (lineNumber != line) {
+        line = lineNumber;
+        lineEntries = isEmptyLine(line) ? null : getLineEntries(line);
+        index = 0;
+        previousEntries = null;
+        previousComputed = false;
+      }
+
+      if (lineEntries == null || lineEntries[GENERATED_COLUMN] > column) {
+        // Like getMappingForLine, use the last entry of the previous lines.
+        if (!previousComputed) {
+          previousEntries = getPreviousEntries(line);
+          previousComputed = true;
+        }
+        return select(
+            previousEntries,
+            previousEntries == null
+                ? 0 : previousEntries.length / ENTRY_SIZE - 1);
+      }
+
+      if (compareEntry(lineEntries, index, column) > 0) {
+        // Going backwards, which is rare.
+        index = search(lineEntries, column, 0, index);
+      } else {
+        int last = lineEntries.length / ENTRY_SIZE - 1;
+        while (index < last
+            && compareEntry(lineEntries, index + 1, column) <= 0) {
+          index++;
+        }
+      }
+      return select(lineEntries, index);
+    }
+
+    private boolean select(int[] entries, int index) {
+      if (entries == null
+          || entries[index * ENTRY_SIZE + SOURCE_FILE_ID] == UNMAPPED) {
+        return false;
+      }
+      this.entries = entries;
+      this.entry = index * ENTRY_SIZE;
+      return true;
+    }
+
+    /** The original source of the entry found by the last lookup. */
+    String getSourceName() {
+      return sources[entries[entry + SOURCE_FILE_ID]];
+    }
+
+    /** The original line of the entry found, indexed by 0. */
+    int getSourceLine() {
+      return entries[entry + SOURCE_LINE];
+    }
+
+    /** The original column of the entry found, indexed by 0. */
+    int getSourceColumn() {
+      return entries[entry + SOURCE_COLUMN];
+    }
+
+    /** The original name of the entry found, or null if it has none. */
+    String getName() {
+      int nameId = entries[entry + NAME_ID];
+      return nameId == UNMAPPED ? null : names[nameId];
+    }
+  }
+
+  /**
+   * Returns the entries of the last non-empty line before the given line, or
+   * null if there is none.
+   */
+  private int[] getPreviousEntries(int lineNumber) {
+    do {
+      if (lineNumber == 0) {
+        return null;
+      }
+      lineNumber--;
+    } while (isEmptyLine(lineNumber));
+    return getLineEntries(lineNumber);
+  }
+
   /**
    * Reverse the source map; the created mapping will allow us to quickly go
    * from a source file and line number to a collection of target
@@ -544,38 +790,39 @@ public final class SourceMapConsumerV3 implements SourceMapConsumer,
   private void createReverseMapping() {
     reverseSourceMapping = new HashMap<>();
 
-    for (int targetLine = 0; targetLine < lines.size(); targetLine++) {
-      ArrayList<Entry> entries = lines.get(targetLine);
-
-      if (entries != null) {
-        for (Entry entry : entries) {
-          if (entry.getSourceFileId() != UNMAPPED
-              && entry.getSourceLine() != UNMAPPED) {
-            String originalFile = sources[entry.getSourceFileId()];
-
-            if (!reverseSourceMapping.containsKey(originalFile)) {
-              reverseSourceMapping.put(originalFile,
-                  new HashMap<Integer, Collection<OriginalMapping>>());
-            }
+    for (int targetLine = 0; targetLine < getLineCount(); targetLine++) {
+      if (isEmptyLine(targetLine)) {
+        continue;
+      }
+      // Every line is needed once, so don't go through the cache.
+      int[] entries = decodeLine(targetLine);
+      for (int entry = 0; entry < entries.length; entry += ENTRY_SIZE) {
+        if (entries[entry + SOURCE_FILE_ID] != UNMAPPED
+            && entries[entry + SOURCE_LINE] != UNMAPPED) {
+          String originalFile = sources[entries[entry + SOURCE_FILE_ID]];
+
+          if (!reverseSourceMapping.containsKey(originalFile)) {
+            reverseSourceMapping.put(originalFile,
+                new HashMap<Integer, Collection<OriginalMapping>>());
+          }
 
-            Map<Integer, Collection<OriginalMapping>> lineToCollectionMap =
-                reverseSourceMapping.get(originalFile);
+          Map<Integer, Collection<OriginalMapping>> lineToCollectionMap =
+              reverseSourceMapping.get(originalFile);
 
-            int sourceLine = entry.getSourceLine();
+          int sourceLine = entries[entry + SOURCE_LINE];
 
-            if (!lineToCollectionMap.containsKey(sourceLine)) {
-              lineToCollectionMap.put(sourceLine,
-                  new ArrayList<OriginalMapping>(1));
-            }
+          if (!lineToCollectionMap.containsKey(sourceLine)) {
+            lineToCollectionMap.put(sourceLine,
+                new ArrayList<OriginalMapping>(1));
+          }
 
-            Collection<OriginalMapping> mappings =
-                lineToCollectionMap.get(sourceLine);
+          Collection<OriginalMapping> mappings =
+              lineToCollectionMap.get(sourceLine);
 
-            Builder builder = OriginalMapping.newBuilder().setLineNumber(
-                targetLine).setColumnPosition(entry.getGeneratedColumn());
+          Builder builder = OriginalMapping.newBuilder().setLineNumber(
+              targetLine).setColumnPosition(entries[entry + GENERATED_COLUMN]);
 
-            mappings.add(builder.build());
-          }
+          mappings.add(builder.build());
         }
       }
     }
@@ -611,105 +858,32 @@ public final class SourceMapConsumerV3 implements SourceMapConsumer,
   }
 
   /**
-   * Represents a mapping entry in the source map.
-   */
-  private interface Entry {
-    int getGeneratedColumn();
-    int getSourceFileId();
-    int getSourceLine();
-    int getSourceColumn();
-    int getNameId();
-  }
-
-  /**
-   * This class represents a portion of the generated file, that is not mapped
-   * to a section in the original source.
-   */
-  private static class UnmappedEntry implements Entry {
-    private final int column;
-
-    UnmappedEntry(int column) {
-      this.column = column;
-    }
-
-    @Override
-    public int getGeneratedColumn() {
-      return column;
-    }
-
-    @Override
-    public int getSourceFileId() {
-      return UNMAPPED;
-    }
-
-    @Override
-    public int getSourceLine() {
-      return UNMAPPED;
-    }
-
-    @Override
-    public int getSourceColumn() {
-      return UNMAPPED;
-    }
-
-    @Override
-    public int getNameId() {
-      return UNMAPPED;
-    }
-  }
-
-  /**
-   * This class represents a portion of the generated file, that is mapped
-   * to a section in the original source.
+   * A implementation of the Base64VLQ CharIterator used for decoding the
+   * mappings of a single line.
    */
-  private static class UnnamedEntry extends UnmappedEntry {
-    private final int srcFile;
-    private final int srcLine;
-    private final int srcColumn;
-
-    UnnamedEntry(int column, int srcFile, int srcLine, int srcColumn) {
-      super(column);
-      this.srcFile = srcFile;
-      this.srcLine = srcLine;
-      this.srcColumn = srcColumn;
-    }
-
-    @Override
-    public int getSourceFileId() {
-      return srcFile;
-    }
-
-    @Override
-    public int getSourceLine() {
-      return srcLine;
-    }
+  private static class ByteCharIterator implements CharIterator {
+    final byte[] content;
+    final int end;
+    int current;
 
-    @Override
-    public int getSourceColumn() {
-      return srcColumn;
+    ByteCharIterator(byte[] content, int start, int end) {
+      this.content = content;
+      this.current = start;
+      this.end = end;
     }
 
     @Override
-    public int getNameId() {
-      return UNMAPPED;
+    public char next() {
+      return (char) content[current++];
     }
-  }
 
-  /**
-   * This class represents a portion of the generated file, that is mapped
-   * to a section in the original source, and is associated with a name.
-   */
-  private static class NamedEntry extends UnnamedEntry {
-    private final int name;
-
-    NamedEntry(int column, int srcFile, int srcLine, int srcColumn, int name) {
-      super(column, srcFile, srcLine, srcColumn);
-      this.name = name;
+    char peek() {
+      return (char) content[current];
     }
 
     @Override
-    public int getNameId() {
-      return name;
+    public boolean hasNext() {
+      return current < end;
     }
   }
 
@@ -728,16 +902,15 @@ public final class SourceMapConsumerV3 implements SourceMapConsumer,
     FilePosition sourceStartPosition = null;
     FilePosition startPosition = null;
 
-    final int lineCount = lines.size();
+    final int lineCount = getLineCount();
     for (int i = 0; i < lineCount; i++) {
-      ArrayList<Entry> line = lines.get(i);
-      if (line != null) {
-        final int entryCount = line.size();
-        for (int j = 0; j < entryCount; j++) {
-          Entry entry = line.get(j);
+      if (!isEmptyLine(i)) {
+        // Every line is needed once, so don't go through the cache.
+        int[] line = decodeLine(i);
+        for (int entry = 0; entry < line.length; entry += ENTRY_SIZE) {
           if (pending) {
             FilePosition endPosition = new FilePosition(
-                i, entry.getGeneratedColumn());
+                i, line[entry + GENERATED_COLUMN]);
             visitor.visit(
                 sourceName,
                 symbolName,
@@ -747,15 +920,15 @@ public final class SourceMapConsumerV3 implements SourceMapConsumer,
             pending = false;
           }
 
-          if (entry.getSourceFileId() != UNMAPPED) {
+          if (line[entry + SOURCE_FILE_ID] != UNMAPPED) {
             pending = true;
-            sourceName = sources[entry.getSourceFileId()];
-            symbolName = (entry.getNameId() != UNMAPPED)
-                ? names[entry.getNameId()] : null;
+            sourceName = sources[line[entry + SOURCE_FILE_ID]];
+            symbolName = (line[entry + NAME_ID] != UNMAPPED)
+                ? names[line[entry + NAME_ID]] : null;
             sourceStartPosition = new FilePosition(
-                entry.getSourceLine(), entry.getSourceColumn());
+                line[entry + SOURCE_LINE], line[entry + SOURCE_COLUMN]);
             startPosition = new FilePosition(
-                i, entry.getGeneratedColumn());
+                i, line[entry + GENERATED_COLUMN]);
           }
         }
       }
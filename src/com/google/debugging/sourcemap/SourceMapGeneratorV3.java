@@ -18,13 +18,14 @@ package com.google.debugging.sourcemap;
 
 import com.google.common.annotations.GwtIncompatible;
 import com.google.common.base.Preconditions;
+import com.google.debugging.sourcemap.SourceMapConsumerV3.EntryCursor;
 import com.google.debugging.sourcemap.SourceMapConsumerV3.EntryVisitor;
 import com.google.gson.Gson;
 
 import java.io.IOException;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Deque;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -64,25 +65,62 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
         Object newValue);
   }
 
+  /**
+   * Provides the source maps of the sources that were themselves generated,
+   * for {@link #applyInputSourceMaps}.
+   */
+  public interface InputSourceMapProvider {
+
+    /**
+     * Returns the source map of the given source, or null if the source is
+     * an original one.
+     */
+    @Nullable
+    SourceMapConsumerV3 getInputSourceMap(String sourceName);
+
+    /**
+     * Returns the name to write out for a source of the input source map of
+     * {@code sourceName}. Input source maps usually name their sources
+     * relative to themselves.
+     */
+    String getOriginalSourceName(String sourceName, String inputSourceName);
+  }
+
   private static final int UNMAPPED = -1;
 
+  private static final int INITIAL_CAPACITY = 64;
 
   /**
-   * A pre-order traversal ordered list of mappings stored in this map.
+   * The mappings stored in this map, in pre-order traversal order. Maps can
+   * have tens of millions of mappings, so rather than as objects, they are
+   * stored in parallel arrays indexed by the mapping's position in that
+   * order. Only the first {@link #mappingCount} entries are used.
+   *
+   * <p>The generated positions are indexed by 0. The original positions are
+   * indexed by 1 for legacy reasons via the Rhino Node class.
    */
-  private List<Mapping> mappings = new ArrayList<>();
+  private int mappingCount = 0;
+  private int[] startLines = new int[INITIAL_CAPACITY];
+  private int[] startColumns = new int[INITIAL_CAPACITY];
+  private int[] endLines = new int[INITIAL_CAPACITY];
+  private int[] endColumns = new int[INITIAL_CAPACITY];
+  private int[] originalLines = new int[INITIAL_CAPACITY];
+  private int[] originalColumns = new int[INITIAL_CAPACITY];
+  /** Indices into {@link #sourceFiles}. */
+  private int[] sourceFileIds = new int[INITIAL_CAPACITY];
+  /** Indices into {@link #originalNames}, or UNMAPPED if there is no name. */
+  private int[] originalNameIds = new int[INITIAL_CAPACITY];
 
   /**
-   * A map of source names to source name index
+   * The distinct source names of the mappings. A source name is only
+   * written out if a mapping that uses it is.
    */
-  private LinkedHashMap<String, Integer> sourceFileMap =
-       new LinkedHashMap<>();
+  private final NameTable sourceFiles = new NameTable();
 
   /**
-   * A map of source names to source name index
+   * The distinct original names of the mappings.
    */
-  private LinkedHashMap<String, Integer> originalNameMap =
-       new LinkedHashMap<>();
+  private final NameTable originalNames = new NameTable();
 
   /**
    * Cache of the last mappings source name.
@@ -95,9 +133,10 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
   private int lastSourceFileIndex = -1;
 
   /**
-   * For validation store the last mapping added.
+   * The number of mappings that have already been through
+   * {@link #applyInputSourceMaps}.
    */
-  private Mapping lastMapping;
+  private int composedMappingCount = 0;
 
   /**
    * The position that the current source map is offset in the
@@ -130,10 +169,10 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
    */
   @Override
   public void reset() {
-    mappings.clear();
-    lastMapping = null;
-    sourceFileMap.clear();
-    originalNameMap.clear();
+    mappingCount = 0;
+    composedMappingCount = 0;
+    sourceFiles.clear();
+    originalNames.clear();
     lastSourceFile = null;
     lastSourceFileIndex = -1;
     offsetPosition = new FilePosition(0, 0);
@@ -237,29 +276,57 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
           endPosition.getColumn() + endOffsetPosition);
     }
 
-    // Create the new mapping.
-    Mapping mapping = new Mapping();
-    mapping.sourceFile = sourceName;
-    mapping.originalPosition = sourceStartPosition;
-    mapping.originalName = symbolName;
-    mapping.startPosition = adjustedStart;
-    mapping.endPosition = adjustedEnd;
+    int nextLine = adjustedStart.getLine();
+    int nextColumn = adjustedStart.getColumn();
 
     // Validate the mappings are in a proper order.
-    if (lastMapping != null) {
-      int lastLine = lastMapping.startPosition.getLine();
-      int lastColumn = lastMapping.startPosition.getColumn();
-      int nextLine = mapping.startPosition.getLine();
-      int nextColumn = mapping.startPosition.getColumn();
-      Preconditions.checkState(nextLine > lastLine
-          || (nextLine == lastLine && nextColumn >= lastColumn),
-          "Incorrect source mappings order, previous : (%s,%s)\n"
-          + "new : (%s,%s)",
-          lastLine, lastColumn, nextLine, nextColumn);
+    if (mappingCount > 0) {
+      int lastLine = startLines[mappingCount - 1];
+      int lastColumn = startColumns[mappingCount - 1];
+      if (nextLine < lastLine
+          || (nextLine == lastLine && nextColumn < lastColumn)) {
+        throw new IllegalStateException(String.format(
+            "Incorrect source mappings order, previous : (%s,%s)\n"
+            + "new : (%s,%s)",
+            lastLine, lastColumn, nextLine, nextColumn));
+      }
     }
 
-    lastMapping = mapping;
-    mappings.add(mapping);
+    // Store the new mapping.
+    if (mappingCount == startLines.length) {
+      growMappings();
+    }
+    int m = mappingCount++;
+    startLines[m] = nextLine;
+    startColumns[m] = nextColumn;
+    endLines[m] = adjustedEnd.getLine();
+    endColumns[m] = adjustedEnd.getColumn();
+    originalLines[m] = sourceStartPosition.getLine();
+    originalColumns[m] = sourceStartPosition.getColumn();
+    sourceFileIds[m] = getSourceFileIndex(sourceName);
+    originalNameIds[m] =
+        symbolName == null ? UNMAPPED : originalNames.add(symbolName);
+  }
+
+  private void growMappings() {
+    int capacity = startLines.length * 2;
+    startLines = Arrays.copyOf(startLines, capacity);
+    startColumns = Arrays.copyOf(startColumns, capacity);
+    endLines = Arrays.copyOf(endLines, capacity);
+    endColumns = Arrays.copyOf(endColumns, capacity);
+    originalLines = Arrays.copyOf(originalLines, capacity);
+    originalColumns = Arrays.copyOf(originalColumns, capacity);
+    sourceFileIds = Arrays.copyOf(sourceFileIds, capacity);
+    originalNameIds = Arrays.copyOf(originalNameIds, capacity);
+  }
+
+  private int getSourceFileIndex(String sourceName) {
+    // Consecutive mappings usually come from the same source file.
+    if (sourceName != lastSourceFile) {
+      lastSourceFile = sourceName;
+      lastSourceFileIndex = sourceFiles.add(sourceName);
+    }
+    return lastSourceFileIndex;
   }
 
   class ConsumerEntryVisitor implements EntryVisitor {
@@ -323,6 +390,85 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
      }
   }
 
+  /**
+   * Maps the mappings added since the last call through the input source
+   * maps of their sources, so that they point directly to the original
+   * sources. Mappings whose original position is not mapped by its input
+   * source map are left as they are.
+   *
+   * <p>The mappings are visited in order, and each input source map is read
+   * through a cursor that continues from the previous lookup in that map.
+   * Generated code mostly follows the order of its sources, so composing a
+   * whole map is a linear merge of the map with its input maps, rather than
+   * a binary search per mapping.
+   */
+  public void applyInputSourceMaps(InputSourceMapProvider provider) {
+    // The input maps of the sources used so far, by source file index.
+    // Sources added while composing are original ones.
+    InputSourceMap[] inputMaps = new InputSourceMap[sourceFiles.size()];
+    for (int m = composedMappingCount; m < mappingCount; m++) {
+      int sourceFileId = sourceFileIds[m];
+      InputSourceMap inputMap = inputMaps[sourceFileId];
+      if (inputMap == null) {
+        String sourceName = sourceFiles.get(sourceFileId);
+        SourceMapConsumerV3 consumer = provider.getInputSourceMap(sourceName);
+        inputMap = consumer == null
+            ? NO_INPUT_SOURCE_MAP
+            : new InputSourceMap(sourceName, consumer.newEntryCursor());
+        inputMaps[sourceFileId] = inputMap;
+      }
+
+      EntryCursor cursor = inputMap.cursor;
+      if (cursor == null
+          || !cursor.seek(originalLines[m], originalColumns[m])) {
+        continue;
+      }
+      originalLines[m] = cursor.getSourceLine();
+      originalColumns[m] = cursor.getSourceColumn();
+      sourceFileIds[m] = inputMap.getSourceFileIndex(
+          sourceFiles, provider, cursor.getSourceName());
+      String name = cursor.getName();
+      if (name != null) {
+        originalNameIds[m] = originalNames.add(name);
+      }
+    }
+    composedMappingCount = mappingCount;
+  }
+
+  private static final InputSourceMap NO_INPUT_SOURCE_MAP =
+      new InputSourceMap(null, null);
+
+  /**
+   * The input source map of a source, and the sources it maps to.
+   */
+  private static final class InputSourceMap {
+    final String sourceName;
+    final EntryCursor cursor;
+
+    private String lastInputSource = null;
+    private int lastInputSourceIndex = UNMAPPED;
+
+    InputSourceMap(String sourceName, EntryCursor cursor) {
+      this.sourceName = sourceName;
+      this.cursor = cursor;
+    }
+
+    /**
+     * Returns the index in {@code sourceFiles} of a source of the input
+     * source map.
+     */
+    int getSourceFileIndex(NameTable sourceFiles,
+        InputSourceMapProvider provider, String inputSource) {
+      // Consecutive entries usually come from the same source file.
+      if (inputSource != lastInputSource) {
+        lastInputSource = inputSource;
+        lastInputSourceIndex = sourceFiles.add(
+            provider.getOriginalSourceName(sourceName, inputSource));
+      }
+      return lastInputSourceIndex;
+    }
+  }
+
   /**
    * Writes out the source map in the following format (line numbers are for
    * reference only and are not part of the format):
@@ -468,26 +614,81 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
    * Writes the source name map to 'out'.
    */
   private void addSourceNameMap(Appendable out) throws IOException {
-    addNameMap(out, sourceFileMap);
+    sourceFiles.appendOutputNames(out);
   }
 
   /**
    * Writes the source name map to 'out'.
    */
   private void addSymbolNameMap(Appendable out) throws IOException {
-    addNameMap(out, originalNameMap);
+    originalNames.appendOutputNames(out);
   }
 
-  private static void addNameMap(Appendable out, Map<String, Integer> map)
-      throws IOException {
-    int i = 0;
-    for (Entry<String, Integer> entry : map.entrySet()) {
-      String key = entry.getKey();
-      if (i != 0) {
-        out.append(",");
+  /**
+   * The distinct names used by the mappings, either source file names or
+   * original symbol names. Each name has an index by which the mappings
+   * refer to it, in the order they were added. A name also has an output
+   * index in the "sources" or "names" field, in the order in which the
+   * mappings that use it are written out.
+   */
+  private static final class NameTable {
+    private final Map<String, Integer> indices = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private int[] outputIndices = new int[INITIAL_CAPACITY];
+    private final List<String> outputNames = new ArrayList<>();
+
+    int size() {
+      return names.size();
+    }
+
+    String get(int index) {
+      return names.get(index);
+    }
+
+    /** Returns the index of the given name, adding it if it is new. */
+    int add(String name) {
+      Integer index = indices.get(name);
+      if (index != null) {
+        return index;
+      }
+      int newIndex = names.size();
+      indices.put(name, newIndex);
+      names.add(name);
+      if (newIndex == outputIndices.length) {
+        outputIndices = Arrays.copyOf(outputIndices, newIndex * 2);
+      }
+      outputIndices[newIndex] = UNMAPPED;
+      return newIndex;
+    }
+
+    /**
+     * Returns the output index of the name with the given index, assigning
+     * the next one if the name hasn't been written out yet.
+     */
+    int getOutputIndex(int index) {
+      int outputIndex = outputIndices[index];
+      if (outputIndex == UNMAPPED) {
+        outputIndex = outputNames.size();
+        outputIndices[index] = outputIndex;
+        outputNames.add(names.get(index));
       }
-      out.append(escapeString(key));
-      i++;
+      return outputIndex;
+    }
+
+    /** Writes the names that have an output index, in that order. */
+    void appendOutputNames(Appendable out) throws IOException {
+      for (int i = 0; i < outputNames.size(); i++) {
+        if (i != 0) {
+          out.append(",");
+        }
+        out.append(escapeString(outputNames.get(i)));
+      }
+    }
+
+    void clear() {
+      indices.clear();
+      names.clear();
+      outputNames.clear();
     }
   }
 
@@ -532,100 +733,42 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
   }
 
   /**
-   * Assigns sequential ids to used mappings, and returns the last line mapped.
+   * Returns the last line mapped by a mapping that is actually used by the
+   * source map.
    */
   private int prepMappings() throws IOException {
-    // Mark any unused mappings.
-    (new MappingTraversal()).traverse(new UsedMappingCheck());
-
-    // Renumber used mappings and keep track of the last line.
-    int id = 0;
-    int maxLine = 0;
-    for (Mapping m : mappings) {
-      if (m.used) {
-        m.id = id++;
-        int endPositionLine = m.endPosition.getLine();
-        maxLine = Math.max(maxLine, endPositionLine);
-      }
-    }
+    MaxLineCheck maxLineCheck = new MaxLineCheck();
+    (new MappingTraversal()).traverse(maxLineCheck);
 
     // Adjust for the prefix.
-    return maxLine + prefixPosition.getLine();
+    return maxLineCheck.maxLine + prefixPosition.getLine();
   }
 
   /**
-   * A mapping from a given position in an input source file to a given position
-   * in the generated code.
+   * Finds the last line of any visited mapping.
    */
-  static class Mapping {
-    /**
-     * A unique ID for this mapping for record keeping purposes.
-     */
-    int id = UNMAPPED;
-
-    /**
-     * The source file index.
-     */
-    String sourceFile;
-
-    /**
-     * The position of the code in the input source file. Both
-     * the line number and the character index are indexed by
-     * 1 for legacy reasons via the Rhino Node class.
-     */
-    FilePosition originalPosition;
-
-    /**
-     * The starting position of the code in the generated source
-     * file which this mapping represents. Indexed by 0.
-     */
-    FilePosition startPosition;
-
-    /**
-     * The ending position of the code in the generated source
-     * file which this mapping represents. Indexed by 0.
-     */
-    FilePosition endPosition;
-
-    /**
-     * The original name of the token found at the position
-     * represented by this mapping (if any).
-     */
-    String originalName;
-
-    /**
-     * Whether the mapping is actually used by the source map.
-     */
-    boolean used = false;
-  }
+  private class MaxLineCheck implements MappingVisitor {
+    int maxLine = 0;
 
-  /**
-   * Mark any visited mapping as "used".
-   */
-  private static class UsedMappingCheck implements MappingVisitor {
-    /**
-     * @throws IOException
-     */
     @Override
-    public void visit(Mapping m, int line, int col, int nextLine, int nextCol)
-        throws IOException {
-      if (m != null) {
-        m.used = true;
+    public void visit(int m, int line, int col, int nextLine, int nextCol) {
+      if (m != UNMAPPED) {
+        maxLine = Math.max(maxLine, endLines[m]);
       }
     }
   }
 
   private interface MappingVisitor {
     /**
-     * @param m The mapping for the current code segment. null if the segment
-     *     is unmapped.
+     * @param m The index of the mapping for the current code segment.
+     *     UNMAPPED if the segment is unmapped.
      * @param line The starting line for this code segment.
      * @param col The starting column for this code segment.
      * @param endLine The ending line
      * @param endCol The ending column
      * @throws IOException
      */
-    void visit(Mapping m, int line, int col, int endLine, int endCol)
+    void visit(int m, int line, int col, int endLine, int endCol)
         throws IOException;
   }
 
@@ -646,29 +789,33 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
       // The mapping list is ordered as a pre-order traversal.  The mapping
       // positions give us enough information to rebuild the stack and this
       // allows the building of the source map in O(n) time.
-      Deque<Mapping> stack = new ArrayDeque<>();
-      for (Mapping m : mappings) {
+      int[] stack = new int[INITIAL_CAPACITY];
+      int stackSize = 0;
+      for (int m = 0; m < mappingCount; m++) {
         // Find the closest ancestor of the current mapping:
         // An overlapping mapping is an ancestor of the current mapping, any
         // non-overlapping mappings are siblings (or cousins) and must be
         // closed in the reverse order of when they encountered.
-        while (!stack.isEmpty() && !isOverlapped(stack.peek(), m)) {
-          Mapping previous = stack.pop();
+        while (stackSize > 0 && !isOverlapped(stack[stackSize - 1], m)) {
+          int previous = stack[--stackSize];
           maybeVisit(v, previous);
         }
 
         // Any gaps between the current line position and the start of the
         // current mapping belong to the parent.
-        Mapping parent = stack.peek();
+        int parent = stackSize > 0 ? stack[stackSize - 1] : UNMAPPED;
         maybeVisitParent(v, parent, m);
 
-        stack.push(m);
+        if (stackSize == stack.length) {
+          stack = Arrays.copyOf(stack, stackSize * 2);
+        }
+        stack[stackSize++] = m;
       }
 
       // There are no more children to be had, simply close the remaining
       // mappings in the reverse order of when they encountered.
-      while (!stack.isEmpty()) {
-        Mapping m = stack.pop();
+      while (stackSize > 0) {
+        int m = stack[--stackSize];
         maybeVisit(v, m);
       }
     }
@@ -676,16 +823,14 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
     /**
      * @return The line adjusted for the prefix position.
      */
-    private int getAdjustedLine(FilePosition p) {
-      return p.getLine() + prefixPosition.getLine();
+    private int getAdjustedLine(int rawLine) {
+      return rawLine + prefixPosition.getLine();
     }
 
     /**
      * @return The column adjusted for the prefix position.
      */
-    private int getAdjustedCol(FilePosition p) {
-      int rawLine = p.getLine();
-      int rawCol = p.getColumn();
+    private int getAdjustedCol(int rawLine, int rawCol) {
       // Only the first line needs the character position adjusted.
       return (rawLine != 0)
           ? rawCol : rawCol + prefixPosition.getColumn();
@@ -694,12 +839,12 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
     /**
      * @return Whether m1 ends before m2 starts.
      */
-    private boolean isOverlapped(Mapping m1, Mapping m2) {
+    private boolean isOverlapped(int m1, int m2) {
       // No need to use adjusted values here, relative positions are sufficient.
-      int l1 = m1.endPosition.getLine();
-      int l2 = m2.startPosition.getLine();
-      int c1 = m1.endPosition.getColumn();
-      int c2 = m2.startPosition.getColumn();
+      int l1 = endLines[m1];
+      int l2 = startLines[m2];
+      int c1 = endColumns[m1];
+      int c2 = startColumns[m2];
 
       return (l1 == l2 && c1 >= c2) || l1 > l2;
     }
@@ -708,9 +853,9 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
      * Write any needed entries from the current position to the end of the
      * provided mapping.
      */
-    private void maybeVisit(MappingVisitor v, Mapping m) throws IOException {
-      int nextLine = getAdjustedLine(m.endPosition);
-      int nextCol = getAdjustedCol(m.endPosition);
+    private void maybeVisit(MappingVisitor v, int m) throws IOException {
+      int nextLine = getAdjustedLine(endLines[m]);
+      int nextCol = getAdjustedCol(endLines[m], endColumns[m]);
       // If this anything remaining in this mapping beyond the
       // current line and column position, write it out now.
       if (line < nextLine || (line == nextLine && col < nextCol)) {
@@ -721,11 +866,11 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
     /**
      * Write any needed entries to complete the provided mapping.
      */
-    private void maybeVisitParent(MappingVisitor v, Mapping parent, Mapping m)
+    private void maybeVisitParent(MappingVisitor v, int parent, int m)
         throws IOException {
-      int nextLine = getAdjustedLine(m.startPosition);
-      int nextCol = getAdjustedCol(m.startPosition);
-      // If the previous value is null, no mapping exists.
+      int nextLine = getAdjustedLine(startLines[m]);
+      int nextCol = getAdjustedCol(startLines[m], startColumns[m]);
+      // If the parent is UNMAPPED, no mapping exists.
       Preconditions.checkState(line < nextLine || col <= nextCol);
       if (line < nextLine || (line == nextLine && col < nextCol)) {
         visit(v, parent, nextLine, nextCol);
@@ -736,7 +881,7 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
      * Write any entries needed between the current position the next position
      * and update the current position.
      */
-    private void visit(MappingVisitor v, Mapping m,
+    private void visit(MappingVisitor v, int m,
         int nextLine, int nextCol)
         throws IOException {
       Preconditions.checkState(line <= nextLine);
@@ -810,35 +955,17 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
     return out;
   }
 
-  private int getSourceId(String sourceName) {
-    if (sourceName != lastSourceFile) {
-      lastSourceFile = sourceName;
-      Integer index = sourceFileMap.get(sourceName);
-      if (index != null) {
-        lastSourceFileIndex = index;
-      } else {
-        lastSourceFileIndex = sourceFileMap.size();
-        sourceFileMap.put(sourceName, lastSourceFileIndex);
-      }
-    }
-    return lastSourceFileIndex;
-  }
-
-  private int getNameId(String symbolName) {
-    int originalNameIndex;
-    Integer index = originalNameMap.get(symbolName);
-    if (index != null) {
-      originalNameIndex = index;
-    } else {
-      originalNameIndex = originalNameMap.size();
-      originalNameMap.put(symbolName, originalNameIndex);
-    }
-    return originalNameIndex;
-  }
-
   private class LineMapper implements MappingVisitor {
+    /**
+     * The number of encoded characters collected before they are written to
+     * the destination, rather than one at a time.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
     // The destination.
-    private final Appendable out;
+    private final Appendable destination;
+    // The entries that have not been written to the destination yet.
+    private final StringBuilder out = new StringBuilder(BUFFER_SIZE + 64);
     private final int maxLine; // TODO(johnlenz): This shouldn't be necessary to track.
 
     private int previousLine = -1;
@@ -850,8 +977,8 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
     private int previousSourceColumn;
     private int previousNameId;
 
-    LineMapper(Appendable out, int maxLine) {
-      this.out = out;
+    LineMapper(Appendable destination, int maxLine) {
+      this.destination = destination;
       this.maxLine = maxLine;
     }
 
@@ -859,7 +986,7 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
      * As each segment is visited write out the appropriate line mapping.
      */
     @Override
-    public void visit(Mapping m, int line, int col, int nextLine, int nextCol)
+    public void visit(int m, int line, int col, int nextLine, int nextCol)
       throws IOException {
       if (previousLine != line) {
         previousColumn = 0;
@@ -876,8 +1003,11 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
           writeEntry(m, col);
           previousLine = line;
           previousColumn = col;
+          if (out.length() >= BUFFER_SIZE) {
+            flush();
+          }
         } else {
-          Preconditions.checkState(m == null);
+          Preconditions.checkState(m == UNMAPPED);
         }
       }
 
@@ -897,28 +1027,28 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
      * The values are stored as relative to the last seen values for each
      * field and encoded as Base64VLQs.
      */
-    void writeEntry(Mapping m, int column) throws IOException {
+    void writeEntry(int m, int column) throws IOException {
       // The relative generated column number
       Base64VLQ.encode(out, column - previousColumn);
       previousColumn = column;
-      if (m != null) {
+      if (m != UNMAPPED) {
         // The relative source file id
-        int sourceId = getSourceId(m.sourceFile);
+        int sourceId = sourceFiles.getOutputIndex(sourceFileIds[m]);
         Base64VLQ.encode(out, sourceId - previousSourceFileId);
         previousSourceFileId = sourceId;
 
         // The relative source file line and column
-        int srcline = m.originalPosition.getLine();
-        int srcColumn = m.originalPosition.getColumn();
+        int srcline = originalLines[m];
+        int srcColumn = originalColumns[m];
         Base64VLQ.encode(out, srcline - previousSourceLine);
         previousSourceLine = srcline;
 
         Base64VLQ.encode(out, srcColumn - previousSourceColumn);
         previousSourceColumn = srcColumn;
 
-        if (m.originalName != null) {
+        if (originalNameIds[m] != UNMAPPED) {
           // The relative id for the associated symbol name
-          int nameId = getNameId(m.originalName);
+          int nameId = originalNames.getOutputIndex(originalNameIds[m]);
           Base64VLQ.encode(out, (nameId - previousNameId));
           previousNameId = nameId;
         }
@@ -934,6 +1064,12 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
 
       // And close the final line.
       closeLine(true);
+      flush();
+    }
+
+    private void flush() throws IOException {
+      destination.append(out);
+      out.setLength(0);
     }
 
     /**
@@ -26,6 +26,7 @@ import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import com.google.common.base.Supplier;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
@@ -47,7 +48,6 @@ import java.io.BufferedInputStream;
 import java.io.BufferedWriter;
 import java.io.Closeable;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.Flushable;
 import java.io.IOException;
 import java.io.InputStream;
@@ -58,8 +58,12 @@ import java.io.PrintStream;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -67,6 +71,12 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.logging.Level;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
@@ -195,6 +205,9 @@ public abstract class AbstractCommandLineRunner<A extends Compiler,
 
   private Map<String, String> parsedModuleWrappers = null;
 
+  /** The number of threads on which modules are printed for per-module output. */
+  private int printerThreads = Runtime.getRuntime().availableProcessors();
+
   private final Gson gson;
 
   static final String OUTPUT_MARKER = "%output%";
@@ -243,6 +256,16 @@ public abstract class AbstractCommandLineRunner<A extends Compiler,
     this.exitCodeReceiverForTesting = exitCodeReceiver;
   }
 
+  /**
+   * Sets the number of threads on which modules are printed for per-module
+   * output. Defaults to the number of processors.
+   */
+  @VisibleForTesting
+  void setPrinterThreads(int printerThreads) {
+    Preconditions.checkArgument(printerThreads > 0, "printerThreads must be positive");
+    this.printerThreads = printerThreads;
+  }
+
   /**
    * Returns whether we're in test mode.
    */
@@ -449,6 +472,8 @@ public abstract class AbstractCommandLineRunner<A extends Compiler,
     options.moduleRoots = config.moduleRoots;
     options.angularPass = config.angularPass;
     options.tracer = config.tracerMode;
+    options.setTracerHeapComposition(config.tracerHeapComposition);
+    options.setTrackInputCosts(!config.inputCostReportFile.isEmpty());
     options.setNewTypeInference(config.useNewTypeInference);
     options.instrumentationTemplateFile = config.instrumentationTemplateFile;
   }
@@ -957,11 +982,21 @@ public abstract class AbstractCommandLineRunner<A extends Compiler,
               compiler.getDegenerateModuleGraph().getAllModules()));
     }
 
+    writeModuleOutput(out, m, printedCode(compiler.toSource(m), null),
+        compiler.getSourceMap());
+  }
+
+  /**
+   * Writes the code of a module, wrapped in its module wrapper, and adjusts
+   * the module's source map for the wrapper.
+   */
+  private void writeModuleOutput(Appendable out, JSModule m, CodeWriter code,
+      @Nullable SourceMap sourceMap) throws IOException {
     String fileName = getModuleOutputFileName(m);
     String baseName = new File(fileName).getName();
-    writeOutput(out, compiler, compiler.toSource(m),
+    writeOutput(out, compiler, code,
         parsedModuleWrappers.get(m.getName()).replace("%basename%", baseName),
-        "%s", null);
+        "%s", sourceMap);
   }
 
   /**
@@ -972,6 +1007,47 @@ public abstract class AbstractCommandLineRunner<A extends Compiler,
       String wrapper, String codePlaceholder,
       @Nullable Function<String, String> escaper)
       throws IOException {
+    writeOutput(out, compiler, printedCode(code, escaper), wrapper,
+        codePlaceholder, compiler.getSourceMap());
+  }
+
+  /** Writes the code that goes inside an output wrapper. */
+  private interface CodeWriter {
+    void writeTo(Appendable out) throws IOException;
+  }
+
+  /** Writes code that has already been printed to a string. */
+  private static CodeWriter printedCode(
+      final String code, @Nullable final Function<String, String> escaper) {
+    return new CodeWriter() {
+      @Override
+      public void writeTo(Appendable out) throws IOException {
+        out.append(escaper == null ? code : escaper.apply(code));
+      }
+    };
+  }
+
+  /**
+   * Prints the code of the given module, or of all inputs if it is null,
+   * straight to the output instead of to an intermediate string.
+   */
+  private CodeWriter streamedCode(
+      @Nullable final JSModule module, @Nullable final SourceMap sourceMap) {
+    return new CodeWriter() {
+      @Override
+      public void writeTo(Appendable out) {
+        if (module == null) {
+          compiler.writeSource(out);
+        } else {
+          compiler.writeSource(module, sourceMap, out);
+        }
+      }
+    };
+  }
+
+  private static void writeOutput(Appendable out, Compiler compiler,
+      CodeWriter code, String wrapper, String codePlaceholder,
+      @Nullable SourceMap sourceMap) throws IOException {
     if (compiler.getOptions().outputJs == OutputJs.SENTINEL) {
       out.append("// No JS output because the compiler was run in checks-only mode.\n");
       return;
@@ -987,7 +1063,7 @@ public abstract class AbstractCommandLineRunner<A extends Compiler,
         out.append(prefix);
       }
 
-      out.append(escaper == null ? code : escaper.apply(code));
+      code.writeTo(out);
 
       int suffixStart = pos + codePlaceholder.length();
       if (suffixStart != wrapper.length()) {
@@ -999,12 +1075,12 @@ public abstract class AbstractCommandLineRunner<A extends Compiler,
 
       // If we have a source map, adjust its offsets to match
       // the code WITHIN the wrapper.
-      if (compiler != null && compiler.getSourceMap() != null) {
-        compiler.getSourceMap().setWrapperPrefix(prefix);
+      if (sourceMap != null) {
+        sourceMap.setWrapperPrefix(prefix);
       }
 
     } else {
-      out.append(code);
+      code.writeTo(out);
       out.append('\n');
     }
   }
@@ -1145,6 +1221,9 @@ public abstract class AbstractCommandLineRunner<A extends Compiler,
       }
     }
 
+    outputTraceEvents();
+    outputInputCostReport();
+
     return processResults(result, modules, options);
   }
 
@@ -1265,9 +1344,16 @@ public abstract class AbstractCommandLineRunner<A extends Compiler,
       }
 
       Appendable jsOutput = createDefaultOutput();
-      writeOutput(
-          jsOutput, compiler, compiler.toSource(), config.outputWrapper,
-          marker, escaper);
+      if (escaper == null) {
+        // The code doesn't need to be escaped, so there is no need to build
+        // it up in memory first.
+        writeOutput(jsOutput, compiler, streamedCode(null, null),
+            config.outputWrapper, marker, compiler.getSourceMap());
+      } else {
+        writeOutput(
+            jsOutput, compiler, compiler.toSource(), config.outputWrapper,
+            marker, escaper);
+      }
       closeAppendable(jsOutput);
     }
   }
@@ -1334,22 +1420,51 @@ public abstract class AbstractCommandLineRunner<A extends Compiler,
       return INVALID_MODULE_SOURCEMAP_PATTERN;
     }
 
-    for (JSModule m : modules) {
-      if (isOutputInJson()) {
+    if (isOutputInJson()) {
+      for (JSModule m : modules) {
         this.filesToStreamOut.add(createJsonFileFromModule(m));
-      } else {
+      }
+      return null;
+    }
+
+    // Printing a module only reads the AST, so the modules are printed on a
+    // pool of worker threads, each into its own source map. They are written
+    // out in order as they become available. At most a few modules per
+    // thread are printed ahead, to bound the memory used by pending output.
+    boolean withSourceMap = options.sourceMapOutputPath != null;
+    int numThreads = Math.min(modules.size(), printerThreads);
+    ExecutorService printers = numThreads > 1
+        ? Executors.newFixedThreadPool(numThreads, PRINTER_THREAD_FACTORY)
+        : null;
+    try {
+      Deque<Future<PrintedModule>> pending = new ArrayDeque<>();
+      Iterator<JSModule> modulesToPrint = modules.iterator();
+      for (JSModule m : modules) {
+        CodeWriter code;
+        SourceMap sourceMap;
+        if (printers == null) {
+          // Print the module straight to its file.
+          sourceMap = withSourceMap ? compiler.createSourceMap() : null;
+          code = streamedCode(m, sourceMap);
+        } else {
+          while (pending.size() < 2 * numThreads && modulesToPrint.hasNext()) {
+            pending.add(printers.submit(
+                newPrintModuleTask(modulesToPrint.next(), withSourceMap)));
+          }
+          PrintedModule printed = getPrintedModule(pending.remove());
+          sourceMap = printed.sourceMap;
+          code = printedCode(printed.code, null);
+        }
+
         if (shouldGenerateMapPerModule(options)) {
           mapFileOut = fileNameToOutputWriter2(expandSourceMapPath(options, m));
         }
 
         String moduleFilename = getModuleOutputFileName(m);
         try (Writer writer = fileNameToLegacyOutputWriter(moduleFilename)) {
-          if (options.sourceMapOutputPath != null) {
-            compiler.getSourceMap().reset();
-          }
-          writeModuleOutput(writer, m);
-          if (options.sourceMapOutputPath != null) {
-            compiler.getSourceMap().appendTo(mapFileOut, moduleFilename);
+          writeModuleOutput(writer, m, code, sourceMap);
+          if (withSourceMap) {
+            sourceMap.appendTo(mapFileOut, moduleFilename);
           }
         }
 
@@ -1358,6 +1473,10 @@ public abstract class AbstractCommandLineRunner<A extends Compiler,
           mapFileOut = null;
         }
       }
+    } finally {
+      if (printers != null) {
+        printers.shutdownNow();
+      }
     }
 
     if (mapFileOut != null) {
@@ -1366,6 +1485,58 @@ public abstract class AbstractCommandLineRunner<A extends Compiler,
     return null;
   }
 
+  /**
+   * Module printers run deeply recursive code, so they get the same stack
+   * size as the compiler thread.
+   */
+  private static final ThreadFactory PRINTER_THREAD_FACTORY =
+      new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+          Thread t = new Thread(
+              null, r, "jscompiler-printer", CompilerExecutor.COMPILER_STACK_SIZE);
+          t.setDaemon(true);  // Do not prevent the JVM from exiting.
+          return t;
+        }
+      };
+
+  /** The code of a module and its own source map, ready to be written. */
+  private static final class PrintedModule {
+    final String code;
+    @Nullable final SourceMap sourceMap;
+
+    PrintedModule(String code, @Nullable SourceMap sourceMap) {
+      this.code = code;
+      this.sourceMap = sourceMap;
+    }
+  }
+
+  private PrintedModule printModule(JSModule m, boolean withSourceMap) {
+    SourceMap sourceMap = withSourceMap ? compiler.createSourceMap() : null;
+    return new PrintedModule(compiler.toSource(m, sourceMap), sourceMap);
+  }
+
+  private Callable<PrintedModule> newPrintModuleTask(
+      final JSModule m, final boolean withSourceMap) {
+    return new Callable<PrintedModule>() {
+      @Override
+      public PrintedModule call() {
+        return printModule(m, withSourceMap);
+      }
+    };
+  }
+
+  private static PrintedModule getPrintedModule(Future<PrintedModule> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    }
+  }
+
   /**
    * Given an output module, convert it to a JSONFileSpec with associated
    * sourcemap
@@ -1561,7 +1732,9 @@ public abstract class AbstractCommandLineRunner<A extends Compiler,
     if (fileName == null){
       return null;
     }
-    return new FileOutputStream(fileName);
+    // Unlike FileOutputStream, the stream of a file channel has no
+    // finalizer, and the callers buffer all writes to it.
+    return Files.newOutputStream(Paths.get(fileName));
   }
 
   /**
@@ -1705,6 +1878,29 @@ public abstract class AbstractCommandLineRunner<A extends Compiler,
     }
   }
 
+  /**
+   * Outputs the trace events of the compiler passes, if requested.
+   */
+  private void outputTraceEvents() throws IOException {
+    if (!config.tracerOutputFile.isEmpty() && compiler.tracker != null) {
+      try (Writer out = fileNameToOutputWriter2(config.tracerOutputFile)) {
+        compiler.tracker.outputTraceEvents(out);
+      }
+    }
+  }
+
+  /**
+   * Outputs the time spent on each input, if requested.
+   */
+  private void outputInputCostReport() throws IOException {
+    InputCostTracker inputCosts = compiler.getInputCostTracker();
+    if (!config.inputCostReportFile.isEmpty() && inputCosts != null) {
+      try (Writer out = fileNameToOutputWriter2(config.inputCostReportFile)) {
+        inputCosts.outputReport(config.inputCostReportFile, out);
+      }
+    }
+  }
+
   /**
    * Outputs the string map generated by the {@link ReplaceStrings} pass if an output path exists.
    */
@@ -2535,6 +2731,39 @@ public abstract class AbstractCommandLineRunner<A extends Compiler,
       return this;
     }
 
+    private String tracerOutputFile = "";
+
+    /**
+     * The file to write the tracer's trace events to, if the tracer is on.
+     */
+    public CommandLineConfig setTracerOutputFile(String tracerOutputFile) {
+      this.tracerOutputFile = tracerOutputFile;
+      return this;
+    }
+
+    private boolean tracerHeapComposition = false;
+
+    /**
+     * Whether the tracer also counts the compiler's data structures after
+     * each pass.
+     */
+    public CommandLineConfig setTracerHeapComposition(
+        boolean tracerHeapComposition) {
+      this.tracerHeapComposition = tracerHeapComposition;
+      return this;
+    }
+
+    private String inputCostReportFile = "";
+
+    /**
+     * The file to write the time spent on each input to. The report is JSON
+     * if the file name ends in ".json", and a table otherwise.
+     */
+    public CommandLineConfig setInputCostReportFile(String inputCostReportFile) {
+      this.inputCostReportFile = inputCostReportFile;
+      return this;
+    }
+
     private boolean useNewTypeInference = false;
 
     public CommandLineConfig setNewTypeInference(boolean useNewTypeInference) {
@@ -236,6 +236,12 @@ public abstract class AbstractCompiler implements SourceExcerptProvider {
    */
   abstract Supplier<String> getUniqueNameIdSupplier();
 
+  /**
+   * Generates ids that are unique among those of the returned supplier,
+   * starting from "0", for names that a pass makes unique by other means.
+   */
+  abstract Supplier<String> getLocalNameIdSupplier();
+
   /**
    * @return Whether any errors have been encountered that
    *     should stop the compilation process.
@@ -264,6 +270,14 @@ public abstract class AbstractCompiler implements SourceExcerptProvider {
   /** Passes that do cross-scope modifications use this (eg, InlineVariables) */
   abstract void reportChangeToEnclosingScope(Node n);
 
+  /**
+  /**
+   * Returns the tracker that attributes the compile time to the inputs, or
+   * null if the options don't ask for it.
+   */
+  @Nullable
+  abstract InputCostTracker getInputCostTracker();
+
   /**
    * Represents the different contexts for which the compiler could have
    * distinct configurations.
@@ -18,8 +18,6 @@ package com.google.javascript.jscomp;
 
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
-import com.google.common.collect.BiMap;
-import com.google.common.collect.HashBiMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.javascript.jscomp.NodeTraversal.AbstractPostOrderCallback;
 import com.google.javascript.jscomp.TypeValidator.TypeMismatch;
@@ -108,13 +106,21 @@ class AmbiguateProperties implements CompilerPass {
       };
 
   /** A map from JSType to a unique representative Integer. */
-  private BiMap<JSType, Integer> intForType = HashBiMap.create();
+  private final Map<JSType, Integer> intForType = new HashMap<>();
+
+  /** The inverse of intForType: the JSType for each representative int. */
+  private final List<JSType> typeForInt = new ArrayList<>();
 
   /**
    * A map from JSType to JSTypeBitSet representing the types related
    * to the type.
+   *
+   * <p>All the bit sets in this pass start out empty and grow on demand.
+   * Most types and properties are related to only a few types, so sizing
+   * them by the number of known types would make the heap grow
+   * quadratically with the size of the program.
    */
-  private Map<JSType, JSTypeBitSet> relatedBitsets = new HashMap<>();
+  private final Map<JSType, JSTypeBitSet> relatedBitsets = new HashMap<>();
 
   /** A set of types that invalidate properties from ambiguation. */
   private final Set<JSType> invalidatingTypes;
@@ -193,11 +199,13 @@ class AmbiguateProperties implements CompilerPass {
     if (type != null && type.isTemplatizedType()) {
       type = type.toMaybeTemplatizedType().getReferencedType();
     }
-    if (intForType.containsKey(type)) {
-      return intForType.get(type).intValue();
+    Integer existing = intForType.get(type);
+    if (existing != null) {
+      return existing.intValue();
     }
-    int newInt = intForType.size() + 1;
+    int newInt = typeForInt.size();
     intForType.put(type, newInt);
+    typeForInt.add(type);
     return newInt;
   }
 
@@ -266,8 +274,9 @@ class AmbiguateProperties implements CompilerPass {
   private BitSet getRelatedTypesOnNonUnion(JSType type) {
     // All of the types we encounter should have been added to the
     // relatedBitsets via computeRelatedTypes.
-    if (relatedBitsets.containsKey(type)) {
-      return relatedBitsets.get(type);
+    BitSet related = relatedBitsets.get(type);
+    if (related != null) {
+      return related;
     } else {
       throw new RuntimeException("Related types should have been computed for"
                                  + " type: " + type + " but have not been.");
@@ -314,7 +323,7 @@ class AmbiguateProperties implements CompilerPass {
       return;
     }
 
-    JSTypeBitSet related = new JSTypeBitSet(intForType.size());
+    JSTypeBitSet related = new JSTypeBitSet();
     relatedBitsets.put(type, related);
     related.set(getIntForType(type));
 
@@ -397,7 +406,7 @@ class AmbiguateProperties implements CompilerPass {
    */
   class PropertySubGraph implements SubGraph<Property, Void> {
     /** Types related to properties referenced in this subgraph. */
-    JSTypeBitSet relatedTypes = new JSTypeBitSet(intForType.size());
+    JSTypeBitSet relatedTypes = new JSTypeBitSet();
 
     /**
      * Returns true if prop is in an independent set from all properties in this
@@ -631,7 +640,7 @@ class AmbiguateProperties implements CompilerPass {
     String newName;
     int numOccurrences;
     boolean skipAmbiguating;
-    JSTypeBitSet relatedTypes = new JSTypeBitSet(intForType.size());
+    JSTypeBitSet relatedTypes = new JSTypeBitSet();
 
     Property(String name) {
       this.oldName = name;
@@ -679,10 +688,6 @@ class AmbiguateProperties implements CompilerPass {
   private class JSTypeBitSet extends BitSet {
     private static final long serialVersionUID = 1L;
 
-    private JSTypeBitSet(int size) {
-      super(size);
-    }
-
     private JSTypeBitSet() {
       super();
     }
@@ -696,7 +701,7 @@ class AmbiguateProperties implements CompilerPass {
       int current = 0;
       List<String> types = new ArrayList<>();
       while (-1 != (current = nextSetBit(from))) {
-        types.add(intForType.inverse().get(current).toString());
+        types.add(typeForInt.get(current).toString());
         from = current + 1;
       }
       return Joiner.on(" && ").join(types);
@@ -25,11 +25,14 @@ import com.google.javascript.rhino.Node;
 import com.google.javascript.rhino.Token;
 import com.google.javascript.rhino.TypeIRegistry;
 
+import java.io.IOException;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Deque;
 import java.util.List;
 
+import javax.annotation.Nullable;
+
 /**
  * CodePrinter prints out JS code in either pretty format or compact format.
  *
@@ -44,11 +47,24 @@ public final class CodePrinter {
   // version.
 
   private abstract static class MappedCodePrinter extends CodeConsumer {
+    /**
+     * The minimum amount of finished code that is buffered before it is
+     * written to the output, when printing to an output.
+     */
+    private static final int FLUSH_THRESHOLD = 8192;
+
     private final Deque<Mapping> mappings;
     private final List<Mapping> allMappings;
     private final boolean createSrcMap;
     private final SourceMap.DetailLevel sourceMapDetailLevel;
+    @Nullable private final Appendable out;
+    /**
+     * The code that has not been written to the output yet. When there is no
+     * output, this is all of the code.
+     */
     protected final StringBuilder code = new StringBuilder(1024);
+    /** The number of characters already written to the output. */
+    private int flushedLength = 0;
     protected final int lineLengthThreshold;
     protected int lineLength = 0;
     protected int lineIndex = 0;
@@ -56,7 +72,8 @@ public final class CodePrinter {
     MappedCodePrinter(
         int lineLengthThreshold,
         boolean createSrcMap,
-        SourceMap.DetailLevel sourceMapDetailLevel) {
+        SourceMap.DetailLevel sourceMapDetailLevel,
+        @Nullable Appendable out) {
       Preconditions.checkState(sourceMapDetailLevel != null);
       this.lineLengthThreshold = lineLengthThreshold <= 0 ? Integer.MAX_VALUE :
         lineLengthThreshold;
@@ -64,6 +81,7 @@ public final class CodePrinter {
       this.sourceMapDetailLevel = sourceMapDetailLevel;
       this.mappings = createSrcMap ? new ArrayDeque<Mapping>() : null;
       this.allMappings = createSrcMap ? new ArrayList<Mapping>() : null;
+      this.out = out;
     }
 
     /**
@@ -198,9 +216,56 @@ public final class CodePrinter {
     }
 
     public String getCode() {
+      Preconditions.checkState(out == null, "The code was printed to an output");
       return code.toString();
     }
 
+    /**
+     * Writes the code before the given position to the output, if there is
+     * one and enough code has accumulated. The code from that position on,
+     * and at least the last character, stays in memory where it can still be
+     * changed.
+     */
+    protected final void maybeFlush(int position) {
+      int end = Math.min(position, getLength() - 1) - flushedLength;
+      if (out != null && end >= FLUSH_THRESHOLD) {
+        flush(end);
+      }
+    }
+
+    /** Writes all the remaining code to the output. */
+    void flushAll() {
+      Preconditions.checkState(out != null);
+      flush(code.length());
+    }
+
+    private void flush(int end) {
+      try {
+        out.append(code, 0, end);
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+      code.delete(0, end);
+      flushedLength += end;
+    }
+
+    /** Returns the length of all the code printed so far. */
+    protected final int getLength() {
+      return flushedLength + code.length();
+    }
+
+    protected final char charAt(int position) {
+      return code.charAt(position - flushedLength);
+    }
+
+    protected final void setCharAt(int position, char c) {
+      code.setCharAt(position - flushedLength, c);
+    }
+
+    protected final void insert(int position, char c) {
+      code.insert(position - flushedLength, c);
+    }
+
     @Override
     char getLastChar() {
       return (code.length() > 0) ? code.charAt(code.length() - 1) : '\0';
@@ -232,8 +297,9 @@ public final class CodePrinter {
     private PrettyCodePrinter(
         int lineLengthThreshold,
         boolean createSourceMap,
-        SourceMap.DetailLevel sourceMapDetailLevel) {
-      super(lineLengthThreshold, createSourceMap, sourceMapDetailLevel);
+        SourceMap.DetailLevel sourceMapDetailLevel,
+        @Nullable Appendable out) {
+      super(lineLengthThreshold, createSourceMap, sourceMapDetailLevel, out);
     }
 
     /**
@@ -268,6 +334,8 @@ public final class CodePrinter {
         code.append('\n');
         lineIndex++;
         lineLength = 0;
+        // Finished lines are never changed again.
+        maybeFlush(getLength());
       }
     }
 
@@ -439,11 +507,13 @@ public final class CodePrinter {
    *                            mapping information when printing.
    * @param sourceMapDetailLevel A filter to control which nodes get mapped into
    *     the source map.
+   * @param out The output to write the code to, or null to keep it in memory.
    */
     private CompactCodePrinter(boolean lineBreak,
         boolean preferLineBreakAtEndOfFile, int lineLengthThreshold,
-        boolean createSrcMap, SourceMap.DetailLevel sourceMapDetailLevel) {
-      super(lineLengthThreshold, createSrcMap, sourceMapDetailLevel);
+        boolean createSrcMap, SourceMap.DetailLevel sourceMapDetailLevel,
+        @Nullable Appendable out) {
+      super(lineLengthThreshold, createSrcMap, sourceMapDetailLevel, out);
       this.lineBreak = lineBreak;
       this.preferLineBreakAtEndOfFile = preferLineBreakAtEndOfFile;
     }
@@ -469,15 +539,26 @@ public final class CodePrinter {
     @Override
     void startNewLine() {
       if (lineLength > 0) {
-        prevCutPosition = code.length();
+        prevCutPosition = getLength();
         prevLineStartPosition = lineStartPosition;
         code.append('\n');
         lineLength = 0;
         lineIndex++;
-        lineStartPosition = code.length();
+        lineStartPosition = getLength();
+        maybeFlushFinishedLines();
       }
     }
 
+    /**
+     * Flushes the lines that can no longer change: only the current line
+     * may still be cut, and only the last cut may be moved to the end of
+     * the file.
+     */
+    private void maybeFlushFinishedLines() {
+      maybeFlush(preferLineBreakAtEndOfFile && prevCutPosition > 0
+          ? prevCutPosition : lineStartPosition);
+    }
+
     @Override
     void maybeLineBreak() {
       if (lineBreak) {
@@ -490,9 +571,9 @@ public final class CodePrinter {
       // Since we are at a legal line break, can we upgrade the
       // preferred break position?  We prefer to break after a
       // semicolon rather than before it.
-      int len = code.length();
+      int len = getLength();
       if (preferredBreakPosition == len - 1) {
-        char ch = code.charAt(len - 1);
+        char ch = charAt(len - 1);
         if (ch == ';') {
           preferredBreakPosition = len;
         }
@@ -511,12 +592,13 @@ public final class CodePrinter {
         if (preferredBreakPosition > lineStartPosition &&
             preferredBreakPosition < lineStartPosition + lineLength) {
           int position = preferredBreakPosition;
-          code.insert(position, '\n');
+          insert(position, '\n');
           prevCutPosition = position;
           reportLineCut(lineIndex, position - lineStartPosition, true);
           lineIndex++;
           lineLength -= (position - lineStartPosition);
           lineStartPosition = position + 1;
+          maybeFlushFinishedLines();
         } else {
           startNewLine();
         }
@@ -525,7 +607,7 @@ public final class CodePrinter {
 
     @Override
     void notePreferredLineBreak() {
-      preferredBreakPosition = code.length();
+      preferredBreakPosition = getLength();
     }
 
     @Override
@@ -542,9 +624,9 @@ public final class CodePrinter {
         // Shift the previous break to end of file by replacing it with a
         // <space> and adding a new break at end of file. Adding the space
         // handles cases like instanceof\nfoo. (it would be nice to avoid this)
-        code.setCharAt(prevCutPosition, ' ');
+        setCharAt(prevCutPosition, ' ');
         lineStartPosition = prevLineStartPosition;
-        lineLength = code.length() - lineStartPosition;
+        lineLength = getLength() - lineStartPosition;
         reportLineCut(lineIndex, prevCutPosition + 1, false);
         lineIndex--;
         prevCutPosition = 0;
@@ -663,13 +745,28 @@ public final class CodePrinter {
      * Generates the source code and returns it.
      */
     public String build() {
+      return print(null).getCode();
+    }
+
+    /**
+     * Generates the source code and writes it to the given output as it is
+     * printed, instead of building it up in memory. Only a bounded amount of
+     * the code is buffered, so memory use doesn't depend on the code size.
+     */
+    public void writeTo(Appendable out) {
+      Preconditions.checkNotNull(out);
+      print(out).flushAll();
+    }
+
+    private MappedCodePrinter print(@Nullable Appendable out) {
       if (root == null) {
         throw new IllegalStateException(
             "Cannot build without root node being specified");
       }
 
-      return toSource(root, Format.fromOptions(options, outputTypes, prettyPrint), options,
-          sourceMap, tagAsStrict, lineBreak, codeGeneratorFactory);
+      return CodePrinter.print(root,
+          Format.fromOptions(options, outputTypes, prettyPrint), options,
+          sourceMap, tagAsStrict, lineBreak, codeGeneratorFactory, out);
     }
   }
 
@@ -694,10 +791,13 @@ public final class CodePrinter {
 
   /**
    * Converts a tree to JS code
+   *
+   * @param out The output to write the code to as it is printed, or null to
+   *     keep all the code in the returned printer.
    */
-  private static String toSource(Node root, Format outputFormat,
+  private static MappedCodePrinter print(Node root, Format outputFormat,
       CompilerOptions options, SourceMap sourceMap, boolean tagAsStrict, boolean lineBreak,
-      CodeGeneratorFactory codeGeneratorFactory) {
+      CodeGeneratorFactory codeGeneratorFactory, @Nullable Appendable out) {
     Preconditions.checkState(options.sourceMapDetailLevel != null);
 
     boolean createSourceMap = (sourceMap != null);
@@ -708,11 +808,13 @@ public final class CodePrinter {
             options.preferLineBreakAtEndOfFile,
             options.lineLengthThreshold,
             createSourceMap,
-            options.sourceMapDetailLevel)
+            options.sourceMapDetailLevel,
+            out)
         : new PrettyCodePrinter(
             options.lineLengthThreshold,
             createSourceMap,
-            options.sourceMapDetailLevel);
+            options.sourceMapDetailLevel,
+            out);
     CodeGenerator cg = codeGeneratorFactory.getCodeGenerator(outputFormat, mcp);
 
     cg.maybeTagAsExterns();
@@ -723,12 +825,10 @@ public final class CodePrinter {
     cg.add(root);
     mcp.endFile();
 
-    String code = mcp.getCode();
-
     if (createSourceMap) {
       mcp.generateSourceMap(sourceMap);
     }
 
-    return code;
+    return mcp;
   }
 }
@@ -304,6 +304,14 @@ public class CommandLineRunner extends
         "(i.e. input-file-path|input-source-map)")
     private List<String> sourceMapInputs = new ArrayList<>();
 
+    @Option(name = "--apply_input_source_maps",
+        hidden = true,
+        handler = BooleanOptionHandler.class,
+        usage = "Whether to map the output source map through the source maps "
+        + "given with --source_map_input, so that it points to the original "
+        + "sources rather than to the compiled inputs.")
+    private boolean applyInputSourceMaps = false;
+
     // Used to define the flag, values are stored by the handler.
     @SuppressWarnings("unused")
     @Option(
@@ -572,6 +580,26 @@ public class CommandLineRunner extends
     private CompilerOptions.TracerMode tracerMode =
         CompilerOptions.TracerMode.OFF;
 
+    @Option(name = "--tracer_output_file",
+        hidden = true,
+        usage = "With --tracer_mode, also writes the run of each compiler pass "
+        + "to the given file, in the Chrome trace event format.")
+    private String tracerOutputFile = "";
+
+    @Option(name = "--tracer_heap_composition",
+        hidden = true,
+        handler = BooleanOptionHandler.class,
+        usage = "With --tracer_mode, also counts the AST nodes, JSDoc, types "
+        + "and scopes after each compiler pass, with their estimated size.")
+    private boolean tracerHeapComposition = false;
+
+    @Option(name = "--input_cost_report_file",
+        hidden = true,
+        usage = "Writes the time spent parsing, type checking and optimizing "
+        + "each input to the given file, most expensive first: as JSON if the "
+        + "file name ends in .json, and as a table otherwise.")
+    private String inputCostReportFile = "";
+
     @Option(name = "--new_type_inf",
         handler = BooleanOptionHandler.class,
         usage = "Checks for type errors using the new type inference algorithm.")
@@ -1431,6 +1459,9 @@ public class CommandLineRunner extends
           .setHideWarningsFor(flags.hideWarningsFor)
           .setAngularPass(flags.angularPass)
           .setTracerMode(flags.tracerMode)
+          .setTracerOutputFile(flags.tracerOutputFile)
+          .setTracerHeapComposition(flags.tracerHeapComposition)
+          .setInputCostReportFile(flags.inputCostReportFile)
           .setInstrumentationTemplateFile(flags.instrumentationFile)
           .setNewTypeInference(flags.useNewTypeInference)
           .setJsonStreamMode(flags.jsonStreamMode);
@@ -1516,6 +1547,8 @@ public class CommandLineRunner extends
       options.setExportLocalPropertyDefinitions(true);
     }
 
+    options.setApplyInputSourceMaps(flags.applyInputSourceMaps);
+
     WarningLevel wLevel = flags.warningLevel;
     wLevel.setOptionsForWarningLevel(options);
     for (FormattingOption formattingOption : flags.formatting) {
@@ -25,6 +25,7 @@ import com.google.common.base.Splitter;
 import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
 import com.google.debugging.sourcemap.proto.Mapping.OriginalMapping;
 import com.google.javascript.jscomp.CompilerOptions.DevMode;
 import com.google.javascript.jscomp.ReferenceCollectingCallback.ReferenceCollection;
@@ -32,6 +33,7 @@ import com.google.javascript.jscomp.TypeValidator.TypeMismatch;
 import com.google.javascript.jscomp.deps.SortedDependencies.MissingProvideException;
 import com.google.javascript.jscomp.parsing.Config;
 import com.google.javascript.jscomp.parsing.ParserRunner;
+import com.google.javascript.jscomp.parsing.parser.FeatureSet;
 import com.google.javascript.jscomp.parsing.parser.trees.Comment;
 import com.google.javascript.jscomp.type.ChainableReverseAbstractInterpreter;
 import com.google.javascript.jscomp.type.ClosureReverseAbstractInterpreter;
@@ -50,8 +52,11 @@ import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.nio.file.FileSystems;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -65,6 +70,8 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
 
+import javax.annotation.Nullable;
+
 /**
  * Compiler (and the other classes in this package) does the following:
  * <ul>
@@ -205,6 +212,16 @@ public class Compiler extends AbstractCompiler {
 
   public PerformanceTracker tracker;
 
+  // Attributes the compile time to the inputs, if the options ask for it
+  private InputCostTracker inputCostTracker = null;
+
+  // The global names each script references, if hot swaps recheck the scripts
+  // that depend on the replaced one
+  private ScriptDependencyIndex scriptDependencies = null;
+
+  // The scripts whose types the last hot swap rechecked
+  private ImmutableList<String> recheckedDependents = ImmutableList.of();
+
   // Used by optimize-returns, optimize-parameters and remove-unused-variables
   private SimpleDefinitionFinder defFinder = null;
 
@@ -321,6 +338,8 @@ public class Compiler extends AbstractCompiler {
     }
 
     initWarningsGuard(options.getWarningsGuard());
+
+    inputCostTracker = options.trackInputCosts ? new InputCostTracker() : null;
   }
 
   public void printConfig(PrintStream printStream) {
@@ -465,9 +484,20 @@ public class Compiler extends AbstractCompiler {
   private void initBasedOnOptions() {
     // Create the source map if necessary.
     if (options.sourceMapOutputPath != null) {
-      sourceMap = options.sourceMapFormat.getInstance();
-      sourceMap.setPrefixMappings(options.sourceMapLocationMappings);
+      sourceMap = createSourceMap();
+    }
+  }
+
+  /**
+   * Creates a new, empty source map configured like the compiler's own one.
+   */
+  SourceMap createSourceMap() {
+    SourceMap map = options.sourceMapFormat.getInstance();
+    map.setPrefixMappings(options.sourceMapLocationMappings);
+    if (options.applyInputSourceMaps) {
+      map.setInputSourceMaps(options.inputSourceMaps);
     }
+    return map;
   }
 
   private <T extends SourceFile> List<CompilerInput> makeCompilerInput(
@@ -572,7 +602,7 @@ public class Compiler extends AbstractCompiler {
    * base path is interpreted as a filename rather than a directory. E.g.:
    *   getRelativeTo("../foo/bar.js", "baz/bam/qux.js") --> "baz/foo/bar.js"
    */
-  private static String getRelativeTo(String relative, String base) {
+  static String getRelativeTo(String relative, String base) {
     return FileSystems.getDefault().getPath(base)
         .resolveSibling(relative)
         .normalize()
@@ -697,6 +727,24 @@ public class Compiler extends AbstractCompiler {
     return compilerExecutor.runInCompilerThread(callable, options != null && options.tracer.isOn());
   }
 
+  /** Whether this compiler may run work in other threads. */
+  boolean usesThreads() {
+    return compilerExecutor.usesThreads();
+  }
+
+  /**
+   * Initializes this compiler to run passes over copies of some scripts of
+   * another compiler, with the options, inputs and warnings guard of that
+   * compiler. The inputs are shared, so the passes must not change them.
+   */
+  void initFrom(Compiler other) {
+    this.options = other.options;
+    this.languageMode = other.languageMode;
+    this.warningsGuard = other.warningsGuard;
+    this.inputsById = other.inputsById;
+    initAST();
+  }
+
   private void compileInternal() {
     setProgress(0.0, null);
     CompilerOptionsPreprocessor.preprocess(options);
@@ -813,6 +861,9 @@ public class Compiler extends AbstractCompiler {
     }
     phaseOptimizer.consume(getPassConfig().getChecks());
     phaseOptimizer.process(externsRoot, jsRoot);
+    if (options.rechecksDependentScripts() && getTopScope() != null) {
+      indexScriptDependencies();
+    }
     if (hasErrors()) {
       return;
     }
@@ -908,6 +959,9 @@ public class Compiler extends AbstractCompiler {
     Preconditions.checkState(currentTracer == null);
     currentPassName = passName;
     currentTracer = newTracer(passName);
+    if (inputCostTracker != null) {
+      inputCostTracker.setCurrentPass(passName);
+    }
   }
 
   /**
@@ -919,17 +973,25 @@ public class Compiler extends AbstractCompiler {
     stopTracer(currentTracer, currentPassName);
     currentPassName = null;
     currentTracer = null;
+    if (inputCostTracker != null) {
+      inputCostTracker.setCurrentPass(null);
+    }
 
     maybeSanityCheck();
   }
 
   @Override
   final void beforePass(String passName) {
-    // does nothing for now
+    if (inputCostTracker != null) {
+      inputCostTracker.setCurrentPass(passName);
+    }
   }
 
   @Override
   final void afterPass(String passName) {
+    if (inputCostTracker != null) {
+      inputCostTracker.setCurrentPass(null);
+    }
     if (options.printSourceAfterEachPass) {
       String currentJsSource = toSource();
       if (!currentJsSource.equals(this.lastJsSource)) {
@@ -1033,6 +1095,18 @@ public class Compiler extends AbstractCompiler {
     };
   }
 
+  @Override
+  Supplier<String> getLocalNameIdSupplier() {
+    return new Supplier<String>() {
+      private int nextId = 0;
+
+      @Override
+      public String get() {
+        return String.valueOf(nextId++);
+      }
+    };
+  }
+
   @Override
   boolean areNodesEqualForInlining(Node n1, Node n2) {
     if (options.ambiguateProperties ||
@@ -1325,6 +1399,25 @@ public class Compiler extends AbstractCompiler {
     return this.symbolTable;
   }
 
+  /**
+   * Returns the typed scopes that the type checker has created so far,
+   * without creating the passes.
+   */
+  Collection<TypedScope> getMemoizedTypedScopes() {
+    MemoizedScopeCreator scopeCreator =
+        passes == null ? null : passes.getTypedScopeCreator();
+    return scopeCreator == null
+        ? ImmutableList.<TypedScope>of() : scopeCreator.getAllMemoizedScopes();
+  }
+
+  /**
+   * Returns the number of scopes that the new type inference has created so
+   * far.
+   */
+  int getNewTypeInferenceScopeCount() {
+    return symbolTable == null ? 0 : symbolTable.getScopes().size();
+  }
+
   @Override
   void setSymbolTable(CompilerPass symbolTable) {
     Preconditions.checkArgument(
@@ -1363,6 +1456,9 @@ public class Compiler extends AbstractCompiler {
     if (options.tracer.isOn()) {
       tracker = new PerformanceTracker(jsRoot, options.tracer, this.outStream);
       addChangeHandler(tracker.getCodeChangeHandler());
+      if (options.tracerHeapComposition) {
+        tracker.trackHeapComposition(this);
+      }
     }
 
     Tracer tracer = newTracer(PARSING_PASS_NAME);
@@ -1378,6 +1474,14 @@ public class Compiler extends AbstractCompiler {
         externsRoot.addChildToBack(n);
       }
 
+      // Dependency management and the ES6 module rewriting only parse the
+      // inputs that the scan of their sources doesn't rule out, so scan them
+      // all up front, in parallel.
+      if ((options.dependencyOptions.needsManagement() || options.lowerFromEs6())
+          && compilerExecutor.usesThreads()) {
+        DependencyInfoScanner.scan(this, inputs);
+      }
+
       if (options.lowerFromEs6()) {
         processEs6Modules();
       }
@@ -1529,7 +1633,8 @@ public class Compiler extends AbstractCompiler {
       if (options.dependencyOptions.needsManagement()) {
         // If we're doing scanning dependency info anyway, use that
         // information to skip sources that obviously aren't externs.
-        if (!input.getProvides().isEmpty() || !input.getRequires().isEmpty()) {
+        if (!input.getProvides().isEmpty() || !input.getRequires().isEmpty()
+            || !input.mayBeExterns()) {
           continue;
         }
       }
@@ -1595,16 +1700,22 @@ public class Compiler extends AbstractCompiler {
     processEs6Modules(inputs, false);
   }
 
-  void processEs6Modules(List<CompilerInput> inputsToProcess, boolean forceRewrite) {
-    ES6ModuleLoader loader = new ES6ModuleLoader(this, options.moduleRoots, inputs);
+  void processEs6Modules(List<CompilerInput> inputsToProcess, final boolean forceRewrite) {
+    List<CompilerInput> inputsToRewrite = new ArrayList<>();
     for (CompilerInput input : inputsToProcess) {
       input.setCompiler(this);
-      Node root = input.getAstRoot(this);
-      if (root == null) {
-        continue;
+      // An input without import or export statements is only rewritten when
+      // forced to, so it needn't be parsed yet.
+      if (forceRewrite || input.mayBeEs6Module()) {
+        inputsToRewrite.add(input);
       }
-      new ProcessEs6Modules(this, loader, true).processFile(root, forceRewrite);
     }
+    rewriteModules(inputsToRewrite, new ModuleRewrite() {
+      @Override
+      public void rewrite(Compiler compiler, ES6ModuleLoader loader, Node root) {
+        new ProcessEs6Modules(compiler, loader, true).processFile(root, forceRewrite);
+      }
+    });
   }
 
   /**
@@ -1613,19 +1724,54 @@ public class Compiler extends AbstractCompiler {
    * on the way.
    */
   void processAMDAndCommonJSModules() {
-    ES6ModuleLoader loader = new ES6ModuleLoader(this, options.moduleRoots, inputs);
     for (CompilerInput input : inputs) {
       input.setCompiler(this);
-      Node root = input.getAstRoot(this);
-      if (root == null) {
-        continue;
-      }
-      if (options.transformAMDToCJSModules) {
-        new TransformAMDToCJSModule(this).process(null, root);
+    }
+    final boolean transformAMDToCJSModules = options.transformAMDToCJSModules;
+    final boolean processCommonJSModules = options.processCommonJSModules;
+    rewriteModules(inputs, new ModuleRewrite() {
+      @Override
+      public void rewrite(Compiler compiler, ES6ModuleLoader loader, Node root) {
+        if (transformAMDToCJSModules) {
+          new TransformAMDToCJSModule(compiler).process(null, root);
+        }
+        if (processCommonJSModules) {
+          ProcessCommonJSModules cjs = new ProcessCommonJSModules(compiler, loader, true);
+          cjs.process(null, root);
+        }
       }
-      if (options.processCommonJSModules) {
-        ProcessCommonJSModules cjs = new ProcessCommonJSModules(this, loader, true);
-        cjs.process(null, root);
+    });
+  }
+
+  /**
+   * Rewrites the modules in one input. Each input is rewritten on its own,
+   * using only the facts about the others that the module loader knows from
+   * the start, so that inputs can be rewritten on several threads.
+   */
+  interface ModuleRewrite {
+    /**
+     * Rewrites the given script. The compiler and loader are only used for
+     * this script while this runs, possibly not on the compiler thread.
+     */
+    void rewrite(Compiler compiler, ES6ModuleLoader loader, Node root);
+  }
+
+  /**
+   * Parses the given inputs and rewrites their modules, on several threads
+   * if there are enough of them.
+   */
+  private void rewriteModules(List<CompilerInput> inputsToRewrite, ModuleRewrite rewrite) {
+    ES6ModuleLoader loader = new ES6ModuleLoader(this, options.moduleRoots, inputs);
+    // The input cost tracker charges one input at a time.
+    if (compilerExecutor.usesThreads()
+        && inputCostTracker == null
+        && ParallelModuleRewriter.rewrite(this, loader, inputsToRewrite, rewrite)) {
+      return;
+    }
+    for (CompilerInput input : inputsToRewrite) {
+      Node root = input.getAstRoot(this);
+      if (root != null) {
+        rewrite.rewrite(this, loader, root);
       }
     }
   }
@@ -1640,10 +1786,18 @@ public class Compiler extends AbstractCompiler {
 
   @Override
   Node parseSyntheticCode(String js) {
+    return addSyntheticInput(js).getAstRoot(this);
+  }
+
+  /**
+   * Adds an input for synthetic code without parsing it, under the name that
+   * {@link #parseSyntheticCode(String)} would give it.
+   */
+  CompilerInput addSyntheticInput(String js) {
     CompilerInput input = new CompilerInput(
         SourceFile.fromCode(" [synthetic:" + (++syntheticCodeId) + "] ", js));
     putCompilerInput(input.getInputId(), input);
-    return input.getAstRoot(this);
+    return input;
   }
 
   /**
@@ -1701,14 +1855,7 @@ public class Compiler extends AbstractCompiler {
         Tracer tracer = newTracer("toSource");
         try {
           CodeBuilder cb = new CodeBuilder();
-          if (jsRoot != null) {
-            int i = 0;
-            for (Node scriptNode = jsRoot.getFirstChild();
-                 scriptNode != null;
-                 scriptNode = scriptNode.getNext()) {
-              toSource(cb, i++, scriptNode);
-            }
-          }
+          toSource(cb);
           return cb.toString();
         } finally {
           stopTracer(tracer, "toSource");
@@ -1717,6 +1864,36 @@ public class Compiler extends AbstractCompiler {
     });
   }
 
+  /**
+   * Converts the main parse tree back to JS code, writing it to the given
+   * output as it is printed rather than building it up in memory.
+   */
+  public void writeSource(final Appendable out) {
+    runInCompilerThread(new Callable<Void>() {
+      @Override
+      public Void call() throws Exception {
+        Tracer tracer = newTracer("writeSource");
+        try {
+          toSource(new CodeBuilder(out));
+          return null;
+        } finally {
+          stopTracer(tracer, "writeSource");
+        }
+      }
+    });
+  }
+
+  private void toSource(CodeBuilder cb) {
+    if (jsRoot != null) {
+      int i = 0;
+      for (Node scriptNode = jsRoot.getFirstChild();
+           scriptNode != null;
+           scriptNode = scriptNode.getNext()) {
+        toSource(cb, i++, scriptNode, sourceMap);
+      }
+    }
+  }
+
   /**
    * Converts the parse tree for each input back to JS code.
    */
@@ -1750,26 +1927,51 @@ public class Compiler extends AbstractCompiler {
     return runInCompilerThread(new Callable<String>() {
       @Override
       public String call() throws Exception {
-        List<CompilerInput> inputs = module.getInputs();
-        int numInputs = inputs.size();
-        if (numInputs == 0) {
-          return "";
-        }
-        CodeBuilder cb = new CodeBuilder();
-        for (int i = 0; i < numInputs; i++) {
-          Node scriptNode = inputs.get(i).getAstRoot(Compiler.this);
-          if (scriptNode == null) {
-            throw new IllegalArgumentException(
-                "Bad module: " + module.getName());
-          }
-          toSource(cb, i, scriptNode);
-        }
-        return cb.toString();
+        return toSource(module, sourceMap);
       }
     });
   }
 
 
+  /**
+   * Converts the parse tree for a module back to JS code, recording its
+   * mappings in the given source map instead of the compiler's own one.
+   *
+   * <p>Unlike the other toSource methods, this does not run on the compiler
+   * thread. It only reads the AST, so once compilation has finished, several
+   * modules may be printed concurrently, each into its own source map.
+   *
+   * @param moduleSourceMap The source map for this module, or null if no
+   *     source map should be generated.
+   */
+  String toSource(JSModule module, @Nullable SourceMap moduleSourceMap) {
+    CodeBuilder cb = new CodeBuilder();
+    toSource(cb, module, moduleSourceMap);
+    return cb.toString();
+  }
+
+  /**
+   * Like {@link #toSource(JSModule, SourceMap)}, but writes the code to the
+   * given output as it is printed rather than building it up in memory.
+   */
+  void writeSource(
+      JSModule module, @Nullable SourceMap moduleSourceMap, Appendable out) {
+    toSource(new CodeBuilder(out), module, moduleSourceMap);
+  }
+
+  private void toSource(
+      CodeBuilder cb, JSModule module, @Nullable SourceMap moduleSourceMap) {
+    List<CompilerInput> inputs = module.getInputs();
+    for (int i = 0; i < inputs.size(); i++) {
+      Node scriptNode = inputs.get(i).getAstRoot(this);
+      if (scriptNode == null) {
+        throw new IllegalArgumentException(
+            "Bad module: " + module.getName());
+      }
+      toSource(cb, i, scriptNode, moduleSourceMap);
+    }
+  }
+
   /**
    * Converts the parse tree for each input in a module back to JS code.
    */
@@ -1814,64 +2016,68 @@ public class Compiler extends AbstractCompiler {
     runInCompilerThread(new Callable<Void>() {
       @Override
       public Void call() throws Exception {
-        if (options.printInputDelimiter) {
-          if ((cb.getLength() > 0) && !cb.endsWith("\n")) {
-            cb.append("\n");  // Make sure that the label starts on a new line
-          }
-          Preconditions.checkState(root.isScript());
+        toSource(cb, inputSeqNum, root, sourceMap);
+        return null;
+      }
+    });
+  }
 
-          String delimiter = options.inputDelimiter;
+  private void toSource(
+      CodeBuilder cb, int inputSeqNum, Node root, SourceMap sourceMap) {
+    if (options.printInputDelimiter) {
+      if ((cb.getLength() > 0) && !cb.endsWith("\n")) {
+        cb.append("\n");  // Make sure that the label starts on a new line
+      }
+      Preconditions.checkState(root.isScript());
 
-          String inputName = root.getInputId().getIdName();
-          String sourceName = root.getSourceFileName();
-          Preconditions.checkState(sourceName != null);
-          Preconditions.checkState(!sourceName.isEmpty());
+      String delimiter = options.inputDelimiter;
 
-          delimiter = delimiter
-              .replaceAll("%name%", Matcher.quoteReplacement(inputName))
-              .replaceAll("%num%", String.valueOf(inputSeqNum));
+      String inputName = root.getInputId().getIdName();
+      String sourceName = root.getSourceFileName();
+      Preconditions.checkState(sourceName != null);
+      Preconditions.checkState(!sourceName.isEmpty());
 
-          cb.append(delimiter)
-            .append("\n");
-        }
-        if (root.getJSDocInfo() != null) {
-          String license = root.getJSDocInfo().getLicense();
-          if (license != null && cb.addLicense(license)) {
-            cb.append("/*\n")
-              .append(license)
-              .append("*/\n");
-          }
-        }
+      delimiter = delimiter
+          .replaceAll("%name%", Matcher.quoteReplacement(inputName))
+          .replaceAll("%num%", String.valueOf(inputSeqNum));
 
-        // If there is a valid source map, then indicate to it that the current
-        // root node's mappings are offset by the given string builder buffer.
-        if (options.sourceMapOutputPath != null) {
-          sourceMap.setStartingPosition(
-              cb.getLineIndex(), cb.getColumnIndex());
-        }
+      cb.append(delimiter)
+        .append("\n");
+    }
+    if (root.getJSDocInfo() != null) {
+      String license = root.getJSDocInfo().getLicense();
+      if (license != null && cb.addLicense(license)) {
+        cb.append("/*\n")
+          .append(license)
+          .append("*/\n");
+      }
+    }
 
-        // if LanguageMode is strict, only print 'use strict'
-        // for the first input file
-        String code = toSource(root, sourceMap, inputSeqNum == 0);
-        if (!code.isEmpty()) {
-          cb.append(code);
-
-          // In order to avoid parse ambiguity when files are concatenated
-          // together, all files should end in a semi-colon. Do a quick
-          // heuristic check if there's an obvious semi-colon already there.
-          int length = code.length();
-          char lastChar = code.charAt(length - 1);
-          char secondLastChar = length >= 2 ?
-              code.charAt(length - 2) : '\0';
-          boolean hasSemiColon = lastChar == ';' ||
-              (lastChar == '\n' && secondLastChar == ';');
-          if (!hasSemiColon) {
-            cb.append(";");
-          }
-        }
-        return null;
+    // If there is a valid source map, then indicate to it that the current
+    // root node's mappings are offset by the given string builder buffer.
+    if (sourceMap != null) {
+      sourceMap.setStartingPosition(
+          cb.getLineIndex(), cb.getColumnIndex());
+    }
+
+    // if LanguageMode is strict, only print 'use strict'
+    // for the first input file
+    int start = cb.getLength();
+    newCodePrinterBuilder(root, sourceMap, inputSeqNum == 0).writeTo(cb);
+    int length = cb.getLength() - start;
+    if (length > 0) {
+      // In order to avoid parse ambiguity when files are concatenated
+      // together, all files should end in a semi-colon. Do a quick
+      // heuristic check if there's an obvious semi-colon already there.
+      char lastChar = cb.charFromEnd(0);
+      char secondLastChar = length >= 2 ?
+          cb.charFromEnd(1) : '\0';
+      boolean hasSemiColon = lastChar == ';' ||
+          (lastChar == '\n' && secondLastChar == ';');
+      if (!hasSemiColon) {
+        cb.append(";");
       }
-    });
+    }
   }
 
   /**
@@ -1888,46 +2094,104 @@ public class Compiler extends AbstractCompiler {
    * Generates JavaScript source code for an AST.
    */
   private String toSource(Node n, SourceMap sourceMap, boolean firstOutput) {
+    return newCodePrinterBuilder(n, sourceMap, firstOutput).build();
+  }
+
+  private CodePrinter.Builder newCodePrinterBuilder(
+      Node n, SourceMap sourceMap, boolean firstOutput) {
     CodePrinter.Builder builder = new CodePrinter.Builder(n);
     builder.setTypeRegistry(this.typeRegistry);
     builder.setCompilerOptions(options);
     builder.setSourceMap(sourceMap);
     builder.setTagAsStrict(firstOutput && options.getLanguageOut().isStrict());
-    return builder.build();
+    return builder;
   }
 
   /**
    * Stores a buffer of text to which more can be appended.  This is just like a
    * StringBuilder except that we also track the number of lines.
+   *
+   * <p>A code builder may also pass all text through to an output as it is
+   * appended, keeping only the last few characters in memory.
    */
-  public static class CodeBuilder {
+  public static class CodeBuilder implements Appendable {
+    /** The number of characters kept in memory when writing to an output. */
+    private static final int OUTPUT_TAIL_LENGTH = 16;
+
     private final StringBuilder sb = new StringBuilder();
+    @Nullable private final Appendable out;
+    /** The number of characters written out and dropped from the buffer. */
+    private int droppedLength = 0;
     private int lineCount = 0;
     private int colCount = 0;
     private final Set<String> uniqueLicenses = new HashSet<>();
 
+    public CodeBuilder() {
+      this(null);
+    }
+
+    /**
+     * @param out The output to write all text to as it is appended, or null
+     *     to keep all text in memory.
+     */
+    CodeBuilder(@Nullable Appendable out) {
+      this.out = out;
+    }
+
     /** Removes all text, but leaves the line count unchanged. */
     void reset() {
       sb.setLength(0);
+      droppedLength = 0;
+    }
+
+    @Override
+    public CodeBuilder append(CharSequence csq) {
+      csq = csq == null ? "null" : csq;
+      return append(csq, 0, csq.length());
+    }
+
+    @Override
+    public CodeBuilder append(char c) {
+      return append(String.valueOf(c));
     }
 
     /** Appends the given string to the text buffer. */
     CodeBuilder append(String str) {
-      sb.append(str);
+      return append(str, 0, str.length());
+    }
+
+    /** Appends the given range of characters to the text buffer, without copying them first. */
+    @Override
+    public CodeBuilder append(CharSequence csq, int start, int end) {
+      csq = csq == null ? "null" : csq;
+      if (out != null) {
+        try {
+          out.append(csq, start, end);
+        } catch (IOException e) {
+          throw new RuntimeException(e);
+        }
+      }
+      sb.append(csq, start, end);
+      if (out != null && sb.length() > 2 * OUTPUT_TAIL_LENGTH) {
+        int dropped = sb.length() - OUTPUT_TAIL_LENGTH;
+        sb.delete(0, dropped);
+        droppedLength += dropped;
+      }
 
       // Adjust the line and column information for the new text.
-      int index = -1;
-      int lastIndex = index;
-      while ((index = str.indexOf('\n', index + 1)) >= 0) {
-        ++lineCount;
-        lastIndex = index;
+      int lastIndex = -1;
+      for (int i = start; i < end; i++) {
+        if (csq.charAt(i) == '\n') {
+          ++lineCount;
+          lastIndex = i;
+        }
       }
 
       if (lastIndex == -1) {
         // No new lines, append the new characters added.
-        colCount += str.length();
+        colCount += end - start;
       } else {
-        colCount = str.length() - (lastIndex + 1);
+        colCount = end - (lastIndex + 1);
       }
 
       return this;
@@ -1936,12 +2200,22 @@ public class Compiler extends AbstractCompiler {
     /** Returns all text in the text buffer. */
     @Override
     public String toString() {
+      Preconditions.checkState(out == null, "The text was written to an output");
       return sb.toString();
     }
 
     /** Returns the length of the text buffer. */
     public int getLength() {
-      return sb.length();
+      return droppedLength + sb.length();
+    }
+
+    /**
+     * Returns the character at the given distance from the end of the text,
+     * which must be one of the last few characters.
+     */
+    char charFromEnd(int distance) {
+      Preconditions.checkArgument(distance < OUTPUT_TAIL_LENGTH);
+      return sb.charAt(sb.length() - 1 - distance);
     }
 
     /** Returns the (zero-based) index of the last line in the text buffer. */
@@ -1956,7 +2230,8 @@ public class Compiler extends AbstractCompiler {
 
     /** Determines whether the text ends with the given suffix. */
     boolean endsWith(String suffix) {
-      return (sb.length() > suffix.length())
+      Preconditions.checkArgument(suffix.length() < OUTPUT_TAIL_LENGTH);
+      return (getLength() > suffix.length())
           && suffix.equals(sb.substring(sb.length() - suffix.length()));
     }
 
@@ -2092,6 +2367,12 @@ public class Compiler extends AbstractCompiler {
     return phaseOptimizer.hasScopeChanged(n);
   }
 
+  @Override
+  @Nullable
+  InputCostTracker getInputCostTracker() {
+    return inputCostTracker;
+  }
+
   @Override
   void reportChangeToEnclosingScope(Node n) {
     if (phaseOptimizer != null) {
@@ -2574,6 +2855,13 @@ public class Compiler extends AbstractCompiler {
     Node js = ast.getAstRoot(this);
     Preconditions.checkNotNull(js);
 
+    boolean recheckDependents =
+        scriptDependencies != null && getTopScope() != null;
+    Map<String, String> oldDeclarations = recheckDependents
+        ? ScriptDependencyIndex.getDeclarationSignatures(
+            getTopScope(), js.getSourceFileName())
+        : null;
+
     runHotSwap(originalRoot, js, this.getCleanupPassConfig());
     // NOTE: If hot swap passes that use GlobalNamespace are added, we will need
     // to revisit this approach to clearing GlobalNamespaces
@@ -2583,6 +2871,82 @@ public class Compiler extends AbstractCompiler {
     this.removeSyntheticVarsInput();
 
     runHotSwap(originalRoot, js, this.ensureDefaultPassConfig());
+
+    recheckedDependents = ImmutableList.of();
+    if (recheckDependents) {
+      recheckDependents(js, oldDeclarations);
+    }
+  }
+
+  private void indexScriptDependencies() {
+    scriptDependencies = new ScriptDependencyIndex(this);
+    for (Node script : jsRoot.children()) {
+      scriptDependencies.indexScript(script, getTopScope());
+    }
+  }
+
+  /**
+   * Rechecks the types of the scripts that reference the global declarations
+   * of the given hot-swapped script that changed, and then, in turn, those
+   * that reference the declarations of the rechecked scripts that changed.
+   * Each script is rechecked at most once.
+   */
+  private void recheckDependents(
+      Node swappedScript, Map<String, String> oldDeclarations) {
+    Set<String> checked = new HashSet<>();
+    Deque<Node> worklist = new ArrayDeque<>();
+    Map<Node, Map<String, String>> declarationsBefore = new HashMap<>();
+    ImmutableList.Builder<String> rechecked = ImmutableList.builder();
+    List<PassFactory> recheckPasses =
+        ensureDefaultPassConfig().getTypeRecheckPasses();
+
+    checked.add(swappedScript.getSourceFileName());
+    worklist.add(swappedScript);
+    declarationsBefore.put(swappedScript, oldDeclarations);
+    while (!worklist.isEmpty()) {
+      Node script = worklist.remove();
+      String scriptName = script.getSourceFileName();
+      if (script != swappedScript) {
+        logger.info("Rechecking the types of dependent script " + scriptName);
+        rechecked.add(scriptName);
+        getTypedScopeCreator().removeScopesForScript(scriptName);
+        new FieldCleanupPass(this).hotSwapScript(script, script);
+        for (PassFactory passFactory : recheckPasses) {
+          runHotSwapPass(script, script, passFactory);
+        }
+      }
+
+      Map<String, String> before = declarationsBefore.remove(script);
+      Map<String, String> after =
+          ScriptDependencyIndex.getDeclarationSignatures(getTopScope(), scriptName);
+      Set<String> changed = ScriptDependencyIndex.getChangedNames(before, after);
+      Set<String> added = Sets.difference(after.keySet(), before.keySet());
+      for (String dependent
+          : scriptDependencies.getDependents(scriptName, changed, added)) {
+        CompilerInput input = getInput(new InputId(dependent));
+        if (input != null && checked.add(dependent)) {
+          Node dependentScript = input.getAstRoot(this);
+          declarationsBefore.put(dependentScript,
+              ScriptDependencyIndex.getDeclarationSignatures(
+                  getTopScope(), dependent));
+          worklist.add(dependentScript);
+        }
+      }
+      scriptDependencies.indexScript(script, getTopScope());
+    }
+    recheckedDependents = rechecked.build();
+  }
+
+  /**
+   * Returns the names of the scripts whose types the last
+   * {@link #replaceScript} or {@link #addNewScript} rechecked because they
+   * depend on the new script, if
+   * {@link CompilerOptions#setRecheckDependentScripts} is on. Their type
+   * diagnostics from that call replace the ones from earlier calls; the
+   * diagnostics of the other scripts stay as they were.
+   */
+  public ImmutableList<String> getRecheckedDependents() {
+    return recheckedDependents;
   }
 
   /**
@@ -2678,6 +3042,14 @@ public class Compiler extends AbstractCompiler {
     } else {
       parent.addChildrenAfter(firstChild, lastInjectedLibrary);
     }
+    // Passes skip the scripts that can't contain the features they rewrite,
+    // so the script has to know about the features of the library, too.
+    FeatureSet features = (FeatureSet) parent.getProp(Node.FEATURE_SET);
+    if (features != null) {
+      FeatureSet libraryFeatures = (FeatureSet) ast.getProp(Node.FEATURE_SET);
+      parent.putProp(
+          Node.FEATURE_SET, libraryFeatures == null ? null : features.require(libraryFeatures));
+    }
     lastInjectedLibrary = lastChild;
     injectedLibraries.put(resourceName, lastChild);
 
@@ -57,6 +57,11 @@ public class CompilerInput implements SourceAst, DependencyInfo {
   private final List<String> extraRequires = new ArrayList<>();
   private final List<String> extraProvides = new ArrayList<>();
 
+  // Facts that the scan of the source gathers along with the DependencyInfo.
+  // They stay true when the source wasn't scanned.
+  private boolean mayBeEs6Module = true;
+  private boolean mayBeExterns = true;
+
   // An AbstractCompiler for doing parsing.
   // We do not want to persist this across serialized state.
   private transient AbstractCompiler compiler;
@@ -213,16 +218,52 @@ public class CompilerInput implements SourceAst, DependencyInfo {
     return dependencyInfo;
   }
 
+  /**
+   * Scans the source of this input for its DependencyInfo, unless that
+   * happened already, and reports problems to the given error manager.
+   * Unlike the rest of this class, this can run on any thread, as long as no
+   * other thread uses this input at the same time. Inputs that would need to
+   * be parsed are left for {@link #getDependencyInfo}.
+   */
+  void scanDependencyInfo(ErrorManager errorManager) {
+    if (dependencyInfo == null && ast instanceof JsAst) {
+      dependencyInfo = generateDependencyInfo(errorManager);
+    }
+  }
+
+  /**
+   * Whether the scan of the source found something that looks like an ES6
+   * import or export statement. If it didn't, the input isn't an ES6 module.
+   */
+  boolean mayBeEs6Module() {
+    getDependencyInfo();
+    return mayBeEs6Module;
+  }
+
+  /**
+   * Whether the scan of the source found an {@code @externs} annotation. If it
+   * didn't, the input isn't an externs file.
+   */
+  boolean mayBeExterns() {
+    getDependencyInfo();
+    return mayBeExterns;
+  }
+
+  private DependencyInfo generateDependencyInfo() {
+    Preconditions.checkNotNull(compiler, "Expected setCompiler to be called first: %s", this);
+    return generateDependencyInfo(compiler.getErrorManager());
+  }
+
   /**
    * Generates the DependencyInfo by scanning and/or parsing the file.
    * This is called lazily by getDependencyInfo, and does not take into
    * account any extra requires/provides added by {@link #addRequire}
    * or {@link #addProvide}.
    */
-  private DependencyInfo generateDependencyInfo() {
+  private DependencyInfo generateDependencyInfo(ErrorManager errorManager) {
     Preconditions.checkNotNull(compiler, "Expected setCompiler to be called first: %s", this);
     Preconditions.checkNotNull(
-        compiler.getErrorManager(), "Expected compiler to call an error manager: %s", this);
+        errorManager, "Expected compiler to call an error manager: %s", this);
 
     // If the code is NOT a JsAst, then it was not originally JS code.
     // Look at the Ast for dependency info.
@@ -254,13 +295,16 @@ public class CompilerInput implements SourceAst, DependencyInfo {
       // this to generate deps files. (We're only using it for
       // symbol dependencies.)
       try {
+        String code = getCode();
         DependencyInfo info =
-            (new JsFileParser(compiler.getErrorManager()))
+            (new JsFileParser(errorManager))
             .setIncludeGoogBase(true)
-            .parseFile(getName(), getName(), getCode());
+            .parseFile(getName(), getName(), code);
+        mayBeEs6Module = JsFileParser.mayBeEs6Module(code);
+        mayBeExterns = code.contains("@externs");
         return new LazyParsedDependencyInfo(info, (JsAst) ast, compiler);
       } catch (IOException e) {
-        compiler.getErrorManager().report(CheckLevel.ERROR,
+        errorManager.report(CheckLevel.ERROR,
             JSError.make(AbstractCompiler.READ_ERROR, getName()));
         return SimpleDependencyInfo.EMPTY;
       }
@@ -108,6 +108,7 @@ public class CompilerOptions {
   private boolean assumeStrictThis;
 
   private boolean allowHotswapReplaceScript = false;
+  private boolean recheckDependentScripts = false;
   private boolean preserveDetailedSourceInfo = false;
   private boolean continueAfterErrors = false;
 
@@ -156,6 +157,13 @@ public class CompilerOptions {
    */
   boolean skipNonTranspilationPasses;
 
+  /**
+   * The number of threads that transpile the scripts when
+   * {@link #skipNonTranspilationPasses} is set. Each script is then
+   * transpiled separately, into the same output as with one thread.
+   */
+  int transpilationThreads = 1;
+
   /**
    * Configures the compiler to run expensive sanity checks after
    * every pass. Only intended for internal development.
@@ -888,6 +896,23 @@ public class CompilerOptions {
     this.tracer = mode;
   }
 
+  /**
+   * With the tracer on, also counts the compiler's data structures after each
+   * pass, to see which of them the heap grows with.
+   */
+  boolean tracerHeapComposition = false;
+
+  public void setTracerHeapComposition(boolean tracerHeapComposition) {
+    this.tracerHeapComposition = tracerHeapComposition;
+  }
+
+  /** Attributes the compile time to the inputs it is spent on. */
+  boolean trackInputCosts = false;
+
+  public void setTrackInputCosts(boolean trackInputCosts) {
+    this.trackInputCosts = trackInputCosts;
+  }
+
   private boolean colorizeErrorOutput;
 
   public ErrorFormat errorFormat;
@@ -943,6 +968,12 @@ public class CompilerOptions {
   public List<SourceMap.LocationMapping> sourceMapLocationMappings =
       Collections.emptyList();
 
+  /**
+   * Whether the generated source map should map through the input source
+   * maps to the original sources, rather than to the compiled inputs.
+   */
+  boolean applyInputSourceMaps = false;
+
   /**
    * Whether to return strings logged with AbstractCompiler#addToDebugLog
    * in the compiler's Result.
@@ -1903,6 +1934,20 @@ public class CompilerOptions {
     return allowHotswapReplaceScript;
   }
 
+  /**
+   * Whether a hot swap also rechecks the types of the scripts that depend on
+   * the changed declarations of the replaced script, instead of only the
+   * replaced script. Needs {@link #setAllowHotswapReplaceScript} and the old
+   * type checker.
+   */
+  public void setRecheckDependentScripts(boolean recheckDependentScripts) {
+    this.recheckDependentScripts = recheckDependentScripts;
+  }
+
+  boolean rechecksDependentScripts() {
+    return recheckDependentScripts;
+  }
+
   public void setPreserveDetailedSourceInfo(boolean preserveDetailedSourceInfo) {
     this.preserveDetailedSourceInfo = preserveDetailedSourceInfo;
   }
@@ -1957,6 +2002,11 @@ public class CompilerOptions {
     this.skipNonTranspilationPasses = skipNonTranspilationPasses;
   }
 
+  public void setTranspilationThreads(int transpilationThreads) {
+    Preconditions.checkArgument(transpilationThreads > 0, "transpilationThreads must be positive");
+    this.transpilationThreads = transpilationThreads;
+  }
+
   public void setDevMode(DevMode devMode) {
     this.devMode = devMode;
   }
@@ -2444,6 +2494,10 @@ public class CompilerOptions {
     this.sourceMapLocationMappings = sourceMapLocationMappings;
   }
 
+  public void setApplyInputSourceMaps(boolean applyInputSourceMaps) {
+    this.applyInputSourceMaps = applyInputSourceMaps;
+  }
+
   /**
    * Activates transformation of AMD to CommonJS modules.
    */
@@ -2537,6 +2591,7 @@ public class CompilerOptions {
             .add("angularPass", angularPass)
             .add("anonymousFunctionNaming", anonymousFunctionNaming)
             .add("appNameStr", appNameStr)
+            .add("applyInputSourceMaps", applyInputSourceMaps)
             .add("assumeClosuresOnlyCaptureReferences", assumeClosuresOnlyCaptureReferences)
             .add("assumeStrictThis", assumeStrictThis())
             .add("brokenClosureRequiresLevel", brokenClosureRequiresLevel)
@@ -2664,6 +2719,7 @@ public class CompilerOptions {
             .add("propertyRenaming", propertyRenaming)
             .add("protectHiddenSideEffects", protectHiddenSideEffects)
             .add("quoteKeywordProperties", quoteKeywordProperties)
+            .add("recheckDependentScripts", rechecksDependentScripts())
             .add("recordFunctionInformation", recordFunctionInformation)
             .add("removeAbstractMethods", removeAbstractMethods)
             .add("removeClosureAsserts", removeClosureAsserts)
@@ -2712,7 +2768,10 @@ public class CompilerOptions {
             .add("syntheticBlockStartMarker", syntheticBlockStartMarker)
             .add("tcProjectId", tcProjectId)
             .add("tracer", tracer)
+            .add("tracerHeapComposition", tracerHeapComposition)
+            .add("trackInputCosts", trackInputCosts)
             .add("transformAMDToCJSModules", transformAMDToCJSModules)
+            .add("transpilationThreads", transpilationThreads)
             .add("trustedStrings", trustedStrings)
             .add("tweakProcessing", getTweakProcessing())
             .add("tweakReplacements", getTweakReplacements())
@@ -224,6 +224,21 @@ public final class DefaultPassConfig extends PassConfig {
     }
   }
 
+  /**
+   * Returns the passes that recheck the types of a script after a script it
+   * depends on was hot-swapped: they redeclare its globals, and infer and
+   * check its types.
+   */
+  List<PassFactory> getTypeRecheckPasses() {
+    List<PassFactory> passes = new ArrayList<>();
+    if (options.checkTypes || options.inferTypes) {
+      passes.add(resolveTypes);
+      passes.add(inferTypes);
+      passes.add(options.checkTypes ? checkTypes : inferJsDocInfo);
+    }
+    return passes;
+  }
+
   @Override
   protected List<PassFactory> getChecks() {
     List<PassFactory> checks = new ArrayList<>();
@@ -368,7 +383,7 @@ public final class DefaultPassConfig extends PassConfig {
     }
 
     if (options.skipNonTranspilationPasses) {
-      return checks;
+      return ParallelTranspiler.parallelize(checks, options);
     }
 
     checks.add(convertStaticInheritance);
@@ -1049,7 +1064,7 @@ public final class DefaultPassConfig extends PassConfig {
     assertPassOrder(
         checks,
         dartSuperAccessorsPass,
-        TranspilationPasses.es6ConvertSuper,
+        TranspilationPasses.es6ConvertSuperAndExtractClasses,
         "The Dart super accessors pass must run before ES6->ES3 super lowering.");
 
     if (checks.contains(closureGoogScopeAliases)) {
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2016 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.common.annotations.GwtIncompatible;
+import com.google.javascript.jscomp.ParallelTasks.BatchTask;
+
+import java.util.List;
+
+/**
+ * Scans the sources of the inputs for their provides, requires and module
+ * facts on several threads, before anything needs them. Dependency management
+ * then reads them without parsing, so that only the inputs that survive it
+ * are parsed.
+ *
+ * <p>Each thread reports the problems it finds to an error manager of its
+ * own, and they are passed on to the compiler's in the order of the inputs.
+ */
+@GwtIncompatible("java.util.concurrent")
+final class DependencyInfoScanner {
+
+  /** The number of inputs that one thread scans at a time. */
+  private static final int INPUTS_PER_TASK = 64;
+
+  /** Scans a batch of inputs, and returns the problems found. */
+  private static final BatchTask<CompilerInput, HeldErrorManager, RuntimeException> SCAN_TASK =
+      new BatchTask<CompilerInput, HeldErrorManager, RuntimeException>() {
+        @Override
+        public HeldErrorManager run(List<CompilerInput> batch) {
+          HeldErrorManager errors = new HeldErrorManager();
+          for (CompilerInput input : batch) {
+            input.scanDependencyInfo(errors);
+          }
+          return errors;
+        }
+      };
+
+  private DependencyInfoScanner() {}
+
+  /** Scans the given inputs, on as many threads as there are processors. */
+  static void scan(AbstractCompiler compiler, List<CompilerInput> inputs) {
+    scan(compiler, inputs, Runtime.getRuntime().availableProcessors());
+  }
+
+  /** Scans the given inputs, on at most {@code maxThreads} threads. */
+  static void scan(AbstractCompiler compiler, List<CompilerInput> inputs, int maxThreads) {
+    if (ParallelTasks.numThreads(inputs.size(), INPUTS_PER_TASK, maxThreads) < 2) {
+      return;
+    }
+    List<HeldErrorManager> batchErrors = ParallelTasks.runPartitioned(
+        inputs, INPUTS_PER_TASK, maxThreads, "jscompiler-deps-scanner", SCAN_TASK);
+    for (HeldErrorManager errors : batchErrors) {
+      errors.reportTo(compiler.getErrorManager());
+    }
+  }
+}
@@ -27,8 +27,6 @@ import com.google.common.collect.Multimap;
 import com.google.javascript.jscomp.AbstractCompiler.LifeCycleStage;
 import com.google.javascript.jscomp.NodeTraversal.AbstractScopedCallback;
 import com.google.javascript.jscomp.TypeValidator.TypeMismatch;
-import com.google.javascript.jscomp.graph.StandardUnionFind;
-import com.google.javascript.jscomp.graph.UnionFind;
 import com.google.javascript.rhino.Node;
 import com.google.javascript.rhino.jstype.FunctionType;
 import com.google.javascript.rhino.jstype.JSType;
@@ -37,10 +35,14 @@ import com.google.javascript.rhino.jstype.JSTypeRegistry;
 import com.google.javascript.rhino.jstype.ObjectType;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -138,6 +140,27 @@ class DisambiguateProperties implements CompilerPass {
   // Cache calls to getTypeWithProperty.
   private Map<String, IdentityHashMap<JSType, ObjectType>> gtwpCache;
 
+  // The properties refer to types by a dense id, so that each type is kept
+  // once for the whole pass and the sets of each property are arrays of ints.
+  private Map<JSType, Integer> typeIds;
+  private List<JSType> typesById;
+
+  // The same type is usually related to many properties, and
+  // JSType#toString() is expensive, so we compute each type's name just once.
+  private List<String> typeNamesById;
+
+  /** Returns the id of the given type, assigning one if necessary. */
+  private int getTypeId(JSType type) {
+    Integer id = typeIds.get(type);
+    if (id == null) {
+      id = typesById.size();
+      typeIds.put(type, id);
+      typesById.add(type);
+      typeNamesById.add(null);
+    }
+    return id;
+  }
+
   private ObjectType gtwpCacheGet(String field, JSType type) {
     IdentityHashMap<JSType, ObjectType> m = gtwpCache.get(field);
     return m == null ? null : m.get(type);
@@ -161,13 +184,14 @@ class DisambiguateProperties implements CompilerPass {
      * See getTypeWithProperty. If a property exists on a parent class and a
      * subclass, only the parent class is recorded here.
      */
-    private UnionFind<JSType> types;
+    private TypeIdUnionFind types;
 
     /**
-     * A set of types for which renaming this field should be skipped. This
-     * list is first filled by fields defined in the externs file.
+     * The types for which renaming this field should be skipped, by their
+     * index in types. This is first filled by fields defined in the externs
+     * file.
      */
-    Set<JSType> typesToSkip = new HashSet<>();
+    BitSet typesToSkip = new BitSet();
 
     /**
      * If true, do not rename any instance of this field, as it has been
@@ -176,30 +200,45 @@ class DisambiguateProperties implements CompilerPass {
     boolean skipRenaming;
 
     /**
-     * A map from nodes that need renaming to the highest type in the prototype
-     * chain containing the field for each node. In the case of a union, the
-     * type is the highest type of one of the types in the union.
+     * The nodes that need renaming, in traversal order. Every node is
+     * scheduled at most once, so we keep two parallel lists instead of a
+     * map, which saves an entry object per reference.
      */
-    Map<Node, JSType> rootTypesByNode = new HashMap<>();
+    List<Node> nodesToRename = new ArrayList<>();
+
+    /**
+     * For each node in nodesToRename, the id of the highest type in the
+     * prototype chain containing the field. In the case of a union, the type
+     * is the highest type of one of the types in the union.
+     */
+    int[] rootTypeIdsToRename = new int[2];
 
     /**
      * For every property p and type t, we only need to run recordInterfaces
-     * once. Use this cache to avoid needless calls.
+     * once. Use this cache to avoid needless calls. The cache is keyed by
+     * identity, since comparing types structurally costs more than the
+     * occasional redundant call.
      */
-    private final Set<JSType> recordInterfacesCache = new HashSet<>();
+    private final Set<JSType> recordInterfacesCache =
+        Collections.newSetFromMap(new IdentityHashMap<JSType, Boolean>());
 
     Property(String name) {
       this.name = name;
     }
 
     /** Returns the types on which this field is referenced. */
-    UnionFind<JSType> getTypes() {
+    TypeIdUnionFind getTypes() {
       if (types == null) {
-        types = new StandardUnionFind<>();
+        types = new TypeIdUnionFind();
       }
       return types;
     }
 
+    /** Returns the index of the given type in types, adding it if necessary. */
+    int getTypeIndex(JSType type) {
+      return getTypes().add(getTypeId(type));
+    }
+
     /**
      * Record that this property is referenced from this type.
      */
@@ -214,9 +253,9 @@ class DisambiguateProperties implements CompilerPass {
         addTypeToSkip(top);
       }
       if (relatedType == null) {
-        getTypes().add(top);
+        getTypeIndex(top);
       } else {
-        getTypes().union(top, relatedType);
+        getTypes().union(getTypeIndex(top), getTypeIndex(relatedType));
       }
       FunctionType constructor = getConstructor(type);
       if (constructor != null && recordInterfacesCache.add(type)) {
@@ -227,8 +266,9 @@ class DisambiguateProperties implements CompilerPass {
     /** Records the given type as one to skip for this property. */
     void addTypeToSkip(JSType type) {
       for (JSType skipType : getTypesToSkipForType(type)) {
-        typesToSkip.add(skipType);
-        getTypes().union(skipType, type);
+        int skipIndex = getTypeIndex(skipType);
+        typesToSkip.set(skipIndex);
+        getTypes().union(skipIndex, getTypeIndex(type));
       }
     }
 
@@ -244,19 +284,17 @@ class DisambiguateProperties implements CompilerPass {
 
           // Make sure that the representative type for each type to skip is
           // marked as being skipped.
-          Set<JSType> rootTypesToSkip = new HashSet<>();
-          for (JSType subType : typesToSkip) {
-            rootTypesToSkip.add(types.find(subType));
+          BitSet rootTypesToSkip = new BitSet();
+          for (int i = typesToSkip.nextSetBit(0); i >= 0; i = typesToSkip.nextSetBit(i + 1)) {
+            rootTypesToSkip.set(types.find(i));
           }
-          typesToSkip.addAll(rootTypesToSkip);
-
-          Set<JSType> newTypesToSkip = new HashSet<>();
-          Set<JSType> allTypes = types.elements();
-          int originalTypesSize = allTypes.size();
-          for (JSType subType : allTypes) {
-            if (!typesToSkip.contains(subType)
-                && typesToSkip.contains(types.find(subType))) {
-              newTypesToSkip.add(subType);
+          typesToSkip.or(rootTypesToSkip);
+
+          List<JSType> newTypesToSkip = new ArrayList<>();
+          int originalTypesSize = types.size();
+          for (int i = 0; i < originalTypesSize; i++) {
+            if (!typesToSkip.get(i) && typesToSkip.get(types.find(i))) {
+              newTypesToSkip.add(typesById.get(types.idAt(i)));
             }
           }
 
@@ -265,7 +303,7 @@ class DisambiguateProperties implements CompilerPass {
           }
 
           // If there were not any new types added, we are done here.
-          if (types.elements().size() == originalTypesSize) {
+          if (types.size() == originalTypesSize) {
             break;
           }
         }
@@ -274,17 +312,16 @@ class DisambiguateProperties implements CompilerPass {
 
     /** Returns true if any instance of this property should be renamed. */
     boolean shouldRename() {
-      return !skipRenaming && types != null
-          && types.allEquivalenceClasses().size() > 1;
+      return !skipRenaming && types != null && types.getClassCount() > 1;
     }
 
     /**
-     * Returns true if this property should be renamed on this type.
-     * expandTypesToSkip() should be called before this, if anything has been
-     * added to the typesToSkip list.
+     * Returns true if this property should be renamed on the type at this
+     * index in types. expandTypesToSkip() should be called before this, if
+     * anything has been added to the typesToSkip list.
      */
-    boolean shouldRename(JSType type) {
-      return !skipRenaming && !typesToSkip.contains(type);
+    boolean shouldRename(int index) {
+      return !skipRenaming && !typesToSkip.get(index);
     }
 
     /**
@@ -296,7 +333,8 @@ class DisambiguateProperties implements CompilerPass {
       skipRenaming = true;
       types = null;
       typesToSkip = null;
-      rootTypesByNode = null;
+      nodesToRename = null;
+      rootTypeIdsToRename = null;
       return changed;
     }
 
@@ -315,7 +353,12 @@ class DisambiguateProperties implements CompilerPass {
           invalidate();
           return false;
         }
-        rootTypesByNode.put(node, type);
+        int count = nodesToRename.size();
+        if (count == rootTypeIdsToRename.length) {
+          rootTypeIdsToRename = Arrays.copyOf(rootTypeIdsToRename, count * 2);
+        }
+        rootTypeIdsToRename[count] = getTypeId(type);
+        nodesToRename.add(node);
       }
       return true;
     }
@@ -352,6 +395,9 @@ class DisambiguateProperties implements CompilerPass {
         compiler.getLifeCycleStage() == LifeCycleStage.NORMALIZED);
     this.implementedInterfaces = new HashMap<>();
     this.gtwpCache = new HashMap<>();
+    this.typeIds = new HashMap<>();
+    this.typesById = new ArrayList<>();
+    this.typeNamesById = new ArrayList<>();
     // TypeValidator records places where a type A is used in a context that
     // expects a type B.
     // For each pair (A, B), here we mark both A and B as types whose properties
@@ -441,8 +487,7 @@ class DisambiguateProperties implements CompilerPass {
           // to the instance type as well.  These assignments are not usually
           // seen in the extern code itself, so we must handle them here.
           if ((type = getInstanceFromPrototype(type)) != null) {
-            prop.getTypes().add(type);
-            prop.typesToSkip.add(type);
+            prop.typesToSkip.set(prop.getTypeIndex(type));
           }
         }
       }
@@ -694,19 +739,21 @@ class DisambiguateProperties implements CompilerPass {
     Set<String> reported = new HashSet<>();
     for (Property prop : properties.values()) {
       if (prop.shouldRename()) {
-        UnionFind<JSType> pTypes = prop.getTypes();
-        Map<JSType, String> propNames = buildPropNames(prop);
+        TypeIdUnionFind pTypes = prop.getTypes();
+        String[] propNames = buildPropNames(prop);
 
         ++propsRenamed;
         prop.expandTypesToSkip();
         // This loop has poor locality, because instead of walking the AST,
         // we iterate over all accesses of a property, which can be in very
         // different places in the code.
-        for (Map.Entry<Node, JSType> entry : prop.rootTypesByNode.entrySet()) {
-          Node node = entry.getKey();
-          JSType rootType = entry.getValue();
-          if (prop.shouldRename(rootType)) {
-            String newName = propNames.get(pTypes.find(rootType));
+        for (int i = 0; i < prop.nodesToRename.size(); i++) {
+          Node node = prop.nodesToRename.get(i);
+          int rootTypeId = prop.rootTypeIdsToRename[i];
+          int index = pTypes.indexOf(rootTypeId);
+          checkState(index >= 0, "Type was not recorded for %s", prop.name);
+          if (prop.shouldRename(index)) {
+            String newName = propNames[pTypes.find(index)];
             node.setString(newName);
             compiler.reportCodeChange();
             ++instancesRenamed;
@@ -722,7 +769,7 @@ class DisambiguateProperties implements CompilerPass {
                   node,
                   checkLevelForProp,
                   Warnings.INVALIDATION_ON_TYPE, prop.name,
-                  rootType.toString(), ""));
+                  typesById.get(rootTypeId).toString(), ""));
             }
           }
         }
@@ -743,45 +790,72 @@ class DisambiguateProperties implements CompilerPass {
   }
 
   /**
-   * Chooses a name to use for renaming in each equivalence class and maps
-   * the representative type of that class to that name.
+   * Chooses a name to use for renaming in each equivalence class, and returns
+   * the names by the index of the representative type of the class.
    */
-  private Map<JSType, String> buildPropNames(Property prop) {
-    UnionFind<JSType> pTypes = prop.getTypes();
+  private String[] buildPropNames(Property prop) {
+    TypeIdUnionFind pTypes = prop.getTypes();
     String pname = prop.name;
-    Map<JSType, String> names = new HashMap<>();
-    for (Set<JSType> set : pTypes.allEquivalenceClasses()) {
-      checkState(!set.isEmpty());
-      JSType representative = pTypes.find(set.iterator().next());
-      String typeName = null;
-      for (JSType type : set) {
-        String typeString = type.toString();
-        if (typeName == null || typeString.compareTo(typeName) < 0) {
-          typeName = typeString;
-        }
+    // The smallest name of a type in each class, at first.
+    String[] names = new String[pTypes.size()];
+    for (int i = 0; i < pTypes.size(); i++) {
+      int representative = pTypes.find(i);
+      String typeString = getTypeName(pTypes.idAt(i));
+      if (names[representative] == null
+          || typeString.compareTo(names[representative]) < 0) {
+        names[representative] = typeString;
+      }
+    }
+    for (int i = 0; i < names.length; i++) {
+      String typeName = names[i];
+      if (typeName == null) {
+        continue;
       }
-      String newName;
       if ("{...}".equals(typeName)) {
-        newName = pname;
+        names[i] = pname;
       } else {
-        newName = NONWORD_PATTERN.matcher(typeName).replaceAll("_") + '$' + pname;
+        names[i] = NONWORD_PATTERN.matcher(typeName).replaceAll("_") + '$' + pname;
       }
-      names.put(representative, newName);
     }
     return names;
   }
 
+  private String getTypeName(int typeId) {
+    String name = typeNamesById.get(typeId);
+    if (name == null) {
+      name = typesById.get(typeId).toString();
+      typeNamesById.set(typeId, name);
+    }
+    return name;
+  }
+
   /** Returns a map from field name to types for which it will be renamed. */
   Multimap<String, Collection<JSType>> getRenamedTypesForTesting() {
     Multimap<String, Collection<JSType>> ret = HashMultimap.create();
     for (Map.Entry<String, Property> entry : properties.entrySet()) {
       Property prop = entry.getValue();
       if (!prop.skipRenaming) {
-        for (Collection<JSType> c : prop.getTypes().allEquivalenceClasses()) {
-          if (!c.isEmpty() && !prop.typesToSkip.contains(c.iterator().next())) {
-            ret.put(entry.getKey(), c);
+        TypeIdUnionFind types = prop.getTypes();
+        // The classes by their representative, unless the first type added
+        // to the class is skipped.
+        Map<Integer, ImmutableSet.Builder<JSType>> classes = new LinkedHashMap<>();
+        Set<Integer> skipped = new HashSet<>();
+        for (int i = 0; i < types.size(); i++) {
+          int representative = types.find(i);
+          if (!classes.containsKey(representative) && !skipped.contains(representative)) {
+            if (prop.typesToSkip.get(i)) {
+              skipped.add(representative);
+            } else {
+              classes.put(representative, ImmutableSet.<JSType>builder());
+            }
+          }
+          if (classes.containsKey(representative)) {
+            classes.get(representative).add(typesById.get(types.idAt(i)));
           }
         }
+        for (ImmutableSet.Builder<JSType> c : classes.values()) {
+          ret.put(entry.getKey(), c.build());
+        }
       }
     }
     return ret;
@@ -1028,4 +1102,113 @@ class DisambiguateProperties implements CompilerPass {
     return constructor != null && constructor.isConstructor()
         ? constructor : null;
   }
+
+  /**
+   * A union-find of the types of one property, by their ids. It holds a few
+   * arrays of ints instead of a map entry and a node object for each type,
+   * and finds the types without comparing them. Each type has an index, in
+   * the order the types were added.
+   */
+  private static final class TypeIdUnionFind {
+    /** The id of the type at each index. */
+    private int[] ids = new int[2];
+    /** The index of the parent of the type at each index. */
+    private int[] parents = new int[2];
+    private byte[] ranks = new byte[2];
+    private int size = 0;
+    private int classCount = 0;
+    /**
+     * A hash table with linear probing that holds the index of each type plus
+     * one, in the slot of its id. Zero marks an empty slot.
+     */
+    private int[] slots = new int[4];
+
+    /** The number of types. */
+    int size() {
+      return size;
+    }
+
+    /** The number of equivalence classes of the types. */
+    int getClassCount() {
+      return classCount;
+    }
+
+    /** Returns the id of the type at the given index. */
+    int idAt(int index) {
+      return ids[index];
+    }
+
+    /** Returns the index of the type with the given id, or -1 if it has none. */
+    int indexOf(int id) {
+      int mask = slots.length - 1;
+      for (int slot = id & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+        if (ids[slots[slot] - 1] == id) {
+          return slots[slot] - 1;
+        }
+      }
+      return -1;
+    }
+
+    /** Returns the index of the type with the given id, adding it if necessary. */
+    int add(int id) {
+      int mask = slots.length - 1;
+      int slot = id & mask;
+      for (; slots[slot] != 0; slot = (slot + 1) & mask) {
+        if (ids[slots[slot] - 1] == id) {
+          return slots[slot] - 1;
+        }
+      }
+      if (size == ids.length) {
+        ids = Arrays.copyOf(ids, size * 2);
+        parents = Arrays.copyOf(parents, size * 2);
+        ranks = Arrays.copyOf(ranks, size * 2);
+      }
+      int index = size++;
+      ids[index] = id;
+      parents[index] = index;
+      classCount++;
+      slots[slot] = index + 1;
+      // Keep the table at most half full.
+      if (size * 2 > slots.length) {
+        slots = new int[slots.length * 2];
+        mask = slots.length - 1;
+        for (int i = 0; i < size; i++) {
+          slot = ids[i] & mask;
+          while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+          }
+          slots[slot] = i + 1;
+        }
+      }
+      return index;
+    }
+
+    /** Returns the index of the representative of the type at the given index. */
+    int find(int index) {
+      while (parents[index] != index) {
+        // Halve the path on the way.
+        parents[index] = parents[parents[index]];
+        index = parents[index];
+      }
+      return index;
+    }
+
+    /** Merges the classes of the types at the given indices. */
+    void union(int a, int b) {
+      int rootA = find(a);
+      int rootB = find(b);
+      if (rootA == rootB) {
+        return;
+      }
+      classCount--;
+      if (ranks[rootA] > ranks[rootB]) {
+        parents[rootB] = rootA;
+      } else {
+        parents[rootA] = rootB;
+        if (ranks[rootA] == ranks[rootB]) {
+          ranks[rootB]++;
+        }
+      }
+    }
+  }
 }
@@ -79,6 +79,21 @@ public final class ES6ModuleLoader {
     }
   }
 
+  private ES6ModuleLoader(
+      AbstractCompiler compiler, List<URI> moduleRootUris, Set<URI> moduleUris) {
+    this.compiler = compiler;
+    this.moduleRootUris = moduleRootUris;
+    this.moduleUris = moduleUris;
+  }
+
+  /**
+   * Returns a loader that locates modules like this one, but reports to the
+   * given compiler. The two loaders may be used on different threads.
+   */
+  ES6ModuleLoader withCompiler(AbstractCompiler compiler) {
+    return new ES6ModuleLoader(compiler, moduleRootUris, moduleUris);
+  }
+
   /**
    * Find a CommonJS module {@code requireName} relative to {@code context}.
    * @return The normalized module URI, or {@code null} if not found.
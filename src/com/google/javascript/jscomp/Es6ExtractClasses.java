@@ -16,6 +16,7 @@
 
 package com.google.javascript.jscomp;
 
+import com.google.common.base.Supplier;
 import com.google.javascript.jscomp.ExpressionDecomposer.DecompositionType;
 import com.google.javascript.rhino.IR;
 import com.google.javascript.rhino.Node;
@@ -46,7 +47,7 @@ public final class Es6ExtractClasses
 
   private final AbstractCompiler compiler;
   private final ExpressionDecomposer expressionDecomposer;
-  private int classDeclVarCounter = 0;
+  private final Supplier<String> classDeclVarIds;
 
   Es6ExtractClasses(AbstractCompiler compiler) {
     this.compiler = compiler;
@@ -56,6 +57,7 @@ public final class Es6ExtractClasses
         compiler.getUniqueNameIdSupplier(),
         consts,
         Scope.createGlobalScope(new Node(Token.SCRIPT)));
+    this.classDeclVarIds = compiler.getLocalNameIdSupplier();
   }
 
   @Override
@@ -93,7 +95,7 @@ public final class Es6ExtractClasses
     String name = ES6ModuleLoader.toJSIdentifier(
         ES6ModuleLoader.createUri(classNode.getStaticSourceFile().getName()))
         + CLASS_DECL_VAR
-        + (classDeclVarCounter++);
+        + classDeclVarIds.get();
     Node statement = NodeUtil.getEnclosingStatement(parent);
     parent.replaceChild(classNode, IR.name(name));
     Node classDeclaration = IR.constNode(IR.name(name), classNode)
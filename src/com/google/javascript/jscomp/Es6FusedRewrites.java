@@ -0,0 +1,169 @@
+/*
+ * Copyright 2016 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.javascript.jscomp.NodeTraversal.Callback;
+import com.google.javascript.jscomp.parsing.parser.FeatureSet.Feature;
+import com.google.javascript.rhino.Node;
+
+import java.util.Set;
+
+/**
+ * Runs the callbacks of several ES6 transpilation passes in one traversal.
+ * The result is the same as when each pass traverses the program on its own,
+ * one after another.
+ *
+ * <p>Unlike {@link CombinedCompilerPass}, the callbacks may change the tree,
+ * but only callbacks that fit these rules can share a traversal:
+ * <ul>
+ * <li>Every callback traverses every node.
+ * <li>The rewrite a callback makes at a node depends only on the node, its
+ *     subtree and what the earlier callbacks made of them, so it doesn't matter
+ *     that the earlier callbacks haven't seen the rest of the program yet.
+ * <li>A later callback never has to see a node at a place that the traversal
+ *     has already passed, or that an earlier callback moved the node to.
+ * </ul>
+ * The factory methods below combine the transpilation passes for which this
+ * holds. The other passes need the whole program, or move code across
+ * statements that the traversal has already passed, and still run alone.
+ *
+ * <p>Each factory method also names the features that its callbacks rewrite,
+ * and the scripts that can't contain any of them are skipped.
+ */
+final class Es6FusedRewrites implements HotSwapCompilerPass, Callback {
+
+  private final AbstractCompiler compiler;
+  private final Set<Feature> features;
+  private final Callback[] callbacks;
+
+  private Es6FusedRewrites(
+      AbstractCompiler compiler, Set<Feature> features, Callback... callbacks) {
+    this.compiler = compiler;
+    this.features = features;
+    this.callbacks = callbacks;
+  }
+
+  /**
+   * Runs {@link Es6RewriteArrowFunction} and
+   * {@link Es6RenameVariablesInParamLists}. Arrow functions are rewritten on
+   * the way down, and the parameter lists of a function on the way up, once
+   * all the arrow functions in it are rewritten.
+   */
+  static Es6FusedRewrites arrowFunctionsAndParamLists(AbstractCompiler compiler) {
+    return new Es6FusedRewrites(compiler,
+        ImmutableSet.of(
+            Feature.ARROW_FUNCTIONS,
+            Feature.COMPUTED_PROPERTIES,
+            Feature.DEFAULT_PARAMETERS,
+            Feature.DESTRUCTURING),
+        new Es6RewriteArrowFunction(compiler),
+        new Es6RenameVariablesInParamLists(compiler));
+  }
+
+  /**
+   * Runs {@link Es6SplitVariableDeclarations} and
+   * {@link Es6RewriteDestructuring}. The declarations are split before the
+   * traversal enters their parent, so that it visits all parts.
+   */
+  static Es6FusedRewrites destructuring(AbstractCompiler compiler) {
+    return new Es6FusedRewrites(compiler,
+        ImmutableSet.of(Feature.DEFAULT_PARAMETERS, Feature.DESTRUCTURING),
+        new SplitChildDeclarations(new Es6SplitVariableDeclarations(compiler)),
+        new Es6RewriteDestructuring(compiler));
+  }
+
+  /**
+   * Runs {@link Es6ConvertSuper} and {@link Es6ExtractClasses}. A class is
+   * only extracted once the super calls in it are converted.
+   */
+  static Es6FusedRewrites superAndClasses(AbstractCompiler compiler) {
+    return new Es6FusedRewrites(compiler,
+        ImmutableSet.of(Feature.CLASSES, Feature.SUPER),
+        new Es6ConvertSuper(compiler),
+        new Es6ExtractClasses(compiler));
+  }
+
+  @Override
+  public void process(Node externs, Node root) {
+    NodeTraversal.traverseEs6ScriptsWithFeatures(compiler, externs, features, this);
+    NodeTraversal.traverseEs6ScriptsWithFeatures(compiler, root, features, this);
+  }
+
+  @Override
+  public void hotSwapScript(Node scriptRoot, Node originalRoot) {
+    NodeTraversal.traverseEs6ScriptsWithFeatures(compiler, scriptRoot, features, this);
+  }
+
+  @Override
+  public boolean shouldTraverse(NodeTraversal t, Node n, Node parent) {
+    for (Callback callback : callbacks) {
+      if (!callback.shouldTraverse(t, n, parent)) {
+        throw new IllegalStateException(callback + " skipped a subtree");
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void visit(NodeTraversal t, Node n, Node parent) {
+    callbacks[0].visit(t, n, parent);
+    for (int i = 1; i < callbacks.length; i++) {
+      // An earlier callback may have moved the node, for instance into the
+      // call that replaces a super call.
+      callbacks[i].visit(t, n, n.getParent());
+    }
+  }
+
+  /**
+   * Splits the destructuring declarations among the children of each node.
+   * {@link Es6SplitVariableDeclarations} splits them when it leaves them, too
+   * late for the traversal to visit the declarations that it adds after them.
+   */
+  private static final class SplitChildDeclarations
+      extends NodeTraversal.AbstractPreOrderCallback {
+    private final Es6SplitVariableDeclarations split;
+
+    SplitChildDeclarations(Es6SplitVariableDeclarations split) {
+      this.split = split;
+    }
+
+    @Override
+    public boolean shouldTraverse(NodeTraversal t, Node n, Node parent) {
+      if (mayHaveDeclarations(n)) {
+        for (Node child = n.getFirstChild(); child != null; child = child.getNext()) {
+          if (NodeUtil.isDestructuringDeclaration(child)) {
+            split.splitDeclaration(child, n);
+          }
+        }
+      }
+      return true;
+    }
+
+    private static boolean mayHaveDeclarations(Node n) {
+      switch (n.getType()) {
+        case FOR:
+        case FOR_OF:
+        case EXPORT:
+        case DECLARE:
+          return true;
+        default:
+          return NodeUtil.isStatementParent(n);
+      }
+    }
+  }
+}
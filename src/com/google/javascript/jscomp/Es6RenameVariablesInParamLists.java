@@ -16,6 +16,7 @@
 
 package com.google.javascript.jscomp;
 
+import com.google.common.base.Supplier;
 import com.google.javascript.jscomp.NodeTraversal.AbstractPostOrderCallback;
 import com.google.javascript.rhino.Node;
 
@@ -35,9 +36,11 @@ public final class Es6RenameVariablesInParamLists extends AbstractPostOrderCallb
     implements HotSwapCompilerPass {
 
   private final AbstractCompiler compiler;
+  private final Supplier<String> renameIds;
 
   public Es6RenameVariablesInParamLists(AbstractCompiler compiler) {
     this.compiler = compiler;
+    this.renameIds = compiler.getUniqueNameIdSupplier();
   }
 
   @Override
@@ -64,6 +67,11 @@ public final class Es6RenameVariablesInParamLists extends AbstractPostOrderCallb
         return true;
       }
     });
+    if (collector.currFuncReferences.isEmpty()) {
+      // Nothing in the body can shadow the parameter list, so don't bother
+      // creating the scopes of the function.
+      return;
+    }
 
     Node block = paramList.getNext();
     Es6SyntacticScopeCreator creator = new Es6SyntacticScopeCreator(compiler);
@@ -75,7 +83,7 @@ public final class Es6RenameVariablesInParamLists extends AbstractPostOrderCallb
       if (collector.currFuncReferences.contains(oldName)
           && !currFuncRenameMap.containsKey(oldName)) {
         currFuncRenameMap.put(
-            oldName, oldName + "$" + compiler.getUniqueNameIdSupplier().get());
+            oldName, oldName + "$" + renameIds.get());
       }
     }
     Map<Node, Map<String, String>> renameMap = new LinkedHashMap<>();
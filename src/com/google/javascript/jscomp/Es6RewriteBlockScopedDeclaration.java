@@ -17,6 +17,8 @@
 package com.google.javascript.jscomp;
 
 import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+import com.google.common.base.Supplier;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Multimap;
@@ -52,14 +54,33 @@ public final class Es6RewriteBlockScopedDeclaration extends AbstractPostOrderCal
   private final Map<Node, Map<String, String>> renameMap = new LinkedHashMap<>();
   private final Set<Node> letConsts = new HashSet<>();
   private final Set<String> undeclaredNames = new HashSet<>();
+  private Predicate<String> declaredElsewhere = Predicates.alwaysFalse();
+  private final Supplier<String> renameIds;
 
   public Es6RewriteBlockScopedDeclaration(AbstractCompiler compiler) {
     this.compiler = compiler;
+    this.renameIds = compiler.getUniqueNameIdSupplier();
+  }
+
+  /**
+   * Makes the renaming decisions of this pass see the globals of scripts
+   * that it doesn't process itself, as {@link GlobalNames} of them describe.
+   *
+   * @param declaredElsewhere whether a name is declared in the global scope
+   *     by a script before or after the processed ones, or is moved there
+   *     from a block by this pass in a script before them
+   * @param undeclaredElsewhere the names that other scripts reference
+   *     without declaring them anywhere in the program
+   */
+  void setGlobalNamesElsewhere(
+      Predicate<String> declaredElsewhere, Set<String> undeclaredElsewhere) {
+    this.declaredElsewhere = declaredElsewhere;
+    undeclaredNames.addAll(undeclaredElsewhere);
   }
 
   @Override
   public void visit(NodeTraversal t, Node n, Node parent) {
-    if (!n.hasChildren() || !NodeUtil.isBlockScopedDeclaration(n.getFirstChild())) {
+    if (!declaresBlockScopedName(n)) {
       return;
     }
 
@@ -87,9 +108,10 @@ public final class Es6RewriteBlockScopedDeclaration extends AbstractPostOrderCal
     boolean doRename = false;
     if (scope != hoistScope) {
       doRename = hoistScope.isDeclared(oldName, true)
-          || undeclaredNames.contains(oldName);
+          || undeclaredNames.contains(oldName)
+          || declaredElsewhere.apply(oldName);
       String newName = doRename
-          ? oldName + "$" + compiler.getUniqueNameIdSupplier().get()
+          ? oldName + "$" + renameIds.get()
           : oldName;
       Var oldVar = scope.getVar(oldName);
       scope.undeclare(oldVar);
@@ -136,6 +158,10 @@ public final class Es6RewriteBlockScopedDeclaration extends AbstractPostOrderCal
     NodeTraversal.traverseEs6(compiler, scriptRoot, new RewriteBlockScopedFunctionDeclaration());
   }
 
+  private static boolean declaresBlockScopedName(Node n) {
+    return n.hasChildren() && NodeUtil.isBlockScopedDeclaration(n.getFirstChild());
+  }
+
   /**
    * Whether n is inside a loop. If n is inside a function which is inside a loop, we do not
    * consider it to be inside a loop.
@@ -227,6 +253,51 @@ public final class Es6RewriteBlockScopedDeclaration extends AbstractPostOrderCal
     }
   }
 
+  /**
+   * The names of some scripts that decide what this pass renames in other
+   * scripts, for processing the scripts of a program separately.
+   */
+  static final class GlobalNames extends NodeTraversal.AbstractScopedCallback {
+    /** The names declared in the global scope of the scripts. */
+    final Set<String> declared = new HashSet<>();
+    /** The names of block-scoped declarations that this pass moves to the global scope. */
+    final Set<String> hoisted = new LinkedHashSet<>();
+    /** The names the scripts reference without declaring them. */
+    final Set<String> undeclared = new HashSet<>();
+
+    private GlobalNames() {}
+
+    static GlobalNames collect(AbstractCompiler compiler, Node externs, Node root) {
+      GlobalNames names = new GlobalNames();
+      NodeTraversal.traverseRootsEs6(compiler, names, externs, root);
+      return names;
+    }
+
+    @Override
+    public void enterScope(NodeTraversal t) {
+      Scope scope = t.getScope();
+      if (scope.isGlobal()) {
+        for (Var var : scope.getVarIterable()) {
+          declared.add(var.getName());
+        }
+      }
+    }
+
+    @Override
+    public void visit(NodeTraversal t, Node n, Node parent) {
+      Scope scope = t.getScope();
+      if (n.isName() && !scope.isDeclared(n.getString(), true)) {
+        undeclared.add(n.getString());
+      }
+      if (declaresBlockScopedName(n)) {
+        Scope hoistScope = scope.getClosestHoistScope();
+        if (scope != hoistScope && hoistScope.isGlobal()) {
+          hoisted.add(n.getFirstChild().getString());
+        }
+      }
+    }
+  }
+
   /**
    * Transforms let/const declarations captured by loop closures.
    */
@@ -238,6 +309,7 @@ public final class Es6RewriteBlockScopedDeclaration extends AbstractPostOrderCal
         LinkedHashMultimap.create();
     private final Multimap<Node, String> functionHandledMap = HashMultimap.create();
     private final Multimap<Var, Node> referenceMap = LinkedHashMultimap.create();
+    private final Supplier<String> loopIds = compiler.getUniqueNameIdSupplier();
 
     @Override
     public void visit(NodeTraversal t, Node n, Node parent) {
@@ -293,8 +365,7 @@ public final class Es6RewriteBlockScopedDeclaration extends AbstractPostOrderCal
 
           if (!loopObjectMap.containsKey(loopNode)) {
             loopObjectMap.put(loopNode,
-                new LoopObject(
-                    LOOP_OBJECT_NAME + "$" + compiler.getUniqueNameIdSupplier().get()));
+                new LoopObject(LOOP_OBJECT_NAME + "$" + loopIds.get()));
           }
           LoopObject object = loopObjectMap.get(loopNode);
           object.vars.add(var);
@@ -18,6 +18,7 @@ package com.google.javascript.jscomp;
 import static com.google.javascript.jscomp.Es6ToEs3Converter.makeIterator;
 
 import com.google.common.base.Preconditions;
+import com.google.common.base.Supplier;
 import com.google.javascript.rhino.IR;
 import com.google.javascript.rhino.JSDocInfo;
 import com.google.javascript.rhino.JSDocInfoBuilder;
@@ -33,10 +34,11 @@ public final class Es6RewriteDestructuring implements NodeTraversal.Callback, Ho
 
   private static final String DESTRUCTURING_TEMP_VAR = "$jscomp$destructuring$var";
 
-  private int destructuringVarCounter = 0;
+  private final Supplier<String> destructuringVarIds;
 
   public Es6RewriteDestructuring(AbstractCompiler compiler) {
     this.compiler = compiler;
+    this.destructuringVarIds = compiler.getLocalNameIdSupplier();
   }
 
   @Override
@@ -183,7 +185,7 @@ public final class Es6RewriteDestructuring implements NodeTraversal.Callback, Ho
     if (fnJSDoc != null && fnJSDoc.getParameterNameAt(parameterIndex) != null) {
       tempVarName = fnJSDoc.getParameterNameAt(parameterIndex);
     } else {
-      tempVarName = DESTRUCTURING_TEMP_VAR + (destructuringVarCounter++);
+      tempVarName = DESTRUCTURING_TEMP_VAR + destructuringVarIds.get();
     }
     Preconditions.checkState(TokenStream.isJSIdentifier(tempVarName));
     return tempVarName;
@@ -224,7 +226,7 @@ public final class Es6RewriteDestructuring implements NodeTraversal.Callback, Ho
     // /** @const */ var temp = rhs;
     // var b = temp.a;
     // var d = temp.c;
-    String tempVarName = DESTRUCTURING_TEMP_VAR + (destructuringVarCounter++);
+    String tempVarName = DESTRUCTURING_TEMP_VAR + destructuringVarIds.get();
     Node tempDecl = IR.var(IR.name(tempVarName), rhs.detachFromParent())
             .useSourceInfoIfMissingFromForTree(objectPattern);
     // TODO(tbreisacher): Remove the "if" and add this JSDoc unconditionally.
@@ -265,7 +267,7 @@ public final class Es6RewriteDestructuring implements NodeTraversal.Callback, Ho
           newLHS = child.getLastChild().removeFirstChild();
           Node getelem = IR.getelem(IR.name(tempVarName), child.removeFirstChild());
 
-          String intermediateTempVarName = DESTRUCTURING_TEMP_VAR + (destructuringVarCounter++);
+          String intermediateTempVarName = DESTRUCTURING_TEMP_VAR + destructuringVarIds.get();
           Node intermediateDecl = IR.var(IR.name(intermediateTempVarName), getelem);
           intermediateDecl.useSourceInfoIfMissingFromForTree(child);
           nodeToDetach.getParent().addChildBefore(intermediateDecl, nodeToDetach);
@@ -337,7 +339,7 @@ public final class Es6RewriteDestructuring implements NodeTraversal.Callback, Ho
     // var temp = $jscomp.makeIterator(rhs);
     // var x = temp.next().value;
     // var y = temp.next().value;
-    String tempVarName = DESTRUCTURING_TEMP_VAR + (destructuringVarCounter++);
+    String tempVarName = DESTRUCTURING_TEMP_VAR + destructuringVarIds.get();
     Node tempDecl = IR.var(
         IR.name(tempVarName),
         makeIterator(compiler, rhs.detachFromParent()));
@@ -362,7 +364,7 @@ public final class Es6RewriteDestructuring implements NodeTraversal.Callback, Ho
         //   var temp0 = $jscomp.makeIterator(rhs);
         //   var temp1 = temp.next().value
         //   x = (temp1 === undefined) ? defaultValue : temp1;
-        String nextVarName = DESTRUCTURING_TEMP_VAR + (destructuringVarCounter++);
+        String nextVarName = DESTRUCTURING_TEMP_VAR + destructuringVarIds.get();
         Node var = IR.var(
             IR.name(nextVarName),
             IR.getprop(
@@ -419,7 +421,7 @@ public final class Es6RewriteDestructuring implements NodeTraversal.Callback, Ho
 
   private void visitDestructuringPatternInEnhancedFor(Node pattern) {
     Preconditions.checkArgument(pattern.isDestructuringPattern());
-    String tempVarName = DESTRUCTURING_TEMP_VAR + (destructuringVarCounter++);
+    String tempVarName = DESTRUCTURING_TEMP_VAR + destructuringVarIds.get();
     if (NodeUtil.isEnhancedFor(pattern.getParent())) {
       Node forNode = pattern.getParent();
       Node block = forNode.getLastChild();
@@ -446,7 +448,7 @@ public final class Es6RewriteDestructuring implements NodeTraversal.Callback, Ho
   }
 
   private void visitDestructuringPatternInCatch(Node pattern) {
-    String tempVarName = DESTRUCTURING_TEMP_VAR + (destructuringVarCounter++);
+    String tempVarName = DESTRUCTURING_TEMP_VAR + destructuringVarIds.get();
     Node catchBlock = pattern.getNext();
 
     pattern.getParent().replaceChild(pattern, IR.name(tempVarName));
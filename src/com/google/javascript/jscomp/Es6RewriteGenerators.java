@@ -21,6 +21,7 @@ import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableSet;
+import com.google.javascript.jscomp.parsing.parser.FeatureSet.Feature;
 import com.google.javascript.rhino.IR;
 import com.google.javascript.rhino.JSDocInfo;
 import com.google.javascript.rhino.JSDocInfoBuilder;
@@ -61,6 +62,9 @@ public final class Es6RewriteGenerators
   private static final String GENERATOR_FOR_IN_ITER = "$jscomp$generator$forin$iter";
   private static final String GENERATOR_LOOP_GUARD = "$jscomp$generator$loop$guard";
 
+  // Scripts without generators have nothing to rewrite.
+  private static final ImmutableSet<Feature> FEATURES = ImmutableSet.of(Feature.GENERATORS);
+
   private final AbstractCompiler compiler;
 
   // Maintains a stack of numbers which identify the cases which mark the end of loops. These
@@ -69,7 +73,7 @@ public final class Es6RewriteGenerators
 
   private final List<ExceptionContext> currentExceptionContext;
 
-  private static int generatorCaseCount;
+  private int generatorCaseCount;
 
   private Supplier<String> generatorCounter;
 
@@ -93,19 +97,23 @@ public final class Es6RewriteGenerators
     this.compiler = compiler;
     this.currentLoopContext = new ArrayList<>();
     this.currentExceptionContext = new ArrayList<>();
-    generatorCounter = compiler.getUniqueNameIdSupplier();
   }
 
   @Override
   public void process(Node externs, Node root) {
-    NodeTraversal.traverseEs6(compiler, root, new DecomposeYields(compiler));
-    NodeTraversal.traverseEs6(compiler, root, this);
+    NodeTraversal.traverseEs6ScriptsWithFeatures(
+        compiler, root, FEATURES, new DecomposeYields(compiler));
+    // Created after the supplier of DecomposeYields, whose ids come first.
+    generatorCounter = compiler.getUniqueNameIdSupplier();
+    NodeTraversal.traverseEs6ScriptsWithFeatures(compiler, root, FEATURES, this);
   }
 
   @Override
   public void hotSwapScript(Node scriptRoot, Node originalRoot) {
-    NodeTraversal.traverseEs6(compiler, scriptRoot, new DecomposeYields(compiler));
-    NodeTraversal.traverseEs6(compiler, scriptRoot, this);
+    NodeTraversal.traverseEs6ScriptsWithFeatures(
+        compiler, scriptRoot, FEATURES, new DecomposeYields(compiler));
+    generatorCounter = compiler.getUniqueNameIdSupplier();
+    NodeTraversal.traverseEs6ScriptsWithFeatures(compiler, scriptRoot, FEATURES, this);
   }
 
   @Override
@@ -869,7 +877,7 @@ public final class Es6RewriteGenerators
                 true)));
   }
 
-  private static Node createStateUpdate() {
+  private Node createStateUpdate() {
     return IR.exprResult(IR.assign(IR.name(GENERATOR_STATE), IR.number(generatorCaseCount)));
   }
 
@@ -889,7 +897,7 @@ public final class Es6RewriteGenerators
     return breakNode;
   }
 
-  private static Node createFinallyJumpBlock(Node finallyName, int finallyStartState) {
+  private Node createFinallyJumpBlock(Node finallyName, int finallyStartState) {
     int jumpPoint = generatorCaseCount++;
     Node setReturnState = IR.exprResult(IR.assign(finallyName.cloneTree(), IR.number(jumpPoint)));
     Node toFinally = createStateUpdate(finallyStartState);
@@ -961,15 +969,17 @@ public final class Es6RewriteGenerators
   private final class DecomposeYields extends NodeTraversal.AbstractPreOrderCallback {
 
     private final AbstractCompiler compiler;
+    private final Supplier<String> idSupplier;
     private final ExpressionDecomposer decomposer;
 
     DecomposeYields(AbstractCompiler compiler) {
       this.compiler = compiler;
+      this.idSupplier = compiler.getUniqueNameIdSupplier();
       Set<String> consts = new HashSet<>();
       decomposer =
           new ExpressionDecomposer(
               compiler,
-              compiler.getUniqueNameIdSupplier(),
+              idSupplier,
               consts,
               Scope.createGlobalScope(new Node(Token.SCRIPT)));
     }
@@ -1048,7 +1058,7 @@ public final class Es6RewriteGenerators
       if (!controlCanExit(guard) && !controlCanExit(incr)) {
         return;
       }
-      Node guardName = IR.name(GENERATOR_LOOP_GUARD + generatorCounter.get());
+      Node guardName = IR.name(GENERATOR_LOOP_GUARD + idSupplier.get());
       if (!guard.isEmpty()) {
         Node container = new Node(Token.BLOCK);
         n.replaceChild(guard, container);
@@ -1070,7 +1080,7 @@ public final class Es6RewriteGenerators
     return n;
   }
 
-  private static final class ControlExitsCheck implements NodeTraversal.Callback {
+  private final class ControlExitsCheck implements NodeTraversal.Callback {
 
     int continueCatchers;
     int breakCatchers;
@@ -16,6 +16,7 @@
 package com.google.javascript.jscomp;
 
 import com.google.common.base.Preconditions;
+import com.google.common.base.Supplier;
 import com.google.javascript.jscomp.parsing.JsDocInfoParser;
 import com.google.javascript.rhino.IR;
 import com.google.javascript.rhino.JSDocInfoBuilder;
@@ -79,8 +80,10 @@ class Es6TemplateLiterals {
    *   See template_literal_test.js for more examples.
    *
    * @param n A TAGGED_TEMPLATELIT node
+   * @param uniqueIds The supplier of the ids of the template literal variables
    */
-  static void visitTaggedTemplateLiteral(NodeTraversal t, Node n) {
+  static void visitTaggedTemplateLiteral(
+      NodeTraversal t, Node n, Supplier<String> uniqueIds) {
     Node templateLit = n.getLastChild();
     // Prepare the raw and cooked string arrays.
     Node raw = createRawStringArray(templateLit);
@@ -94,8 +97,7 @@ class Es6TemplateLiterals {
     Node siteObject = IR.cast(cooked, info.build());
 
     // Create a variable representing the template literal.
-    Node callsiteId = IR.name(
-        TEMPLATELIT_VAR + t.getCompiler().getUniqueNameIdSupplier().get());
+    Node callsiteId = IR.name(TEMPLATELIT_VAR + uniqueIds.get());
     Node var = IR.var(callsiteId, siteObject).useSourceInfoIfMissingFromForTree(n);
     Node script = NodeUtil.getEnclosingScript(n);
     script.addChildrenToFront(var);
@@ -145,7 +147,7 @@ class Es6TemplateLiterals {
    * value (the Template Value or TV as described in the specs). This involves
    * removing line continuations.
    */
-  private static String cookString(String s) {
+  static String cookString(String s) {
     StringBuilder sb = new StringBuilder();
     for (int i = 0; i < s.length();) {
       char c = s.charAt(i++);
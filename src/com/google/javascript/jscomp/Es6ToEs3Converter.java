@@ -16,6 +16,7 @@
 package com.google.javascript.jscomp;
 
 import com.google.common.base.Preconditions;
+import com.google.common.base.Supplier;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.javascript.jscomp.CompilerOptions.LanguageMode;
@@ -48,6 +49,7 @@ import javax.annotation.Nullable;
  */
 public final class Es6ToEs3Converter implements NodeTraversal.Callback, HotSwapCompilerPass {
   private final AbstractCompiler compiler;
+  private final Supplier<String> uniqueIds;
 
   static final DiagnosticType CANNOT_CONVERT = DiagnosticType.error(
       "JSC_CANNOT_CONVERT",
@@ -94,6 +96,7 @@ public final class Es6ToEs3Converter implements NodeTraversal.Callback, HotSwapC
 
   public Es6ToEs3Converter(AbstractCompiler compiler) {
     this.compiler = compiler;
+    this.uniqueIds = compiler.getUniqueNameIdSupplier();
   }
 
   @Override
@@ -180,7 +183,7 @@ public final class Es6ToEs3Converter implements NodeTraversal.Callback, HotSwapC
         }
         break;
       case TAGGED_TEMPLATELIT:
-        Es6TemplateLiterals.visitTaggedTemplateLiteral(t, n);
+        Es6TemplateLiterals.visitTaggedTemplateLiteral(t, n, uniqueIds);
         break;
       case TEMPLATELIT:
         if (!parent.isTaggedTemplateLit()) {
@@ -255,7 +258,7 @@ public final class Es6ToEs3Converter implements NodeTraversal.Callback, HotSwapC
     Node iterable = node.removeFirstChild();
     Node body = node.removeFirstChild();
 
-    Node iterName = IR.name(ITER_BASE + compiler.getUniqueNameIdSupplier().get());
+    Node iterName = IR.name(ITER_BASE + uniqueIds.get());
     iterName.makeNonIndexable();
     Node getNext = IR.call(IR.getprop(iterName.cloneTree(), IR.string("next")));
     String variableName;
@@ -433,7 +436,7 @@ public final class Es6ToEs3Converter implements NodeTraversal.Callback, HotSwapC
         while (!NodeUtil.isStatement(statement)) {
           statement = statement.getParent();
         }
-        Node freshVar = IR.name(FRESH_SPREAD_VAR + compiler.getUniqueNameIdSupplier().get());
+        Node freshVar = IR.name(FRESH_SPREAD_VAR + uniqueIds.get());
         Node n = IR.var(freshVar.cloneTree());
         n.useSourceInfoIfMissingFromForTree(statement);
         statement.getParent().addChildBefore(n, statement);
@@ -489,7 +492,7 @@ public final class Es6ToEs3Converter implements NodeTraversal.Callback, HotSwapC
       }
     }
 
-    String objName = FRESH_COMP_PROP_VAR + compiler.getUniqueNameIdSupplier().get();
+    String objName = FRESH_COMP_PROP_VAR + uniqueIds.get();
 
     props = Lists.reverse(props);
     Node result = IR.name(objName);
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2016 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.collect.Sets;
+import com.google.javascript.rhino.JSDocInfo;
+import com.google.javascript.rhino.Node;
+import com.google.javascript.rhino.Token;
+import com.google.javascript.rhino.TypeI;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Counts the compiler's main data structures at one point of a compile, to
+ * tell which of them the heap grows with.
+ *
+ * <p>The counts are of the objects reachable from the AST and the typed
+ * scopes: the nodes by token, the items of their property lists, their JSDoc
+ * with its type expressions, the types of the nodes and variables by class,
+ * and the scopes with their variables. The estimated bytes multiply the
+ * counts by typical shallow sizes on a 64-bit JVM with compressed references,
+ * so they leave out what the objects refer to but weren't counted, such as
+ * strings and the members of the types.
+ */
+@GwtIncompatible("Only used by PerformanceTracker")
+final class HeapComposition {
+
+  private static final int NODE_BYTES = 48;
+  /** String, number and type declaration nodes have an extra field. */
+  private static final int NODE_SUBCLASS_BYTES = 56;
+  private static final int PROP_LIST_ITEM_BYTES = 24;
+  private static final int JSDOC_INFO_BYTES = 48;
+  private static final int TYPE_BYTES = 48;
+  /** A scope and the map of its variables. */
+  private static final int SCOPE_BYTES = 96;
+  /** A variable and its entry in the map of its scope. */
+  private static final int VAR_BYTES = 80;
+
+  private final Map<Token, Integer> nodesByToken = new EnumMap<>(Token.class);
+  private final Map<String, Integer> typesByClass = new HashMap<>();
+  /** The JSDoc and types counted so far, only needed while counting. */
+  private Set<Object> seen = Sets.newIdentityHashSet();
+
+  private int nodes = 0;
+  private long nodeBytes = 0;
+  private int propListItems = 0;
+  private int jsDocInfos = 0;
+  private int jsDocNodes = 0;
+  private long jsDocNodeBytes = 0;
+  private int types = 0;
+  private int scopes = 0;
+  private int vars = 0;
+
+  private HeapComposition() {}
+
+  /** Counts the data structures of the given compiler. */
+  static HeapComposition measure(Compiler compiler) {
+    HeapComposition composition = new HeapComposition();
+    Node root = compiler.getRoot();
+    if (root != null) {
+      composition.countTree(root, false);
+    }
+    for (TypedScope scope : compiler.getMemoizedTypedScopes()) {
+      composition.scopes++;
+      for (TypedVar var : scope.getVarIterable()) {
+        composition.vars++;
+        composition.countType(var.getType());
+      }
+    }
+    composition.scopes += compiler.getNewTypeInferenceScopeCount();
+    composition.seen = null;
+    return composition;
+  }
+
+  private void countTree(Node root, boolean inJsDoc) {
+    Node n = root;
+    while (true) {
+      countNode(n, inJsDoc);
+      if (n.hasChildren()) {
+        n = n.getFirstChild();
+        continue;
+      }
+      while (n != root && n.getNext() == null) {
+        n = n.getParent();
+      }
+      if (n == root) {
+        return;
+      }
+      n = n.getNext();
+    }
+  }
+
+  private void countNode(Node n, boolean inJsDoc) {
+    long bytes = n.getClass() == Node.class ? NODE_BYTES : NODE_SUBCLASS_BYTES;
+    propListItems += n.getPropCount();
+    if (inJsDoc) {
+      jsDocNodes++;
+      jsDocNodeBytes += bytes;
+    } else {
+      nodes++;
+      nodeBytes += bytes;
+      Integer count = nodesByToken.get(n.getType());
+      nodesByToken.put(n.getType(), count == null ? 1 : count + 1);
+    }
+    countType(n.getTypeI());
+    JSDocInfo info = n.getJSDocInfo();
+    if (info != null && seen.add(info)) {
+      jsDocInfos++;
+      for (Node typeRoot : info.getTypeNodes()) {
+        countTree(typeRoot, true);
+      }
+    }
+  }
+
+  private void countType(TypeI type) {
+    if (type != null && seen.add(type)) {
+      types++;
+      String className = type.getClass().getSimpleName();
+      Integer count = typesByClass.get(className);
+      typesByClass.put(className, count == null ? 1 : count + 1);
+    }
+  }
+
+  int getNodes() {
+    return nodes;
+  }
+
+  long getNodeBytes() {
+    return nodeBytes;
+  }
+
+  int getPropListItems() {
+    return propListItems;
+  }
+
+  long getPropListBytes() {
+    return (long) propListItems * PROP_LIST_ITEM_BYTES;
+  }
+
+  int getJsDocInfos() {
+    return jsDocInfos;
+  }
+
+  /** The bytes of the JSDoc, including the nodes of its type expressions. */
+  long getJsDocBytes() {
+    return (long) jsDocInfos * JSDOC_INFO_BYTES + jsDocNodeBytes;
+  }
+
+  int getJsDocNodes() {
+    return jsDocNodes;
+  }
+
+  int getTypes() {
+    return types;
+  }
+
+  long getTypeBytes() {
+    return (long) types * TYPE_BYTES;
+  }
+
+  int getScopes() {
+    return scopes;
+  }
+
+  int getVars() {
+    return vars;
+  }
+
+  long getScopeBytes() {
+    return (long) scopes * SCOPE_BYTES + (long) vars * VAR_BYTES;
+  }
+
+  long getTotalBytes() {
+    return getNodeBytes() + getPropListBytes() + getJsDocBytes()
+        + getTypeBytes() + getScopeBytes();
+  }
+
+  /** Returns the number of AST nodes of each token, the most common first. */
+  List<Map.Entry<Token, Integer>> getNodesByToken() {
+    return sortByCount(nodesByToken);
+  }
+
+  /** Returns the number of types of each class, the most common first. */
+  List<Map.Entry<String, Integer>> getTypesByClass() {
+    return sortByCount(typesByClass);
+  }
+
+  private static <K> List<Map.Entry<K, Integer>> sortByCount(
+      Map<K, Integer> counts) {
+    List<Map.Entry<K, Integer>> sorted = new ArrayList<>(counts.entrySet());
+    Collections.sort(sorted, new Comparator<Map.Entry<K, Integer>>() {
+      @Override
+      public int compare(Map.Entry<K, Integer> e1, Map.Entry<K, Integer> e2) {
+        return Integer.compare(e2.getValue(), e1.getValue());
+      }
+    });
+    return sorted;
+  }
+}
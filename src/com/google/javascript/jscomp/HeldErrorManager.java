@@ -0,0 +1,41 @@
+/*
+ * Copyright 2016 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+/**
+ * An error manager that prints nothing, and holds the problems reported to
+ * it until they are passed on to another one. Work done on other threads
+ * reports to one of these, so that its problems can be reported in a fixed
+ * order once it is done.
+ */
+public final class HeldErrorManager extends BasicErrorManager {
+  @Override
+  public void println(CheckLevel level, JSError error) {}
+
+  @Override
+  protected void printSummary() {}
+
+  /** Reports the held errors, and then the held warnings, to the given manager. */
+  public void reportTo(ErrorManager errorManager) {
+    for (JSError error : getErrors()) {
+      errorManager.report(CheckLevel.ERROR, error);
+    }
+    for (JSError warning : getWarnings()) {
+      errorManager.report(CheckLevel.WARNING, warning);
+    }
+  }
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright 2016 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.stream.JsonWriter;
+import com.google.javascript.rhino.InputId;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+/**
+ * Attributes the time the compiler spends to the inputs it spends it on, to
+ * find the source files that make a compile slow.
+ *
+ * <p>Time is charged to an input while it is parsed, while a
+ * {@link NodeTraversal} traverses its script, and while the new type
+ * inference analyzes one of its functions. Work on the program as a whole,
+ * such as inferring the types of the global scope, isn't charged to any
+ * input. The charges of an input are broken down by pass, so the report shows
+ * both which inputs are expensive and which passes they are expensive in.
+ *
+ * <p>Charges don't nest: while an input is charged, for example during the
+ * traversal of its script, any work done on its behalf is part of that
+ * charge. The compiler runs its passes on a single thread, so there is a
+ * single charge at a time.
+ */
+@GwtIncompatible("java.io.Writer")
+final class InputCostTracker {
+
+  /** The category of the time spent parsing an input. */
+  static final String PARSE = "parse";
+
+  /** The category of the time spent outside of any pass. */
+  static final String OTHER = "other";
+
+  /** The number of passes with a column of their own in the table. */
+  private static final int TABLE_PASSES = 5;
+
+  private final Map<InputId, InputCost> costs = new LinkedHashMap<>();
+
+  private String currentPass = OTHER;
+
+  @Nullable private InputId chargedInput = null;
+  private String chargedCategory = null;
+  private long chargeStart = 0;
+
+  /**
+   * Sets the pass that the work charged from now on belongs to, or null when
+   * no pass is running.
+   */
+  void setCurrentPass(@Nullable String passName) {
+    this.currentPass = passName == null ? OTHER : passName;
+  }
+
+  /**
+   * Starts charging time to the given input, as part of the current pass.
+   *
+   * @return Whether the charge started. If it did, the caller must end it
+   *     with {@link #stopCharging}. It doesn't if another charge is running,
+   *     or if there is no input.
+   */
+  boolean startCharging(@Nullable InputId input) {
+    return startCharging(input, currentPass);
+  }
+
+  /**
+   * Starts charging time to the given input, in the given category.
+   *
+   * @see #startCharging(InputId)
+   */
+  boolean startCharging(@Nullable InputId input, String category) {
+    if (input == null || chargedInput != null) {
+      return false;
+    }
+    chargedInput = input;
+    chargedCategory = category;
+    chargeStart = System.nanoTime();
+    return true;
+  }
+
+  /** Ends the running charge. */
+  void stopCharging() {
+    long elapsed = System.nanoTime() - chargeStart;
+    Preconditions.checkState(chargedInput != null, "Not charging any input");
+    charge(chargedInput, chargedCategory, elapsed);
+    chargedInput = null;
+    chargedCategory = null;
+  }
+
+  /** Charges the given time, in nanoseconds, to the given input. */
+  @VisibleForTesting
+  void charge(InputId input, String category, long nanos) {
+    InputCost cost = costs.get(input);
+    if (cost == null) {
+      cost = new InputCost(input.getIdName());
+      costs.put(input, cost);
+    }
+    cost.add(category, nanos);
+  }
+
+  /**
+   * Returns the time charged to the input with the given name, in
+   * nanoseconds by category.
+   */
+  @VisibleForTesting
+  ImmutableMap<String, Long> getCosts(String inputName) {
+    for (InputCost cost : costs.values()) {
+      if (cost.name.equals(inputName)) {
+        return ImmutableMap.copyOf(cost.byCategory);
+      }
+    }
+    return ImmutableMap.of();
+  }
+
+  /**
+   * Writes the report: as JSON if the file name ends in ".json", and as a
+   * table otherwise.
+   */
+  void outputReport(String fileName, Writer out) throws IOException {
+    if (fileName.endsWith(".json")) {
+      outputJson(out);
+    } else {
+      outputTable(out);
+    }
+  }
+
+  /**
+   * Writes one comma-separated line per input, the most expensive first, with
+   * the milliseconds spent in total, parsing it, in each of the passes that
+   * spent the most time on all inputs, and in the rest of the passes.
+   */
+  void outputTable(Writer out) throws IOException {
+    List<String> passes = new ArrayList<>();
+    for (Map.Entry<String, Long> entry : sortByCost(totalsByCategory())) {
+      if (!entry.getKey().equals(PARSE) && passes.size() < TABLE_PASSES) {
+        passes.add(entry.getKey());
+      }
+    }
+
+    out.write("input,total," + PARSE);
+    for (String pass : passes) {
+      out.write("," + pass);
+    }
+    out.write(",rest\n");
+    for (InputCost cost : sortedCosts()) {
+      long rest = cost.total - cost.get(PARSE);
+      out.write(cost.name + "," + toMillis(cost.total) + ","
+          + toMillis(cost.get(PARSE)));
+      for (String pass : passes) {
+        out.write("," + toMillis(cost.get(pass)));
+        rest -= cost.get(pass);
+      }
+      out.write("," + toMillis(rest) + "\n");
+    }
+    out.flush();
+  }
+
+  /**
+   * Writes the inputs as JSON, the most expensive first, with the
+   * milliseconds spent in total and in each category.
+   */
+  void outputJson(Writer out) throws IOException {
+    JsonWriter writer = new JsonWriter(out);
+    writer.setIndent("  ");
+    writer.beginObject();
+    writer.name("inputs").beginArray();
+    for (InputCost cost : sortedCosts()) {
+      writer.beginObject();
+      writer.name("name").value(cost.name);
+      writer.name("totalMs").value(toMillis(cost.total));
+      writer.name("costsMs").beginObject();
+      for (Map.Entry<String, Long> entry : sortByCost(cost.byCategory)) {
+        writer.name(entry.getKey()).value(toMillis(entry.getValue()));
+      }
+      writer.endObject();
+      writer.endObject();
+    }
+    writer.endArray();
+    writer.endObject();
+    writer.flush();
+  }
+
+  private List<InputCost> sortedCosts() {
+    List<InputCost> sorted = new ArrayList<>(costs.values());
+    Collections.sort(sorted, new Comparator<InputCost>() {
+      @Override
+      public int compare(InputCost c1, InputCost c2) {
+        return Long.compare(c2.total, c1.total);
+      }
+    });
+    return sorted;
+  }
+
+  private Map<String, Long> totalsByCategory() {
+    Map<String, Long> totals = new HashMap<>();
+    for (InputCost cost : costs.values()) {
+      for (Map.Entry<String, Long> entry : cost.byCategory.entrySet()) {
+        Long total = totals.get(entry.getKey());
+        totals.put(entry.getKey(),
+            total == null ? entry.getValue() : total + entry.getValue());
+      }
+    }
+    return totals;
+  }
+
+  private static List<Map.Entry<String, Long>> sortByCost(
+      Map<String, Long> byCategory) {
+    List<Map.Entry<String, Long>> sorted =
+        new ArrayList<>(byCategory.entrySet());
+    Collections.sort(sorted, new Comparator<Map.Entry<String, Long>>() {
+      @Override
+      public int compare(Map.Entry<String, Long> e1, Map.Entry<String, Long> e2) {
+        return Long.compare(e2.getValue(), e1.getValue());
+      }
+    });
+    return sorted;
+  }
+
+  private static double toMillis(long nanos) {
+    return Math.round(nanos / 1000.0) / 1000.0;
+  }
+
+  /** The time charged to one input. */
+  private static final class InputCost {
+    final String name;
+    final Map<String, Long> byCategory = new HashMap<>();
+    long total = 0;
+
+    InputCost(String name) {
+      this.name = name;
+    }
+
+    void add(String category, long nanos) {
+      byCategory.put(category, get(category) + nanos);
+      total += nanos;
+    }
+
+    long get(String category) {
+      Long nanos = byCategory.get(category);
+      return nanos == null ? 0 : nanos;
+    }
+  }
+}
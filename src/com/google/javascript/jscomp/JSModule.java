@@ -20,7 +20,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.javascript.jscomp.deps.DependencyInfo;
-import com.google.javascript.jscomp.deps.Es6SortedDependencies;
+import com.google.javascript.jscomp.deps.IndexedSortedDependencies;
 
 import java.io.Serializable;
 import java.util.ArrayDeque;
@@ -258,7 +258,7 @@ public final class JSModule implements DependencyInfo, Serializable {
     }
 
     // Sort the JSModule in this order.
-    List<CompilerInput> sortedList = new Es6SortedDependencies<>(inputs).getSortedList();
+    List<CompilerInput> sortedList = new IndexedSortedDependencies<>(inputs).getSortedList();
     inputs.clear();
     inputs.addAll(sortedList);
   }
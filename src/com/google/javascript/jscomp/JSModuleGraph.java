@@ -27,13 +27,14 @@ import com.google.common.collect.Multimap;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import com.google.javascript.jscomp.deps.Es6SortedDependencies;
+import com.google.javascript.jscomp.deps.IndexedSortedDependencies;
 import com.google.javascript.jscomp.deps.SortedDependencies;
 import com.google.javascript.jscomp.deps.SortedDependencies.MissingProvideException;
 import com.google.javascript.jscomp.graph.LinkedDirectedGraph;
 import com.google.javascript.jscomp.parsing.parser.util.format.SimpleFormat;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -76,6 +77,26 @@ public final class JSModuleGraph {
    */
   private Map<JSModule, Set<JSModule>> dependencyMap = new HashMap<>();
 
+  /**
+   * All the modules ordered by increasing depth, breaking ties by the order in
+   * which they were given to the constructor. The position of a module in
+   * this list is its rank. Among any set of modules, the one with the highest
+   * rank is the deepest one, with ties broken the way
+   * getDeepestCommonDependency requires.
+   */
+  private final JSModule[] modulesByRank;
+
+  /** The inverse of modulesByRank. */
+  private final Map<JSModule, Integer> rankByModule = new HashMap<>();
+
+  /**
+   * For each module rank, the ranks of all of its transitive dependencies.
+   * This matrix is computed when the graph is built, so that dependsOn is a
+   * single bit lookup, and getDeepestCommonDependency is the highest bit of
+   * the intersection of two rows.
+   */
+  private final BitSet[] transitiveDepsByRank;
+
   /**
    * Creates a module graph from a list of modules in dependency order.
    */
@@ -112,6 +133,44 @@ public final class JSModuleGraph {
       }
       modulesByDepth.get(depth).add(module);
     }
+
+    modulesByRank = new JSModule[modules.size()];
+    int rank = 0;
+    for (List<JSModule> modulesAtDepth : modulesByDepth) {
+      for (JSModule module : modulesAtDepth) {
+        rankByModule.put(module, rank);
+        modulesByRank[rank++] = module;
+      }
+    }
+
+    // Dependencies always have a smaller rank than their dependents, so the
+    // rows of the dependencies are complete when a module is reached.
+    transitiveDepsByRank = new BitSet[modulesByRank.length];
+    for (int i = 0; i < modulesByRank.length; i++) {
+      BitSet deps = new BitSet(i);
+      for (JSModule dep : modulesByRank[i].getDependencies()) {
+        Integer depRank = rankByModule.get(dep);
+        if (depRank == null || transitiveDepsByRank[depRank] == null) {
+          // The dependency is not part of this graph, or depends on a module
+          // that is not, so fall back to searching for the dependencies of
+          // this module on demand.
+          deps = null;
+          break;
+        }
+        deps.set(depRank);
+        deps.or(transitiveDepsByRank[depRank]);
+      }
+      transitiveDepsByRank[i] = deps;
+    }
+  }
+
+  /**
+   * Returns the transitive dependencies of the given module as a set of
+   * ranks, or null if they were not precomputed for that module.
+   */
+  private BitSet getTransitiveDepsBitSet(JSModule m) {
+    Integer rank = rankByModule.get(m);
+    return rank == null ? null : transitiveDepsByRank[rank];
   }
 
   /**
@@ -187,6 +246,12 @@ public final class JSModuleGraph {
    * module never depends on itself, as that dependency would be cyclic.
    */
   public boolean dependsOn(JSModule src, JSModule m) {
+    BitSet srcDeps = getTransitiveDepsBitSet(src);
+    Integer rank = rankByModule.get(m);
+    if (srcDeps != null && rank != null) {
+      return srcDeps.get(rank);
+    }
+
     Set<JSModule> deps = dependencyMap.get(src);
     if (deps == null) {
       deps = getTransitiveDepsDeepestFirst(src);
@@ -206,6 +271,16 @@ public final class JSModuleGraph {
    *     they have no common dependencies
    */
   JSModule getDeepestCommonDependency(JSModule m1, JSModule m2) {
+    BitSet m1Deps = getTransitiveDepsBitSet(m1);
+    BitSet m2Deps = getTransitiveDepsBitSet(m2);
+    if (m1Deps != null && m2Deps != null) {
+      // The common dependency with the highest rank is the deepest one.
+      BitSet common = (BitSet) m1Deps.clone();
+      common.and(m2Deps);
+      int deepest = common.length() - 1;
+      return deepest < 0 ? null : modulesByRank[deepest];
+    }
+
     int m1Depth = m1.getDepth();
     int m2Depth = m2.getDepth();
     // According our definition of depth, the result must have a strictly
@@ -359,7 +434,7 @@ public final class JSModuleGraph {
       DependencyOptions depOptions,
       List<CompilerInput> inputs) throws MissingProvideException, MissingModuleException {
 
-    SortedDependencies<CompilerInput> sorter = new Es6SortedDependencies<>(inputs);
+    SortedDependencies<CompilerInput> sorter = new IndexedSortedDependencies<>(inputs);
 
     Iterable<CompilerInput> entryPointInputs = createEntryPointInputs(
         depOptions, inputs, sorter);
@@ -50,7 +50,17 @@ public class JsAst implements SourceAst {
   @Override
   public Node getAstRoot(AbstractCompiler compiler) {
     if (root == null) {
-      parse(compiler);
+      InputCostTracker inputCosts = compiler.getInputCostTracker();
+      if (inputCosts != null
+          && inputCosts.startCharging(inputId, InputCostTracker.PARSE)) {
+        try {
+          parse(compiler);
+        } finally {
+          inputCosts.stopCharging();
+        }
+      } else {
+        parse(compiler);
+      }
       root.setInputId(inputId);
     }
     return root;
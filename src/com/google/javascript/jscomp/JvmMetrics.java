@@ -25,6 +25,7 @@ import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
 import java.lang.management.MemoryPoolMXBean;
 import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
 import java.util.List;
 import java.util.StringTokenizer;
 
@@ -250,6 +251,51 @@ class JvmMetrics {
     }
   }
 
+  /**
+   * Returns the total time spent in garbage collection by all collectors,
+   * in milliseconds.
+   */
+  static long getGarbageCollectionTime() {
+    long collectionTime = 0;
+    for (GarbageCollectorMXBean gcBean
+        : ManagementFactory.getGarbageCollectorMXBeans()) {
+      // -1 if the collector doesn't report it.
+      collectionTime += Math.max(0, gcBean.getCollectionTime());
+    }
+    return collectionTime;
+  }
+
+  /**
+   * Returns the number of bytes allocated by the current thread so far, or
+   * -1 if the JVM doesn't measure it.
+   */
+  static long getCurrentThreadAllocatedBytes() {
+    ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    if (threadBean instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean sunThreadBean =
+          (com.sun.management.ThreadMXBean) threadBean;
+      if (sunThreadBean.isThreadAllocatedMemorySupported()
+          && sunThreadBean.isThreadAllocatedMemoryEnabled()) {
+        return sunThreadBean.getThreadAllocatedBytes(
+            Thread.currentThread().getId());
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the CPU time used by the current thread so far, in nanoseconds,
+   * or -1 if the JVM doesn't measure it.
+   */
+  static long getCurrentThreadCpuTime() {
+    ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    if (threadBean.isCurrentThreadCpuTimeSupported()
+        && threadBean.isThreadCpuTimeEnabled()) {
+      return threadBean.getCurrentThreadCpuTime();
+    }
+    return -1;
+  }
+
   private static String normalizeName(String name) {
     return name.replace(' ', '_').toLowerCase();
   }
@@ -390,8 +390,18 @@ final class NewTypeInference implements CompilerPass {
     try {
       this.symbolTable = (GlobalTypeInfo) compiler.getSymbolTable();
       this.commonTypes = symbolTable.getTypesUtilObject();
+      InputCostTracker inputCosts = compiler.getInputCostTracker();
       for (NTIScope scope : symbolTable.getScopes()) {
-        analyzeFunction(scope);
+        if (inputCosts != null && inputCosts.startCharging(
+            NodeUtil.getInputId(scope.getRoot()))) {
+          try {
+            analyzeFunction(scope);
+          } finally {
+            inputCosts.stopCharging();
+          }
+        } else {
+          analyzeFunction(scope);
+        }
         envs.clear();
       }
       for (DeferredCheck check : deferredChecks.values()) {
@@ -19,6 +19,7 @@ package com.google.javascript.jscomp;
 import static com.google.common.base.Strings.nullToEmpty;
 
 import com.google.common.base.Preconditions;
+import com.google.javascript.jscomp.parsing.parser.FeatureSet.Feature;
 import com.google.javascript.rhino.InputId;
 import com.google.javascript.rhino.Node;
 import com.google.javascript.rhino.Token;
@@ -82,6 +83,12 @@ public class NodeTraversal {
   private final ScopeCreator scopeCreator;
   private final boolean useBlockScope;
 
+  /** Charged with the time spent in each script, if the compiler has one */
+  private final InputCostTracker inputCosts;
+
+  /** If set, only the scripts that may contain one of these are traversed */
+  private Set<Feature> scriptFeatures;
+
   /** Possible callback for scope entry and exist **/
   private ScopedCallback scopeCallback;
 
@@ -286,6 +293,7 @@ public class NodeTraversal {
     this.sourceName = "";
     this.scopeCreator = scopeCreator;
     this.useBlockScope = scopeCreator.hasBlockScope();
+    this.inputCosts = compiler.getInputCostTracker();
   }
 
   private void throwUnexpectedException(Exception unexpectedException) {
@@ -591,6 +599,20 @@ public class NodeTraversal {
     t.traverse(root);
   }
 
+  /**
+   * Traverses using the ES6SyntacticScopeCreator, but skips the scripts that
+   * can't contain any of {@code features}. The scopes are the same as in
+   * {@link #traverseEs6}, so the global scope still spans all scripts.
+   *
+   * @see NodeUtil#mayHaveAnyFeature
+   */
+  public static void traverseEs6ScriptsWithFeatures(
+      AbstractCompiler compiler, Node root, Set<Feature> features, Callback cb) {
+    NodeTraversal t = new NodeTraversal(compiler, cb, new Es6SyntacticScopeCreator(compiler));
+    t.scriptFeatures = features;
+    t.traverse(root);
+  }
+
   public static void traverseTyped(AbstractCompiler compiler, Node root, Callback cb) {
     NodeTraversal t = new NodeTraversal(compiler, cb, SyntacticScopeCreator.makeTyped(compiler));
     t.traverse(root);
@@ -621,10 +643,27 @@ public class NodeTraversal {
   private void traverseBranch(Node n, Node parent) {
     Token type = n.getType();
     if (type == Token.SCRIPT) {
+      if (scriptFeatures != null && !NodeUtil.mayHaveAnyFeature(n, scriptFeatures)) {
+        return;
+      }
       inputId = n.getInputId();
       sourceName = getSourceName(n);
+      if (inputCosts != null && inputCosts.startCharging(inputId)) {
+        try {
+          traverseNode(n, parent, type);
+        } finally {
+          inputCosts.stopCharging();
+        }
+        return;
+      }
     }
+    traverseNode(n, parent, type);
+  }
 
+  /**
+   * Traverses a branch, once the current input is set.
+   */
+  private void traverseNode(Node n, Node parent, Token type) {
     curNode = n;
     if (!callback.shouldTraverse(this, n, parent)) {
       return;
@@ -22,6 +22,8 @@ import com.google.common.base.Predicates;
 import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableSet;
 import com.google.javascript.jscomp.CompilerOptions.LanguageMode;
+import com.google.javascript.jscomp.parsing.parser.FeatureSet;
+import com.google.javascript.jscomp.parsing.parser.FeatureSet.Feature;
 import com.google.javascript.rhino.IR;
 import com.google.javascript.rhino.InputId;
 import com.google.javascript.rhino.JSDocInfo;
@@ -3940,6 +3942,27 @@ public final class NodeUtil {
     return (n != null && n.isScript()) ? n.getInputId() : null;
   }
 
+  /**
+   * Returns whether the script may contain any of {@code features}, going by
+   * the {@link FeatureSet} that the parser recorded on it. That set is only as
+   * fine-grained as the language levels, so this may return true for a script
+   * without any of the features, but never false for a script with one of
+   * them. Scripts without a recorded set may contain anything.
+   */
+  static boolean mayHaveAnyFeature(Node script, Set<Feature> features) {
+    Preconditions.checkArgument(script.isScript(), script);
+    FeatureSet scriptFeatures = (FeatureSet) script.getProp(Node.FEATURE_SET);
+    if (scriptFeatures == null) {
+      return true;
+    }
+    for (Feature feature : features) {
+      if (scriptFeatures.contains(feature)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * A new CALL node with the "FREE_CALL" set based on call target.
    */
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2016 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.common.annotations.GwtIncompatible;
+import com.google.javascript.jscomp.Compiler.ModuleRewrite;
+import com.google.javascript.jscomp.ParallelTasks.BatchTask;
+import com.google.javascript.jscomp.parsing.Config;
+import com.google.javascript.jscomp.parsing.parser.trees.Comment;
+import com.google.javascript.rhino.Node;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parses inputs and rewrites their modules on several threads, in two
+ * phases:
+ * <ol>
+ * <li>Each thread parses and rewrites a batch of inputs with a compiler of
+ *     its own, which holds back the problems it finds and the comments it
+ *     parses. The cross-file facts that the rewrites need, the addresses of
+ *     all modules, are in the module loader before they start.
+ * <li>Back on the compiler thread, the problems and comments are passed on to
+ *     the compiler in the order of the inputs, as if the inputs were
+ *     rewritten one after another.
+ * </ol>
+ * The provides and requires that the rewrites add to each input are linked
+ * by the dependency management that runs afterwards, as they are when the
+ * inputs are rewritten on the compiler thread.
+ */
+@GwtIncompatible("java.util.concurrent")
+final class ParallelModuleRewriter {
+
+  /** The number of inputs that one thread rewrites at a time. */
+  private static final int INPUTS_PER_TASK = 16;
+
+  private ParallelModuleRewriter() {}
+
+  /**
+   * Parses the given inputs and rewrites their modules, on as many threads as
+   * there are processors.
+   *
+   * @return false if nothing was done, because there are too few inputs to
+   *     use more than one thread
+   */
+  static boolean rewrite(Compiler compiler, ES6ModuleLoader loader,
+      List<CompilerInput> inputs, ModuleRewrite rewrite) {
+    return rewrite(
+        compiler, loader, inputs, rewrite, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Parses the given inputs and rewrites their modules, on at most
+   * {@code maxThreads} threads.
+   *
+   * @return false if nothing was done, because there are too few inputs to
+   *     use more than one thread
+   */
+  static boolean rewrite(Compiler compiler, ES6ModuleLoader loader,
+      List<CompilerInput> inputs, ModuleRewrite rewrite, int maxThreads) {
+    if (ParallelTasks.numThreads(inputs.size(), INPUTS_PER_TASK, maxThreads) < 2) {
+      return false;
+    }
+
+    // The workers share the parser configurations, so create them here.
+    compiler.getParserConfig(AbstractCompiler.ConfigContext.DEFAULT);
+    compiler.getParserConfig(AbstractCompiler.ConfigContext.EXTERNS);
+
+    List<Worker> workers = ParallelTasks.runPartitioned(
+        inputs, INPUTS_PER_TASK, maxThreads, "jscompiler-module-rewriter",
+        newRewriteTask(compiler, loader, rewrite));
+
+    boolean changed = false;
+    for (Worker worker : workers) {
+      for (Map.Entry<String, List<Comment>> comments : worker.comments.entrySet()) {
+        compiler.addComments(comments.getKey(), comments.getValue());
+      }
+      for (JSError error : worker.errors) {
+        compiler.report(error);
+      }
+      changed |= worker.changed;
+    }
+    if (changed) {
+      compiler.reportCodeChange();
+    }
+    return true;
+  }
+
+  private static BatchTask<CompilerInput, Worker, RuntimeException> newRewriteTask(
+      final Compiler compiler, final ES6ModuleLoader loader, final ModuleRewrite rewrite) {
+    return new BatchTask<CompilerInput, Worker, RuntimeException>() {
+      @Override
+      public Worker run(List<CompilerInput> batch) {
+        Worker worker = new Worker(compiler);
+        ES6ModuleLoader workerLoader = loader.withCompiler(worker);
+        for (CompilerInput input : batch) {
+          Node root = input.getAstRoot(worker);
+          if (root != null) {
+            rewrite.rewrite(worker, workerLoader, root);
+          }
+        }
+        return worker;
+      }
+    };
+  }
+
+  /**
+   * A compiler for the rewrites on one thread. It looks up inputs and parser
+   * configurations in the main compiler, and holds back what it would report
+   * to it.
+   */
+  private static final class Worker extends Compiler {
+    private final Compiler compiler;
+    private final List<JSError> errors = new ArrayList<>();
+    private final Map<String, List<Comment>> comments = new LinkedHashMap<>();
+    private boolean changed;
+
+    Worker(Compiler compiler) {
+      super(new HeldErrorManager());
+      initFrom(compiler);
+      this.compiler = compiler;
+    }
+
+    @Override
+    public void report(JSError error) {
+      errors.add(error);
+      // The parser checks the error count to find out whether it failed.
+      CheckLevel level = getErrorLevel(error);
+      level = level != null ? level : error.getDefaultLevel();
+      if (level.isOn()) {
+        getErrorManager().report(level, error);
+      }
+    }
+
+    @Override
+    public void reportCodeChange() {
+      changed = true;
+    }
+
+    @Override
+    Config getParserConfig(ConfigContext context) {
+      return compiler.getParserConfig(context);
+    }
+
+    @Override
+    void addComments(String filename, List<Comment> comments) {
+      this.comments.put(filename, comments);
+    }
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2016 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runs a task over batches of inputs on several threads, for the work that
+ * the compiler spreads over threads. The results come back in the order of
+ * the inputs, so that their problems can be reported in a fixed order.
+ */
+@GwtIncompatible("java.util.concurrent")
+public final class ParallelTasks {
+
+  /** A task over one batch of inputs. */
+  public interface BatchTask<T, R, X extends Exception> {
+    R run(List<T> batch) throws X;
+  }
+
+  private ParallelTasks() {}
+
+  /**
+   * Returns the number of threads that {@link #runPartitioned} uses for the
+   * given number of inputs. It runs the task on the calling thread when this
+   * is less than two.
+   */
+  public static int numThreads(int numInputs, int inputsPerTask, int maxThreads) {
+    Preconditions.checkArgument(inputsPerTask > 0, "inputsPerTask must be positive");
+    return Math.min((numInputs + inputsPerTask - 1) / inputsPerTask, maxThreads);
+  }
+
+  /**
+   * Splits the inputs into batches of {@code inputsPerTask}, runs the task
+   * over each of them on at most {@code maxThreads} daemon threads named
+   * {@code threadName}, and returns the results in the order of the batches.
+   * If a task throws, the rest are cancelled and this throws the same.
+   */
+  public static <T, R, X extends Exception> List<R> runPartitioned(
+      List<T> inputs, int inputsPerTask, int maxThreads, final String threadName,
+      final BatchTask<T, R, X> task) throws X {
+    List<List<T>> batches = Lists.partition(inputs, inputsPerTask);
+    List<R> results = new ArrayList<>(batches.size());
+    int numThreads = numThreads(inputs.size(), inputsPerTask, maxThreads);
+    if (numThreads < 2) {
+      for (List<T> batch : batches) {
+        results.add(task.run(batch));
+      }
+      return results;
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(numThreads, new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread t = new Thread(null, r, threadName, CompilerExecutor.COMPILER_STACK_SIZE);
+        t.setDaemon(true);  // Do not prevent the JVM from exiting.
+        return t;
+      }
+    });
+    try {
+      List<Future<R>> futures = new ArrayList<>(batches.size());
+      for (final List<T> batch : batches) {
+        futures.add(executor.submit(new Callable<R>() {
+          @Override
+          public R call() throws X {
+            return task.run(batch);
+          }
+        }));
+      }
+      for (Future<R> future : futures) {
+        results.add(ParallelTasks.<R, X>getResult(future));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    return results;
+  }
+
+  @SuppressWarnings("unchecked")  // Tasks throw nothing else that is checked.
+  private static <R, X extends Exception> R getResult(Future<R> future) throws X {
+    try {
+      return Uninterruptibles.getUninterruptibly(future);
+    } catch (ExecutionException e) {
+      Throwables.propagateIfPossible(e.getCause());
+      throw (X) e.getCause();
+    }
+  }
+}
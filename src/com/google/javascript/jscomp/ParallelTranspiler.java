@@ -0,0 +1,546 @@
+/*
+ * Copyright 2016 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Predicate;
+import com.google.common.base.Supplier;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ComparisonChain;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ListMultimap;
+import com.google.javascript.jscomp.Es6RewriteBlockScopedDeclaration.GlobalNames;
+import com.google.javascript.jscomp.ParallelTasks.BatchTask;
+import com.google.javascript.rhino.JSDocInfo;
+import com.google.javascript.rhino.Node;
+import com.google.javascript.rhino.StaticSourceFile;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Runs the ES6 transpilation passes over each script on its own, on several
+ * threads, for builds that only transpile. The output is the same as when
+ * the passes run over the whole program.
+ *
+ * <p>The passes mostly rewrite each script alone, but a few of their choices
+ * depend on the other scripts:
+ * <ul>
+ * <li>The ids of generated names come from counters over the whole program.
+ *     Each script gets placeholder ids, which are replaced by the ids that
+ *     the counters would have given them once all scripts are done.
+ * <li>{@link Es6RewriteBlockScopedDeclaration} renames block-scoped names
+ *     that clash with globals of any script. It runs in a second round, after
+ *     the global names of all scripts are known.
+ * </ul>
+ * Scripts that the passes would change in ways this can't reproduce, such as
+ * arrow functions that use the global {@code this}, make all passes run over
+ * the whole program instead, as do errors.
+ */
+@GwtIncompatible("java.util.concurrent")
+final class ParallelTranspiler implements CompilerPass {
+
+  /** The transpilation passes that this pass runs, in order. */
+  private static final ImmutableList<PassFactory> PASSES = ImmutableList.<PassFactory>of(
+      TranspilationPasses.es6RewriteArrowFunctionsAndParamLists,
+      TranspilationPasses.es6RewriteDestructuring,
+      TranspilationPasses.es6ConvertSuperAndExtractClasses,
+      TranspilationPasses.convertEs6ToEs3,
+      TranspilationPasses.rewriteBlockScopedDeclaration,
+      TranspilationPasses.rewriteGenerators);
+
+  /** The first pass that needs the global names of all scripts. */
+  private static final int SECOND_ROUND =
+      PASSES.indexOf(TranspilationPasses.rewriteBlockScopedDeclaration);
+
+  /** Surrounds the placeholder ids in generated names. */
+  private static final char MARK = '\uA7F7';
+
+  /**
+   * Names that the passes might also generate. Scripts that use them are
+   * transpiled with the whole program, since which names clash would change.
+   */
+  private static final Pattern GENERATED_NAME =
+      Pattern.compile(
+          "^\\$jscomp\\$|" + Pattern.quote(Es6ExtractClasses.CLASS_DECL_VAR) + "|\\$\\d+$");
+
+  private final AbstractCompiler compiler;
+  private final int numThreads;
+
+  ParallelTranspiler(AbstractCompiler compiler, int numThreads) {
+    this.compiler = compiler;
+    this.numThreads = numThreads;
+  }
+
+  /**
+   * Replaces the transpilation passes in the given checks with one that runs
+   * them on {@code options.transpilationThreads} threads, if the options ask
+   * for more than one and the passes run one after another.
+   */
+  static List<PassFactory> parallelize(List<PassFactory> checks, CompilerOptions options) {
+    int start = checks.indexOf(PASSES.get(0));
+    int end = start + PASSES.size();
+    // The input cost tracker charges one input at a time, and the compilers
+    // of the other threads have none.
+    if (options.transpilationThreads < 2
+        || options.trackInputCosts
+        || options.allowsHotswapReplaceScript()
+        || options.devMode != CompilerOptions.DevMode.OFF
+        || options.printSourceAfterEachPass
+        || start == -1
+        || end > checks.size()
+        || !checks.subList(start, end).equals(PASSES)) {
+      return checks;
+    }
+    List<PassFactory> parallelized = new ArrayList<>(checks.subList(0, start));
+    parallelized.add(createFactory(options.transpilationThreads));
+    parallelized.addAll(checks.subList(end, checks.size()));
+    return parallelized;
+  }
+
+  private static PassFactory createFactory(final int numThreads) {
+    return new PassFactory("parallelTranspilation", true) {
+      @Override
+      protected CompilerPass create(AbstractCompiler compiler) {
+        return new ParallelTranspiler(compiler, numThreads);
+      }
+    };
+  }
+
+  @Override
+  public void process(Node externs, Node root) {
+    if (numThreads < 2
+        || !(compiler instanceof Compiler)
+        || !((Compiler) compiler).usesThreads()
+        || !root.hasMoreThanOneChild()
+        || !processInParallel(externs, root)) {
+      PhaseOptimizer phases = new PhaseOptimizer(compiler, null, null);
+      phases.consume(PASSES);
+      phases.process(externs, root);
+    }
+  }
+
+  /**
+   * Transpiles the externs and each script separately, and puts the results
+   * in place of the originals.
+   *
+   * @return false if nothing was changed, because the passes must run over
+   *     the whole program instead
+   */
+  @VisibleForTesting
+  boolean processInParallel(Node externs, Node root) {
+    Compiler compiler = (Compiler) this.compiler;
+    List<Unit> units = new ArrayList<>();
+    units.add(new Unit(0, externs, true));
+    for (Node script : root.children()) {
+      units.add(new Unit(units.size(), script, false));
+    }
+
+    for (boolean processedAlone : runAll(units, 0, SECOND_ROUND)) {
+      if (!processedAlone) {
+        return false;
+      }
+    }
+    setGlobalNamesElsewhere(units);
+    runAll(units, SECOND_ROUND, PASSES.size());
+
+    boolean changed = false;
+    for (Unit unit : units) {
+      for (JSError error : unit.worker.errors.values()) {
+        CheckLevel level = compiler.getErrorLevel(error);
+        if (error.getDefaultLevel() == CheckLevel.ERROR
+            || level == CheckLevel.ERROR
+            || error.description.indexOf(MARK) != -1) {
+          return false;
+        }
+      }
+      changed |= unit.worker.changed;
+    }
+
+    assignIds(compiler, units);
+    for (Unit unit : units) {
+      unit.replaceOriginal();
+    }
+    for (int pass = 0; pass < PASSES.size(); pass++) {
+      for (Unit unit : units) {
+        for (JSError error : unit.worker.errors.get(pass)) {
+          compiler.report(error);
+        }
+      }
+    }
+    if (changed) {
+      compiler.reportCodeChange();
+    }
+    return true;
+  }
+
+  /** Runs some passes over all units, and returns whether each could run alone. */
+  private List<Boolean> runAll(List<Unit> units, final int fromPass, final int toPass) {
+    return ParallelTasks.runPartitioned(units, 1, numThreads, "jscompiler-transpiler",
+        new BatchTask<Unit, Boolean, RuntimeException>() {
+          @Override
+          public Boolean run(List<Unit> batch) {
+            return batch.get(0).runPasses(fromPass, toPass);
+          }
+        });
+  }
+
+  /**
+   * Tells each unit which global names of the others make
+   * {@link Es6RewriteBlockScopedDeclaration} rename its block-scoped names,
+   * as if it processed all units at once.
+   */
+  private static void setGlobalNamesElsewhere(List<Unit> units) {
+    final Set<String> declared = new HashSet<>();
+    Set<String> undeclared = new HashSet<>();
+    final Map<String, Integer> firstHoistingUnit = new HashMap<>();
+    for (Unit unit : units) {
+      // Generated names are unique, so they don't clash with the names of other units.
+      addNamesWithoutIds(declared, unit.names.declared);
+      addNamesWithoutIds(undeclared, unit.names.undeclared);
+      for (String name : unit.names.hoisted) {
+        if (name.indexOf(MARK) == -1 && !firstHoistingUnit.containsKey(name)) {
+          firstHoistingUnit.put(name, unit.index);
+        }
+      }
+    }
+    undeclared.removeAll(declared);
+
+    for (final Unit unit : units) {
+      unit.worker.declaredElsewhere = new Predicate<String>() {
+        @Override
+        public boolean apply(String name) {
+          Integer hoistingUnit = firstHoistingUnit.get(name);
+          return declared.contains(name) || (hoistingUnit != null && hoistingUnit < unit.index);
+        }
+      };
+      unit.worker.undeclaredElsewhere = undeclared;
+    }
+  }
+
+  private static void addNamesWithoutIds(Set<String> names, Set<String> namesToAdd) {
+    for (String name : namesToAdd) {
+      if (name.indexOf(MARK) == -1) {
+        names.add(name);
+      }
+    }
+  }
+
+  /**
+   * Gives the placeholder ids the ids that the passes would have used over
+   * the whole program. Each supplier of a pass is used in one traversal of the
+   * program at a time, so its ids follow the order of the units.
+   */
+  private static void assignIds(Compiler compiler, List<Unit> units) {
+    List<Id> uniqueIds = new ArrayList<>();
+    List<Id> localIds = new ArrayList<>();
+    List<Id> syntheticInputs = new ArrayList<>();
+    for (Unit unit : units) {
+      uniqueIds.addAll(unit.worker.uniqueIds);
+      localIds.addAll(unit.worker.localIds);
+      syntheticInputs.addAll(unit.worker.syntheticInputs);
+    }
+    Collections.sort(uniqueIds, Id.IN_PROGRAM_ORDER);
+    Collections.sort(localIds, Id.IN_PROGRAM_ORDER);
+    Collections.sort(syntheticInputs, Id.IN_PROGRAM_ORDER);
+
+    Supplier<String> ids = compiler.getUniqueNameIdSupplier();
+    for (Id id : uniqueIds) {
+      id.value = ids.get();
+    }
+    Id previous = null;
+    for (Id id : localIds) {
+      if (previous == null || previous.pass != id.pass || previous.supplier != id.supplier) {
+        ids = compiler.getLocalNameIdSupplier();
+      }
+      id.value = ids.get();
+      previous = id;
+    }
+    for (Id id : syntheticInputs) {
+      id.file = compiler.addSyntheticInput(id.value).getSourceFile();
+    }
+  }
+
+  /** An id that a worker generated. */
+  private static final class Id {
+    static final Comparator<Id> IN_PROGRAM_ORDER = new Comparator<Id>() {
+      @Override
+      public int compare(Id a, Id b) {
+        return ComparisonChain.start()
+            .compare(a.pass, b.pass)
+            .compare(a.supplier, b.supplier)
+            .compare(a.unit, b.unit)
+            .compare(a.index, b.index)
+            .result();
+      }
+    };
+
+    final int pass;
+    final int supplier;
+    final int unit;
+    final int index;
+    /** The final id, or the code of a synthetic input. */
+    String value;
+    /** The final file of a synthetic input. */
+    SourceFile file;
+
+    Id(int pass, int supplier, int unit, int index) {
+      this.pass = pass;
+      this.supplier = supplier;
+      this.unit = unit;
+      this.index = index;
+    }
+  }
+
+  /** The externs, or one script, with the worker that transpiles them. */
+  private final class Unit {
+    final int index;
+    /** The externs root or the script. */
+    final Node original;
+    final boolean isExterns;
+    Worker worker;
+    GlobalNames names;
+
+    Unit(int index, Node original, boolean isExterns) {
+      this.index = index;
+      this.original = original;
+      this.isExterns = isExterns;
+    }
+
+    boolean runPasses(int fromPass, int toPass) {
+      if (fromPass == 0) {
+        worker = new Worker((Compiler) compiler, index);
+        Node root = isExterns ? worker.externsRoot : worker.jsRoot;
+        for (Node script : isExterns ? original.children() : ImmutableList.of(original)) {
+          root.addChildToBack(script.cloneTree(true));
+        }
+        if (!canProcessAlone(root, false)) {
+          return false;
+        }
+      }
+      worker.runPasses(fromPass, toPass);
+      if (fromPass == 0) {
+        names = GlobalNames.collect(worker, worker.externsRoot, worker.jsRoot);
+      }
+      return true;
+    }
+
+    void replaceOriginal() {
+      Node root = isExterns ? worker.externsRoot : worker.jsRoot;
+      Map<StaticSourceFile, SourceFile> syntheticFiles = new IdentityHashMap<>();
+      for (Id id : worker.syntheticInputs) {
+        syntheticFiles.put(worker.syntheticFiles.get(id.index), id.file);
+      }
+      Node clone = root.getFirstChild();
+      for (Node script : isExterns ? original.children() : ImmutableList.of(original)) {
+        replaceIds(clone, syntheticFiles);
+        script.removeChildren();
+        if (clone.hasChildren()) {
+          script.addChildrenToBack(clone.removeChildren());
+        }
+        clone = clone.getNext();
+      }
+    }
+
+    private void replaceIds(Node n, Map<StaticSourceFile, SourceFile> syntheticFiles) {
+      if (hasString(n) && n.getString().indexOf(MARK) != -1) {
+        n.setString(worker.replaceIds(n.getString()));
+      }
+      SourceFile syntheticFile = syntheticFiles.get(n.getStaticSourceFile());
+      if (syntheticFile != null) {
+        n.setStaticSourceFile(syntheticFile);
+      }
+      JSDocInfo info = n.getJSDocInfo();
+      if (info != null) {
+        for (Node typeNode : info.getTypeNodes()) {
+          replaceIds(typeNode, syntheticFiles);
+        }
+      }
+      for (Node child = n.getFirstChild(); child != null; child = child.getNext()) {
+        replaceIds(child, syntheticFiles);
+      }
+    }
+  }
+
+  /**
+   * Whether the passes would change the given tree alone as they would with
+   * the rest of the program. That is not the case if it has names that the
+   * passes might generate, or text that looks like a placeholder id, or if
+   * it uses {@code this} or {@code arguments} in an arrow function outside of
+   * other functions, which moves them into the first script.
+   */
+  private static boolean canProcessAlone(Node n, boolean inFunction) {
+    if (hasString(n)) {
+      String s = n.getString();
+      if (s.indexOf(MARK) != -1 || (n.isName() && GENERATED_NAME.matcher(s).find())) {
+        return false;
+      }
+      if (n.isString() && n.getParent() != null && n.getParent().isTemplateLit()
+          && Es6TemplateLiterals.cookString((String) n.getProp(Node.RAW_STRING_VALUE))
+              .indexOf(MARK) != -1) {
+        return false;
+      }
+    }
+    if (!inFunction && (n.isThis() || (n.isName() && n.getString().equals("arguments")))) {
+      Node function = NodeUtil.getEnclosingFunction(n);
+      if (function != null && function.isArrowFunction()) {
+        return false;
+      }
+    }
+    JSDocInfo info = n.getJSDocInfo();
+    if (info != null) {
+      for (Node typeNode : info.getTypeNodes()) {
+        if (!canProcessAlone(typeNode, true)) {
+          return false;
+        }
+      }
+    }
+    boolean inNonArrowFunction = inFunction || (n.isFunction() && !n.isArrowFunction());
+    for (Node child = n.getFirstChild(); child != null; child = child.getNext()) {
+      if (!canProcessAlone(child, inNonArrowFunction)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean hasString(Node n) {
+    switch (n.getType()) {
+      case NAME:
+      case STRING:
+      case STRING_KEY:
+      case LABEL_NAME:
+      case GETTER_DEF:
+      case SETTER_DEF:
+      case MEMBER_FUNCTION_DEF:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * A compiler for the passes over one unit. It holds back the problems they
+   * report and the ids they generate until all units are done.
+   */
+  private static final class Worker extends Compiler {
+    private final int unit;
+    private final ListMultimap<Integer, JSError> errors = ArrayListMultimap.create();
+    /** The ids in the order they were generated, by their placeholder index. */
+    private final List<Id> ids = new ArrayList<>();
+    private final List<Id> uniqueIds = new ArrayList<>();
+    private final List<Id> localIds = new ArrayList<>();
+    private final List<Id> syntheticInputs = new ArrayList<>();
+    private final List<SourceFile> syntheticFiles = new ArrayList<>();
+    private int pass;
+    private int uniqueSuppliers;
+    private int localSuppliers;
+    private boolean changed;
+    private boolean halted;
+    private Predicate<String> declaredElsewhere;
+    private Set<String> undeclaredElsewhere;
+
+    Worker(Compiler compiler, int unit) {
+      super(new HeldErrorManager());
+      initFrom(compiler);
+      this.unit = unit;
+    }
+
+    void runPasses(int fromPass, int toPass) {
+      for (pass = fromPass; pass < toPass && !halted; pass++) {
+        uniqueSuppliers = 0;
+        localSuppliers = 0;
+        CompilerPass compilerPass = PASSES.get(pass).create(this);
+        if (compilerPass instanceof Es6RewriteBlockScopedDeclaration) {
+          ((Es6RewriteBlockScopedDeclaration) compilerPass)
+              .setGlobalNamesElsewhere(declaredElsewhere, undeclaredElsewhere);
+        }
+        compilerPass.process(externsRoot, jsRoot);
+      }
+    }
+
+    @Override
+    public void report(JSError error) {
+      errors.put(pass, error);
+      // The passes stop at errors when they run over the whole program.
+      if (error.getDefaultLevel() == CheckLevel.ERROR) {
+        halted = true;
+      }
+    }
+
+    @Override
+    public void reportCodeChange() {
+      changed = true;
+    }
+
+    @Override
+    Supplier<String> getUniqueNameIdSupplier() {
+      return newIdSupplier(uniqueIds, uniqueSuppliers++);
+    }
+
+    @Override
+    Supplier<String> getLocalNameIdSupplier() {
+      return newIdSupplier(localIds, localSuppliers++);
+    }
+
+    private Supplier<String> newIdSupplier(final List<Id> supplied, final int supplier) {
+      final int supplierPass = pass;
+      return new Supplier<String>() {
+        @Override
+        public String get() {
+          Id id = new Id(supplierPass, supplier, unit, ids.size());
+          ids.add(id);
+          supplied.add(id);
+          return MARK + String.valueOf(id.index) + MARK;
+        }
+      };
+    }
+
+    @Override
+    Node parseSyntheticCode(String js) {
+      // The input is added to the main compiler once the ids are assigned.
+      Id id = new Id(pass, 0, unit, syntheticInputs.size());
+      id.value = js;
+      syntheticInputs.add(id);
+      SourceFile file = SourceFile.fromCode(" [synthetic:" + MARK + id.index + "] ", js);
+      syntheticFiles.add(file);
+      return new CompilerInput(file).getAstRoot(this);
+    }
+
+    /** Replaces the placeholder ids in the given name with their final ids. */
+    String replaceIds(String name) {
+      StringBuilder sb = new StringBuilder();
+      int start = 0;
+      for (int mark = name.indexOf(MARK); mark != -1; mark = name.indexOf(MARK, start)) {
+        int end = name.indexOf(MARK, mark + 1);
+        sb.append(name, start, mark);
+        sb.append(ids.get(Integer.parseInt(name.substring(mark + 1, end))).value);
+        start = end + 1;
+      }
+      return sb.append(name, start, name.length()).toString();
+    }
+  }
+}
@@ -22,13 +22,16 @@ import com.google.common.annotations.GwtIncompatible;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
+import com.google.gson.stream.JsonWriter;
 import com.google.javascript.jscomp.CompilerOptions.TracerMode;
 import com.google.javascript.rhino.Node;
+import com.google.javascript.rhino.Token;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.PrintStream;
+import java.io.Writer;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -38,6 +41,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
 import java.util.zip.GZIPOutputStream;
 
 /**
@@ -73,6 +77,9 @@ public final class PerformanceTracker {
   private int changes = 0;
   private int loopRuns = 0;
   private int loopChanges = 0;
+  private long allocatedBytes = 0;
+  private long cpuTimeNanos = 0;
+  private long gcTime = 0;
   // An approximation of how many MBs are allocated after each compiler pass
   private ArrayList<Integer> allocsInMB = new ArrayList<>();
 
@@ -96,6 +103,12 @@ public final class PerformanceTracker {
   /** Stats for each run of a compiler pass. */
   private final List<Stats> log = new ArrayList<>();
 
+  /** When the tracker was created, the origin of the trace event times. */
+  private final long startNanos = System.nanoTime();
+
+  /** The compiler whose data structures are counted after each run, if any. */
+  private Compiler heapCompositionCompiler = null;
+
   PerformanceTracker(Node jsRoot, TracerMode mode, PrintStream printStream) {
     this.jsRoot = jsRoot;
     this.printStream = printStream == null ? System.out : printStream;
@@ -127,8 +140,22 @@ public final class PerformanceTracker {
     return codeChange;
   }
 
+  /**
+   * Counts the data structures of the given compiler after each run, see
+   * {@link HeapComposition}. This walks the whole AST, so it slows down the
+   * compile, but it isn't included in the measurements of the runs.
+   */
+  void trackHeapComposition(Compiler compiler) {
+    this.heapCompositionCompiler = compiler;
+  }
+
   void recordPassStart(String passName, boolean isOneTime) {
-    currentPass.push(new Stats(passName, isOneTime));
+    Stats logStats = new Stats(passName, isOneTime);
+    logStats.startTime = elapsedMicros();
+    logStats.startAllocatedBytes = JvmMetrics.getCurrentThreadAllocatedBytes();
+    logStats.startCpuTime = JvmMetrics.getCurrentThreadCpuTime();
+    logStats.startGcTime = JvmMetrics.getGarbageCollectionTime();
+    currentPass.push(logStats);
     // In Compiler, toSource may be called after every pass X. We don't want it
     // to reset the handler, because recordPassStop for pass X has not been
     // called, so we are falsely logging that pass X didn't make changes.
@@ -139,16 +166,36 @@ public final class PerformanceTracker {
 
   /**
    * Collects information about a pass P after P finishes running, eg, how much
-   * time P took and what was its impact on code size.
+   * time P took, how much memory it allocated and what was its impact on code
+   * size.
    *
    * @param passName short name of the pass
    * @param runtime execution time in milliseconds
    */
   void recordPassStop(String passName, long runtime) {
+    // Read the counters before doing any work of our own.
+    long endTime = elapsedMicros();
+    long endAllocatedBytes = JvmMetrics.getCurrentThreadAllocatedBytes();
+    long endCpuTime = JvmMetrics.getCurrentThreadCpuTime();
+    long endGcTime = JvmMetrics.getGarbageCollectionTime();
     writeMemStats(passName);
 
     Stats logStats = currentPass.pop();
     Preconditions.checkState(passName.equals(logStats.pass));
+    logStats.duration = endTime - logStats.startTime;
+    Runtime javaRuntime = Runtime.getRuntime();
+    logStats.heapUsed = javaRuntime.totalMemory() - javaRuntime.freeMemory();
+    logStats.totalGcTime = endGcTime;
+    if (logStats.startAllocatedBytes >= 0 && endAllocatedBytes >= 0) {
+      logStats.allocatedBytes = endAllocatedBytes - logStats.startAllocatedBytes;
+    }
+    if (logStats.startCpuTime >= 0 && endCpuTime >= 0) {
+      logStats.cpuTimeNanos = endCpuTime - logStats.startCpuTime;
+    }
+    logStats.gcTime = endGcTime - logStats.startGcTime;
+    if (heapCompositionCompiler != null) {
+      logStats.heapComposition = HeapComposition.measure(heapCompositionCompiler);
+    }
 
     // Populate log and summary
     log.add(logStats);
@@ -175,6 +222,9 @@ public final class PerformanceTracker {
     logStats.runs = 1;
     summaryStats.runtime += runtime;
     summaryStats.runs += 1;
+    summaryStats.allocatedBytes += logStats.allocatedBytes;
+    summaryStats.cpuTimeNanos += logStats.cpuTimeNanos;
+    summaryStats.gcTime += logStats.gcTime;
     if (codeChange.hasCodeChanged()) {
       logStats.changes = 1;
       summaryStats.changes += 1;
@@ -200,10 +250,22 @@ public final class PerformanceTracker {
     }
   }
 
+  private long elapsedMicros() {
+    return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+  }
+
   private int bytesToMB(long bytes) {
     return (int) (bytes / (1024 * 1024));
   }
 
+  private static long nanosToMillis(long nanos) {
+    return TimeUnit.NANOSECONDS.toMillis(nanos);
+  }
+
+  private static long bytesToKB(long bytes) {
+    return bytes / 1024;
+  }
+
   private void writeMemStats(String passName) {
     try {
       Runtime javaRuntime = Runtime.getRuntime();
@@ -310,6 +372,9 @@ public final class PerformanceTracker {
       runtime += stats.runtime;
       runs += stats.runs;
       changes += stats.changes;
+      allocatedBytes += stats.allocatedBytes;
+      cpuTimeNanos += stats.cpuTimeNanos;
+      gcTime += stats.gcTime;
       if (!stats.isOneTime) {
         loopRuns += stats.runs;
         loopChanges += stats.changes;
@@ -342,18 +407,23 @@ public final class PerformanceTracker {
             }
           });
 
-      this.output.write("Summary:\n" +
-          "pass,runtime,runs,changingRuns,reduction,gzReduction\n");
+      this.output.write("Summary:\n"
+          + "pass,runtime,runs,changingRuns,reduction,gzReduction,"
+          + "allocatedMB,cpuTime,gcTime\n");
       for (Entry<String, Stats> entry : statEntries) {
         String key = entry.getKey();
         Stats stats = entry.getValue();
-        this.output.write(String.format("%s,%d,%d,%d,%d,%d\n", key, stats.runtime,
-            stats.runs, stats.changes, stats.diff, stats.gzDiff));
+        this.output.write(String.format("%s,%d,%d,%d,%d,%d,%d,%d,%d\n", key, stats.runtime,
+            stats.runs, stats.changes, stats.diff, stats.gzDiff,
+            bytesToMB(stats.allocatedBytes), nanosToMillis(stats.cpuTimeNanos), stats.gcTime));
       }
       double meanMem = meanMemUsed();
       double stdDev = usedMemStandardDeviation(meanMem);
       this.output.write("\nTOTAL:"
           + "\nRuntime(ms): " + runtime
+          + "\nAllocated(MB): " + bytesToMB(allocatedBytes)
+          + "\nCPU time(ms): " + nanosToMillis(cpuTimeNanos)
+          + "\nGC time(ms): " + gcTime
           + String.format("\nMem usage after each pass(MB): %.2f +/- %.2f", meanMem, stdDev)
           + "\n#Runs: " + runs
           + "\n#Changing runs: " + changes + "\n#Loopable runs: " + loopRuns
@@ -361,14 +431,19 @@ public final class PerformanceTracker {
           + "\nEstimated GzReduction(bytes): " + gzDiff + "\nEstimated Size(bytes): " + codeSize
           + "\nEstimated GzSize(bytes): " + gzCodeSize + "\n\n");
 
-      this.output.write("Log:\n" +
-          "pass,runtime,runs,changingRuns,reduction,gzReduction,size,gzSize\n");
+      this.output.write("Log:\n"
+          + "pass,runtime,runs,changingRuns,reduction,gzReduction,size,gzSize,"
+          + "allocatedMB,cpuTime,gcTime\n");
       for (Stats stats : log) {
-        this.output.write(String.format("%s,%d,%d,%d,%d,%d,%d,%d\n",
+        this.output.write(String.format("%s,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d\n",
             stats.pass, stats.runtime, stats.runs, stats.changes,
-            stats.diff, stats.gzDiff, stats.size, stats.gzSize));
+            stats.diff, stats.gzDiff, stats.size, stats.gzSize,
+            bytesToMB(stats.allocatedBytes), nanosToMillis(stats.cpuTimeNanos), stats.gcTime));
       }
       this.output.write("\n");
+      if (heapCompositionCompiler != null) {
+        writeHeapComposition();
+      }
       // this.output can be System.out, so don't close it to not lose subsequent
       // error messages. Flush to ensure that you will see the tracer report.
       this.output.flush();
@@ -377,6 +452,150 @@ public final class PerformanceTracker {
     }
   }
 
+  /**
+   * Writes the estimated KB of each kind of data structure after each run,
+   * and the breakdown of the largest composition by token and type class.
+   */
+  private void writeHeapComposition() throws IOException {
+    this.output.write("Heap composition:\n"
+        + "pass,nodes,nodesKB,propListItems,propListsKB,jsDocInfos,jsDocNodes,"
+        + "jsDocKB,types,typesKB,scopes,vars,scopesKB,totalKB\n");
+    Stats largest = null;
+    for (Stats stats : log) {
+      HeapComposition heap = stats.heapComposition;
+      if (heap == null) {
+        continue;
+      }
+      if (largest == null
+          || heap.getTotalBytes() > largest.heapComposition.getTotalBytes()) {
+        largest = stats;
+      }
+      this.output.write(String.format(
+          "%s,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d\n", stats.pass,
+          heap.getNodes(), bytesToKB(heap.getNodeBytes()),
+          heap.getPropListItems(), bytesToKB(heap.getPropListBytes()),
+          heap.getJsDocInfos(), heap.getJsDocNodes(),
+          bytesToKB(heap.getJsDocBytes()),
+          heap.getTypes(), bytesToKB(heap.getTypeBytes()),
+          heap.getScopes(), heap.getVars(), bytesToKB(heap.getScopeBytes()),
+          bytesToKB(heap.getTotalBytes())));
+    }
+    if (largest != null) {
+      this.output.write(
+          "\nLargest heap composition, after pass " + largest.pass + ":\n"
+          + "token,nodes\n");
+      for (Entry<Token, Integer> entry
+          : largest.heapComposition.getNodesByToken()) {
+        this.output.write(entry.getKey() + "," + entry.getValue() + "\n");
+      }
+      this.output.write("typeClass,types\n");
+      for (Entry<String, Integer> entry
+          : largest.heapComposition.getTypesByClass()) {
+        this.output.write(entry.getKey() + "," + entry.getValue() + "\n");
+      }
+    }
+    this.output.write("\n");
+  }
+
+  /**
+   * Writes the log, which contains stats for each individual run, in the
+   * Chrome trace event format, which trace viewers such as about:tracing can
+   * load. Each run is a complete event, followed by counter events for the
+   * code size, the number of changing runs, the used heap, the total time
+   * spent in garbage collection and, if it is tracked, the heap composition
+   * at the end of the run.
+   */
+  public void outputTraceEvents(Writer out) throws IOException {
+    JsonWriter writer = new JsonWriter(out);
+    writer.beginObject();
+    writer.name("displayTimeUnit").value("ms");
+    writer.name("traceEvents").beginArray();
+    int changingRuns = 0;
+    // The size is only computed after parsing and after runs that change the
+    // code.
+    int size = 0;
+    int gzSize = 0;
+    for (Stats stats : log) {
+      changingRuns += stats.changes;
+      if (stats.changes != 0 || stats.pass.equals(Compiler.PARSING_PASS_NAME)) {
+        size = stats.size;
+        gzSize = stats.gzSize;
+      }
+      long endTime = stats.startTime + stats.duration;
+      writer.beginObject();
+      writer.name("name").value(stats.pass);
+      writer.name("cat").value(stats.isOneTime ? "pass" : "loopablePass");
+      writer.name("ph").value("X");
+      writer.name("ts").value(stats.startTime);
+      writer.name("dur").value(stats.duration);
+      writer.name("pid").value(1);
+      writer.name("tid").value(1);
+      writer.name("args").beginObject();
+      writer.name("changed").value(stats.changes != 0);
+      writer.name("allocatedMB").value(bytesToMB(stats.allocatedBytes));
+      writer.name("cpuTimeMs").value(nanosToMillis(stats.cpuTimeNanos));
+      writer.name("gcTimeMs").value(stats.gcTime);
+      if (trackSize) {
+        writer.name("reduction").value(stats.diff);
+      }
+      if (trackGzSize) {
+        writer.name("gzReduction").value(stats.gzDiff);
+      }
+      writer.endObject();
+      writer.endObject();
+
+      if (trackSize) {
+        writer.beginObject();
+        writeCounterHeader(writer, "size", endTime);
+        writer.name("args").beginObject();
+        writer.name("size").value(size);
+        if (trackGzSize) {
+          writer.name("gzSize").value(gzSize);
+        }
+        writer.endObject();
+        writer.endObject();
+      }
+      writeCounter(writer, "changingRuns", endTime, changingRuns);
+      writeCounter(writer, "heapUsedMB", endTime, bytesToMB(stats.heapUsed));
+      writeCounter(writer, "gcTimeMs", endTime, stats.totalGcTime);
+      HeapComposition heap = stats.heapComposition;
+      if (heap != null) {
+        writer.beginObject();
+        writeCounterHeader(writer, "heapCompositionKB", endTime);
+        writer.name("args").beginObject();
+        writer.name("nodes").value(bytesToKB(heap.getNodeBytes()));
+        writer.name("propLists").value(bytesToKB(heap.getPropListBytes()));
+        writer.name("jsDoc").value(bytesToKB(heap.getJsDocBytes()));
+        writer.name("types").value(bytesToKB(heap.getTypeBytes()));
+        writer.name("scopes").value(bytesToKB(heap.getScopeBytes()));
+        writer.endObject();
+        writer.endObject();
+      }
+    }
+    writer.endArray();
+    writer.endObject();
+    writer.flush();
+  }
+
+  private static void writeCounterHeader(
+      JsonWriter writer, String name, long time) throws IOException {
+    writer.name("name").value(name);
+    writer.name("ph").value("C");
+    writer.name("ts").value(time);
+    writer.name("pid").value(1);
+  }
+
+  private static void writeCounter(
+      JsonWriter writer, String name, long time, long value)
+      throws IOException {
+    writer.beginObject();
+    writeCounterHeader(writer, name, time);
+    writer.name("args").beginObject();
+    writer.name("value").value(value);
+    writer.endObject();
+    writer.endObject();
+  }
+
   /**
    * A Stats object contains statistics about a pass run, such as running time,
    * size changes, etc
@@ -395,6 +614,37 @@ public final class PerformanceTracker {
     public int gzDiff = 0;
     public int size;
     public int gzSize;
+    /**
+     * The bytes allocated by the compiler thread, or 0 if the JVM doesn't
+     * measure them.
+     */
+    public long allocatedBytes = 0;
+    /**
+     * The CPU time of the compiler thread in nanoseconds, or 0 if the JVM
+     * doesn't measure it. Kept in nanoseconds so that the many short runs of
+     * a pass add up; the reports show milliseconds.
+     */
+    public long cpuTimeNanos = 0;
+    /**
+     * The time spent in garbage collection in ms. Collections pause all
+     * threads, so this includes collections caused by other threads.
+     */
+    public long gcTime = 0;
+
+    // The following fields are only set for a single run of a pass.
+    long startAllocatedBytes = 0;
+    long startCpuTime = 0;
+    long startGcTime = 0;
+    /** The start of the run, in microseconds since the tracker was created. */
+    long startTime = 0;
+    /** The wall time of the run, in microseconds. */
+    long duration = 0;
+    /** The used heap after the run, in bytes. */
+    long heapUsed = 0;
+    /** The total garbage collection time at the end of the run, in ms. */
+    long totalGcTime = 0;
+    /** The compiler's data structures after the run, if they are counted. */
+    HeapComposition heapComposition = null;
   }
 
   /** An object to get a gzsize estimate; it doesn't generate code. */
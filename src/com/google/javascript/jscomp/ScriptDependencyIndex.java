@@ -0,0 +1,212 @@
+/*
+ * Copyright 2016 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.SetMultimap;
+import com.google.common.collect.Sets;
+import com.google.javascript.jscomp.NodeTraversal.AbstractPostOrderCallback;
+import com.google.javascript.rhino.JSDocInfo;
+import com.google.javascript.rhino.Node;
+import com.google.javascript.rhino.jstype.FunctionType;
+import com.google.javascript.rhino.jstype.JSType;
+import com.google.javascript.rhino.jstype.ObjectType;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Tracks which scripts use the global declarations of which other scripts,
+ * so that a hot swap can recheck the types of the scripts that depend on the
+ * replaced one instead of the whole program.
+ *
+ * <p>A script references the global names it uses in its code and in the
+ * type expressions of its JSDoc. Each reference is recorded as the longest
+ * prefix of the qualified name that is declared in the global typed scope:
+ * {@code ns.Foo.prototype.bar} is recorded as {@code ns.Foo} if that is the
+ * declared name. The references are over-approximated: a local variable
+ * counts as a reference to the global of the same name.
+ *
+ * <p>Whether the declarations of a script changed is told by their
+ * signatures, which include the declared types and, for constructors,
+ * interfaces and other objects, the types of their own properties. An edit
+ * that keeps the signatures, such as one in a function body, needs no
+ * dependent to be rechecked.
+ */
+final class ScriptDependencyIndex {
+
+  private final AbstractCompiler compiler;
+
+  /** The names each script references, by script name. */
+  private final SetMultimap<String, String> namesByScript =
+      HashMultimap.create();
+  /** The scripts that reference each name. */
+  private final SetMultimap<String, String> scriptsByName =
+      HashMultimap.create();
+
+  ScriptDependencyIndex(AbstractCompiler compiler) {
+    this.compiler = compiler;
+  }
+
+  /**
+   * Records the global names that the given script references, replacing
+   * what was recorded for it before.
+   */
+  void indexScript(Node script, TypedScope globalScope) {
+    String scriptName = script.getSourceFileName();
+    for (String name : namesByScript.removeAll(scriptName)) {
+      scriptsByName.remove(name, scriptName);
+    }
+    ReferenceCollector collector = new ReferenceCollector(globalScope);
+    NodeTraversal.traverseEs6(compiler, script, collector);
+    for (String name : collector.names) {
+      namesByScript.put(scriptName, name);
+      scriptsByName.put(name, scriptName);
+    }
+  }
+
+  /**
+   * Returns the names of the scripts, other than the given one, that
+   * reference one of the given names. A name that was just declared may
+   * resolve references that were recorded as one of its prefixes, so they
+   * are included.
+   */
+  Set<String> getDependents(
+      String scriptName, Set<String> changedNames, Set<String> addedNames) {
+    Set<String> dependents = new TreeSet<>();
+    for (String name : changedNames) {
+      dependents.addAll(scriptsByName.get(name));
+    }
+    for (String name : addedNames) {
+      for (int dot = name.lastIndexOf('.'); dot != -1;
+           dot = name.lastIndexOf('.', dot - 1)) {
+        dependents.addAll(scriptsByName.get(name.substring(0, dot)));
+      }
+    }
+    dependents.remove(scriptName);
+    return dependents;
+  }
+
+  /**
+   * Returns the signatures of the global names that the given script
+   * declares, by name.
+   */
+  static Map<String, String> getDeclarationSignatures(
+      TypedScope globalScope, String scriptName) {
+    Map<String, String> signatures = new HashMap<>();
+    for (TypedVar var : globalScope.getVarIterable()) {
+      if (scriptName.equals(var.getInputName())) {
+        signatures.put(var.getName(), getSignature(var.getType()));
+      }
+    }
+    return signatures;
+  }
+
+  /**
+   * Returns the names whose signatures differ between the given
+   * declarations, including the names declared by only one of them.
+   */
+  static Set<String> getChangedNames(
+      Map<String, String> before, Map<String, String> after) {
+    Set<String> changed = new TreeSet<>();
+    for (Map.Entry<String, String> entry : before.entrySet()) {
+      if (!entry.getValue().equals(after.get(entry.getKey()))) {
+        changed.add(entry.getKey());
+      }
+    }
+    changed.addAll(Sets.difference(after.keySet(), before.keySet()));
+    return changed;
+  }
+
+  private static String getSignature(JSType type) {
+    if (type == null) {
+      return "";
+    }
+    StringBuilder signature = new StringBuilder(type.toString());
+    FunctionType fnType = type.toMaybeFunctionType();
+    if (fnType != null && fnType.hasInstanceType()) {
+      appendProperties(signature, fnType.getInstanceType());
+      appendProperties(signature, fnType.getPrototype());
+    } else if (fnType == null && type.toObjectType() != null) {
+      appendProperties(signature, type.toObjectType());
+    }
+    return signature.toString();
+  }
+
+  private static void appendProperties(StringBuilder signature, ObjectType type) {
+    signature.append('{');
+    for (String property : new TreeSet<>(type.getOwnPropertyNames())) {
+      signature.append(property).append(':')
+          .append(type.getPropertyType(property)).append(',');
+    }
+    signature.append('}');
+  }
+
+  /** Collects the global names that a script references. */
+  private static class ReferenceCollector extends AbstractPostOrderCallback {
+    private final TypedScope globalScope;
+    private final Set<String> names = new TreeSet<>();
+
+    ReferenceCollector(TypedScope globalScope) {
+      this.globalScope = globalScope;
+    }
+
+    @Override
+    public void visit(NodeTraversal t, Node n, Node parent) {
+      if ((n.isName() || n.isGetProp())
+          && !(parent != null && parent.isGetProp() && n == parent.getFirstChild())
+          && n.isQualifiedName()
+          && NodeUtil.getRootOfQualifiedName(n).isName()) {
+        addReference(n.getQualifiedName());
+      }
+      JSDocInfo info = n.getJSDocInfo();
+      if (info != null) {
+        for (Node typeRoot : info.getTypeNodes()) {
+          addTypeReferences(typeRoot);
+        }
+      }
+    }
+
+    private void addTypeReferences(Node typeNode) {
+      if (typeNode.isString()) {
+        addReference(typeNode.getString());
+      }
+      for (Node child = typeNode.getFirstChild(); child != null;
+           child = child.getNext()) {
+        addTypeReferences(child);
+      }
+    }
+
+    /**
+     * Records the longest declared prefix of the given name, or its root if
+     * no prefix is declared.
+     */
+    private void addReference(String name) {
+      String prefix = name;
+      while (globalScope.getVar(prefix) == null) {
+        int dot = prefix.lastIndexOf('.');
+        if (dot == -1) {
+          break;
+        }
+        prefix = prefix.substring(0, dot);
+      }
+      names.add(prefix);
+    }
+  }
+}
@@ -18,9 +18,11 @@ package com.google.javascript.jscomp;
 
 import com.google.common.base.Predicate;
 import com.google.debugging.sourcemap.FilePosition;
+import com.google.debugging.sourcemap.SourceMapConsumerV3;
 import com.google.debugging.sourcemap.SourceMapFormat;
 import com.google.debugging.sourcemap.SourceMapGenerator;
 import com.google.debugging.sourcemap.SourceMapGeneratorFactory;
+import com.google.debugging.sourcemap.SourceMapGeneratorV3;
 import com.google.javascript.rhino.Node;
 
 import java.io.IOException;
@@ -108,6 +110,7 @@ public final class SourceMap {
   private List<LocationMapping> prefixMappings = Collections.emptyList();
   private final Map<String, String> sourceLocationFixupCache =
        new HashMap<>();
+  private Map<String, SourceMapInput> inputSourceMaps = Collections.emptyMap();
 
   private SourceMap(SourceMapGenerator generator) {
     this.generator = generator;
@@ -173,9 +176,48 @@ public final class SourceMap {
   }
 
   public void appendTo(Appendable out, String name) throws IOException {
+    if (!inputSourceMaps.isEmpty()
+        && generator instanceof SourceMapGeneratorV3) {
+      ((SourceMapGeneratorV3) generator).applyInputSourceMaps(
+          new InputSourceMapLookup());
+    }
     generator.appendTo(out, fixupSourceLocation(name));
   }
 
+  /**
+   * Looks up the input source maps by the source names written out, which
+   * have been through the location mappings.
+   */
+  private class InputSourceMapLookup
+      implements SourceMapGeneratorV3.InputSourceMapProvider {
+    private final Map<String, SourceMapInput> inputsByFixedName =
+        new HashMap<>();
+
+    InputSourceMapLookup() {
+      for (Map.Entry<String, SourceMapInput> entry
+          : inputSourceMaps.entrySet()) {
+        inputsByFixedName.put(
+            fixupSourceLocation(entry.getKey()), entry.getValue());
+      }
+    }
+
+    @Override
+    public SourceMapConsumerV3 getInputSourceMap(String sourceName) {
+      SourceMapInput input = inputsByFixedName.get(sourceName);
+      return input == null ? null : input.getSourceMap();
+    }
+
+    @Override
+    public String getOriginalSourceName(
+        String sourceName, String inputSourceName) {
+      // Like Compiler#getSourceMapping, resolve the source relative to the
+      // input source map.
+      String path = Compiler.getRelativeTo(
+          inputSourceName, inputsByFixedName.get(sourceName).getOriginalPath());
+      return fixupSourceLocation(path);
+    }
+  }
+
   public void reset() {
     generator.reset();
     sourceLocationFixupCache.clear();
@@ -199,4 +241,13 @@ public final class SourceMap {
   public void setPrefixMappings(List<LocationMapping> sourceMapLocationMappings) {
      this.prefixMappings = sourceMapLocationMappings;
   }
+
+  /**
+   * Sets the source maps of the inputs, by input name. The mappings of those
+   * inputs are written out mapped through their source maps, to the original
+   * sources.
+   */
+  void setInputSourceMaps(Map<String, SourceMapInput> inputSourceMaps) {
+    this.inputSourceMaps = inputSourceMaps;
+  }
 }
@@ -34,9 +34,7 @@ public class TranspilationPasses {
    * transpile them, even if the output language is also ES6.
    */
   public static void addEs6EarlyPasses(List<PassFactory> passes) {
-    passes.add(es6RewriteArrowFunction);
-    passes.add(es6RenameVariablesInParamLists);
-    passes.add(es6SplitVariableDeclarations);
+    passes.add(es6RewriteArrowFunctionsAndParamLists);
     passes.add(es6RewriteDestructuring);
   }
 
@@ -49,8 +47,7 @@ public class TranspilationPasses {
    * when the output is lower than ES6.
    */
   public static void addEs6LatePasses(List<PassFactory> passes) {
-    passes.add(es6ConvertSuper);
-    passes.add(es6ExtractClasses);
+    passes.add(es6ConvertSuperAndExtractClasses);
     passes.add(convertEs6ToEs3);
     passes.add(rewriteBlockScopedDeclaration);
     passes.add(rewriteGenerators);
@@ -58,35 +55,27 @@ public class TranspilationPasses {
   }
 
 
-  static final HotSwapPassFactory es6ExtractClasses =
-      new HotSwapPassFactory("Es6ExtractClasses", true) {
+  /**
+   * Rewrites arrow functions, then renames the variables that shadow names
+   * in parameter lists, in one traversal.
+   */
+  static final HotSwapPassFactory es6RewriteArrowFunctionsAndParamLists =
+      new HotSwapPassFactory("Es6RewriteArrowFunctionsAndParamLists", true) {
         @Override
-        protected HotSwapCompilerPass create(AbstractCompiler compiler) {
-          return new Es6ExtractClasses(compiler);
+        protected HotSwapCompilerPass create(final AbstractCompiler compiler) {
+          return Es6FusedRewrites.arrowFunctionsAndParamLists(compiler);
         }
       };
 
+  /**
+   * Splits declarations with destructuring patterns, then rewrites the
+   * patterns, in one traversal.
+   */
   static final HotSwapPassFactory es6RewriteDestructuring =
       new HotSwapPassFactory("Es6RewriteDestructuring", true) {
         @Override
         protected HotSwapCompilerPass create(final AbstractCompiler compiler) {
-          return new Es6RewriteDestructuring(compiler);
-        }
-      };
-
-  static final HotSwapPassFactory es6RenameVariablesInParamLists =
-      new HotSwapPassFactory("Es6RenameVariablesInParamLists", true) {
-        @Override
-        protected HotSwapCompilerPass create(final AbstractCompiler compiler) {
-          return new Es6RenameVariablesInParamLists(compiler);
-        }
-      };
-
-  static final HotSwapPassFactory es6RewriteArrowFunction =
-      new HotSwapPassFactory("Es6RewriteArrowFunction", true) {
-        @Override
-        protected HotSwapCompilerPass create(final AbstractCompiler compiler) {
-          return new Es6RewriteArrowFunction(compiler);
+          return Es6FusedRewrites.destructuring(compiler);
         }
       };
 
@@ -98,19 +87,15 @@ public class TranspilationPasses {
         }
       };
 
-  static final HotSwapPassFactory es6SplitVariableDeclarations =
-      new HotSwapPassFactory("Es6SplitVariableDeclarations", true) {
-        @Override
-        protected HotSwapCompilerPass create(final AbstractCompiler compiler) {
-          return new Es6SplitVariableDeclarations(compiler);
-        }
-      };
-
-  static final HotSwapPassFactory es6ConvertSuper =
-      new HotSwapPassFactory("es6ConvertSuper", true) {
+  /**
+   * Converts super calls, then extracts the classes that
+   * {@link Es6ToEs3Converter} can't convert where they are, in one traversal.
+   */
+  static final HotSwapPassFactory es6ConvertSuperAndExtractClasses =
+      new HotSwapPassFactory("es6ConvertSuperAndExtractClasses", true) {
     @Override
     protected HotSwapCompilerPass create(final AbstractCompiler compiler) {
-      return new Es6ConvertSuper(compiler);
+      return Es6FusedRewrites.superAndClasses(compiler);
     }
   };
 
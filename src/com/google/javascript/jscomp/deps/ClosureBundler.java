@@ -15,23 +15,43 @@
  */
 package com.google.javascript.jscomp.deps;
 
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
 import com.google.common.io.CharSource;
 import com.google.common.io.Files;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
-
+import java.util.Arrays;
+import java.util.Objects;
 
 /**
  * A utility class to assist in creating JS bundle files.
  */
 public class ClosureBundler {
+  // The prefix is on the first line so the line numbers aren't affected.
+  private static final String GOOG_MODULE_PREFIX =
+      "goog.loadModule(function(exports) {'use strict';";
+  private static final String GOOG_MODULE_SUFFIX =
+      "\n" // terminate any trailing single line comment.
+      + ";" // terminate any trailing expression.
+      + "return exports;});\n";
+
   private boolean useEval = false;
   private String sourceUrl = null;
   private String path = "unknown_source";
+  private ChunkCache chunkCache = null;
+  private final boolean transformsInput;
 
   public ClosureBundler() {
+    this.transformsInput = overridesTransformInput(getClass());
   }
 
   public final ClosureBundler useEval(boolean useEval) {
@@ -49,6 +69,16 @@ public class ClosureBundler {
     return this;
   }
 
+  /**
+   * Keeps the wrapped contents of files in the given cache, for
+   * {@link #appendTo(WritableByteChannel, DependencyInfo, File, Charset)}.
+   * The cache may be shared by many bundlers.
+   */
+  public final ClosureBundler withChunkCache(ChunkCache chunkCache) {
+    this.chunkCache = chunkCache;
+    return this;
+  }
+
   /** Append the contents of the string to the supplied appendable. */
   public static void appendInput(
       Appendable out,
@@ -73,6 +103,54 @@ public class ClosureBundler {
     appendTo(out, info, Files.asCharSource(content, contentCharset));
   }
 
+  /**
+   * Writes the contents of the file to the supplied channel, wrapped as by
+   * the other {@code appendTo} methods and encoded in the file's own charset.
+   *
+   * <p>When the contents are neither escaped for eval nor transformed, they
+   * are copied from the file with {@link FileChannel#transferTo}, so they
+   * never become a string, and only the wrapper is encoded. Otherwise the
+   * wrapped contents are kept in the chunk cache, if there is one, until the
+   * file's size or modification time changes.
+   *
+   * @param out a blocking channel.
+   */
+  public void appendTo(
+      WritableByteChannel out,
+      DependencyInfo info,
+      File content, Charset contentCharset) throws IOException {
+    if (!useEval && !transformsInput) {
+      if (info.isModule()) {
+        write(out, GOOG_MODULE_PREFIX, contentCharset);
+        transferFile(content, out);
+        write(out, GOOG_MODULE_SUFFIX, contentCharset);
+      } else {
+        transferFile(content, out);
+      }
+      if (sourceUrl != null) {
+        write(out, "\n//# sourceURL=" + sourceUrl + "\n", contentCharset);
+      }
+      return;
+    }
+
+    ChunkKey key = null;
+    if (chunkCache != null && !transformsInput) {
+      key = new ChunkKey(content, contentCharset, info.isModule(), useEval, sourceUrl, path);
+      byte[] chunk = chunkCache.chunks.getIfPresent(key);
+      if (chunk != null) {
+        writeFully(out, ByteBuffer.wrap(chunk));
+        return;
+      }
+    }
+    StringBuilder sb = new StringBuilder();
+    appendTo(sb, info, content, contentCharset);
+    byte[] chunk = sb.toString().getBytes(contentCharset);
+    if (key != null && key.isCurrent()) {
+      chunkCache.chunks.put(key, chunk);
+    }
+    writeFully(out, ByteBuffer.wrap(chunk));
+  }
+
   /** Append the contents of the CharSource to the supplied appendable. */
   public void appendTo(
       Appendable out,
@@ -106,15 +184,9 @@ public class ClosureBundler {
       appendSourceUrl(out, Mode.ESCAPED);
       out.append("\");");
     } else {
-      // add the prefix on the first line so the line numbers aren't affected.
-      out.append(
-          "goog.loadModule(function(exports) {"
-          + "'use strict';");
+      out.append(GOOG_MODULE_PREFIX);
       append(out, Mode.NORMAL, contents);
-      out.append(
-          "\n" // terminate any trailing single line comment.
-          + ";" // terminate any trailing expression.
-          + "return exports;});\n");
+      out.append(GOOG_MODULE_SUFFIX);
       appendSourceUrl(out, Mode.NORMAL);
     }
   }
@@ -162,4 +234,106 @@ public class ClosureBundler {
   protected String transformInput(String input, String path) {
     return input;
   }
+
+  private static boolean overridesTransformInput(Class<?> bundlerClass) {
+    for (Class<?> c = bundlerClass; c != ClosureBundler.class; c = c.getSuperclass()) {
+      try {
+        c.getDeclaredMethod("transformInput", String.class, String.class);
+        return true;
+      } catch (NoSuchMethodException e) {
+        // Keep looking in the superclass.
+      }
+    }
+    return false;
+  }
+
+  private static void transferFile(File file, WritableByteChannel out) throws IOException {
+    try (FileChannel in = new FileInputStream(file).getChannel()) {
+      long size = in.size();
+      long position = 0;
+      while (position < size) {
+        long transferred = in.transferTo(position, size - position, out);
+        if (transferred <= 0) {
+          break;  // The file was truncated while it was being copied.
+        }
+        position += transferred;
+      }
+    }
+  }
+
+  private static void write(WritableByteChannel out, String s, Charset charset)
+      throws IOException {
+    writeFully(out, charset.encode(s));
+  }
+
+  private static void writeFully(WritableByteChannel out, ByteBuffer buffer)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      out.write(buffer);
+    }
+  }
+
+  /**
+   * An in-memory cache of wrapped file contents, bounded by their total size
+   * in bytes. It is safe to share between threads and bundlers.
+   */
+  public static final class ChunkCache {
+    private final Cache<ChunkKey, byte[]> chunks;
+
+    public ChunkCache(long maxBytes) {
+      Preconditions.checkArgument(maxBytes > 0, "maxBytes must be positive");
+      this.chunks = CacheBuilder.newBuilder()
+          .maximumWeight(maxBytes)
+          .weigher(new Weigher<ChunkKey, byte[]>() {
+            @Override
+            public int weigh(ChunkKey key, byte[] chunk) {
+              return chunk.length;
+            }
+          })
+          .build();
+    }
+
+    /** The number of wrapped files in the cache. */
+    public long size() {
+      return chunks.size();
+    }
+  }
+
+  /** A version of a file, and everything else that affects how it is wrapped. */
+  private static final class ChunkKey {
+    private final File file;
+    private final long length;
+    private final long lastModified;
+    private final Object[] settings;
+
+    ChunkKey(File file, Charset charset, boolean isModule, boolean useEval,
+        String sourceUrl, String path) {
+      this.file = file.getAbsoluteFile();
+      this.length = file.length();
+      this.lastModified = file.lastModified();
+      this.settings = new Object[] {charset, isModule, useEval, sourceUrl, path};
+    }
+
+    /** Whether the file hasn't changed since the key was made. */
+    boolean isCurrent() {
+      return length == file.length() && lastModified == file.lastModified();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof ChunkKey)) {
+        return false;
+      }
+      ChunkKey other = (ChunkKey) obj;
+      return file.equals(other.file)
+          && length == other.length
+          && lastModified == other.lastModified
+          && Arrays.equals(settings, other.settings);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(file, length, lastModified, Arrays.hashCode(settings));
+    }
+  }
 }
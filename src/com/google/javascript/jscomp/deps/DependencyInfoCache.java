@@ -0,0 +1,234 @@
+/*
+ * Copyright 2016 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp.deps;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.google.javascript.jscomp.SourceFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The dependency information of source files from an earlier run of
+ * {@link DepsGenerator}, stored in a file so that sources which have not
+ * changed since are not scanned again.
+ *
+ * <p>Each entry is stamped with the size and modification time of the source
+ * when it is a file on disk, and with a hash of its contents otherwise. An
+ * entry whose stamp no longer matches is ignored. Only the entries looked up
+ * or added during a run are saved, so that deleted sources drop out.
+ */
+@GwtIncompatible("java.io")
+final class DependencyInfoCache {
+
+  /** Bumped whenever the format or the meaning of the entries changes. */
+  private static final int VERSION = 1;
+
+  private final File cacheFile;
+  private final Map<String, Entry> loaded = new TreeMap<>();
+  private final Map<String, Entry> used = new TreeMap<>();
+
+  private DependencyInfoCache(File cacheFile) {
+    this.cacheFile = cacheFile;
+  }
+
+  /**
+   * Reads the cache from the given file. A missing, unreadable or outdated
+   * file gives an empty cache, and a malformed entry is left out of it.
+   */
+  static DependencyInfoCache load(File cacheFile) {
+    DependencyInfoCache cache = new DependencyInfoCache(cacheFile);
+    if (cacheFile.isFile()) {
+      try (Reader reader = Files.newReader(cacheFile, UTF_8)) {
+        cache.read(new JsonParser().parse(reader));
+      } catch (IOException | JsonParseException e) {
+        // The cache only saves time. Start over with an empty one.
+        cache.loaded.clear();
+      }
+    }
+    return cache;
+  }
+
+  /**
+   * Returns a stamp for the current contents of the given source, which
+   * changes whenever they do.
+   */
+  static String stampOf(SourceFile file) throws IOException {
+    File onDisk = new File(file.getName());
+    if (onDisk.isFile()) {
+      return onDisk.length() + ":" + onDisk.lastModified();
+    }
+    return Hashing.sha1().hashString(file.getCode(), UTF_8).toString();
+  }
+
+  /**
+   * Returns the cached dependency information of the given source, or null
+   * if there is none for its current stamp.
+   */
+  DependencyInfo get(String name, String stamp, String closureRelativePath) {
+    Entry entry = loaded.get(name);
+    if (entry == null || !entry.stamp.equals(stamp)) {
+      return null;
+    }
+    used.put(name, entry);
+    return new SimpleDependencyInfo(
+        closureRelativePath, name, entry.provides, entry.requires, entry.loadFlags);
+  }
+
+  /** Records the dependency information of a source that was just scanned. */
+  void put(String stamp, DependencyInfo info) {
+    used.put(info.getName(), new Entry(stamp, new ArrayList<>(info.getProvides()),
+        new ArrayList<>(info.getRequires()), new TreeMap<>(info.getLoadFlags())));
+  }
+
+  /** Writes the entries used during this run back to the cache file. */
+  void save() throws IOException {
+    JsonObject files = new JsonObject();
+    for (Map.Entry<String, Entry> e : used.entrySet()) {
+      files.add(e.getKey(), e.getValue().toJson());
+    }
+    JsonObject root = new JsonObject();
+    root.addProperty("version", VERSION);
+    root.add("files", files);
+
+    // Write the whole file before replacing the old one, so that an
+    // interrupted run can't leave a truncated cache behind.
+    File tmpFile = new File(cacheFile.getPath() + ".tmp");
+    try (Writer writer = Files.newWriter(tmpFile, UTF_8)) {
+      writer.write(root.toString());
+    }
+    if (!tmpFile.renameTo(cacheFile)) {
+      Files.move(tmpFile, cacheFile);
+    }
+  }
+
+  private void read(JsonElement json) {
+    if (!json.isJsonObject()) {
+      return;
+    }
+    JsonObject root = json.getAsJsonObject();
+    JsonElement version = root.get("version");
+    JsonElement files = root.get("files");
+    if (version == null || !version.isJsonPrimitive()
+        || !version.getAsJsonPrimitive().isNumber()
+        || version.getAsInt() != VERSION
+        || files == null || !files.isJsonObject()) {
+      return;
+    }
+    for (Map.Entry<String, JsonElement> e : files.getAsJsonObject().entrySet()) {
+      Entry entry = Entry.fromJson(e.getValue());
+      if (entry != null) {
+        loaded.put(e.getKey(), entry);
+      }
+    }
+  }
+
+  private static final class Entry {
+    final String stamp;
+    final List<String> provides;
+    final List<String> requires;
+    final Map<String, String> loadFlags;
+
+    Entry(String stamp, List<String> provides, List<String> requires,
+        Map<String, String> loadFlags) {
+      this.stamp = stamp;
+      this.provides = provides;
+      this.requires = requires;
+      this.loadFlags = loadFlags;
+    }
+
+    JsonObject toJson() {
+      JsonObject json = new JsonObject();
+      json.addProperty("stamp", stamp);
+      json.add("provides", toJsonArray(provides));
+      json.add("requires", toJsonArray(requires));
+      JsonObject flags = new JsonObject();
+      for (Map.Entry<String, String> flag : loadFlags.entrySet()) {
+        flags.addProperty(flag.getKey(), flag.getValue());
+      }
+      json.add("loadFlags", flags);
+      return json;
+    }
+
+    /** Returns the entry in the given JSON, or null if it is malformed. */
+    static Entry fromJson(JsonElement json) {
+      if (!json.isJsonObject()) {
+        return null;
+      }
+      JsonObject object = json.getAsJsonObject();
+      JsonElement stamp = object.get("stamp");
+      List<String> provides = fromJsonArray(object.get("provides"));
+      List<String> requires = fromJsonArray(object.get("requires"));
+      JsonElement flags = object.get("loadFlags");
+      if (!isString(stamp) || provides == null || requires == null
+          || flags == null || !flags.isJsonObject()) {
+        return null;
+      }
+      Map<String, String> loadFlags = new TreeMap<>();
+      for (Map.Entry<String, JsonElement> flag : flags.getAsJsonObject().entrySet()) {
+        if (!isString(flag.getValue())) {
+          return null;
+        }
+        loadFlags.put(flag.getKey(), flag.getValue().getAsString());
+      }
+      return new Entry(stamp.getAsString(), provides, requires, loadFlags);
+    }
+
+    private static JsonArray toJsonArray(List<String> values) {
+      JsonArray array = new JsonArray();
+      for (String value : values) {
+        array.add(new JsonPrimitive(value));
+      }
+      return array;
+    }
+
+    /** Returns the strings in the given JSON array, or null if it is not one. */
+    private static List<String> fromJsonArray(JsonElement array) {
+      if (array == null || !array.isJsonArray()) {
+        return null;
+      }
+      List<String> values = new ArrayList<>();
+      for (JsonElement value : array.getAsJsonArray()) {
+        if (!isString(value)) {
+          return null;
+        }
+        values.add(value.getAsString());
+      }
+      return values;
+    }
+
+    private static boolean isString(JsonElement json) {
+      return json != null && json.isJsonPrimitive() && json.getAsJsonPrimitive().isString();
+    }
+  }
+}
@@ -19,6 +19,7 @@ package com.google.javascript.jscomp.deps;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 import com.google.common.base.Function;
+import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
@@ -27,9 +28,12 @@ import com.google.javascript.jscomp.Compiler;
 import com.google.javascript.jscomp.CompilerOptions;
 import com.google.javascript.jscomp.DiagnosticType;
 import com.google.javascript.jscomp.ErrorManager;
+import com.google.javascript.jscomp.HeldErrorManager;
 import com.google.javascript.jscomp.JSError;
 import com.google.javascript.jscomp.JsAst;
 import com.google.javascript.jscomp.LazyParsedDependencyInfo;
+import com.google.javascript.jscomp.ParallelTasks;
+import com.google.javascript.jscomp.ParallelTasks.BatchTask;
 import com.google.javascript.jscomp.SourceFile;
 
 import java.io.ByteArrayOutputStream;
@@ -69,6 +73,11 @@ public class DepsGenerator {
   private final String closurePathAbs;
   private final InclusionStrategy mergeStrategy;
   final ErrorManager errorManager;
+  private File cacheFile;
+  private int numThreads = Runtime.getRuntime().availableProcessors();
+
+  /** The number of sources that one thread scans at a time. */
+  private static final int SOURCES_PER_BATCH = 64;
 
   static final DiagnosticType SAME_FILE_WARNING = DiagnosticType.warning(
       "DEPS_SAME_FILE",
@@ -110,6 +119,24 @@ public class DepsGenerator {
     this.errorManager = errorManager;
   }
 
+  /**
+   * Sets a file in which to keep the dependency information of the sources
+   * between runs. Sources that haven't changed since the last run are then
+   * not scanned again.
+   */
+  public void setCacheFile(File cacheFile) {
+    this.cacheFile = cacheFile;
+  }
+
+  /**
+   * Sets the number of threads on which to scan the sources. Defaults to the
+   * number of processors.
+   */
+  public void setNumThreads(int numThreads) {
+    Preconditions.checkArgument(numThreads > 0, "numThreads must be positive");
+    this.numThreads = numThreads;
+  }
+
   /**
    * Performs the parsing inputs and writing of outputs.
    * @throws IOException Occurs upon an IO error.
@@ -322,12 +349,15 @@ public class DepsGenerator {
    */
   private Map<String, DependencyInfo> parseSources(
       Set<String> preparsedFiles) throws IOException {
-    Map<String, DependencyInfo> parsedFiles = new HashMap<>();
-    JsFileParser jsParser = new JsFileParser(errorManager);
-    Compiler compiler = new Compiler();
-    compiler.init(
-        ImmutableList.<SourceFile>of(), ImmutableList.<SourceFile>of(), new CompilerOptions());
-
+    DependencyInfoCache cache =
+        cacheFile != null ? DependencyInfoCache.load(cacheFile) : null;
+
+    // Look up each source in the cache first, and scan the rest afterwards.
+    final List<SourceFile> files = new ArrayList<>();
+    final List<String> paths = new ArrayList<>();
+    List<DependencyInfo> depInfos = new ArrayList<>();
+    List<Integer> misses = new ArrayList<>();
+    List<String> stamps = new ArrayList<>();
     for (SourceFile file : srcs) {
       String closureRelativePath =
           PathUtil.makeRelative(
@@ -336,21 +366,111 @@ public class DepsGenerator {
 
       if (InclusionStrategy.WHEN_IN_SRCS == mergeStrategy ||
           !preparsedFiles.contains(closureRelativePath)) {
-        DependencyInfo depInfo =
-            jsParser.parseFile(
-                file.getName(), closureRelativePath,
-                file.getCode());
-        depInfo = new LazyParsedDependencyInfo(depInfo, new JsAst(file), compiler);
-
-        // Kick the source out of memory.
-        file.clearCachedSource();
-        parsedFiles.put(closureRelativePath, depInfo);
+        DependencyInfo depInfo = null;
+        if (cache != null) {
+          String stamp = DependencyInfoCache.stampOf(file);
+          depInfo = cache.get(file.getName(), stamp, closureRelativePath);
+          stamps.add(stamp);
+        }
+        if (depInfo == null) {
+          misses.add(paths.size());
+        }
+        files.add(file);
+        paths.add(closureRelativePath);
+        depInfos.add(depInfo);
       }
     }
 
+    List<SourceBatch> batches = ParallelTasks.runPartitioned(
+        misses, SOURCES_PER_BATCH, numThreads, "jscompiler-deps-generator",
+        new BatchTask<Integer, SourceBatch, IOException>() {
+          @Override
+          public SourceBatch run(List<Integer> batch) throws IOException {
+            SourceBatch sourceBatch = new SourceBatch(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+              int index = batch.get(i);
+              sourceBatch.scan(i, files.get(index), paths.get(index));
+            }
+            return sourceBatch;
+          }
+        });
+
+    // Report problems in the order of the sources, and cache only the
+    // sources that had none, so that they are reported again next time.
+    int miss = 0;
+    for (SourceBatch batch : batches) {
+      batch.errors.reportTo(errorManager);
+      for (int i = 0; i < batch.depInfos.length; i++, miss++) {
+        int index = misses.get(miss);
+        depInfos.set(index, batch.depInfos[i]);
+        if (cache != null && batch.clean[i]) {
+          cache.put(stamps.get(index), batch.depInfos[i]);
+        }
+      }
+    }
+
+    if (cache != null) {
+      try {
+        cache.save();
+      } catch (IOException e) {
+        logger.warning("Could not write the deps cache " + cacheFile + ": " + e);
+      }
+    }
+
+    Map<String, DependencyInfo> parsedFiles = new HashMap<>();
+    for (int i = 0; i < paths.size(); i++) {
+      parsedFiles.put(paths.get(i), depInfos.get(i));
+    }
     return parsedFiles;
   }
 
+  /**
+   * The sources scanned together on one thread, with a parser, a compiler
+   * and a place to hold the problems found of its own.
+   */
+  private static final class SourceBatch {
+    final DependencyInfo[] depInfos;
+    final boolean[] clean;
+    final HeldErrorManager errors = new HeldErrorManager();
+    final JsFileParser jsParser = new JsFileParser(errors);
+    final Compiler compiler = new Compiler();
+
+    SourceBatch(int size) {
+      this.depInfos = new DependencyInfo[size];
+      this.clean = new boolean[size];
+      compiler.init(
+          ImmutableList.<SourceFile>of(), ImmutableList.<SourceFile>of(), new CompilerOptions());
+    }
+
+    /** Scans the i-th source of the batch. */
+    void scan(int i, SourceFile file, String closureRelativePath) throws IOException {
+      int problems = countProblems();
+      DependencyInfo depInfo =
+          jsParser.parseFile(
+              file.getName(), closureRelativePath,
+              file.getCode());
+      depInfo = new LazyParsedDependencyInfo(depInfo, new JsAst(file), compiler);
+      // Work out the load flags now, so that the AST can be dropped.
+      depInfos[i] = new SimpleDependencyInfo(
+          closureRelativePath, file.getName(),
+          depInfo.getProvides(), depInfo.getRequires(), depInfo.getLoadFlags());
+      clean[i] = problems == countProblems();
+
+      // Kick the source out of memory.
+      file.clearCachedSource();
+    }
+
+    /**
+     * Counts the problems found so far, including those of the full parse
+     * that works out the load flags.
+     */
+    private int countProblems() {
+      ErrorManager parseErrors = compiler.getErrorManager();
+      return errors.getErrorCount() + errors.getWarningCount()
+          + parseErrors.getErrorCount() + parseErrors.getWarningCount();
+    }
+  }
+
   /**
    * Creates the content to put into the output deps.js file. If mergeDeps is
    * true, then all of the dependency information in the providedDeps will be
@@ -136,7 +136,7 @@ public final class Es6SortedDependencies<INPUT extends DependencyInfo>
    * TODO(tbreisacher): Switch to using the ModuleIdentifier class once
    * it no longer causes circular dependencies in Google builds.
    */
-  private static String toModuleName(URI filename) {
+  static String toModuleName(URI filename) {
     String moduleName = filename.toString();
     if (moduleName.endsWith(".js")) {
       moduleName = moduleName.substring(0, moduleName.length() - 3);
@@ -159,7 +159,7 @@ public final class Es6SortedDependencies<INPUT extends DependencyInfo>
    * depend on ES6ModuleLoader from here.
    * TODO(tbreisacher): Switch to using the ES6ModuleLoader once the BUILD graph allows it.
    */
-  private static URI createUri(String input) {
+  static URI createUri(String input) {
     // Handle special characters
     String encodedInput = input.replace(':', '-')
         .replace('\\', '/')
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2016 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp.deps;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A sorted list of inputs in the same order as {@link Es6SortedDependencies},
+ * for very large numbers of inputs.
+ * <p>
+ * Each distinct input is numbered once, in the order it is first given, and
+ * the dependency graph is kept as arrays of those numbers. The sort walks the
+ * graph with an explicit stack, so long require chains can't overflow the
+ * Java stack, and {@link #getDependenciesOf} marks the reachable inputs in a
+ * {@link BitSet}.
+ */
+public final class IndexedSortedDependencies<INPUT extends DependencyInfo>
+    implements SortedDependencies<INPUT> {
+
+  /** The user-ordered inputs, with duplicates. */
+  private final ImmutableList<INPUT> userOrderedInputs;
+  /** The distinct inputs, numbered in the order they first appear. */
+  private final List<INPUT> inputs = new ArrayList<>();
+  private final Map<INPUT, Integer> inputIndex = new HashMap<>();
+  private final Map<String, Integer> inputIndexBySymbolName = new HashMap<>();
+  private final Map<String, INPUT> nonExportingInputs = new LinkedHashMap<>();
+  /** For each input, the inputs that provide what it requires, without repeats. */
+  private final int[][] importedInputs;
+  private final List<INPUT> importOrderedInputs;
+  /** For each input, its position in importOrderedInputs. */
+  private final int[] importOrder;
+
+  public IndexedSortedDependencies(List<INPUT> userOrderedInputs) {
+    this.userOrderedInputs = ImmutableList.copyOf(userOrderedInputs);
+    for (INPUT input : userOrderedInputs) {
+      if (!inputIndex.containsKey(input)) {
+        inputIndex.put(input, inputs.size());
+        inputs.add(input);
+      }
+    }
+    this.importedInputs = new int[inputs.size()][];
+    this.importOrder = new int[inputs.size()];
+    this.importOrderedInputs = new ArrayList<>(inputs.size());
+    processInputs();
+  }
+
+  @Override
+  public List<INPUT> getDependenciesOf(List<INPUT> rootInputs, boolean sorted) {
+    BitSet included = new BitSet(inputs.size());
+    int[] worklist = new int[inputs.size()];
+    int size = 0;
+    for (INPUT root : rootInputs) {
+      Integer index = inputIndex.get(root);
+      Preconditions.checkArgument(index != null, "Unknown input: %s", root);
+      if (!included.get(index)) {
+        included.set(index);
+        worklist[size++] = index;
+      }
+    }
+    while (size > 0) {
+      for (int imported : importedInputs[worklist[--size]]) {
+        if (!included.get(imported)) {
+          included.set(imported);
+          worklist[size++] = imported;
+        }
+      }
+    }
+
+    ImmutableList.Builder<INPUT> builder = ImmutableList.builder();
+    if (sorted) {
+      int[] positions = new int[included.cardinality()];
+      int i = 0;
+      for (int index = included.nextSetBit(0); index >= 0;
+          index = included.nextSetBit(index + 1)) {
+        positions[i++] = importOrder[index];
+      }
+      Arrays.sort(positions);
+      for (int position : positions) {
+        builder.add(importOrderedInputs.get(position));
+      }
+    } else if (inputs.size() == userOrderedInputs.size()) {
+      // Without duplicates, the numbering is the user order.
+      for (int index = included.nextSetBit(0); index >= 0;
+          index = included.nextSetBit(index + 1)) {
+        builder.add(inputs.get(index));
+      }
+    } else {
+      for (INPUT input : userOrderedInputs) {
+        if (included.get(inputIndex.get(input))) {
+          builder.add(input);
+        }
+      }
+    }
+    return builder.build();
+  }
+
+  @Override
+  public INPUT getInputProviding(String symbolName) throws MissingProvideException {
+    INPUT input = maybeGetInputProviding(symbolName);
+    if (input != null) {
+      return input;
+    }
+
+    throw new MissingProvideException(symbolName);
+  }
+
+  @Override
+  public List<INPUT> getInputsWithoutProvides() {
+    return ImmutableList.copyOf(nonExportingInputs.values());
+  }
+
+  @Override
+  public List<INPUT> getSortedDependenciesOf(List<INPUT> roots) {
+    return getDependenciesOf(roots, true);
+  }
+
+  @Override
+  public List<INPUT> getSortedList() {
+    return Collections.unmodifiableList(importOrderedInputs);
+  }
+
+  @Override
+  public INPUT maybeGetInputProviding(String symbol) {
+    Integer index = inputIndexBySymbolName.get(symbol);
+    if (index != null) {
+      return inputs.get(index);
+    }
+
+    return nonExportingInputs.get(
+        Es6SortedDependencies.toModuleName(Es6SortedDependencies.createUri(symbol)));
+  }
+
+  private void processInputs() {
+    // Index.
+    for (INPUT userOrderedInput : userOrderedInputs) {
+      if (userOrderedInput.getProvides().isEmpty()) {
+        nonExportingInputs.put(
+            Es6SortedDependencies.toModuleName(
+                Es6SortedDependencies.createUri(userOrderedInput.getName())),
+            userOrderedInput);
+      }
+      for (String providedSymbolName : userOrderedInput.getProvides()) {
+        inputIndexBySymbolName.put(providedSymbolName, inputIndex.get(userOrderedInput));
+      }
+    }
+
+    int[] lastRequiredBy = new int[inputs.size()];
+    Arrays.fill(lastRequiredBy, -1);
+    int[] buffer = new int[16];
+    for (int index = 0; index < inputs.size(); index++) {
+      int size = 0;
+      for (String symbolName : inputs.get(index).getRequires()) {
+        Integer imported = inputIndexBySymbolName.get(symbolName);
+        if (imported != null && lastRequiredBy[imported] != index) {
+          lastRequiredBy[imported] = index;
+          if (size == buffer.length) {
+            buffer = Arrays.copyOf(buffer, size * 2);
+          }
+          buffer[size++] = imported;
+        }
+      }
+      importedInputs[index] = Arrays.copyOf(buffer, size);
+    }
+
+    // Order.
+    // For each input, traverse in user-provided order, emitting an input
+    // after its imports have been emitted. The explicit stack holds the
+    // inputs being visited and how many of their imports have been tried.
+    boolean[] completed = new boolean[inputs.size()];
+    int[] stack = new int[inputs.size()];
+    int[] nextImport = new int[inputs.size()];
+    for (int root = 0; root < inputs.size(); root++) {
+      if (completed[root]) {
+        continue;
+      }
+      completed[root] = true;
+      stack[0] = root;
+      nextImport[0] = 0;
+      int depth = 1;
+      while (depth > 0) {
+        int top = stack[depth - 1];
+        int[] imports = importedInputs[top];
+        if (nextImport[depth - 1] < imports.length) {
+          int imported = imports[nextImport[depth - 1]++];
+          if (!completed[imported]) {
+            completed[imported] = true;
+            stack[depth] = imported;
+            nextImport[depth] = 0;
+            depth++;
+          }
+        } else {
+          depth--;
+          importOrder[top] = importOrderedInputs.size();
+          importOrderedInputs.add(inputs.get(top));
+        }
+      }
+    }
+  }
+}
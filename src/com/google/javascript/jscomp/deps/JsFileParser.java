@@ -45,6 +45,14 @@ public final class JsFileParser extends JsFileLineParser {
           "(?:^|;)(?:[a-zA-Z0-9$_,:{}\\s]+=)?\\s*"
               + "goog\\.(provide|module|require|addDependency)\\s*\\((.*?)\\)");
 
+  /**
+   * Pattern for what may start an ES6 import or export statement: the keyword
+   * at the start of a line, or after the end of a statement or comment.
+   */
+  private static final Pattern ES6_MODULE_PATTERN =
+      Pattern.compile(
+          "(?:^|[;}/\uFEFF])\\s*(?:import|export)(?:\\s|[{*'\"])", Pattern.MULTILINE);
+
   /** The first non-comment line of base.js */
   private static final String BASE_JS_START = "var COMPILED = false;";
 
@@ -113,6 +121,16 @@ public final class JsFileParser extends JsFileLineParser {
         new StringReader(fileContents));
   }
 
+  /**
+   * Returns whether the given code may be an ES6 module, that is, whether
+   * something in it looks like an import or export statement. Comments and
+   * strings can make this true for code that isn't a module, but it is never
+   * false for a module, so a false result saves parsing the code to find out.
+   */
+  public static boolean mayBeEs6Module(String fileContents) {
+    return ES6_MODULE_PATTERN.matcher(fileContents).find();
+  }
+
   private DependencyInfo parseReader(String filePath,
       String closureRelativePath, Reader fileContents) {
     provides = new ArrayList<>();
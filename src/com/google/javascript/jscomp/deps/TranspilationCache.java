@@ -0,0 +1,282 @@
+/*
+ * Copyright 2016 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp.deps;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+
+/**
+ * The transpiled code and source maps of recently transpiled files, keyed by
+ * a hash of their path and contents and of the compiler that transpiled them,
+ * for {@link TranspilingClosureBundler}.
+ *
+ * <p>Transpilations are kept in memory, up to a number of them, and
+ * optionally also in a directory, up to a total size in bytes. When the
+ * directory holds too much, the least recently written files are deleted.
+ * The directory survives restarts of the process, and may be shared by
+ * several processes. A cache may be shared between threads and bundlers.
+ */
+@GwtIncompatible("java.io")
+public final class TranspilationCache {
+
+  /** Bumped whenever the format of the files in the directory changes. */
+  private static final int VERSION = 2;
+
+  private static final String FILE_SUFFIX = ".transpiled";
+
+  private final Cache<String, Transpilation> memory;
+  @Nullable private final File directory;
+  private final long maxDirectoryBytes;
+  private final AtomicLong directoryBytes = new AtomicLong(-1);
+
+  private final AtomicLong memoryHits = new AtomicLong();
+  private final AtomicLong diskHits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  /** Creates a cache that keeps up to the given number of files in memory. */
+  public TranspilationCache(int maxFilesInMemory) {
+    this(maxFilesInMemory, null, 0);
+  }
+
+  /**
+   * Creates a cache that keeps up to the given number of files in memory,
+   * and up to the given number of bytes in the given directory.
+   */
+  public TranspilationCache(
+      int maxFilesInMemory, @Nullable File directory, long maxDirectoryBytes) {
+    Preconditions.checkArgument(maxFilesInMemory >= 0, "maxFilesInMemory must not be negative");
+    Preconditions.checkArgument(
+        directory == null || maxDirectoryBytes > 0, "maxDirectoryBytes must be positive");
+    this.memory = CacheBuilder.newBuilder().maximumSize(maxFilesInMemory).build();
+    this.directory = directory;
+    this.maxDirectoryBytes = maxDirectoryBytes;
+    if (directory != null) {
+      directory.mkdirs();
+    }
+  }
+
+  /** The output of transpiling one file, with or without its source map. */
+  public static final class Transpilation {
+    private final String code;
+    @Nullable private final String sourceMap;
+
+    public Transpilation(String code, @Nullable String sourceMap) {
+      this.code = Preconditions.checkNotNull(code);
+      this.sourceMap = sourceMap;
+    }
+
+    public String getCode() {
+      return code;
+    }
+
+    /** The source map of the code, in the V3 format, or null if none was made. */
+    @Nullable
+    public String getSourceMap() {
+      return sourceMap;
+    }
+  }
+
+  /**
+   * Returns the key under which the transpilation of the given file is kept.
+   *
+   * @param environment Identifies the compiler release, options and runtime
+   *     that transpile the file, so that a transpilation made by another
+   *     compiler is never found on disk.
+   */
+  static String keyOf(String environment, String path, String contents) {
+    return Hashing.sha256().newHasher()
+        .putString(environment, UTF_8)
+        .putByte((byte) 0)
+        .putString(path, UTF_8)
+        .putByte((byte) 0)
+        .putString(contents, UTF_8)
+        .hash()
+        .toString();
+  }
+
+  /**
+   * Returns the cached transpilation for the given key, or null if there is
+   * none, or if a source map is needed and the cached one has none.
+   */
+  @Nullable
+  Transpilation get(String key, boolean needSourceMap) {
+    Transpilation transpilation = memory.getIfPresent(key);
+    if (transpilation != null && (!needSourceMap || transpilation.sourceMap != null)) {
+      memoryHits.incrementAndGet();
+      return transpilation;
+    }
+    if (directory != null) {
+      transpilation = readFile(key);
+      if (transpilation != null && (!needSourceMap || transpilation.sourceMap != null)) {
+        diskHits.incrementAndGet();
+        memory.put(key, transpilation);
+        return transpilation;
+      }
+    }
+    misses.incrementAndGet();
+    return null;
+  }
+
+  /** Keeps a new transpilation. */
+  void put(String key, Transpilation transpilation) {
+    memory.put(key, transpilation);
+    if (directory != null) {
+      writeFile(key, transpilation);
+    }
+  }
+
+  /** The number of lookups answered from memory. */
+  public long getMemoryHitCount() {
+    return memoryHits.get();
+  }
+
+  /** The number of lookups answered from the directory. */
+  public long getDiskHitCount() {
+    return diskHits.get();
+  }
+
+  /** The number of lookups that needed a transpilation. */
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  /** The fraction of lookups answered from memory or the directory. */
+  public double getHitRate() {
+    long hits = memoryHits.get() + diskHits.get();
+    long lookups = hits + misses.get();
+    return lookups == 0 ? 1.0 : (double) hits / lookups;
+  }
+
+  /** Describes the hit rates, e.g. for a log line. */
+  @Override
+  public String toString() {
+    return String.format(
+        "TranspilationCache(hitRate=%.1f%%, memoryHits=%d, diskHits=%d, misses=%d)",
+        getHitRate() * 100, memoryHits.get(), diskHits.get(), misses.get());
+  }
+
+  @Nullable
+  private Transpilation readFile(String key) {
+    File file = new File(directory, key + FILE_SUFFIX);
+    if (!file.isFile()) {
+      return null;
+    }
+    try (DataInputStream in =
+        new DataInputStream(new ByteArrayInputStream(Files.toByteArray(file)))) {
+      if (in.readInt() != VERSION) {
+        return null;
+      }
+      String code = readString(in);
+      return new Transpilation(code, in.readBoolean() ? readString(in) : null);
+    } catch (IOException e) {
+      // Written by an older version, deleted meanwhile, or corrupt. Transpile again.
+      return null;
+    }
+  }
+
+  private void writeFile(String key, Transpilation transpilation) {
+    File file = new File(directory, key + FILE_SUFFIX);
+    // Write the whole file under another name first, so that readers never
+    // see part of it.
+    File tmpFile = null;
+    try {
+      // Other threads and processes may be writing the same key.
+      tmpFile = File.createTempFile(key + ".", ".tmp", directory);
+      try (DataOutputStream out = new DataOutputStream(new FileOutputStream(tmpFile))) {
+        out.writeInt(VERSION);
+        writeString(out, transpilation.getCode());
+        out.writeBoolean(transpilation.getSourceMap() != null);
+        if (transpilation.getSourceMap() != null) {
+          writeString(out, transpilation.getSourceMap());
+        }
+      }
+      long length = tmpFile.length();
+      Files.move(tmpFile, file);
+      if (directoryBytes.get() < 0 || directoryBytes.addAndGet(length) > maxDirectoryBytes) {
+        trimDirectory();
+      }
+    } catch (IOException e) {
+      // The directory only saves time.
+      if (tmpFile != null) {
+        tmpFile.delete();
+      }
+    }
+  }
+
+  /** Deletes the least recently written files until the directory is small enough. */
+  private synchronized void trimDirectory() {
+    File[] files = directory.listFiles();
+    if (files == null) {
+      return;
+    }
+    Arrays.sort(files, new Comparator<File>() {
+      @Override
+      public int compare(File a, File b) {
+        return Long.compare(b.lastModified(), a.lastModified());
+      }
+    });
+    long total = 0;
+    for (File file : files) {
+      if (!file.getName().endsWith(FILE_SUFFIX)) {
+        continue;
+      }
+      long length = file.length();
+      if (total + length > maxDirectoryBytes) {
+        file.delete();
+      } else {
+        total += length;
+      }
+    }
+    directoryBytes.set(total);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    // A corrupt length must not make us allocate more than the file holds.
+    if (length < 0 || length > in.available()) {
+      throw new IOException("Invalid string length " + length);
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, UTF_8);
+  }
+
+  private static void writeString(DataOutputStream out, String s) throws IOException {
+    byte[] bytes = s.getBytes(UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+}
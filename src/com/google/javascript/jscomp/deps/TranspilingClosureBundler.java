@@ -17,14 +17,10 @@
 package com.google.javascript.jscomp.deps;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.base.Throwables;
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
+import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
-import com.google.common.hash.HashFunction;
 import com.google.common.hash.Hashing;
 import com.google.common.io.CharSource;
-import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.google.javascript.jscomp.Compiler;
 import com.google.javascript.jscomp.CompilerOptions;
 import com.google.javascript.jscomp.CompilerOptions.LanguageMode;
@@ -37,8 +33,6 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.StandardCharsets;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
 
 import javax.annotation.concurrent.NotThreadSafe;
 
@@ -48,28 +42,69 @@ import javax.annotation.concurrent.NotThreadSafe;
 @NotThreadSafe
 public final class TranspilingClosureBundler extends ClosureBundler {
 
-  private static final HashFunction HASH_FUNCTION = Hashing.goodFastHash(64);
   private static final int CACHE_SIZE = 100;
 
   // TODO(sdh): Not all transpilation requires the runtime, only inject if actually needed.
   private final String es6Runtime;
   private boolean needToBundleEs6Runtime = true;
+  private final TranspilationCache cache;
+  // Identifies what the transpilations depend on besides the file, for the cache.
+  private final String environment;
 
   public TranspilingClosureBundler() {
-    this(getEs6Runtime());
+    this(new TranspilationCache(CACHE_SIZE));
+  }
+
+  /**
+   * Creates a bundler that keeps transpilations in the given cache, which
+   * may be shared with other bundlers.
+   */
+  public TranspilingClosureBundler(TranspilationCache cache) {
+    this(getEs6Runtime(), cache);
   }
 
   @VisibleForTesting
   TranspilingClosureBundler(String es6Runtime) {
+    this(es6Runtime, new TranspilationCache(CACHE_SIZE));
+  }
+
+  @VisibleForTesting
+  TranspilingClosureBundler(String es6Runtime, TranspilationCache cache) {
     this.es6Runtime = es6Runtime;
+    this.cache = Preconditions.checkNotNull(cache);
+    this.environment = getEnvironment(es6Runtime);
   }
 
   /**
-   * Cache recent transpilations, keyed by the hash code of the input
-   * to avoid storing the whole input.
+   * Returns a hash of the compiler release, the transpilation options and the
+   * runtime, which a transpilation cached on disk must have been made with.
    */
-  @VisibleForTesting final Cache<Long, String> cachedTranspilations =
-      CacheBuilder.newBuilder().maximumSize(CACHE_SIZE).build();
+  private static String getEnvironment(String es6Runtime) {
+    // Some options are described by their identity hash codes, which differ
+    // from one process to the next.
+    String options = getOptions().toString().replaceAll("@[0-9a-f]+\\b", "");
+    return Hashing.sha256().newHasher()
+        .putString(Compiler.getReleaseVersion(), StandardCharsets.UTF_8)
+        .putByte((byte) 0)
+        .putString(Compiler.getReleaseDate(), StandardCharsets.UTF_8)
+        .putByte((byte) 0)
+        .putString(options, StandardCharsets.UTF_8)
+        .putByte((byte) 0)
+        .putString(es6Runtime, StandardCharsets.UTF_8)
+        .hash()
+        .toString();
+  }
+
+  /** Returns the key under which the transpilation of the given file is cached. */
+  @VisibleForTesting
+  String getCacheKey(String js, String path) {
+    return TranspilationCache.keyOf(environment, path, js);
+  }
+
+  /** The cache of this bundler, with its hit rates. */
+  public TranspilationCache getCache() {
+    return cache;
+  }
 
   @Override
   public void appendTo(Appendable out, DependencyInfo info, CharSource content) throws IOException {
@@ -99,49 +134,68 @@ public final class TranspilingClosureBundler extends ClosureBundler {
   }
 
   @Override
-  protected String transformInput(final String js, final String path) {
-    try {
-      // Don't use built-in hashCode to decrease the likelihood of a collision.
-      long hashCode = HASH_FUNCTION.hashString(js, StandardCharsets.UTF_8).asLong();
-      return cachedTranspilations.get(
-          hashCode,
-          new Callable<String>() {
-            @Override
-            public String call() {
-              // Neither the compiler nor the options is thread safe, so they can't be
-              // saved as instance state.
-              ByteArrayOutputStream baos = new ByteArrayOutputStream();
-              Compiler compiler = new Compiler(new PrintStream(baos));
-              // Threads can't be used in small unit tests.
-              compiler.disableThreads();
-              SourceFile externs = SourceFile.fromCode("externs", "function Symbol() {}");
-              SourceFile sourceFile = SourceFile.fromCode(path, js);
-              compiler.<SourceFile, SourceFile>compile(
-                  ImmutableList.<SourceFile>of(externs),
-                  ImmutableList.<SourceFile>of(sourceFile),
-                  getOptions());
-              if (compiler.getErrorManager().getErrorCount() > 0) {
-                String message;
-                try {
-                  message = baos.toString(StandardCharsets.UTF_8.name());
-                } catch (UnsupportedEncodingException e) {
-                  throw new RuntimeException(e);
-                }
-                throw new IllegalStateException(message);
-              }
-              return compiler.toSource();
-            }
-          });
-    } catch (ExecutionException | UncheckedExecutionException e) {
-      // IllegalStateExceptions thrown from the callable above will end up here as
-      // UncheckedExecutionExceptions, per the contract of Cache#get. Throw the underlying
-      // IllegalStateException so that the compiler error message is at the top of the stack trace.
-      if (e.getCause() instanceof IllegalStateException) {
-        throw (IllegalStateException) e.getCause();
-      } else {
-        throw Throwables.propagate(e);
+  protected String transformInput(String js, String path) {
+    return transpile(js, path, false).getCode();
+  }
+
+  /**
+   * Returns the source map of the transpiled code of the given file, which
+   * maps it back to the given contents.
+   */
+  public String getSourceMap(String js, String path) {
+    return transpile(js, path, true).getSourceMap();
+  }
+
+  private TranspilationCache.Transpilation transpile(
+      String js, String path, boolean withSourceMap) {
+    String key = getCacheKey(js, path);
+    TranspilationCache.Transpilation transpilation = cache.get(key, withSourceMap);
+    if (transpilation == null) {
+      transpilation = transpileUncached(js, path, withSourceMap);
+      cache.put(key, transpilation);
+    }
+    return transpilation;
+  }
+
+  private static TranspilationCache.Transpilation transpileUncached(
+      String js, String path, boolean withSourceMap) {
+    // Neither the compiler nor the options is thread safe, so they can't be
+    // saved as instance state.
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    Compiler compiler = new Compiler(new PrintStream(baos));
+    // Threads can't be used in small unit tests.
+    compiler.disableThreads();
+    SourceFile externs = SourceFile.fromCode("externs", "function Symbol() {}");
+    SourceFile sourceFile = SourceFile.fromCode(path, js);
+    CompilerOptions options = getOptions();
+    if (withSourceMap) {
+      // Only turns on the source map, nothing is written there.
+      options.setSourceMapOutputPath(path + ".map");
+    }
+    compiler.<SourceFile, SourceFile>compile(
+        ImmutableList.<SourceFile>of(externs),
+        ImmutableList.<SourceFile>of(sourceFile),
+        options);
+    if (compiler.getErrorManager().getErrorCount() > 0) {
+      String message;
+      try {
+        message = baos.toString(StandardCharsets.UTF_8.name());
+      } catch (UnsupportedEncodingException e) {
+        throw new RuntimeException(e);
       }
+      throw new IllegalStateException(message);
+    }
+    String code = compiler.toSource();
+    if (!withSourceMap) {
+      return new TranspilationCache.Transpilation(code, null);
+    }
+    StringBuilder sourceMap = new StringBuilder();
+    try {
+      compiler.getSourceMap().appendTo(sourceMap, path);
+    } catch (IOException e) {
+      throw new RuntimeException(e);  // StringBuilder doesn't throw.
     }
+    return new TranspilationCache.Transpilation(code, sourceMap.toString());
   }
 
   /** Generates the runtime by requesting the "es6_runtime" library from the compiler. */
@@ -21,6 +21,12 @@ import java.util.List;
 
 /** GWT compatible no-op replacement for {@code SourceMapGeneratorV3} */
 public final class SourceMapGeneratorV3 implements SourceMapGenerator {
+  public interface InputSourceMapProvider {
+    SourceMapConsumerV3 getInputSourceMap(String sourceName);
+
+    String getOriginalSourceName(String sourceName, String inputSourceName);
+  }
+
   public void appendTo(Appendable out, String name) throws IOException {
   }
 
@@ -46,4 +52,7 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
 
   public void validate(boolean validate) {
   }
+
+  public void applyInputSourceMaps(InputSourceMapProvider provider) {
+  }
 }
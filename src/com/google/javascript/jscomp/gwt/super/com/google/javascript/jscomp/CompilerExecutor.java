@@ -31,6 +31,10 @@ final class CompilerExecutor {
   void disableThreads() {
   }
 
+  boolean usesThreads() {
+    return false;
+  }
+
   void setTimeout(int timeout) {
   }
 }
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2016 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** GWT compatible replacement for {@code ParallelTasks}, which runs on one thread */
+public final class ParallelTasks {
+  public interface BatchTask<T, R, X extends Exception> {
+    R run(List<T> batch) throws X;
+  }
+
+  public static int numThreads(int numInputs, int inputsPerTask, int maxThreads) {
+    return 1;
+  }
+
+  public static <T, R, X extends Exception> List<R> runPartitioned(
+      List<T> inputs, int inputsPerTask, int maxThreads, String threadName,
+      BatchTask<T, R, X> task) throws X {
+    List<R> results = new ArrayList<>();
+    for (int i = 0; i < inputs.size(); i += inputsPerTask) {
+      results.add(task.run(inputs.subList(i, Math.min(i + inputsPerTask, inputs.size()))));
+    }
+    return results;
+  }
+}
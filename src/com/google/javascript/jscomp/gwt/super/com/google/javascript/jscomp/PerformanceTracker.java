@@ -29,6 +29,8 @@ public final class PerformanceTracker {
 
   void recordPassStop(String passName, long runTime) {}
 
+  void trackHeapComposition(Compiler compiler) {}
+
   CodeChangeHandler getCodeChangeHandler() {
     throw new UnsupportedOperationException(
         "PerformanceTracker.getCodeChangeHandler not implemented");
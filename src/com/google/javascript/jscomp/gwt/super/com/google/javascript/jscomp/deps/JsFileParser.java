@@ -27,6 +27,10 @@ public final class JsFileParser {
     throw new UnsupportedOperationException("JsFileParser.setIncludeGoogBase not implemented");
   }
 
+  public static boolean mayBeEs6Module(String fileContents) {
+    return true;
+  }
+
   public DependencyInfo parseFile(String filePath, String closureRelativePath,
       String fileContents) {
     throw new UnsupportedOperationException("JsFileParser.parseFile not implemented");
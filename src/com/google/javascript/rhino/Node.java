@@ -895,6 +895,15 @@ public class Node implements Serializable {
     return propListHead != null;
   }
 
+  /** Returns the number of properties set on this node. */
+  public int getPropCount() {
+    int count = 0;
+    for (PropListItem x = propListHead; x != null; x = x.getNext()) {
+      count++;
+    }
+    return count;
+  }
+
   /**
    * @param item The item to inspect
    * @param propType The property to look for
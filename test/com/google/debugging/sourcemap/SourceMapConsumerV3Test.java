@@ -93,6 +93,58 @@ public final class SourceMapConsumerV3Test extends TestCase {
     assertThat(consumer.getSourceRoot()).isEqualTo("http://server/path/");
   }
 
+  public void testManyLines() throws Exception {
+    // Line i maps to line i of the source, except for the empty line 100.
+    // The last line has no trailing separator.
+    StringBuilder mappings = new StringBuilder("AAAA;");
+    for (int i = 1; i < 100; i++) {
+      mappings.append("AACA;");
+    }
+    mappings.append(";AACA");
+    String sourceMap =  "{\n" +
+                        "\"version\":3,\n" +
+                        "\"file\":\"testcode\",\n" +
+                        "\"mappings\":\"" + mappings + "\",\n" +
+                        "\"sources\":[\"testcode\"],\n" +
+                        "\"names\":[]\n" +
+                        "}\n";
+
+    SourceMapConsumerV3 consumer = new SourceMapConsumerV3();
+    consumer.parse(sourceMap);
+
+    // Look the lines up in both directions, so that decoded lines are
+    // evicted and decoded again.
+    for (int i = 99; i >= 0; i--) {
+      assertEquals(i + 1, consumer.getMappingForLine(i + 1, 1).getLineNumber());
+    }
+    for (int i = 0; i < 100; i++) {
+      assertEquals(i + 1, consumer.getMappingForLine(i + 1, 5).getLineNumber());
+    }
+    // An empty line maps to the last entry of the previous line.
+    assertEquals(100, consumer.getMappingForLine(101, 1).getLineNumber());
+    assertEquals(101, consumer.getMappingForLine(102, 1).getLineNumber());
+    assertNull(consumer.getMappingForLine(103, 1));
+
+    assertThat(consumer.getReverseMapping("testcode", 100, 1)).hasSize(1);
+  }
+
+  public void testInvalidEntry() throws Exception {
+    String sourceMap =  "{\n" +
+                        "\"version\":3,\n" +
+                        "\"file\":\"testcode\",\n" +
+                        "\"mappings\":\"AAAA;AA;\",\n" +
+                        "\"sources\":[\"testcode\"],\n" +
+                        "\"names\":[]\n" +
+                        "}\n";
+
+    SourceMapConsumerV3 consumer = new SourceMapConsumerV3();
+    try {
+      consumer.parse(sourceMap);
+      fail("expected IllegalStateException");
+    } catch (IllegalStateException expected) {
+    }
+  }
+
   public void testExtensions() throws Exception{
     String sourceMap =  "{\n" +
                         "\"version\":3,\n" +
@@ -20,6 +20,7 @@ import static com.google.common.truth.Truth.assertThat;
 
 import com.google.common.collect.ImmutableList;
 import com.google.debugging.sourcemap.SourceMapGeneratorV3.ExtensionMergeAction;
+import com.google.debugging.sourcemap.proto.Mapping.OriginalMapping;
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
@@ -342,6 +343,96 @@ public final class SourceMapGeneratorV3Test extends SourceMapTestCase {
     assertThat(files2).isEqualTo(files1);
   }
 
+  public void testSourcesAndNamesInOutputOrder() throws Exception {
+    SourceMapGeneratorV3 generator = new SourceMapGeneratorV3();
+    // An empty mapping is never written out, so neither are its source and
+    // name.
+    generator.addMapping("unused.js", "unused",
+        new FilePosition(1, 0), new FilePosition(0, 0), new FilePosition(0, 0));
+    generator.addMapping("b.js", null,
+        new FilePosition(1, 0), new FilePosition(0, 0), new FilePosition(0, 5));
+    generator.addMapping("a.js", "x",
+        new FilePosition(2, 0), new FilePosition(0, 5), new FilePosition(0, 6));
+    generator.addMapping("b.js", "y",
+        new FilePosition(3, 0), new FilePosition(1, 0), new FilePosition(1, 1));
+
+    StringBuilder mapContents = new StringBuilder();
+    generator.appendTo(mapContents, "out.js");
+    JsonObject sourceMap = parseJsonObject(mapContents.toString());
+    assertEquals("[\"b.js\",\"a.js\"]", sourceMap.get("sources").toString());
+    assertEquals("[\"x\",\"y\"]", sourceMap.get("names").toString());
+    assertEquals("\"AACA,KCCAA,C;ADCAC;\"", sourceMap.get("mappings").toString());
+  }
+
+  public void testMappingsOutOfOrder() {
+    SourceMapGeneratorV3 generator = new SourceMapGeneratorV3();
+    generator.addMapping("a.js", null,
+        new FilePosition(1, 0), new FilePosition(0, 5), new FilePosition(0, 6));
+    try {
+      generator.addMapping("a.js", null,
+          new FilePosition(1, 0), new FilePosition(0, 4), new FilePosition(0, 6));
+      fail("expected IllegalStateException");
+    } catch (IllegalStateException expected) {
+    }
+  }
+
+  public void testApplyInputSourceMaps() throws Exception {
+    SourceMapGeneratorV3 input = new SourceMapGeneratorV3();
+    input.addMapping("orig.ts", "n",
+        new FilePosition(5, 0), new FilePosition(0, 0), new FilePosition(0, 4));
+    input.addMapping("orig.ts", null,
+        new FilePosition(6, 2), new FilePosition(0, 4), new FilePosition(0, 9));
+    StringBuilder inputContents = new StringBuilder();
+    input.appendTo(inputContents, "b.js");
+    final SourceMapConsumerV3 inputMap = new SourceMapConsumerV3();
+    inputMap.parse(inputContents.toString());
+
+    SourceMapGeneratorV3 generator = new SourceMapGeneratorV3();
+    generator.addMapping("b.js", null,
+        new FilePosition(0, 0), new FilePosition(0, 0), new FilePosition(0, 3));
+    generator.addMapping("b.js", "m",
+        new FilePosition(0, 6), new FilePosition(0, 3), new FilePosition(0, 5));
+    generator.addMapping("a.js", null,
+        new FilePosition(1, 0), new FilePosition(1, 0), new FilePosition(1, 2));
+    // Not covered by the input source map.
+    generator.addMapping("b.js", null,
+        new FilePosition(3, 0), new FilePosition(2, 0), new FilePosition(2, 2));
+    generator.applyInputSourceMaps(
+        new SourceMapGeneratorV3.InputSourceMapProvider() {
+          @Override
+          public SourceMapConsumerV3 getInputSourceMap(String sourceName) {
+            return sourceName.equals("b.js") ? inputMap : null;
+          }
+
+          @Override
+          public String getOriginalSourceName(
+              String sourceName, String inputSourceName) {
+            return "src/" + inputSourceName;
+          }
+        });
+
+    StringBuilder mapContents = new StringBuilder();
+    generator.appendTo(mapContents, "out.js");
+    SourceMapConsumerV3 consumer = new SourceMapConsumerV3();
+    consumer.parse(mapContents.toString());
+    assertThat(consumer.getOriginalSources())
+        .containsExactly("src/orig.ts", "a.js", "b.js").inOrder();
+    assertMapping(consumer.getMappingForLine(1, 1), "src/orig.ts", 6, 1, "n");
+    // The name of the generated code is kept when the input map has none.
+    assertMapping(consumer.getMappingForLine(1, 4), "src/orig.ts", 7, 3, "m");
+    assertMapping(consumer.getMappingForLine(2, 1), "a.js", 2, 1, null);
+    assertMapping(consumer.getMappingForLine(3, 1), "b.js", 4, 1, null);
+  }
+
+  private static void assertMapping(OriginalMapping mapping, String file,
+      int line, int column, String identifier) {
+    assertEquals(file, mapping.getOriginalFile());
+    assertEquals(line, mapping.getLineNumber());
+    assertEquals(column, mapping.getColumnPosition());
+    assertEquals(
+        identifier == null ? "" : identifier, mapping.getIdentifier());
+  }
+
   public void testWriteMetaMap() throws IOException {
     StringWriter out = new StringWriter();
     String name = "./app.js";
@@ -1706,6 +1706,48 @@ public final class CodePrinterTest extends CodePrinterTestBase {
     assertEquals("'use strict';var x", result);
   }
 
+  public void testWriteToMatchesBuild() throws Exception {
+    StringBuilder js = new StringBuilder();
+    for (int i = 0; i < 2000; i++) {
+      js.append("function f" + i + "(a, b) { if (a) { return a + b; } }\n");
+      js.append("var x" + i + " = f" + i + "(1, 2) instanceof Object;\n");
+    }
+    final Node ast = parse(js.toString());
+
+    for (final boolean prettyPrint : new boolean[] {false, true}) {
+      for (final boolean preferLineBreakAtEndOfFile : new boolean[] {false, true}) {
+        CompilerOptions options = newCompilerOptions(new CompilerOptionBuilder() {
+          @Override
+          void setOptions(CompilerOptions options) {
+            options.setPrettyPrint(prettyPrint);
+            options.setLineBreak(true);
+            options.setLineLengthThreshold(100);
+            options.setPreferLineBreakAtEndOfFile(preferLineBreakAtEndOfFile);
+          }
+        });
+        SourceMap builtMap = SourceMap.Format.V3.getInstance();
+        String built = new CodePrinter.Builder(ast)
+            .setCompilerOptions(options)
+            .setSourceMap(builtMap)
+            .build();
+
+        SourceMap writtenMap = SourceMap.Format.V3.getInstance();
+        StringBuilder written = new StringBuilder();
+        new CodePrinter.Builder(ast)
+            .setCompilerOptions(options)
+            .setSourceMap(writtenMap)
+            .writeTo(written);
+
+        assertEquals(built, written.toString());
+        StringBuilder builtMapText = new StringBuilder();
+        builtMap.appendTo(builtMapText, "out.js");
+        StringBuilder writtenMapText = new StringBuilder();
+        writtenMap.appendTo(writtenMapText, "out.js");
+        assertEquals(builtMapText.toString(), writtenMapText.toString());
+      }
+    }
+  }
+
   public void testArrayLiteral() {
     assertPrint("var x = [,];", "var x=[,]");
     assertPrint("var x = [,,];", "var x=[,,]");
@@ -52,6 +52,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.TreeMap;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -1949,6 +1950,89 @@ public final class CommandLineRunnerTest extends TestCase {
         + "\\n\\\"names\\\":[\\\"alert\\\"]\\n}\\n\"}]");
   }
 
+  /**
+   * Compiles the given JSON stream input into per-module output, printed on
+   * the given number of threads, and returns the files written by name.
+   * The files are written to a temporary directory, which is deleted.
+   */
+  private Map<String, String> compileModulesToFiles(
+      String inputString, List<String> moduleArgs, int printerThreads) throws Exception {
+    File outDir = Files.createTempDir();
+    try {
+      List<String> runnerArgs = new ArrayList<>(moduleArgs);
+      runnerArgs.add("--json_streams=IN");
+      runnerArgs.add("--module_output_path_prefix=" + outDir + File.separator);
+      runnerArgs.add("--create_source_map=%outname%.map");
+      CommandLineRunner runner = new CommandLineRunner(
+          runnerArgs.toArray(new String[]{}),
+          new ByteArrayInputStream(inputString.getBytes(UTF_8)),
+          new PrintStream(outReader),
+          new PrintStream(errReader));
+      runner.setPrinterThreads(printerThreads);
+      lastCompiler = runner.getCompiler();
+      runner.doRun();
+
+      Map<String, String> files = new TreeMap<>();
+      for (File file : outDir.listFiles()) {
+        // Source maps name their file, which is in the temporary directory.
+        files.put(file.getName(),
+            Files.toString(file, UTF_8).replace(outDir.getPath(), "out"));
+      }
+      return files;
+    } finally {
+      for (File file : outDir.listFiles()) {
+        file.delete();
+      }
+      outDir.delete();
+    }
+  }
+
+  public void testOutputModulesWithSourceMaps() throws Exception {
+    String inputString = "[{\"src\": \"alert('foo');\", \"path\":\"foo.js\"},"
+        + "{\"src\": \"alert('bar');\", \"path\":\"bar.js\"},"
+        + "{\"src\": \"alert('baz');\", \"path\":\"baz.js\"}]";
+    Map<String, String> files = compileModulesToFiles(
+        inputString,
+        ImmutableList.of(
+            "--module=m0:1",
+            "--module=m1:1:m0",
+            "--module=m2:1:m0",
+            "--module_wrapper=m1:(function(){%s})();"),
+        1);
+
+    String[] names = {"foo", "bar", "baz"};
+    for (int i = 0; i < names.length; i++) {
+      assertThat(files.get("m" + i + ".js")).contains("alert(\"" + names[i] + "\")");
+      assertThat(files.get("m" + i + ".js.map"))
+          .contains("\"sources\":[\"" + names[i] + ".js\"]");
+    }
+    assertThat(files.get("m1.js")).isEqualTo("(function(){alert(\"bar\");})();\n");
+    // The map of the wrapped module accounts for the wrapper prefix.
+    assertThat(files.get("m1.js.map")).contains("\"mappings\":\"A,YAAAA,KAAA,CAAM,KAAN;\"");
+  }
+
+  public void testOutputModulesPrintedInParallel() throws Exception {
+    StringBuilder inputString = new StringBuilder("[");
+    List<String> moduleArgs = new ArrayList<>();
+    for (int i = 0; i < 12; i++) {
+      inputString.append(i == 0 ? "" : ",")
+          .append("{\"src\": \"var v").append(i).append(" = function(a) {\\n")
+          .append("  return a + ").append(i).append(";\\n};\\nalert(v").append(i)
+          .append("(1));\", \"path\":\"f").append(i).append(".js\"}");
+      moduleArgs.add(i == 0 ? "--module=m0:1" : "--module=m" + i + ":1:m0");
+      if (i % 3 == 1) {
+        moduleArgs.add("--module_wrapper=m" + i + ":(function(){%s})();");
+      }
+    }
+    inputString.append("]");
+
+    Map<String, String> expected = compileModulesToFiles(inputString.toString(), moduleArgs, 1);
+    assertThat(expected).hasSize(24);
+    assertThat(expected.get("m4.js")).startsWith("(function(){");
+    assertThat(expected.get("m4.js.map")).contains("\"sources\":[\"f4.js\"]");
+    assertEquals(expected, compileModulesToFiles(inputString.toString(), moduleArgs, 4));
+  }
+
   public void testAssumeFunctionWrapper() {
     args.add("--compilation_level=SIMPLE_OPTIMIZATIONS");
     args.add("--assume_function_wrapper");
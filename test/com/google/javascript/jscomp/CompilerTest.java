@@ -23,6 +23,7 @@ import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.debugging.sourcemap.FilePosition;
+import com.google.debugging.sourcemap.SourceMapConsumerV3;
 import com.google.debugging.sourcemap.SourceMapGeneratorV3;
 import com.google.debugging.sourcemap.proto.Mapping.OriginalMapping;
 import com.google.javascript.rhino.InputId;
@@ -82,6 +83,58 @@ public final class CompilerTest extends TestCase {
     assertEquals(6, cb.getColumnIndex());
   }
 
+  public void testCodeBuilderAppendRange() {
+    StringBuilder out = new StringBuilder();
+    Compiler.CodeBuilder cb = new Compiler.CodeBuilder(out);
+    StringBuilder buffer = new StringBuilder("xxfoo();\ngoo();xx");
+    cb.append(buffer, 2, buffer.length() - 2);
+    assertEquals("foo();\ngoo();", out.toString());
+    assertEquals(13, cb.getLength());
+    assertEquals(1, cb.getLineIndex());
+    assertEquals(6, cb.getColumnIndex());
+
+    cb.append(buffer, 0, 2);
+    assertEquals(8, cb.getColumnIndex());
+    assertTrue(cb.endsWith(";xx"));
+  }
+
+  public void testCodeBuilderWithOutput() {
+    StringBuilder out = new StringBuilder();
+    Compiler.CodeBuilder cb = new Compiler.CodeBuilder(out);
+    for (int i = 0; i < 100; i++) {
+      cb.append("foo();\n");
+    }
+    cb.append("goo();");
+    assertEquals(706, out.length());
+    assertEquals(706, cb.getLength());
+    assertEquals(100, cb.getLineIndex());
+    assertEquals(6, cb.getColumnIndex());
+    assertTrue(cb.endsWith(";"));
+    assertEquals('(', cb.charFromEnd(2));
+  }
+
+  public void testWriteSourceMatchesToSource() {
+    CompilerOptions options = new CompilerOptions();
+    options.setLineLengthThreshold(50);
+    options.setPreferLineBreakAtEndOfFile(true);
+    List<SourceFile> inputs = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      StringBuilder js = new StringBuilder();
+      for (int j = 0; j < 500; j++) {
+        js.append("var a" + i + "_" + j + " = 'some string';");
+      }
+      js.append("function f" + i + "() {}");
+      inputs.add(SourceFile.fromCode("input" + i, js.toString()));
+    }
+    Compiler compiler = new Compiler();
+    compiler.compile(
+        ImmutableList.<SourceFile>of(), inputs, options);
+
+    StringBuilder out = new StringBuilder();
+    compiler.writeSource(out);
+    assertEquals(compiler.toSource(), out.toString());
+  }
+
   public void testCyclicalDependencyInInputs() {
     List<SourceFile> inputs = ImmutableList.of(
         SourceFile.fromCode(
@@ -173,6 +226,39 @@ public final class CompilerTest extends TestCase {
         compiler.getSourceLine(origSourceName, 1));
   }
 
+  public void testApplyInputSourceMaps() throws Exception {
+    FilePosition originalSourcePosition = new FilePosition(17, 25);
+    CompilerOptions options = new CompilerOptions();
+    options.sourceMapOutputPath = "out.js.map";
+    options.inputSourceMaps = ImmutableMap.of(
+        normalize("generated_js/example.js"),
+        sourcemap(
+            normalize("generated_js/example.srcmap"),
+            normalize("../original/source.html"),
+            originalSourcePosition));
+    options.setApplyInputSourceMaps(true);
+    Compiler compiler = new Compiler();
+    compiler.compile(
+        ImmutableList.<SourceFile>of(),
+        ImmutableList.of(SourceFile.fromCode(
+            normalize("generated_js/example.js"), "\n var x;")),
+        options);
+    assertEquals("var x;", compiler.toSource());
+
+    StringBuilder map = new StringBuilder();
+    compiler.getSourceMap().appendTo(map, "out.js");
+    SourceMapConsumerV3 consumer = new SourceMapConsumerV3();
+    consumer.parse(map.toString());
+    assertEquals(
+        OriginalMapping.newBuilder()
+            .setOriginalFile(normalize("original/source.html"))
+            .setLineNumber(18)
+            .setColumnPosition(26)
+            .setIdentifier("x")
+            .build(),
+        consumer.getMappingForLine(1, 5));
+  }
+
   private SourceMapInput sourcemap(String sourceMapPath, String originalSource,
       FilePosition originalSourcePosition) throws Exception {
     SourceMapGeneratorV3 sourceMap = new SourceMapGeneratorV3();
@@ -797,6 +883,33 @@ public final class CompilerTest extends TestCase {
     assertThat(result.errors).isEmpty();
   }
 
+  public void testPrunedInputsAreNotParsed() throws Exception {
+    List<SourceFile> inputs = new ArrayList<>();
+    inputs.add(SourceFile.fromCode("/index.js",
+        "goog.provide('index'); goog.require('dep'); dep();"));
+    inputs.add(SourceFile.fromCode("/dep.js",
+        "goog.provide('dep'); /** @const */ var dep = function() {};"));
+    // Pruned before anything parses it, so its syntax error goes unnoticed.
+    inputs.add(SourceFile.fromCode("/unused.js",
+        "goog.provide('unused'); var = ;"));
+
+    CompilerOptions options = new CompilerOptions();
+    options.setLanguageIn(CompilerOptions.LanguageMode.ECMASCRIPT6);
+    options.setLanguageOut(CompilerOptions.LanguageMode.ECMASCRIPT5);
+    options.dependencyOptions.setDependencyPruning(true);
+    options.dependencyOptions.setMoocherDropping(true);
+    options.dependencyOptions.setEntryPoints(
+        ImmutableList.of(ModuleIdentifier.forClosure("index")));
+
+    Compiler compiler = new Compiler();
+    compiler.compile(
+        ImmutableList.of(SourceFile.fromCode("externs.js", "function Symbol() {}")),
+        inputs, options);
+
+    assertThat(compiler.getResult().errors).isEmpty();
+    assertThat(compiler.toSource()).doesNotContain("unused");
+  }
+
   public void testGetEmptyResult() {
     Result result = new Compiler().getResult();
     assertThat(result.errors).isEmpty();
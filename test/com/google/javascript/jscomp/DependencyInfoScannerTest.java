@@ -0,0 +1,80 @@
+/*
+ * Copyright 2016 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.javascript.rhino.InputId;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for {@link DependencyInfoScanner}.
+ */
+public final class DependencyInfoScannerTest extends TestCase {
+
+  private Compiler compiler;
+  private List<CompilerInput> inputs;
+
+  private void init(int numInputs) {
+    List<SourceFile> sources = new ArrayList<>();
+    for (int i = 0; i < numInputs; i++) {
+      sources.add(SourceFile.fromCode("in" + i + ".js",
+          i == 0
+          ? "goog.provide('ns0'); goog.require(notAString);"
+          : "goog.provide('ns" + i + "'); goog.require('ns" + (i - 1) + "');"
+              + (i % 2 == 0 ? "\nexport var x = 1;" : "")));
+    }
+    compiler = new Compiler();
+    compiler.init(ImmutableList.<SourceFile>of(), sources, new CompilerOptions());
+    inputs = new ArrayList<>();
+    for (int i = 0; i < numInputs; i++) {
+      inputs.add(compiler.getInput(new InputId("in" + i + ".js")));
+    }
+  }
+
+  public void testScansInParallel() {
+    init(500);
+    DependencyInfoScanner.scan(compiler, inputs, 4);
+
+    // Each batch reported its problems to the compiler once.
+    assertEquals(1, compiler.getErrorManager().getErrorCount());
+    assertThat(inputs.get(0).getProvides()).containsExactly("ns0");
+    assertThat(inputs.get(0).getRequires()).containsExactly("goog");
+    for (int i = 1; i < inputs.size(); i++) {
+      CompilerInput input = inputs.get(i);
+      assertThat(input.getProvides()).containsExactly("ns" + i);
+      assertThat(input.getRequires()).containsExactly("goog", "ns" + (i - 1));
+      assertEquals(i % 2 == 0, input.mayBeEs6Module());
+      assertFalse(input.mayBeExterns());
+    }
+    assertEquals(1, compiler.getErrorManager().getErrorCount());
+  }
+
+  public void testFewInputsAreLeftForLater() {
+    init(10);
+    DependencyInfoScanner.scan(compiler, inputs, 4);
+    assertEquals(0, compiler.getErrorManager().getErrorCount());
+
+    assertThat(inputs.get(0).getProvides()).containsExactly("ns0");
+    assertEquals(1, compiler.getErrorManager().getErrorCount());
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2016 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.javascript.jscomp.CompilerOptions.LanguageMode;
+import com.google.javascript.rhino.Node;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests that {@link Es6FusedRewrites} rewrites code exactly like the passes
+ * it fuses, when each of them traverses the program on its own.
+ */
+public final class Es6FusedRewritesTest extends TestCase {
+
+  private static String lines(String... lines) {
+    return Joiner.on('\n').join(lines);
+  }
+
+  private static String transpile(List<SourceFile> inputs, boolean fused) {
+    CompilerOptions options = new CompilerOptions();
+    options.setLanguageIn(LanguageMode.ECMASCRIPT6_STRICT);
+    options.setLanguageOut(LanguageMode.ECMASCRIPT5);
+    options.setPrettyPrint(true);
+    Compiler compiler = new Compiler();
+    compiler.init(
+        ImmutableList.of(SourceFile.fromCode("externs.js", "function Symbol() {}")),
+        inputs,
+        options);
+    compiler.parseInputs();
+    assertEquals(0, compiler.getErrorCount());
+
+    List<? extends CompilerPass> passes;
+    if (fused) {
+      passes = ImmutableList.of(
+          Es6FusedRewrites.arrowFunctionsAndParamLists(compiler),
+          Es6FusedRewrites.destructuring(compiler),
+          Es6FusedRewrites.superAndClasses(compiler));
+    } else {
+      passes = ImmutableList.of(
+          new Es6RewriteArrowFunction(compiler),
+          new Es6RenameVariablesInParamLists(compiler),
+          new Es6SplitVariableDeclarations(compiler),
+          new Es6RewriteDestructuring(compiler),
+          new Es6ConvertSuper(compiler),
+          new Es6ExtractClasses(compiler));
+    }
+    Node root = compiler.getRoot();
+    for (CompilerPass pass : passes) {
+      pass.process(root.getFirstChild(), root.getLastChild());
+    }
+    return compiler.toSource()
+        + "\n// errors: " + Arrays.toString(compiler.getErrors())
+        + "\n// warnings: " + Arrays.toString(compiler.getWarnings());
+  }
+
+  private static void assertSameAsSeparatePasses(String js) {
+    assertSameAsSeparatePasses(
+        ImmutableList.of(SourceFile.fromCode("a.js", js), SourceFile.fromCode("b.js", js)));
+  }
+
+  private static void assertSameAsSeparatePasses(List<SourceFile> inputs) {
+    String separate = transpile(inputs, false);
+    assertEquals(separate, transpile(inputs, true));
+  }
+
+  public void testArrowFunctions() {
+    assertSameAsSeparatePasses(lines(
+        "var f = (a, b) => a + b;",
+        "function g() {",
+        "  var h = () => () => this.x + arguments[0];",
+        "  return (x) => { var y = () => x + this.y; return y; };",
+        "}"));
+  }
+
+  public void testArrowFunctionsInParamLists() {
+    assertSameAsSeparatePasses(lines(
+        "function f(a = () => x, b = x, {c} = y) {",
+        "  var x = 1;",
+        "  let y = () => arguments;",
+        "  return function(d = () => x) { var x; return d; };",
+        "}"));
+  }
+
+  public void testParamListsWithoutDefaults() {
+    assertSameAsSeparatePasses(lines(
+        "function f(a, b) { var x = a; return function(c) { var a = c; }; }",
+        "var o = {[k]: 1, m(p = k) { var k; }};"));
+  }
+
+  public void testDestructuringDeclarations() {
+    assertSameAsSeparatePasses(lines(
+        "var [a, b] = x, {c, d: [e] = f} = y, g = 1;",
+        "{ let [h, ...i] = x, j; const {k = 2} = y; }",
+        "function f([a, b] = [], {c = 1} = {}, ...[d]) {",
+        "  var [e] = a, {f} = c;",
+        "  for (var [g, h] of d) {}",
+        "  for (let {i, j} of d) { let [k] = i, l = j; }",
+        "  try {} catch ([m, n]) {}",
+        "  [a, b] = [b, a];",
+        "  ({c, d} = f);",
+        "}"));
+  }
+
+  public void testDestructuringInMovedDefaultValues() {
+    assertSameAsSeparatePasses(lines(
+        "function f(a = function() { var [b] = c, d = b; return d; }) {",
+        "  var [e, f] = a(), g;",
+        "}"));
+  }
+
+  public void testSuperAndClasses() {
+    assertSameAsSeparatePasses(lines(
+        "class A { m() {} static s() {} }",
+        "class B extends A {",
+        "  constructor() { super(class {}); }",
+        "  m() { return super.m(class extends A {}); }",
+        "  static s() { return super.s(); }",
+        "}",
+        "class C extends B {}",
+        "foo(class extends B { m() { super.m(); } });",
+        "var D = class extends A {};",
+        "var x = cond() && class {};"));
+  }
+
+  public void testScriptsWithoutTheFeatures() {
+    assertSameAsSeparatePasses(ImmutableList.of(
+        SourceFile.fromCode("es5.js", "var a = function() { return this; };"),
+        SourceFile.fromCode("arrow.js", "var f = () => this; var g = () => arguments;"),
+        SourceFile.fromCode("class.js", "class C extends D { m() { super.m(); } }"),
+        SourceFile.fromCode("destructuring.js", "var [b] = a; use(class {});")));
+  }
+
+  public void testAll() {
+    assertSameAsSeparatePasses(lines(
+        "class A {",
+        "  constructor({x, y} = {}) { this.f = () => this.x + x; }",
+        "  m(...[a, b]) { return foo(class extends A { n() { super.m(a, b); } }); }",
+        "}",
+        "var [a, b] = [1, 2], c = () => arguments;"));
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2016 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.common.collect.ImmutableList;
+import com.google.javascript.jscomp.CompilerOptions.TracerMode;
+import com.google.javascript.rhino.Token;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tests for {@link HeapComposition}.
+ */
+public final class HeapCompositionTest extends TestCase {
+
+  private static final String CODE =
+      "/** @constructor */ function Foo() { /** @type {number} */ this.x = 1; }\n"
+      + "/** @param {!Foo} foo */ function f(foo) { return foo.x; }\n"
+      + "f(new Foo());";
+
+  private ByteArrayOutputStream output;
+
+  private Compiler compile(CompilerOptions options) {
+    output = new ByteArrayOutputStream();
+    Compiler compiler = new Compiler(new PrintStream(output));
+    compiler.compile(
+        ImmutableList.of(SourceFile.fromCode("externs.js",
+            "/** @constructor */ function Object() {}")),
+        ImmutableList.of(SourceFile.fromCode("a.js", CODE)),
+        options);
+    return compiler;
+  }
+
+  public void testCountsAstAndJsDoc() {
+    Compiler compiler = compile(new CompilerOptions());
+    HeapComposition heap = HeapComposition.measure(compiler);
+
+    Map<Token, Integer> nodesByToken = toMap(heap.getNodesByToken());
+    assertEquals(2, (int) nodesByToken.get(Token.SCRIPT));
+    assertEquals(3, (int) nodesByToken.get(Token.FUNCTION));
+    assertEquals(4, heap.getJsDocInfos());
+    // The type expressions {number} and {!Foo}.
+    assertEquals(3, heap.getJsDocNodes());
+    assertTrue(heap.getPropListItems() > 0);
+    assertEquals(0, heap.getTypes());
+    assertEquals(0, heap.getScopes());
+    assertEquals(
+        heap.getNodeBytes() + heap.getPropListBytes() + heap.getJsDocBytes(),
+        heap.getTotalBytes());
+  }
+
+  public void testCountsTypes() {
+    CompilerOptions options = new CompilerOptions();
+    options.setCheckTypes(true);
+    Compiler compiler = compile(options);
+    HeapComposition heap = HeapComposition.measure(compiler);
+
+    assertTrue(heap.getTypes() > 0);
+    assertTrue(toMap(heap.getTypesByClass()).containsKey("FunctionType"));
+    assertTrue(heap.getTypeBytes() > 0);
+    // The typed scopes are gone by the end of the compile.
+    assertEquals(0, heap.getScopes());
+  }
+
+  public void testTracerReport() throws Exception {
+    CompilerOptions options = new CompilerOptions();
+    options.setCheckTypes(true);
+    options.setTracerMode(TracerMode.TIMING_ONLY);
+    options.setTracerHeapComposition(true);
+    Compiler compiler = compile(options);
+
+    String report = output.toString();
+    assertTrue(report.contains("Heap composition:\n"
+        + "pass,nodes,nodesKB,propListItems,propListsKB,jsDocInfos,jsDocNodes,"
+        + "jsDocKB,types,typesKB,scopes,vars,scopesKB,totalKB\n"
+        + "parseInputs,"));
+    // The typed scopes are counted right after type inference.
+    int start = report.indexOf(
+        "\ninferTypes,", report.indexOf("Heap composition:")) + 1;
+    String[] inferTypes =
+        report.substring(start, report.indexOf('\n', start)).split(",");
+    assertTrue(Integer.parseInt(inferTypes[8]) > 0);
+    assertTrue(Integer.parseInt(inferTypes[10]) > 0);
+    assertTrue(Integer.parseInt(inferTypes[11]) > 0);
+    assertTrue(report.contains("\nLargest heap composition, after pass "));
+    assertTrue(report.contains("\ntoken,nodes\n"));
+    assertTrue(report.contains("\ntypeClass,types\n"));
+
+    StringWriter traceEvents = new StringWriter();
+    compiler.tracker.outputTraceEvents(traceEvents);
+    assertTrue(traceEvents.toString().contains("\"name\":\"heapCompositionKB\""));
+  }
+
+  public void testNotInTracerReportByDefault() {
+    CompilerOptions options = new CompilerOptions();
+    options.setTracerMode(TracerMode.TIMING_ONLY);
+    compile(options);
+    assertFalse(output.toString().contains("Heap composition:"));
+  }
+
+  private static <K> Map<K, Integer> toMap(
+      Iterable<Map.Entry<K, Integer>> entries) {
+    Map<K, Integer> map = new HashMap<>();
+    for (Map.Entry<K, Integer> entry : entries) {
+      map.put(entry.getKey(), entry.getValue());
+    }
+    return map;
+  }
+}
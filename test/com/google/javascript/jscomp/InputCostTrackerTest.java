@@ -0,0 +1,139 @@
+/*
+ * Copyright 2016 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.javascript.rhino.InputId;
+
+import junit.framework.TestCase;
+
+import java.io.StringWriter;
+
+/**
+ * Tests for {@link InputCostTracker}.
+ */
+public final class InputCostTrackerTest extends TestCase {
+
+  private final InputId a = new InputId("a.js");
+  private final InputId b = new InputId("b.js");
+
+  public void testChargesDoNotNest() {
+    InputCostTracker tracker = new InputCostTracker();
+    tracker.setCurrentPass("pass");
+    assertTrue(tracker.startCharging(a));
+    assertFalse(tracker.startCharging(b));
+    tracker.stopCharging();
+    assertFalse(tracker.startCharging(null));
+
+    assertEquals(ImmutableList.of("pass"),
+        tracker.getCosts("a.js").keySet().asList());
+    assertTrue(tracker.getCosts("b.js").isEmpty());
+  }
+
+  public void testChargesOutsidePasses() {
+    InputCostTracker tracker = new InputCostTracker();
+    tracker.setCurrentPass("pass");
+    tracker.setCurrentPass(null);
+    assertTrue(tracker.startCharging(a));
+    tracker.stopCharging();
+    assertEquals(ImmutableList.of(InputCostTracker.OTHER),
+        tracker.getCosts("a.js").keySet().asList());
+  }
+
+  public void testStopWithoutCharge() {
+    try {
+      new InputCostTracker().stopCharging();
+      fail("expected IllegalStateException");
+    } catch (IllegalStateException expected) {
+    }
+  }
+
+  public void testOutputTable() throws Exception {
+    InputCostTracker tracker = new InputCostTracker();
+    tracker.charge(a, InputCostTracker.PARSE, 1000000);
+    tracker.charge(a, "inlineFunctions", 2000000);
+    tracker.charge(b, InputCostTracker.PARSE, 500000);
+    tracker.charge(b, "inferTypes", 7000000);
+    tracker.charge(b, "inferTypes", 1000000);
+
+    StringWriter out = new StringWriter();
+    tracker.outputTable(out);
+    assertEquals(
+        "input,total,parse,inferTypes,inlineFunctions,rest\n"
+        + "b.js,8.5,0.5,8.0,0.0,0.0\n"
+        + "a.js,3.0,1.0,0.0,2.0,0.0\n",
+        out.toString());
+  }
+
+  public void testOutputJson() throws Exception {
+    InputCostTracker tracker = new InputCostTracker();
+    tracker.charge(a, InputCostTracker.PARSE, 3000000);
+    tracker.charge(b, InputCostTracker.PARSE, 1000000);
+    tracker.charge(b, "inferTypes", 4000000);
+
+    StringWriter out = new StringWriter();
+    tracker.outputReport("costs.json", out);
+    JsonArray inputs = new JsonParser().parse(out.toString())
+        .getAsJsonObject().getAsJsonArray("inputs");
+    assertEquals(2, inputs.size());
+    JsonObject first = inputs.get(0).getAsJsonObject();
+    assertEquals("b.js", first.get("name").getAsString());
+    assertEquals(5.0, first.get("totalMs").getAsDouble());
+    JsonObject costs = first.getAsJsonObject("costsMs");
+    assertEquals(4.0, costs.get("inferTypes").getAsDouble());
+    assertEquals(1.0, costs.get(InputCostTracker.PARSE).getAsDouble());
+    assertEquals("a.js", inputs.get(1).getAsJsonObject().get("name").getAsString());
+  }
+
+  public void testCompilerChargesInputs() {
+    CompilerOptions options = new CompilerOptions();
+    options.setCheckTypes(true);
+    options.setNewTypeInference(true);
+    options.setTrackInputCosts(true);
+    Compiler compiler = new Compiler();
+    compiler.compile(
+        ImmutableList.of(SourceFile.fromCode("externs.js",
+            "/** @constructor */ function Object() {}"
+            + "/** @constructor */ function Function() {}")),
+        ImmutableList.of(
+            SourceFile.fromCode("a.js", "function f(x) { return x + 1; }"),
+            SourceFile.fromCode("b.js", "var y = f(2);")),
+        options);
+
+    ImmutableMap<String, Long> costs = compiler.getInputCostTracker().getCosts("a.js");
+    assertTrue(costs.containsKey(InputCostTracker.PARSE));
+    assertTrue(costs.containsKey("NewTypeInference"));
+    assertTrue(costs.containsKey("checkVars"));
+    assertTrue(compiler.getInputCostTracker().getCosts("b.js")
+        .containsKey(InputCostTracker.PARSE));
+    assertTrue(compiler.getInputCostTracker().getCosts("externs.js")
+        .containsKey(InputCostTracker.PARSE));
+  }
+
+  public void testCompilerWithoutTracking() {
+    Compiler compiler = new Compiler();
+    compiler.compile(
+        ImmutableList.<SourceFile>of(),
+        ImmutableList.of(SourceFile.fromCode("a.js", "var x = 1;")),
+        new CompilerOptions());
+    assertNull(compiler.getInputCostTracker());
+  }
+}
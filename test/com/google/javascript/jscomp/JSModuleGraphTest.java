@@ -120,6 +120,61 @@ public final class JSModuleGraphTest extends TestCase {
     assertDeepestCommonDepInclusive(F, F, F);
   }
 
+  public void testDependsOn() {
+    assertFalse(graph.dependsOn(A, A));
+    assertFalse(graph.dependsOn(A, B));
+    assertTrue(graph.dependsOn(B, A));
+    assertFalse(graph.dependsOn(B, C));
+    assertTrue(graph.dependsOn(D, A));
+    assertFalse(graph.dependsOn(D, C));
+    assertTrue(graph.dependsOn(F, B));
+    assertFalse(graph.dependsOn(F, D));
+  }
+
+  public void testDependsOnModuleOutsideGraph() {
+    JSModule g = new JSModule("G");
+    g.addDependency(D);
+    g.addDependency(F);
+    assertTrue(graph.dependsOn(g, A));
+    assertTrue(graph.dependsOn(g, E));
+    assertFalse(graph.dependsOn(A, g));
+    assertEquals(E, graph.getDeepestCommonDependencyInclusive(g, E));
+  }
+
+  public void testModulesThatDependOnModulesOutsideGraph() {
+    JSModule x = new JSModule("X");
+    new JSModuleGraph(new JSModule[] {x});
+    JSModule g = new JSModule("G");
+    JSModule h = new JSModule("H");
+    g.addDependency(A);
+    g.addDependency(x);
+    h.addDependency(g);
+    graph = new JSModuleGraph(new JSModule[] {A, B, C, D, E, F, g, h});
+    assertTrue(graph.dependsOn(g, x));
+    assertTrue(graph.dependsOn(h, x));
+    assertTrue(graph.dependsOn(h, g));
+    assertTrue(graph.dependsOn(h, A));
+    assertFalse(graph.dependsOn(h, B));
+    assertFalse(graph.dependsOn(F, g));
+    assertEquals(A, graph.getDeepestCommonDependencyInclusive(h, F));
+    assertEquals(g, graph.getDeepestCommonDependencyInclusive(h, g));
+    assertTransitiveDepsDeepestFirst(h, g, x, A);
+  }
+
+  public void testDeepestCommonDepBreaksTiesByModuleOrder() {
+    JSModule g = new JSModule("G");
+    JSModule h = new JSModule("H");
+    g.addDependency(B);
+    g.addDependency(C);
+    h.addDependency(B);
+    h.addDependency(C);
+    graph = new JSModuleGraph(new JSModule[] {A, B, C, D, E, F, g, h});
+    assertDeepestCommonDep(C, g, h);
+
+    graph = new JSModuleGraph(new JSModule[] {A, C, B, D, E, F, g, h});
+    assertDeepestCommonDep(B, g, h);
+  }
+
   public void testGetTransitiveDepsDeepestFirst() {
     assertTransitiveDepsDeepestFirst(A);
     assertTransitiveDepsDeepestFirst(B, A);
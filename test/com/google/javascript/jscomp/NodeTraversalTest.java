@@ -20,9 +20,13 @@ import static com.google.common.truth.Truth.assertThat;
 import static com.google.javascript.jscomp.testing.NodeSubject.assertNode;
 
 import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.javascript.jscomp.CompilerOptions.LanguageMode;
 import com.google.javascript.jscomp.NodeTraversal.AbstractNodeTypePruningCallback;
+import com.google.javascript.jscomp.parsing.parser.FeatureSet.Feature;
+import com.google.javascript.rhino.IR;
+import com.google.javascript.rhino.InputId;
 import com.google.javascript.rhino.Node;
 import com.google.javascript.rhino.Token;
 
@@ -285,6 +289,51 @@ public final class NodeTraversalTest extends TestCase {
     callback.assertEntered();
   }
 
+  public void testTraverseEs6ScriptsWithFeatures() {
+    Compiler compiler = new Compiler();
+    CompilerOptions options = new CompilerOptions();
+    options.setLanguageIn(LanguageMode.ECMASCRIPT6);
+    compiler.init(
+        ImmutableList.<SourceFile>of(),
+        ImmutableList.of(
+            SourceFile.fromCode("es5.js", "var a = {get x() { return 1; }};"),
+            SourceFile.fromCode("arrow.js", "var f = () => a;"),
+            SourceFile.fromCode("destructuring.js", "var [b] = a;")),
+        options);
+    Node root = compiler.parseInputs();
+    assertThat(compiler.getErrors()).isEmpty();
+    Node synthetic = IR.script(IR.var(IR.name("c")));
+    synthetic.setInputId(new InputId("synthetic.js"));
+    synthetic.setSourceFileForTesting("synthetic.js");
+    root.getLastChild().addChildToBack(synthetic);
+
+    assertThat(traverseScriptsWithFeatures(compiler, root, Feature.ARROW_FUNCTIONS))
+        .containsExactly("arrow.js", "destructuring.js", "synthetic.js").inOrder();
+    // The recorded feature sets can't tell an arrow function from a class,
+    // but they can tell both from destructuring.
+    assertThat(traverseScriptsWithFeatures(compiler, root, Feature.CLASSES))
+        .containsExactly("arrow.js", "destructuring.js", "synthetic.js").inOrder();
+    assertThat(traverseScriptsWithFeatures(compiler, root, Feature.DESTRUCTURING))
+        .containsExactly("destructuring.js", "synthetic.js").inOrder();
+  }
+
+  private static List<String> traverseScriptsWithFeatures(
+      Compiler compiler, Node root, Feature feature) {
+    final List<String> scripts = new ArrayList<>();
+    NodeTraversal.traverseEs6ScriptsWithFeatures(
+        compiler, root, ImmutableSet.of(feature), new NodeTraversal.AbstractPostOrderCallback() {
+          @Override
+          public void visit(NodeTraversal t, Node n, Node parent) {
+            if (n.isScript()) {
+              // The skipped scripts still declare names in the global scope.
+              assertTrue(t.getScope().isDeclared("a", false));
+              scripts.add(n.getSourceFileName());
+            }
+          }
+        });
+    return scripts;
+  }
+
   // Helper class used to test getCurrentNode
   private static class ExpectNodeOnEnterScope extends NodeTraversal.AbstractPreOrderCallback
       implements NodeTraversal.ScopedCallback {
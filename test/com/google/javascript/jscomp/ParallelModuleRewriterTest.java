@@ -0,0 +1,144 @@
+/*
+ * Copyright 2016 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.common.collect.ImmutableList;
+import com.google.javascript.jscomp.Compiler.ModuleRewrite;
+import com.google.javascript.jscomp.CompilerOptions.LanguageMode;
+import com.google.javascript.rhino.InputId;
+import com.google.javascript.rhino.Node;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for {@link ParallelModuleRewriter}, which must rewrite modules
+ * exactly like the rewrites do on the compiler thread.
+ */
+public final class ParallelModuleRewriterTest extends TestCase {
+
+  private static final ModuleRewrite COMMON_JS = new ModuleRewrite() {
+    @Override
+    public void rewrite(Compiler compiler, ES6ModuleLoader loader, Node root) {
+      new TransformAMDToCJSModule(compiler).process(null, root);
+      new ProcessCommonJSModules(compiler, loader, true).process(null, root);
+    }
+  };
+
+  private static final ModuleRewrite ES6 = new ModuleRewrite() {
+    @Override
+    public void rewrite(Compiler compiler, ES6ModuleLoader loader, Node root) {
+      new ProcessEs6Modules(compiler, loader, true).processFile(root, false);
+    }
+  };
+
+  private static List<SourceFile> commonJsSources(int numInputs) {
+    List<SourceFile> sources = new ArrayList<>();
+    sources.add(SourceFile.fromCode("m0.js", "module.exports = require('./missing');"));
+    for (int i = 1; i < numInputs; i++) {
+      String code;
+      if (i == 7) {
+        code = "var broken = ;";
+      } else if (i % 3 == 0) {
+        code = "define(['./m" + (i - 1) + "'], function(d) { return {x: d, i: " + i + "}; });";
+      } else {
+        code = "var d = require('./m" + (i - 1) + "'); var x = 1; module.exports = {d: d, x: x};";
+      }
+      sources.add(SourceFile.fromCode("m" + i + ".js", code));
+    }
+    return sources;
+  }
+
+  private static List<SourceFile> es6Sources(int numInputs) {
+    List<SourceFile> sources = new ArrayList<>();
+    sources.add(SourceFile.fromCode("m0.js", "import {y} from './missing'; export var x = y;"));
+    for (int i = 1; i < numInputs; i++) {
+      sources.add(SourceFile.fromCode("m" + i + ".js", i % 4 == 0
+          ? "var notAModule = " + i + ";"
+          : "import {x as y} from './m" + (i - 1) + "'; export var x = y + " + i + ";"));
+    }
+    return sources;
+  }
+
+  /** Rewrites the sources, and returns the output and everything reported. */
+  private static String rewrite(
+      List<SourceFile> sources, ModuleRewrite rewrite, boolean inParallel) {
+    final StringBuilder sb = new StringBuilder();
+    CompilerOptions options = new CompilerOptions();
+    options.setLanguageIn(LanguageMode.ECMASCRIPT6);
+    options.setErrorHandler(new ErrorHandler() {
+      @Override
+      public void report(CheckLevel level, JSError error) {
+        sb.append(level).append(": ").append(error).append('\n');
+      }
+    });
+    Compiler compiler = new Compiler();
+    compiler.init(ImmutableList.<SourceFile>of(), sources, options);
+    List<CompilerInput> inputs = new ArrayList<>();
+    for (SourceFile source : sources) {
+      CompilerInput input = compiler.getInput(new InputId(source.getName()));
+      input.setCompiler(compiler);
+      inputs.add(input);
+    }
+
+    ES6ModuleLoader loader = new ES6ModuleLoader(compiler, options.moduleRoots, inputs);
+    if (inParallel) {
+      assertTrue(ParallelModuleRewriter.rewrite(compiler, loader, inputs, rewrite, 4));
+    } else {
+      for (CompilerInput input : inputs) {
+        rewrite.rewrite(compiler, loader, input.getAstRoot(compiler));
+      }
+    }
+
+    for (CompilerInput input : inputs) {
+      sb.append(input.getName())
+          .append(" provides ").append(input.getProvides())
+          .append(" requires ").append(input.getRequires()).append('\n')
+          .append(compiler.toSource(input.getAstRoot(compiler))).append('\n');
+    }
+    return sb.toString();
+  }
+
+  private static void assertSameAsOnCompilerThread(
+      List<SourceFile> sources, ModuleRewrite rewrite) {
+    assertEquals(rewrite(sources, rewrite, false), rewrite(sources, rewrite, true));
+  }
+
+  public void testCommonJsAndAmdModules() {
+    assertSameAsOnCompilerThread(commonJsSources(100), COMMON_JS);
+  }
+
+  public void testEs6Modules() {
+    assertSameAsOnCompilerThread(es6Sources(100), ES6);
+  }
+
+  public void testFewInputsAreLeftToTheCompilerThread() {
+    Compiler compiler = new Compiler();
+    List<SourceFile> sources = commonJsSources(16);
+    compiler.init(ImmutableList.<SourceFile>of(), sources, new CompilerOptions());
+    List<CompilerInput> inputs = new ArrayList<>();
+    for (SourceFile source : sources) {
+      inputs.add(compiler.getInput(new InputId(source.getName())));
+    }
+    ES6ModuleLoader loader = new ES6ModuleLoader(
+        compiler, ImmutableList.of(ES6ModuleLoader.DEFAULT_FILENAME_PREFIX), inputs);
+    assertFalse(ParallelModuleRewriter.rewrite(compiler, loader, inputs, COMMON_JS, 4));
+    assertEquals(0, compiler.getErrorCount());
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2016 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ContiguousSet;
+import com.google.common.collect.DiscreteDomain;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Range;
+import com.google.javascript.jscomp.ParallelTasks.BatchTask;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Tests for {@link ParallelTasks}.
+ */
+public final class ParallelTasksTest extends TestCase {
+
+  private static final List<Integer> INPUTS = ImmutableList.copyOf(
+      ContiguousSet.create(Range.closedOpen(0, 100), DiscreteDomain.integers()));
+
+  private static final BatchTask<Integer, String, RuntimeException> DESCRIBE =
+      new BatchTask<Integer, String, RuntimeException>() {
+        @Override
+        public String run(List<Integer> batch) {
+          return batch.get(0) + "-" + batch.get(batch.size() - 1);
+        }
+      };
+
+  public void testNumThreads() {
+    assertEquals(0, ParallelTasks.numThreads(0, 10, 4));
+    assertEquals(1, ParallelTasks.numThreads(10, 10, 4));
+    assertEquals(2, ParallelTasks.numThreads(11, 10, 4));
+    assertEquals(4, ParallelTasks.numThreads(100, 10, 4));
+  }
+
+  public void testResultsAreInTheOrderOfTheInputs() {
+    assertThat(ParallelTasks.runPartitioned(INPUTS, 30, 4, "test", DESCRIBE))
+        .containsExactly("0-29", "30-59", "60-89", "90-99").inOrder();
+  }
+
+  public void testRunsOnTheCallingThreadWithOneThread() {
+    final Thread caller = Thread.currentThread();
+    BatchTask<Integer, Boolean, RuntimeException> onCaller =
+        new BatchTask<Integer, Boolean, RuntimeException>() {
+          @Override
+          public Boolean run(List<Integer> batch) {
+            return Thread.currentThread() == caller;
+          }
+        };
+    assertThat(ParallelTasks.runPartitioned(INPUTS, 30, 1, "test", onCaller))
+        .containsExactly(true, true, true, true);
+    assertThat(ParallelTasks.runPartitioned(INPUTS, 30, 4, "test", onCaller))
+        .containsExactly(false, false, false, false);
+  }
+
+  public void testRethrowsWhatTheTasksThrow() {
+    BatchTask<Integer, Void, IOException> failing = new BatchTask<Integer, Void, IOException>() {
+      @Override
+      public Void run(List<Integer> batch) throws IOException {
+        if (batch.contains(50)) {
+          throw new IOException("50");
+        }
+        return null;
+      }
+    };
+    try {
+      ParallelTasks.runPartitioned(INPUTS, 10, 4, "test", failing);
+      fail("Expected an IOException");
+    } catch (IOException e) {
+      assertEquals("50", e.getMessage());
+    }
+
+    BatchTask<Integer, Void, RuntimeException> crashing =
+        new BatchTask<Integer, Void, RuntimeException>() {
+          @Override
+          public Void run(List<Integer> batch) {
+            throw new IllegalStateException("crash");
+          }
+        };
+    try {
+      ParallelTasks.runPartitioned(INPUTS, 10, 4, "test", crashing);
+      fail("Expected an IllegalStateException");
+    } catch (IllegalStateException e) {
+      assertEquals("crash", e.getMessage());
+    }
+  }
+}
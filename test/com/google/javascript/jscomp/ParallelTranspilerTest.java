@@ -0,0 +1,214 @@
+/*
+ * Copyright 2016 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.javascript.jscomp.CompilerOptions.LanguageMode;
+import com.google.javascript.rhino.Node;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for {@link ParallelTranspiler}, which must transpile exactly like
+ * the passes it runs.
+ */
+public final class ParallelTranspilerTest extends TestCase {
+
+  private static final ImmutableList<SourceFile> EXTERNS =
+      ImmutableList.of(SourceFile.fromCode("externs.js", "function Symbol() {} var externName;"));
+
+  private static final ImmutableList<SourceFile> SOURCES = ImmutableList.of(
+      SourceFile.fromCode("a.js", lines(
+          "class A {",
+          "  constructor() { this.x = 1; }",
+          "  *gen() { yield 1; yield* [2]; }",
+          "}",
+          "for (let i = 0; i < 3; i++) { setTimeout(() => i); }",
+          "{ let shared = 1; use(shared); }",
+          "{ let declaredLater = 1; let externName = 2; }",
+          "var [p, q] = [1, 2];",
+          "/** @param {...number} args */",
+          "function f(...args) { return tag`a${args}b` + `${p}`; }")),
+      SourceFile.fromCode("b.js", lines(
+          "class B extends A {",
+          "  constructor() { super(); }",
+          "  m() { return super.m(); }",
+          "}",
+          "{ let shared = 2; use(shared); }",
+          "for (const k of [1, 2]) { let j = k; fns.push(() => j); }",
+          "try { x(); } catch (e) { let e2 = e; }",
+          "{ let undeclared = 3; }",
+          "foo(class {});",
+          "function g() { return () => this; }")),
+      SourceFile.fromCode("c.js", lines(
+          "var declaredLater = 1;",
+          "{ /** @type {number} */ let shared = 4; }",
+          "function* h() { for (let i of [1]) { yield i; } }",
+          "var {a: aa, b: [bb]} = obj;",
+          "use(undeclared);",
+          "var o = {[k]: 1, m() { return [...arguments]; }};",
+          "/** @param {number} args */",
+          "function warns(...args) {}")));
+
+  private static String lines(String... lines) {
+    return Joiner.on('\n').join(lines);
+  }
+
+  private static CompilerOptions createOptions() {
+    CompilerOptions options = new CompilerOptions();
+    options.setLanguageIn(LanguageMode.ECMASCRIPT6_STRICT);
+    options.setLanguageOut(LanguageMode.ECMASCRIPT5);
+    options.setSkipNonTranspilationPasses(true);
+    options.setPrettyPrint(true);
+    options.setSourceMapOutputPath("out.js.map");
+    return options;
+  }
+
+  private static Compiler parse(List<SourceFile> sources) {
+    Compiler compiler = new Compiler();
+    compiler.init(EXTERNS, sources, createOptions());
+    compiler.parseInputs();
+    assertEquals(0, compiler.getErrorCount());
+    return compiler;
+  }
+
+  private static String output(Compiler compiler) throws Exception {
+    StringBuilder sb = new StringBuilder(compiler.toSource());
+    sb.append("\n// warnings: ").append(Arrays.toString(compiler.getWarnings()));
+    sb.append("\n// errors: ").append(Arrays.toString(compiler.getErrors()));
+    sb.append("\n// source map: ");
+    compiler.getSourceMap().appendTo(sb, "out.js");
+    return sb.toString();
+  }
+
+  private static String transpileSerially(List<SourceFile> sources) throws Exception {
+    Compiler compiler = parse(sources);
+    new ParallelTranspiler(compiler, 1).process(compiler.externsRoot, compiler.jsRoot);
+    return output(compiler);
+  }
+
+  private static void assertTranspiledInParallel(List<SourceFile> sources) throws Exception {
+    Compiler compiler = parse(sources);
+    assertTrue(new ParallelTranspiler(compiler, 4)
+        .processInParallel(compiler.externsRoot, compiler.jsRoot));
+    assertEquals(transpileSerially(sources), output(compiler));
+  }
+
+  private static void assertNotTranspiledInParallel(List<SourceFile> sources) {
+    Compiler compiler = parse(sources);
+    Node before = compiler.jsRoot.cloneTree();
+    assertFalse(new ParallelTranspiler(compiler, 4)
+        .processInParallel(compiler.externsRoot, compiler.jsRoot));
+    assertNull(before.checkTreeEquals(compiler.jsRoot));
+    assertThat(compiler.getWarnings()).isEmpty();
+  }
+
+  public void testSameOutputAsPassesOverWholeProgram() throws Exception {
+    assertTranspiledInParallel(SOURCES);
+    assertTranspiledInParallel(SOURCES.reverse());
+  }
+
+  public void testManyScripts() throws Exception {
+    List<SourceFile> sources = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      sources.add(SourceFile.fromCode("in" + i + ".js", lines(
+          "{ let x" + (i % 7) + " = " + i + "; }",
+          "var y" + (i % 5) + " = (...a) => a;",
+          "function* g" + i + "() { for (let j of [1]) { yield [...j]; } }",
+          "class C" + i + " { m({a, b = " + i + "}) { return `${a}${b}`; } }")));
+    }
+    assertTranspiledInParallel(sources);
+  }
+
+  public void testGlobalArrowThis() {
+    assertNotTranspiledInParallel(ImmutableList.of(
+        SourceFile.fromCode("a.js", "var a = 1;"),
+        SourceFile.fromCode("b.js", "var f = () => this;")));
+    assertNotTranspiledInParallel(ImmutableList.of(
+        SourceFile.fromCode("a.js", "var a = 1;"),
+        SourceFile.fromCode("b.js", "var f = () => () => arguments;")));
+  }
+
+  public void testNamesLikeGeneratedNames() {
+    assertNotTranspiledInParallel(ImmutableList.of(
+        SourceFile.fromCode("a.js", "var $jscomp$loop$0 = 1;"),
+        SourceFile.fromCode("b.js", "for (let i of []) { () => i; }")));
+    assertNotTranspiledInParallel(ImmutableList.of(
+        SourceFile.fromCode("a.js", "var x$1 = 1;"),
+        SourceFile.fromCode("b.js", "{ let x; }")));
+    assertNotTranspiledInParallel(ImmutableList.of(
+        SourceFile.fromCode("a.js", "var s = '\uA7F70\uA7F7';"),
+        SourceFile.fromCode("b.js", "{ let x; }")));
+  }
+
+  public void testErrors() {
+    assertNotTranspiledInParallel(ImmutableList.of(
+        SourceFile.fromCode("a.js", "var a = 1;"),
+        SourceFile.fromCode("b.js", "class C extends f() {}")));
+  }
+
+  public void testParallelize() {
+    CompilerOptions options = createOptions();
+    options.setLanguageIn(LanguageMode.ECMASCRIPT6);
+    List<PassFactory> checks = new DefaultPassConfig(options).getChecks();
+    assertThat(checks).contains(TranspilationPasses.convertEs6ToEs3);
+
+    options.setTranspilationThreads(4);
+    List<PassFactory> parallelized = new DefaultPassConfig(options).getChecks();
+    assertThat(parallelized).doesNotContain(TranspilationPasses.convertEs6ToEs3);
+    assertThat(parallelized).contains(TranspilationPasses.rewritePolyfills);
+    assertEquals(checks.size() - 5, parallelized.size());
+
+    options.setDartPass(true);
+    assertThat(new DefaultPassConfig(options).getChecks())
+        .contains(TranspilationPasses.convertEs6ToEs3);
+  }
+
+  public void testInputCostsAreTrackedSerially() {
+    CompilerOptions options = createOptions();
+    options.setTranspilationThreads(4);
+    options.setTrackInputCosts(true);
+    assertThat(new DefaultPassConfig(options).getChecks())
+        .contains(TranspilationPasses.convertEs6ToEs3);
+
+    Compiler compiler = new Compiler();
+    compiler.compile(EXTERNS, SOURCES, options);
+    for (SourceFile source : SOURCES) {
+      assertThat(compiler.getInputCostTracker().getCosts(source.getName()))
+          .containsKey("convertEs6");
+    }
+  }
+
+  public void testCompile() {
+    List<String> outputs = new ArrayList<>();
+    for (int threads : new int[] {1, 4}) {
+      CompilerOptions options = createOptions();
+      options.setTranspilationThreads(threads);
+      Compiler compiler = new Compiler();
+      compiler.compile(EXTERNS, SOURCES, options);
+      outputs.add(compiler.toSource() + Arrays.toString(compiler.getWarnings()));
+    }
+    assertEquals(outputs.get(0), outputs.get(1));
+  }
+}
@@ -17,6 +17,9 @@
 package com.google.javascript.jscomp;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.google.javascript.jscomp.CompilerOptions.TracerMode;
 import com.google.javascript.jscomp.PerformanceTracker.Stats;
 import com.google.javascript.rhino.Node;
@@ -26,6 +29,7 @@ import junit.framework.TestCase;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.io.StringWriter;
 import java.util.regex.Pattern;
 
 /**
@@ -100,6 +104,90 @@ public final class PerformanceTrackerTest extends TestCase {
     assertEquals(st.changes, 0);
   }
 
+  public void testAllocationAccounting() {
+    PerformanceTracker tracker = new PerformanceTracker(
+        emptyScript, TracerMode.TIMING_ONLY, new PrintStream(new ByteArrayOutputStream()));
+    boolean measured = JvmMetrics.getCurrentThreadAllocatedBytes() >= 0;
+
+    tracker.recordPassStart("allocating", true);
+    int[][] garbage = new int[64][];
+    for (int i = 0; i < garbage.length; i++) {
+      garbage[i] = new int[1024];
+    }
+    tracker.recordPassStop("allocating", 5);
+    tracker.recordPassStart("allocating", true);
+    tracker.recordPassStop("allocating", 5);
+
+    Stats stats = tracker.getStats().get("allocating");
+    assertEquals(2, stats.runs);
+    if (measured) {
+      assertTrue(stats.allocatedBytes >= garbage.length * 1024 * 4);
+    } else {
+      assertEquals(0, stats.allocatedBytes);
+    }
+    assertTrue(stats.cpuTimeNanos >= 0);
+    assertTrue(stats.gcTime >= 0);
+  }
+
+  public void testCpuTimeOfShortRunsAddsUp() {
+    PerformanceTracker tracker = new PerformanceTracker(
+        emptyScript, TracerMode.TIMING_ONLY, new PrintStream(new ByteArrayOutputStream()));
+    boolean measured = JvmMetrics.getCurrentThreadCpuTime() >= 0;
+
+    // Each run takes well under a millisecond.
+    long sum = 0;
+    for (int i = 0; i < 100; i++) {
+      tracker.recordPassStart("short", false);
+      for (int j = 0; j < 1000; j++) {
+        sum += j * i;
+      }
+      tracker.recordPassStop("short", 0);
+    }
+    assertTrue(sum > 0);
+
+    Stats stats = tracker.getStats().get("short");
+    assertEquals(100, stats.runs);
+    if (measured) {
+      assertTrue(stats.cpuTimeNanos > 0);
+    } else {
+      assertEquals(0, stats.cpuTimeNanos);
+    }
+  }
+
+  public void testTraceEventsOutput() throws Exception {
+    PerformanceTracker tracker = new PerformanceTracker(
+        emptyScript, TracerMode.TIMING_ONLY, new PrintStream(new ByteArrayOutputStream()));
+    CodeChangeHandler handler = tracker.getCodeChangeHandler();
+    tracker.recordPassStart("noloopA", true);
+    handler.reportChange();
+    tracker.recordPassStop("noloopA", 5);
+    tracker.recordPassStart("loopA", false);
+    tracker.recordPassStop("loopA", 5);
+
+    StringWriter output = new StringWriter();
+    tracker.outputTraceEvents(output);
+    JsonArray events = new JsonParser().parse(output.toString())
+        .getAsJsonObject().get("traceEvents").getAsJsonArray();
+    // A complete event and three counters for each run.
+    assertEquals(8, events.size());
+
+    JsonObject first = events.get(0).getAsJsonObject();
+    assertEquals("noloopA", first.get("name").getAsString());
+    assertEquals("X", first.get("ph").getAsString());
+    assertEquals("pass", first.get("cat").getAsString());
+    assertTrue(first.get("args").getAsJsonObject().get("changed").getAsBoolean());
+    JsonObject changingRuns = events.get(1).getAsJsonObject();
+    assertEquals("changingRuns", changingRuns.get("name").getAsString());
+    assertEquals("C", changingRuns.get("ph").getAsString());
+    assertEquals(1, changingRuns.get("args").getAsJsonObject().get("value").getAsInt());
+
+    JsonObject second = events.get(4).getAsJsonObject();
+    assertEquals("loopA", second.get("name").getAsString());
+    assertEquals("loopablePass", second.get("cat").getAsString());
+    assertFalse(second.get("args").getAsJsonObject().get("changed").getAsBoolean());
+    assertTrue(second.get("ts").getAsLong() >= first.get("ts").getAsLong());
+  }
+
   public void testOutputFormat() {
     ByteArrayOutputStream output = new ByteArrayOutputStream();
     PrintStream outstream = new PrintStream(output);
@@ -108,9 +196,13 @@ public final class PerformanceTrackerTest extends TestCase {
     tracker.outputTracerReport();
     outstream.close();
     Pattern p = Pattern.compile(
-        ".*Summary:\npass,runtime,runs,changingRuns,reduction,gzReduction"
+        ".*Summary:\npass,runtime,runs,changingRuns,reduction,gzReduction,"
+        + "allocatedMB,cpuTime,gcTime"
         + ".*TOTAL:"
         + "\nRuntime\\(ms\\): [0-9]+"
+        + "\nAllocated\\(MB\\): [0-9]+"
+        + "\nCPU time\\(ms\\): [0-9]+"
+        + "\nGC time\\(ms\\): [0-9]+"
         + "\nMem usage after each pass\\(MB\\): [0-9]+\\.[0-9]+ \\+/- [0-9]+\\.[0-9]+"
         + "\n#Runs: [0-9]+"
         + "\n#Changing runs: [0-9]+"
@@ -121,7 +213,8 @@ public final class PerformanceTrackerTest extends TestCase {
         + "\nEstimated Size\\(bytes\\): -?[0-9]+"
         + "\nEstimated GzSize\\(bytes\\): -?[0-9]+"
         + "\n\nLog:\n"
-        + "pass,runtime,runs,changingRuns,reduction,gzReduction,size,gzSize.*",
+        + "pass,runtime,runs,changingRuns,reduction,gzReduction,size,gzSize,"
+        + "allocatedMB,cpuTime,gcTime.*",
         Pattern.DOTALL);
     String outputString = output.toString();
     assertTrue("Unexpected output from PerformanceTracker:\n" + outputString,
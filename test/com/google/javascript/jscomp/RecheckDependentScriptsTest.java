@@ -0,0 +1,117 @@
+/*
+ * Copyright 2016 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Tests for rechecking the scripts that depend on a replaced script, with
+ * {@link CompilerOptions#setRecheckDependentScripts}.
+ */
+public final class RecheckDependentScriptsTest extends BaseReplaceScriptTestCase {
+
+  private static final String NUMBER_PARAM =
+      "/** @param {number} x */ function f(x) {}";
+  private static final String STRING_PARAM =
+      "/** @param {string} x */ function f(x) {}";
+
+  private CompilerOptions getRecheckOptions() {
+    CompilerOptions options = getOptions(DiagnosticGroups.CHECK_TYPES);
+    options.setRecheckDependentScripts(true);
+    return options;
+  }
+
+  public void testChangedDeclarationRechecksDependents() {
+    Compiler compiler = runReplaceScript(getRecheckOptions(),
+        ImmutableList.of(NUMBER_PARAM, "f(1);", "var unrelated = 1;"),
+        0, 0, STRING_PARAM, 0, true);
+
+    assertThat(compiler.getRecheckedDependents()).containsExactly("in1");
+    Result result = compiler.getResult();
+    assertNumWarningsAndErrors(result, 1, 0);
+    assertErrorType(result.errors[0], TypeValidator.TYPE_MISMATCH_WARNING, 1);
+    assertEquals("in1", result.errors[0].sourceName);
+  }
+
+  public void testFixedDeclarationClearsDependentErrors() {
+    Compiler compiler = runReplaceScript(getRecheckOptions(),
+        ImmutableList.of(STRING_PARAM, "f(1);"), 1, 0, NUMBER_PARAM, 0, true);
+
+    assertThat(compiler.getRecheckedDependents()).containsExactly("in1");
+    assertNoWarningsOrErrors(compiler.getResult());
+  }
+
+  public void testUnchangedDeclarationsRecheckNothing() {
+    Compiler compiler = runReplaceScript(getRecheckOptions(),
+        ImmutableList.of(NUMBER_PARAM, "f(1);"),
+        0, 0, "/** @param {number} x */ function f(x) { var y = x; }", 0, true);
+
+    assertThat(compiler.getRecheckedDependents()).isEmpty();
+    assertNoWarningsOrErrors(compiler.getResult());
+  }
+
+  public void testAddedDeclarationRechecksDependents() {
+    String namespace = "/** @const */ var ns = {};";
+    Compiler compiler = runReplaceScript(getRecheckOptions(),
+        ImmutableList.of(namespace, "ns.f(1);", "var unrelated = 1;"),
+        1, 0, namespace + "\n/** @param {string} x */ ns.f = function(x) {};",
+        0, true);
+
+    assertThat(compiler.getRecheckedDependents()).containsExactly("in1");
+    Result result = compiler.getResult();
+    assertNumWarningsAndErrors(result, 1, 0);
+    assertErrorType(result.errors[0], TypeValidator.TYPE_MISMATCH_WARNING, 1);
+    assertEquals("in1", result.errors[0].sourceName);
+  }
+
+  public void testRechecksTransitiveDependents() {
+    Compiler compiler = runReplaceScript(getRecheckOptions(),
+        ImmutableList.of(NUMBER_PARAM, "/** @const */ var g = f;", "g(1);"),
+        0, 0, STRING_PARAM, 0, true);
+
+    assertThat(compiler.getRecheckedDependents()).containsExactly("in1", "in2");
+    Result result = compiler.getResult();
+    assertNumWarningsAndErrors(result, 1, 0);
+    assertEquals("in2", result.errors[0].sourceName);
+  }
+
+  public void testRecheckedTypesStayUsable() {
+    Compiler compiler = runReplaceScript(getRecheckOptions(),
+        ImmutableList.of(
+            "/** @constructor */ function Foo() {}",
+            "/** @param {!Foo} foo */ function useFoo(foo) {}",
+            "useFoo(new Foo());"),
+        0, 0, "/** @constructor */ function Foo() { this.x = 1; }", 0, true);
+    assertNoWarningsOrErrors(compiler.getResult());
+
+    flushResults(compiler);
+    doReplaceScript(compiler, "useFoo(new Foo()); useFoo(1);", 2);
+    Result result = compiler.getResult();
+    assertNumWarningsAndErrors(result, 1, 0);
+    assertErrorType(result.errors[0], TypeValidator.TYPE_MISMATCH_WARNING, 1);
+  }
+
+  public void testWithoutOptionRechecksNothing() {
+    Compiler compiler = runReplaceScript(getOptions(DiagnosticGroups.CHECK_TYPES),
+        ImmutableList.of(NUMBER_PARAM, "f(1);"), 0, 0, STRING_PARAM, 0, true);
+
+    assertThat(compiler.getRecheckedDependents()).isEmpty();
+    assertNoWarningsOrErrors(compiler.getResult());
+  }
+}
@@ -16,10 +16,18 @@
 package com.google.javascript.jscomp.deps;
 
 import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.io.Files;
 
 import junit.framework.TestCase;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 
 /**
  * Tests for ClosureBundler
@@ -102,4 +110,66 @@ public final class ClosureBundlerTest extends TestCase {
     assertThat(sb.toString())
         .isEqualTo("(0,eval(\"\\x22a string\\x22\\n//# sourceURL\\x3dURL\\n\"));");
   }
+
+  public void testChannelMatchesAppendable() throws IOException {
+    File file = createTempFile("var \u00e9 = \"a string\";");
+    for (DependencyInfo info : new DependencyInfo[] {MODULE, TRADITIONAL}) {
+      for (boolean useEval : new boolean[] {false, true}) {
+        ClosureBundler bundler = new ClosureBundler().useEval(useEval).withSourceUrl("URL");
+        StringBuilder sb = new StringBuilder();
+        bundler.appendTo(sb, info, file, UTF_8);
+        assertThat(appendToChannel(bundler, info, file)).isEqualTo(sb.toString());
+      }
+    }
+  }
+
+  public void testChannelCopiesFileToFile() throws IOException {
+    File file = createTempFile("\"a string\"");
+    File bundle = File.createTempFile("bundle", ".js");
+    bundle.deleteOnExit();
+    try (FileChannel out = new FileOutputStream(bundle).getChannel()) {
+      ClosureBundler bundler = new ClosureBundler();
+      bundler.appendTo(out, MODULE, file, UTF_8);
+      bundler.appendTo(out, TRADITIONAL, file, UTF_8);
+    }
+    assertThat(Files.toString(bundle, UTF_8))
+        .isEqualTo("goog.loadModule(function(exports) {'use strict';"
+            + "\"a string\"\n"
+            + ";return exports;});\n"
+            + "\"a string\"");
+  }
+
+  public void testChunkCache() throws IOException {
+    File file = createTempFile("\"a string\"");
+    ClosureBundler.ChunkCache cache = new ClosureBundler.ChunkCache(1 << 20);
+    ClosureBundler bundler = new ClosureBundler().useEval(true).withChunkCache(cache);
+
+    assertThat(appendToChannel(bundler, TRADITIONAL, file))
+        .isEqualTo("(0,eval(\"\\x22a string\\x22\"));");
+    assertEquals(1, cache.size());
+    // A bundler with the same settings shares the cached chunk.
+    assertThat(appendToChannel(new ClosureBundler().useEval(true).withChunkCache(cache),
+        TRADITIONAL, file)).isEqualTo("(0,eval(\"\\x22a string\\x22\"));");
+    assertEquals(1, cache.size());
+
+    Files.write("\"another string\"", file, UTF_8);
+    file.setLastModified(file.lastModified() + 2000);
+    assertThat(appendToChannel(bundler, TRADITIONAL, file))
+        .isEqualTo("(0,eval(\"\\x22another string\\x22\"));");
+    assertEquals(2, cache.size());
+  }
+
+  private static File createTempFile(String contents) throws IOException {
+    File file = File.createTempFile("input", ".js");
+    file.deleteOnExit();
+    Files.write(contents, file, UTF_8);
+    return file;
+  }
+
+  private static String appendToChannel(
+      ClosureBundler bundler, DependencyInfo info, File file) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    bundler.appendTo(Channels.newChannel(out), info, file, UTF_8);
+    return new String(out.toByteArray(), UTF_8);
+  }
 }
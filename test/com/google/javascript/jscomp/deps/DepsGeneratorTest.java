@@ -0,0 +1,174 @@
+/*
+ * Copyright 2016 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp.deps;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+import com.google.javascript.jscomp.ErrorManager;
+import com.google.javascript.jscomp.PrintStreamErrorManager;
+import com.google.javascript.jscomp.SourceFile;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for {@link DepsGenerator}.
+ */
+public final class DepsGeneratorTest extends TestCase {
+
+  private ErrorManager errorManager;
+  private File cacheFile;
+
+  @Override
+  public void setUp() throws Exception {
+    errorManager = new PrintStreamErrorManager(System.err);
+    cacheFile = File.createTempFile("deps-cache", ".json");
+    cacheFile.delete();
+  }
+
+  @Override
+  public void tearDown() {
+    cacheFile.delete();
+  }
+
+  private DepsGenerator newGenerator(List<SourceFile> srcs) {
+    return new DepsGenerator(
+        ImmutableList.<SourceFile>of(), srcs,
+        DepsGenerator.InclusionStrategy.ALWAYS, "/base/", errorManager);
+  }
+
+  private static List<SourceFile> chainOfSources(int count) {
+    List<SourceFile> srcs = new ArrayList<>();
+    srcs.add(SourceFile.fromCode("/base/a/f0.js", "goog.provide('f0');"));
+    for (int i = 1; i < count; i++) {
+      srcs.add(SourceFile.fromCode("/base/a/f" + i + ".js",
+          i % 10 == 0
+          ? "goog.module('f" + i + "'); var f = goog.require('f" + (i - 1) + "');"
+          : "goog.provide('f" + i + "'); goog.require('f" + (i - 1) + "');"));
+    }
+    return srcs;
+  }
+
+  public void testParallelScanMatchesSerialScan() throws Exception {
+    DepsGenerator serial = newGenerator(chainOfSources(300));
+    serial.setNumThreads(1);
+    String expected = serial.computeDependencyCalls();
+
+    DepsGenerator parallel = newGenerator(chainOfSources(300));
+    parallel.setNumThreads(4);
+    String actual = parallel.computeDependencyCalls();
+
+    assertThat(expected).contains("goog.addDependency('a/f10.js', ['f10'], ['f9'], "
+        + "{'module': 'goog'});");
+    assertEquals(expected, actual);
+    assertEquals(0, errorManager.getErrorCount());
+  }
+
+  public void testCachedSourcesAreNotScannedAgain() throws Exception {
+    DepsGenerator generator = newGenerator(chainOfSources(3));
+    generator.setCacheFile(cacheFile);
+    String expected = generator.computeDependencyCalls();
+    assertTrue(cacheFile.exists());
+
+    // Change what the cache says about f1.js, to tell whether it's used.
+    String cache = Files.toString(cacheFile, UTF_8);
+    Files.write(cache.replace("\"provides\":[\"f1\"]", "\"provides\":[\"f1\",\"cached\"]"),
+        cacheFile, UTF_8);
+
+    generator = newGenerator(chainOfSources(3));
+    generator.setCacheFile(cacheFile);
+    String actual = generator.computeDependencyCalls();
+    assertEquals(
+        expected.replace("['f1'], ['f0']", "['f1', 'cached'], ['f0']"), actual);
+  }
+
+  public void testChangedSourcesAreScannedAgain() throws Exception {
+    DepsGenerator generator = newGenerator(chainOfSources(3));
+    generator.setCacheFile(cacheFile);
+    generator.computeDependencyCalls();
+
+    List<SourceFile> srcs = chainOfSources(3);
+    srcs.set(1, SourceFile.fromCode("/base/a/f1.js",
+        "goog.provide('f1'); goog.provide('f1.changed'); goog.require('f0');"));
+    generator = newGenerator(srcs);
+    generator.setCacheFile(cacheFile);
+    assertThat(generator.computeDependencyCalls())
+        .contains("goog.addDependency('a/f1.js', ['f1', 'f1.changed'], ['f0']);");
+  }
+
+  public void testSourcesWithErrorsAreNotCached() throws Exception {
+    List<SourceFile> srcs = ImmutableList.of(
+        SourceFile.fromCode("/base/a/bad.js", "goog.provide(notAString);"));
+    DepsGenerator generator = newGenerator(srcs);
+    generator.setCacheFile(cacheFile);
+    assertNull(generator.computeDependencyCalls());
+    assertEquals(1, errorManager.getErrorCount());
+
+    errorManager = new PrintStreamErrorManager(System.err);
+    generator = newGenerator(srcs);
+    generator.setCacheFile(cacheFile);
+    assertNull(generator.computeDependencyCalls());
+    assertEquals(1, errorManager.getErrorCount());
+  }
+
+  public void testSourcesThatDoNotParseAreNotCached() throws Exception {
+    // The line scanner finds the provide, but the full parse fails.
+    List<SourceFile> srcs = ImmutableList.of(
+        SourceFile.fromCode("/base/a/ok.js", "goog.provide('ok');"),
+        SourceFile.fromCode("/base/a/bad.js", "goog.provide('bad'); var x = ;"));
+    DepsGenerator generator = newGenerator(srcs);
+    generator.setCacheFile(cacheFile);
+    assertThat(generator.computeDependencyCalls())
+        .contains("goog.addDependency('a/bad.js', ['bad'], []);");
+
+    String cache = Files.toString(cacheFile, UTF_8);
+    assertThat(cache).contains("/base/a/ok.js");
+    assertThat(cache).doesNotContain("/base/a/bad.js");
+  }
+
+  public void testMalformedCacheEntriesAreScannedAgain() throws Exception {
+    DepsGenerator generator = newGenerator(chainOfSources(3));
+    generator.setCacheFile(cacheFile);
+    String expected = generator.computeDependencyCalls();
+
+    // Break the entry of f1.js, and mark the one of f2.js to tell whether it's used.
+    String cache = Files.toString(cacheFile, UTF_8);
+    Files.write(cache.replace("\"provides\":[\"f1\"]", "\"provides\":7")
+            .replace("\"provides\":[\"f2\"]", "\"provides\":[\"f2\",\"cached\"]"),
+        cacheFile, UTF_8);
+
+    generator = newGenerator(chainOfSources(3));
+    generator.setCacheFile(cacheFile);
+    assertEquals(
+        expected.replace("['f2'], ['f1']", "['f2', 'cached'], ['f1']"),
+        generator.computeDependencyCalls());
+  }
+
+  public void testUnreadableCacheIsIgnored() throws Exception {
+    Files.write("{not json", cacheFile, UTF_8);
+    DepsGenerator generator = newGenerator(chainOfSources(3));
+    generator.setCacheFile(cacheFile);
+    assertThat(generator.computeDependencyCalls())
+        .contains("goog.addDependency('a/f2.js', ['f2'], ['f1']);");
+  }
+}
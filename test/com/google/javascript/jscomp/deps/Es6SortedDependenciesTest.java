@@ -29,7 +29,7 @@ import java.util.List;
  * @author nicksantos@google.com (Nick Santos)
  */
 public class Es6SortedDependenciesTest extends TestCase {
-  private SortedDependencies<SimpleDependencyInfo> createSortedDependencies(
+  SortedDependencies<SimpleDependencyInfo> createSortedDependencies(
       List<SimpleDependencyInfo> shuffled) {
     return new Es6SortedDependencies<>(shuffled);
   }
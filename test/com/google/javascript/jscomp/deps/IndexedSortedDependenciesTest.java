@@ -0,0 +1,98 @@
+/*
+ * Copyright 2016 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp.deps;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests for {@link IndexedSortedDependencies}, which must order inputs
+ * exactly like {@link Es6SortedDependencies}.
+ */
+public final class IndexedSortedDependenciesTest extends Es6SortedDependenciesTest {
+
+  @Override
+  SortedDependencies<SimpleDependencyInfo> createSortedDependencies(
+      List<SimpleDependencyInfo> shuffled) {
+    return new IndexedSortedDependencies<>(shuffled);
+  }
+
+  private static SimpleDependencyInfo input(String name, List<String> requires) {
+    return new SimpleDependencyInfo(
+        name, name, ImmutableList.of(name), requires, false);
+  }
+
+  public void testLongChainDoesNotOverflowTheStack() {
+    List<SimpleDependencyInfo> chain = new ArrayList<>();
+    chain.add(input("n0", ImmutableList.<String>of()));
+    for (int i = 1; i < 200000; i++) {
+      chain.add(input("n" + i, ImmutableList.of("n" + (i - 1))));
+    }
+
+    SortedDependencies<SimpleDependencyInfo> sorted =
+        createSortedDependencies(Lists.reverse(chain));
+
+    assertThat(sorted.getSortedList()).isEqualTo(chain);
+    assertThat(sorted.getSortedDependenciesOf(ImmutableList.of(chain.get(2))))
+        .isEqualTo(chain.subList(0, 3));
+  }
+
+  public void testMatchesEs6SortedDependencies() {
+    Random random = new Random(42);
+    List<SimpleDependencyInfo> inputs = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      List<String> requires = new ArrayList<>();
+      for (int j = random.nextInt(4); j > 0; j--) {
+        // Some of these are cycles, and some are never provided.
+        requires.add("n" + random.nextInt(2100));
+      }
+      inputs.add(input("n" + i, requires));
+    }
+    Collections.shuffle(inputs, random);
+    List<SimpleDependencyInfo> roots = inputs.subList(0, 20);
+
+    SortedDependencies<SimpleDependencyInfo> expected = new Es6SortedDependencies<>(inputs);
+    SortedDependencies<SimpleDependencyInfo> actual = createSortedDependencies(inputs);
+
+    assertThat(actual.getSortedList()).isEqualTo(expected.getSortedList());
+    assertThat(actual.getDependenciesOf(roots, true))
+        .isEqualTo(expected.getDependenciesOf(roots, true));
+    assertThat(actual.getDependenciesOf(roots, false))
+        .isEqualTo(expected.getDependenciesOf(roots, false));
+  }
+
+  public void testDuplicateInputs() {
+    SimpleDependencyInfo a = input("a", ImmutableList.of("b"));
+    SimpleDependencyInfo b = input("b", ImmutableList.<String>of());
+    SimpleDependencyInfo c = input("c", ImmutableList.<String>of());
+    List<SimpleDependencyInfo> inputs = ImmutableList.of(a, c, b, a);
+
+    SortedDependencies<SimpleDependencyInfo> expected = new Es6SortedDependencies<>(inputs);
+    SortedDependencies<SimpleDependencyInfo> actual = createSortedDependencies(inputs);
+
+    assertThat(actual.getSortedList()).isEqualTo(expected.getSortedList());
+    assertThat(actual.getDependenciesOf(ImmutableList.of(a), false))
+        .isEqualTo(expected.getDependenciesOf(ImmutableList.of(a), false));
+  }
+}
@@ -236,6 +236,24 @@ public final class JsFileParserTest extends TestCase {
     assertDeps(expected, result);
   }
 
+  public void testMayBeEs6Module() {
+    assertTrue(JsFileParser.mayBeEs6Module("import {a} from './a';"));
+    assertTrue(JsFileParser.mayBeEs6Module("import * as a from './a';"));
+    assertTrue(JsFileParser.mayBeEs6Module("import './a';"));
+    assertTrue(JsFileParser.mayBeEs6Module("var a = 1;\n  export default a;"));
+    assertTrue(JsFileParser.mayBeEs6Module("var a = 1;export{a}"));
+    assertTrue(JsFileParser.mayBeEs6Module("function f() {}export function g() {}"));
+    assertTrue(JsFileParser.mayBeEs6Module("/** @const */export var a = 1;"));
+    assertTrue(JsFileParser.mayBeEs6Module("﻿export var a = 1;"));
+    // A false positive, which only costs a parse.
+    assertTrue(JsFileParser.mayBeEs6Module("// import the rest later\nvar a;"));
+
+    assertFalse(JsFileParser.mayBeEs6Module("goog.provide('a');"));
+    assertFalse(JsFileParser.mayBeEs6Module("module.exports = {};"));
+    assertFalse(JsFileParser.mayBeEs6Module("var important = 1, exporter = 2;"));
+    assertFalse(JsFileParser.mayBeEs6Module("a.import(1); b.export = 2;"));
+  }
+
   /** Asserts the deps match without errors */
   private void assertDeps(DependencyInfo expected, DependencyInfo actual) {
     assertThat(actual).isEqualTo(expected);
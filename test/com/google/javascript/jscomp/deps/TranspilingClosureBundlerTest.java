@@ -0,0 +1,168 @@
+/*
+ * Copyright 2016 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp.deps;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.io.Files;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Tests for {@link TranspilingClosureBundler} and its {@link TranspilationCache}.
+ */
+public final class TranspilingClosureBundlerTest extends TestCase {
+
+  private static final DependencyInfo TRADITIONAL = new SimpleDependencyInfo(
+      null, null, null, null, false);
+
+  private static final String ES6 = "let x = () => 1;";
+
+  private File directory;
+
+  @Override
+  public void setUp() {
+    directory = Files.createTempDir();
+  }
+
+  @Override
+  public void tearDown() {
+    for (File file : directory.listFiles()) {
+      file.delete();
+    }
+    directory.delete();
+  }
+
+  private static String bundle(TranspilingClosureBundler bundler, String js)
+      throws IOException {
+    StringBuilder sb = new StringBuilder();
+    bundler.withPath("a.js").appendTo(sb, TRADITIONAL, js);
+    return sb.toString();
+  }
+
+  public void testTranspiles() throws IOException {
+    TranspilingClosureBundler bundler = new TranspilingClosureBundler("var runtime;");
+    String bundled = bundle(bundler, ES6);
+    assertThat(bundled).startsWith("var runtime;");
+    assertThat(bundled).contains("var x = function() {");
+    assertThat(bundler.getSourceMap(ES6, "a.js")).contains("\"sources\":[\"a.js\"]");
+  }
+
+  public void testCachesInMemory() throws IOException {
+    TranspilationCache cache = new TranspilationCache(10);
+    TranspilingClosureBundler bundler = new TranspilingClosureBundler("", cache);
+    String first = bundle(bundler, ES6);
+    assertEquals(first, bundle(bundler, ES6));
+    // The first source map needs another transpilation, and is cached from then on.
+    String sourceMap = bundler.getSourceMap(ES6, "a.js");
+    assertEquals(sourceMap, bundler.getSourceMap(ES6, "a.js"));
+    assertEquals(first, bundle(bundler, ES6));
+
+    // The runtime goes through the cache as well.
+    assertEquals(3, cache.getMemoryHitCount());
+    assertEquals(3, cache.getMissCount());
+    assertEquals(0.5, cache.getHitRate());
+    assertThat(cache.toString()).contains("hitRate=50.0%");
+  }
+
+  public void testSourceMapsAreOnlyMadeWhenAsked() throws IOException {
+    TranspilationCache cache = new TranspilationCache(10);
+    TranspilingClosureBundler bundler = new TranspilingClosureBundler("", cache);
+    bundle(bundler, ES6);
+    String key = bundler.getCacheKey(ES6, "a.js");
+    assertNull(cache.get(key, false).getSourceMap());
+
+    bundler.getSourceMap(ES6, "a.js");
+    assertThat(cache.get(key, false).getSourceMap()).contains("\"sources\":[\"a.js\"]");
+  }
+
+  public void testCachesOnDisk() throws IOException {
+    String expected =
+        bundle(new TranspilingClosureBundler("", new TranspilationCache(10, directory, 1 << 20)),
+            ES6);
+
+    // A new cache, e.g. in a new process, finds the transpilation on disk.
+    TranspilationCache cache = new TranspilationCache(10, directory, 1 << 20);
+    TranspilingClosureBundler bundler = new TranspilingClosureBundler("", cache);
+    assertEquals(expected, bundle(bundler, ES6));
+    assertEquals(expected, bundle(bundler, ES6));
+    // The runtime and ES6 each came from disk once.
+    assertEquals(2, cache.getDiskHitCount());
+    assertEquals(1, cache.getMemoryHitCount());
+    assertEquals(0, cache.getMissCount());
+  }
+
+  public void testTranspilationsOfAnotherCompilerAreMisses() throws IOException {
+    bundle(new TranspilingClosureBundler("", new TranspilationCache(10, directory, 1 << 20)), ES6);
+
+    // A compiler with another runtime must not use the transpilations on disk.
+    TranspilationCache cache = new TranspilationCache(10, directory, 1 << 20);
+    TranspilingClosureBundler bundler = new TranspilingClosureBundler("var runtime;", cache);
+    assertThat(bundle(bundler, ES6)).startsWith("var runtime;");
+    assertEquals(0, cache.getDiskHitCount());
+    assertEquals(2, cache.getMissCount());
+  }
+
+  public void testCorruptFilesAreMisses() throws IOException {
+    TranspilingClosureBundler bundler =
+        new TranspilingClosureBundler("", new TranspilationCache(10, directory, 1 << 20));
+    String expected = bundle(bundler, ES6);
+    bundler.getSourceMap(ES6, "a.js");
+
+    // Make the length of the code huge, and then negative.
+    File file = new File(directory, bundler.getCacheKey(ES6, "a.js") + ".transpiled");
+    byte[] bytes = Files.toByteArray(file);
+    for (byte length : new byte[] {0x7f, (byte) 0x80}) {
+      bytes[4] = length;
+      Files.write(bytes, file);
+      TranspilationCache cache = new TranspilationCache(10, directory, 1 << 20);
+      assertEquals(expected, bundle(new TranspilingClosureBundler("", cache), ES6));
+      assertEquals(1, cache.getDiskHitCount());  // Only the runtime.
+      assertEquals(1, cache.getMissCount());
+    }
+  }
+
+  public void testDiskTierIsBounded() throws IOException {
+    TranspilationCache cache = new TranspilationCache(0, directory, 1000);
+    TranspilingClosureBundler bundler = new TranspilingClosureBundler("", cache);
+    for (int i = 0; i < 20; i++) {
+      bundle(bundler, "let x" + i + " = () => " + i + ";");
+    }
+    long total = 0;
+    for (File file : directory.listFiles()) {
+      total += file.length();
+    }
+    assertThat(total).isAtMost(1000L);
+    assertThat(directory.listFiles()).isNotEmpty();
+  }
+
+  public void testErrorsAreNotCached() throws IOException {
+    TranspilationCache cache = new TranspilationCache(10);
+    TranspilingClosureBundler bundler = new TranspilingClosureBundler("", cache);
+    for (int i = 0; i < 2; i++) {
+      try {
+        bundle(bundler, "let let = 1;");
+        fail("Expected an IllegalStateException");
+      } catch (IllegalStateException expected) {}
+    }
+    // The runtime, and the bad code twice.
+    assertEquals(3, cache.getMissCount());
+  }
+}